@@ -1,5 +1,6 @@
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -23,9 +24,18 @@ import model.ThreeTriosModel;
 import player.HumanPlayer;
 import player.IPlayer;
 import player.MachinePlayer;
+import strategy.AlphaBetaStrategy;
 import strategy.CornerStrategy;
+import strategy.EndgameSolverStrategy;
 import strategy.FlipMaximizerStrategy;
 import strategy.LeastLikelyFlippedStrategy;
+import strategy.MctsStrategy;
+import strategy.OpeningBook;
+import strategy.ParallelAlphaBetaStrategy;
+import strategy.SearchBudget;
+import strategy.Strategy;
+import strategy.Tablebase;
+import strategy.TablebaseStrategy;
 import view.GameView;
 import controller.Controller;
 import view.IGameView;
@@ -39,21 +49,30 @@ public final class ThreeTrios {
   /**
    * Main class to run the game from.
    * Command line options:
-   * - Player types: human, flipMaximizer, corner, LeastLikelyFlipped
+   * - Player types: human, flipMaximizer, corner, LeastLikelyFlipped, alphaBeta,
+   *   parallelAlphaBeta, mcts
    * - Battle rules: +reverse, +fallenace, +same, +plus
    * - View options: --provider-view (uses provider's view for Player 2)
+   * - Move budget for machine players: --move-time=MILLIS, --move-nodes=POSITIONS
+   * - Exact endgames for machine players: --endgame-solver
+   * - Opening book for machine players: --opening-book=FILE, built with
+   *   strategy.OpeningBookBuilder
+   * - Endgame tablebase for machine players: --tablebase=FILE, built with
+   *   strategy.TablebaseBuilder
    * Examples:
    * - Normal game: java ThreeTrios human human
    * - With provider view: java ThreeTrios human human --provider-view
    * - With battle rules: java ThreeTrios human human +reverse +fallenace
    * - Combined: java ThreeTrios human human --provider-view +same
+   * - Timed search: java ThreeTrios human alphaBeta --move-time=500
    */
   public static void main(String[] args) {
 
     // Check if the correct number of command-line arguments is provided
     if (args.length < 2) {
       System.err.println("Usage: java ThreeTrios <player1> <player2>");
-      System.err.println("Player types: human, flipMaximizer, corner, LeastLikelyFlipped");
+      System.err.println("Player types: human, flipMaximizer, corner, LeastLikelyFlipped, "
+              + "alphaBeta, parallelAlphaBeta, mcts");
       System.exit(1);
     }
 
@@ -63,11 +82,31 @@ public final class ThreeTrios {
 
     // Extract battle rule strategies & Check if the provider view should be used for player 2
     boolean useProviderViewForPlayer2 = false;
+    String moveMillis = null;
+    String moveNodes = null;
+    boolean endgameSolver = false;
+    String bookPath = null;
+    String tablebasePath = null;
     List<BattleRuleStrategy> strategies = new ArrayList<>();
     for (String arg : args) {
       if (arg.equals("--use-provider-view")) {
         useProviderViewForPlayer2 = true;
       }
+      if (arg.equals("--endgame-solver")) {
+        endgameSolver = true;
+      }
+      if (arg.startsWith("--move-time=")) {
+        moveMillis = arg.substring("--move-time=".length());
+      }
+      if (arg.startsWith("--move-nodes=")) {
+        moveNodes = arg.substring("--move-nodes=".length());
+      }
+      if (arg.startsWith("--opening-book=")) {
+        bookPath = arg.substring("--opening-book=".length());
+      }
+      if (arg.startsWith("--tablebase=")) {
+        tablebasePath = arg.substring("--tablebase=".length());
+      }
       switch (arg.toLowerCase()) {
         case "+reverse":
           strategies.add(new ReverseBattleRule());
@@ -100,6 +139,10 @@ public final class ThreeTrios {
 
 
     try {
+      // Read the search budget of machine players
+      long millis = moveMillis == null ? 0 : Long.parseLong(moveMillis);
+      long nodes = moveNodes == null ? 0 : Long.parseLong(moveNodes);
+
       // Read the grid configuration
       String gridConfigPath = "src" + File.separator + "configuration"
               + File.separator + "configFiles"
@@ -117,8 +160,13 @@ public final class ThreeTrios {
 
 
       // Create players based on command-line arguments
-      IPlayer player1 = createPlayer(player1Type);
-      IPlayer player2 = createPlayer(player2Type);
+      SearchBudget budget = millis == 0 && nodes == 0
+              ? SearchBudget.unlimited() : SearchBudget.of(millis, nodes);
+      OpeningBook book = bookPath == null ? null : OpeningBook.open(Paths.get(bookPath));
+      Tablebase tablebase = tablebasePath == null ? null
+              : Tablebase.open(Paths.get(tablebasePath));
+      IPlayer player1 = createPlayer(player1Type, budget, endgameSolver, book, tablebase);
+      IPlayer player2 = createPlayer(player2Type, budget, endgameSolver, book, tablebase);
 
       // Create a new GameModel instance and start the game
       ThreeTriosModel gameModel = new GameModel(battleRuleStrategy);
@@ -168,25 +216,50 @@ public final class ThreeTrios {
 
     } catch (IOException e) {
       System.err.println("Error reading configuration files: " + e.getMessage());
+    } catch (NumberFormatException e) {
+      System.err.println("Invalid search budget, --move-time and --move-nodes take a number: "
+              + e.getMessage());
     } catch (IllegalArgumentException e) {
       System.err.println("Invalid configuration: " + e.getMessage());
     }
   }
 
-  private static IPlayer createPlayer(String playerType) {
+  private static IPlayer createPlayer(String playerType, SearchBudget budget,
+                                      boolean endgameSolver, OpeningBook book,
+                                      Tablebase tablebase) {
     List<ICard> hand = new ArrayList<>();
+    Strategy strategy;
     switch (playerType.toLowerCase()) {
       case "human":
         return new HumanPlayer("Human", hand);
       case "flipmaximizer":
-        return new MachinePlayer("Machine", hand, new FlipMaximizerStrategy());
+        strategy = new FlipMaximizerStrategy();
+        break;
       case "corner":
-        return new MachinePlayer("Machine", hand, new CornerStrategy());
+        strategy = new CornerStrategy();
+        break;
       case "leastlikelyflipped":
-        return new MachinePlayer("Machine", hand, new LeastLikelyFlippedStrategy());
+        strategy = new LeastLikelyFlippedStrategy();
+        break;
+      case "alphabeta":
+        strategy = new AlphaBetaStrategy();
+        break;
+      case "parallelalphabeta":
+        strategy = new ParallelAlphaBetaStrategy();
+        break;
+      case "mcts":
+        strategy = new MctsStrategy();
+        break;
       default:
         throw new IllegalArgumentException("Unknown player type: " + playerType);
     }
+    if (endgameSolver) {
+      strategy = new EndgameSolverStrategy(strategy);
+    }
+    if (tablebase != null) {
+      strategy = new TablebaseStrategy(strategy, tablebase);
+    }
+    return new MachinePlayer("Machine", hand, strategy, budget, book);
   }
 
 }
\ No newline at end of file
@@ -28,7 +28,7 @@ public class ModelAdapter implements ThreeTriosModelProvider {
 
   @Override
   public int getGridRows() {
-    return adaptee.getGrid().getRows();
+    return adaptee.getBoardView().getRows();
   }
 
   public void addModelStatusListener(ModelStatusListener listener) {
@@ -74,26 +74,26 @@ public class ModelAdapter implements ThreeTriosModelProvider {
 
   @Override
   public int getGridCols() {
-    return adaptee.getGrid().getColumns();
+    return adaptee.getBoardView().getColumns();
   }
 
   @Override
   public boolean isCellOccupied(int row, int col) {
-    return !adaptee.getGrid().getCell(row, col).isEmpty();
+    return !adaptee.getBoardView().isEmpty(row, col);
   }
 
   @Override
   public String getCellOwner(int row, int col) {
-    if (adaptee.getGrid().getCell(row, col) == null ||
-            adaptee.getGrid().getCell(row, col).getOwner() == null) {
+    IPlayer owner = adaptee.getBoardView().getOwner(row, col);
+    if (owner == null) {
       return "";
     }
-    return adaptee.getGrid().getCell(row, col).getOwner().toString();
+    return owner.toString();
   }
 
   @Override
   public String getCardValueAt(int row, int col) {
-    ICard card = adaptee.getGrid().getCell(row, col).getCard();
+    ICard card = adaptee.getBoardView().getCard(row, col);
     return card != null ? card.toString() : "";
   }
 
@@ -104,14 +104,7 @@ public class ModelAdapter implements ThreeTriosModelProvider {
 
   @Override
   public boolean isFull() {
-    for (int row = 0; row < adaptee.getGrid().getRows(); row++) {
-      for (int col = 0; col < adaptee.getGrid().getColumns(); col++) {
-        if (adaptee.getGrid().getCell(row, col).isEmpty()) {
-          return false;
-        }
-      }
-    }
-    return true;
+    return adaptee.getBoardView().isFull();
   }
 
   @Override
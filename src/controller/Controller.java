@@ -9,6 +9,8 @@ import model.ThreeTriosModel;
 import player.IPlayer;
 import model.ModelStatusListener;
 import strategy.Move;
+import trace.Trace;
+import trace.TraceLevel;
 import view.IGameView;
 
 /**
@@ -77,13 +79,17 @@ public class Controller implements PlayerActionListener, ModelStatusListener {
     if (clickedCard.equals(selectedCard)) {
       // Deselect card if clicked again
       selectedCard = null;
-      System.out.println("Deselected card from " + player.getName());
+      if (Trace.isEnabled(TraceLevel.INFO)) {
+        Trace.log(TraceLevel.INFO, "Controller", "Deselected card from " + player.getName());
+      }
       view.updateCardSelection(player, null);
     } else {
       // Select new card
       selectedCard = clickedCard;
-      System.out.println("Selected card " + selectedCard.getName()
-              + " from " + player.getName() + " at index: " + cardIndex);
+      if (Trace.isEnabled(TraceLevel.INFO)) {
+        Trace.log(TraceLevel.INFO, "Controller", "Selected card " + selectedCard.getName()
+                + " from " + player.getName() + " at index: " + cardIndex);
+      }
       view.updateCardSelection(player, selectedCard);
     }
   }
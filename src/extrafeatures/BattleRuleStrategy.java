@@ -10,4 +10,47 @@ public interface BattleRuleStrategy {
 
   boolean shouldFlipCard(ICard cardA, ICard cardB, Direction direction);
 
+  /**
+   * Tells whether the outcome of a battle only depends on the attack value of cardA in the
+   * direction of the battle and the value of cardB facing it. Rules that say so can be compiled
+   * into a {@link BattleTable}. Rules that look at neighboring cards must not.
+   *
+   * @return true if the rule only compares the two facing values, false otherwise
+   */
+  default boolean dependsOnlyOnValues() {
+    return false;
+  }
+
+  /**
+   * Decides a battle from packed attack values instead of card objects. Every card is given as
+   * its four attack values packed into one int the way {@link model.PackedValues#pack} does, and
+   * the cards around the attacker are passed in directly, so the rule does not need the attacker
+   * to know its own position on a grid. This is what lets rules that look at neighbors work on
+   * simulated boards.
+   * The default implementation wraps the values in temporary cards and asks
+   * {@link #shouldFlipCard}. Rules that override it should also override
+   * {@link #supportsPackedBattles()}.
+   *
+   * @param attacker  the packed attack values of the attacking card
+   * @param defender  the packed attack values of the defending card
+   * @param direction the ordinal of the direction the attacker attacks in
+   * @param neighbors the packed attack values of the card next to the attacker in each
+   *                  direction, indexed by direction ordinal, or -1 where there is no card
+   * @return true if the defending card should be flipped, false otherwise
+   */
+  default boolean shouldFlip(int attacker, int defender, int direction, int[] neighbors) {
+    Direction[] directions = Direction.values();
+    return shouldFlipCard(new PackedCard(attacker, neighbors), new PackedCard(defender, null),
+            directions[direction]);
+  }
+
+  /**
+   * Tells whether {@link #shouldFlip(int, int, int, int[])} is implemented by the rule itself.
+   * The engine only uses that method for rules that say so, since the default version allocates.
+   *
+   * @return true if the rule decides packed battles without creating objects, false otherwise
+   */
+  default boolean supportsPackedBattles() {
+    return false;
+  }
 }
@@ -0,0 +1,111 @@
+package extrafeatures;
+
+import model.Direction;
+import model.ICard;
+
+/**
+ * A battle rule compiled into a lookup table. Rules that only compare the attack value of the
+ * attacking card with the facing value of the defending card can be decided for every pair of
+ * values up front, so the engine can look a battle up instead of calling into the rule. The table
+ * keeps one bitmask per attack value, where bit d is set if that attack value flips a defending
+ * value of d.
+ */
+public final class BattleTable {
+
+  /**
+   * The highest attack value a card can have.
+   */
+  public static final int MAX_VALUE = 10;
+
+  private final short[] flips;
+
+  private BattleTable(short[] flips) {
+    this.flips = flips;
+  }
+
+  /**
+   * Compiles a battle rule into a table by asking the rule about every pair of attack values once.
+   * A combined rule whose rules are all value-only compiles into a single fused table.
+   *
+   * @param rule the battle rule to compile
+   * @return the compiled table, or null if the rule looks at more than the two values
+   * @throws IllegalArgumentException if the rule is null
+   */
+  public static BattleTable compile(BattleRuleStrategy rule) {
+    if (rule == null) {
+      throw new IllegalArgumentException("Battle rule cannot be null.");
+    }
+    if (!rule.dependsOnlyOnValues()) {
+      return null;
+    }
+    ProbeCard attacker = new ProbeCard();
+    ProbeCard defender = new ProbeCard();
+    short[] flips = new short[MAX_VALUE + 1];
+    for (int attack = 0; attack <= MAX_VALUE; attack++) {
+      attacker.set(Direction.NORTH, attack);
+      for (int defense = 0; defense <= MAX_VALUE; defense++) {
+        defender.set(Direction.SOUTH, defense);
+        if (rule.shouldFlipCard(attacker, defender, Direction.NORTH)) {
+          flips[attack] |= (short) (1 << defense);
+        }
+      }
+    }
+    return new BattleTable(flips);
+  }
+
+  /**
+   * Decides a battle by looking it up.
+   *
+   * @param attackValue  the value of the attacking card facing the defender
+   * @param defenseValue the value of the defending card facing the attacker
+   * @return true if the defending card gets flipped, false otherwise
+   */
+  public boolean shouldFlip(int attackValue, int defenseValue) {
+    return ((flips[attackValue] >>> defenseValue) & 1) != 0;
+  }
+
+  /**
+   * Returns the defending values an attack value flips, as a bitmask with bit d set if a
+   * defending value of d is flipped.
+   *
+   * @param attackValue the value of the attacking card
+   * @return the bitmask of defending values that get flipped
+   */
+  public int flipMask(int attackValue) {
+    return flips[attackValue];
+  }
+
+  /**
+   * Card that only exists to feed chosen values into a rule while compiling. It is never placed
+   * on a board, so it has no neighbors.
+   */
+  private static final class ProbeCard implements ICard {
+
+    private final int[] values = new int[Direction.values().length];
+
+    void set(Direction direction, int value) {
+      values[direction.ordinal()] = value;
+    }
+
+    @Override
+    public String getName() {
+      return "Probe";
+    }
+
+    @Override
+    public String getAttackValue(Direction direction) {
+      int value = getCardValue(direction);
+      return value == 10 ? "A" : String.valueOf(value);
+    }
+
+    @Override
+    public int getCardValue(Direction direction) {
+      return values[direction.ordinal()];
+    }
+
+    @Override
+    public ICard getAdjacentCard(Direction dir) {
+      return null;
+    }
+  }
+}
@@ -1,9 +1,13 @@
 package extrafeatures;
 
+import java.util.Collections;
 import java.util.List;
 
 import model.Direction;
 import model.ICard;
+import model.PackedValues;
+import trace.Trace;
+import trace.TraceLevel;
 
 /**
  * Represents a combined strategy for determining the winner of a battle.
@@ -25,6 +29,15 @@ public class CombinedBattleRule implements BattleRuleStrategy {
     this.strategies = strategies;
   }
 
+  /**
+   * Returns the rules this rule combines, in the order they are checked.
+   *
+   * @return an unmodifiable view of the combined rules
+   */
+  public List<BattleRuleStrategy> getStrategies() {
+    return Collections.unmodifiableList(strategies);
+  }
+
   private boolean containsInvalidCombination(List<BattleRuleStrategy> strategies) {
     boolean hasSame = false;
     boolean hasPlus = false;
@@ -43,19 +56,73 @@ public class CombinedBattleRule implements BattleRuleStrategy {
 
   @Override
   public boolean shouldFlipCard(ICard cardA, ICard cardB, Direction direction) {
+    int cardAValue = cardA.getCardValue(direction);
+    int cardBValue = cardB.getCardValue(direction.getOpposite());
     for (BattleRuleStrategy strategy : strategies) {
-      int cardAValue = cardA.getCardValue(direction);
-      int cardBValue = cardB.getCardValue(direction.getOpposite());
-      if ((cardAValue == 1 && cardBValue == 10)) {
-        System.out.println("AceLosesToTen: " + cardAValue + " vs " + cardBValue);
-        return false;
-      } else if (cardAValue == 10 && cardBValue == 1) {
-        System.out.println("TenLosesToAce: " + cardAValue + " vs " + cardBValue);
-        return true;
+      Boolean aceBattle = aceBattle(cardAValue, cardBValue);
+      if (aceBattle != null) {
+        return aceBattle;
       } else if (cardAValue > cardBValue && strategy.shouldFlipCard(cardA, cardB, direction)) {
         return false;
       }
     }
     return true;
   }
+
+  @Override
+  public boolean dependsOnlyOnValues() {
+    for (BattleRuleStrategy strategy : strategies) {
+      if (!strategy.dependsOnlyOnValues()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean shouldFlip(int attacker, int defender, int direction, int[] neighbors) {
+    int cardAValue = PackedValues.valueOf(attacker, direction);
+    int cardBValue = PackedValues.valueOf(defender, Direction.opposite(direction));
+    // Indexed so that no iterator is created per battle
+    for (int i = 0; i < strategies.size(); i++) {
+      BattleRuleStrategy strategy = strategies.get(i);
+      Boolean aceBattle = aceBattle(cardAValue, cardBValue);
+      if (aceBattle != null) {
+        return aceBattle;
+      } else if (cardAValue > cardBValue
+              && strategy.shouldFlip(attacker, defender, direction, neighbors)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean supportsPackedBattles() {
+    for (BattleRuleStrategy strategy : strategies) {
+      if (!strategy.supportsPackedBattles()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // Decides the battles between an ace and a ten, tracing them the same way for cards and packed
+  // values, or returns null when the battle is left to the combined rules
+  private static Boolean aceBattle(int cardAValue, int cardBValue) {
+    if (cardAValue == 1 && cardBValue == 10) {
+      if (Trace.isEnabled(TraceLevel.TRACE)) {
+        Trace.log(TraceLevel.TRACE, "CombinedBattleRule",
+                "AceLosesToTen: " + cardAValue + " vs " + cardBValue);
+      }
+      return Boolean.FALSE;
+    } else if (cardAValue == 10 && cardBValue == 1) {
+      if (Trace.isEnabled(TraceLevel.TRACE)) {
+        Trace.log(TraceLevel.TRACE, "CombinedBattleRule",
+                "TenLosesToAce: " + cardAValue + " vs " + cardBValue);
+      }
+      return Boolean.TRUE;
+    }
+    return null;
+  }
 }
@@ -2,6 +2,9 @@ package extrafeatures;
 
 import model.Direction;
 import model.ICard;
+import model.PackedValues;
+import trace.Trace;
+import trace.TraceLevel;
 
 /**
  * This strategy allows A to beat 1.
@@ -9,9 +12,30 @@ import model.ICard;
 public class FallenAceBattleRule implements BattleRuleStrategy {
   @Override
   public boolean shouldFlipCard(ICard cardA, ICard cardB, Direction direction) {
-    int cardAValue = cardA.getCardValue(direction);
-    int cardBValue = cardB.getCardValue(direction.getOpposite());
-    System.out.println("FallenAceBattleRule: " + cardAValue + " vs " + cardBValue);
+    return beats(cardA.getCardValue(direction), cardB.getCardValue(direction.getOpposite()));
+  }
+
+  @Override
+  public boolean dependsOnlyOnValues() {
+    return true;
+  }
+
+  @Override
+  public boolean shouldFlip(int attacker, int defender, int direction, int[] neighbors) {
+    return beats(PackedValues.valueOf(attacker, direction),
+            PackedValues.valueOf(defender, Direction.opposite(direction)));
+  }
+
+  @Override
+  public boolean supportsPackedBattles() {
+    return true;
+  }
+
+  // Higher beats lower except that a 1 beats an ace, shared by both battle paths
+  private static boolean beats(int cardAValue, int cardBValue) {
+    if (Trace.isEnabled(TraceLevel.TRACE)) {
+      Trace.log(TraceLevel.TRACE, "FallenAceBattleRule", cardAValue + " vs " + cardBValue);
+    }
     if (cardAValue == 10 && cardBValue == 1) {
       return false;
     } else if (cardAValue == 1 && cardBValue == 10) {
@@ -2,6 +2,9 @@ package extrafeatures;
 
 import model.Direction;
 import model.ICard;
+import model.PackedValues;
+import trace.Trace;
+import trace.TraceLevel;
 
 /**
  * This strategy represents normal battle rules (high > low card).
@@ -10,9 +13,30 @@ public class NormalBattleRule implements BattleRuleStrategy {
 
   @Override
   public boolean shouldFlipCard(ICard cardA, ICard cardB, Direction direction) {
-    int cardAValue = cardA.getCardValue(direction);
-    int cardBValue = cardB.getCardValue(direction.getOpposite());
-    System.out.println("NormalBattleRule: " + cardAValue + " vs " + cardBValue);
+    return beats(cardA.getCardValue(direction), cardB.getCardValue(direction.getOpposite()));
+  }
+
+  @Override
+  public boolean dependsOnlyOnValues() {
+    return true;
+  }
+
+  @Override
+  public boolean shouldFlip(int attacker, int defender, int direction, int[] neighbors) {
+    return beats(PackedValues.valueOf(attacker, direction),
+            PackedValues.valueOf(defender, Direction.opposite(direction)));
+  }
+
+  @Override
+  public boolean supportsPackedBattles() {
+    return true;
+  }
+
+  // The higher facing value wins, whether the battle is between cards or packed values
+  private static boolean beats(int cardAValue, int cardBValue) {
+    if (Trace.isEnabled(TraceLevel.TRACE)) {
+      Trace.log(TraceLevel.TRACE, "NormalBattleRule", cardAValue + " vs " + cardBValue);
+    }
     return cardAValue > cardBValue;
   }
 }
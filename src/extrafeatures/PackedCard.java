@@ -0,0 +1,52 @@
+package extrafeatures;
+
+import model.Direction;
+import model.ICard;
+import model.PackedValues;
+
+/**
+ * Temporary card built from packed attack values, so rules that only implement
+ * {@link BattleRuleStrategy#shouldFlipCard} can still decide packed battles. The neighbors of the
+ * card are the ones passed to the battle, not the ones of a grid.
+ */
+final class PackedCard implements ICard {
+
+  private final int values;
+  private final int[] neighbors;
+
+  /**
+   * Creates a card from packed attack values.
+   *
+   * @param values    the packed attack values of the card
+   * @param neighbors the packed attack values of the cards around it, -1 where there is no card,
+   *                  or null if the card has no known neighbors
+   */
+  PackedCard(int values, int[] neighbors) {
+    this.values = values;
+    this.neighbors = neighbors;
+  }
+
+  @Override
+  public String getName() {
+    return "Packed";
+  }
+
+  @Override
+  public String getAttackValue(Direction direction) {
+    int value = getCardValue(direction);
+    return value == 10 ? "A" : String.valueOf(value);
+  }
+
+  @Override
+  public int getCardValue(Direction direction) {
+    return PackedValues.valueOf(values, direction.ordinal());
+  }
+
+  @Override
+  public ICard getAdjacentCard(Direction dir) {
+    if (neighbors == null || neighbors[dir.ordinal()] < 0) {
+      return null;
+    }
+    return new PackedCard(neighbors[dir.ordinal()], null);
+  }
+}
@@ -2,6 +2,9 @@ package extrafeatures;
 
 import model.Direction;
 import model.ICard;
+import model.PackedValues;
+import trace.Trace;
+import trace.TraceLevel;
 
 /**
  * This strategy 2 adjacent cards' sums to determine the winner.
@@ -13,7 +16,9 @@ public class PlusBattleRule implements BattleRuleStrategy {
     int attackValue = cardA.getCardValue(direction);
     int defenseValue = cardB.getCardValue(direction.getOpposite());
 
-    System.out.println("PlusBattleRule: " + attackValue + " vs " + defenseValue);
+    if (Trace.isEnabled(TraceLevel.TRACE)) {
+      Trace.log(TraceLevel.TRACE, "PlusBattleRule", attackValue + " vs " + defenseValue);
+    }
     if (attackValue > defenseValue) {
       return true;
     }
@@ -37,4 +42,32 @@ public class PlusBattleRule implements BattleRuleStrategy {
     }
     return matchingPairs >= 2;
   }
+
+  @Override
+  public boolean shouldFlip(int attacker, int defender, int direction, int[] neighbors) {
+    int attackValue = PackedValues.valueOf(attacker, direction);
+    int defenseValue = PackedValues.valueOf(defender, Direction.opposite(direction));
+    if (Trace.isEnabled(TraceLevel.TRACE)) {
+      Trace.log(TraceLevel.TRACE, "PlusBattleRule", attackValue + " vs " + defenseValue);
+    }
+    if (attackValue > defenseValue) {
+      return true;
+    }
+
+    // Check for "Plus" rule condition against the cards around the attacker
+    int targetSum = attackValue + defenseValue;
+    int matchingPairs = 0;
+    for (int dir = 0; dir < neighbors.length; dir++) {
+      if (neighbors[dir] >= 0 && PackedValues.valueOf(attacker, dir)
+              + PackedValues.valueOf(neighbors[dir], Direction.opposite(dir)) == targetSum) {
+        matchingPairs++;
+      }
+    }
+    return matchingPairs >= 2;
+  }
+
+  @Override
+  public boolean supportsPackedBattles() {
+    return true;
+  }
 }
@@ -2,6 +2,9 @@ package extrafeatures;
 
 import model.Direction;
 import model.ICard;
+import model.PackedValues;
+import trace.Trace;
+import trace.TraceLevel;
 
 /**
  * This strategy 2 adjacent cards' equality to determine the winner.
@@ -13,7 +16,9 @@ public class SameBattleRule implements BattleRuleStrategy {
     // First check regular battle rule
     int attackValue = cardA.getCardValue(direction);
     int defenseValue = cardB.getCardValue(direction.getOpposite());
-    System.out.println("SameBattleRule: " + attackValue + " vs " + defenseValue);
+    if (Trace.isEnabled(TraceLevel.TRACE)) {
+      Trace.log(TraceLevel.TRACE, "SameBattleRule", attackValue + " vs " + defenseValue);
+    }
     boolean regularBattleWon = attackValue > defenseValue;
     boolean regularBattleLost = attackValue < defenseValue;
 
@@ -43,4 +48,34 @@ public class SameBattleRule implements BattleRuleStrategy {
     // battle is not lost
     return (regularBattleWon || sameCount >= 2) && !regularBattleLost;
   }
-}
\ No newline at end of file
+
+  @Override
+  public boolean shouldFlip(int attacker, int defender, int direction, int[] neighbors) {
+    int attackValue = PackedValues.valueOf(attacker, direction);
+    int defenseValue = PackedValues.valueOf(defender, Direction.opposite(direction));
+    if (Trace.isEnabled(TraceLevel.TRACE)) {
+      Trace.log(TraceLevel.TRACE, "SameBattleRule", attackValue + " vs " + defenseValue);
+    }
+    if (attackValue < defenseValue) {
+      return false;
+    }
+    if (attackValue > defenseValue) {
+      return true;
+    }
+
+    // Check for "Same" rule condition against the cards around the attacker
+    int sameCount = 0;
+    for (int dir = 0; dir < neighbors.length; dir++) {
+      if (neighbors[dir] >= 0 && PackedValues.valueOf(attacker, dir)
+              == PackedValues.valueOf(neighbors[dir], Direction.opposite(dir))) {
+        sameCount++;
+      }
+    }
+    return sameCount >= 2;
+  }
+
+  @Override
+  public boolean supportsPackedBattles() {
+    return true;
+  }
+}
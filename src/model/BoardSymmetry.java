@@ -0,0 +1,207 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The automorphism group of the layout of a board: the rotations and reflections that map every
+ * hole onto a hole and every card cell onto a card cell. A rectangular board has at most four of
+ * them, a square board at most eight. Transform 0 is always the identity.
+ * Turning a position with a transform also turns its cards, the value a card showed to the north
+ * it shows in the direction north is turned into. The battle rules of the game only compare the
+ * values on both sides of a shared edge, so a turned position plays exactly like the original and
+ * has the same score. Searches use this to treat mirrored positions as one position.
+ */
+public final class BoardSymmetry {
+
+  private static final int DIRECTIONS = Direction.values().length;
+
+  private final int rows;
+  private final int cols;
+  private final int[][] cellMaps;
+  private final int[][] directionMaps;
+  // For every transform, the direction that is turned into each direction
+  private final int[][] sourceDirections;
+  private final int[] inverses;
+
+  private BoardSymmetry(int rows, int cols, List<int[]> cellMaps, List<int[]> directionMaps) {
+    this.rows = rows;
+    this.cols = cols;
+    this.cellMaps = cellMaps.toArray(new int[0][]);
+    this.directionMaps = directionMaps.toArray(new int[0][]);
+    this.sourceDirections = new int[this.cellMaps.length][DIRECTIONS];
+    for (int t = 0; t < this.cellMaps.length; t++) {
+      for (int direction = 0; direction < DIRECTIONS; direction++) {
+        sourceDirections[t][this.directionMaps[t][direction]] = direction;
+      }
+    }
+    this.inverses = new int[this.cellMaps.length];
+    // Every transform turns the directions differently, so the directions identify the inverse
+    for (int t = 0; t < inverses.length; t++) {
+      for (int u = 0; u < inverses.length; u++) {
+        boolean undoes = true;
+        for (int direction = 0; direction < DIRECTIONS; direction++) {
+          undoes &= this.directionMaps[u][this.directionMaps[t][direction]] == direction;
+        }
+        if (undoes) {
+          inverses[t] = u;
+        }
+      }
+    }
+  }
+
+  /**
+   * Finds the symmetries of the layout of a grid.
+   *
+   * @param grid the grid to look at
+   * @return the symmetries of the grid's holes and card cells
+   * @throws IllegalArgumentException if the grid is null
+   */
+  public static BoardSymmetry of(Grid grid) {
+    if (grid == null) {
+      throw new IllegalArgumentException("Grid cannot be null.");
+    }
+    PackedBoard board = grid.getBoard();
+    boolean[] holes = new boolean[board.size()];
+    for (int cell = 0; cell < holes.length; cell++) {
+      holes[cell] = board.isHole(cell);
+    }
+    return of(grid.getRows(), grid.getColumns(), holes);
+  }
+
+  /**
+   * Finds the symmetries of a board layout.
+   *
+   * @param rows  the number of rows of the board
+   * @param cols  the number of columns of the board
+   * @param holes which cells are holes, by flat row-major index
+   * @return the symmetries of the layout
+   * @throws IllegalArgumentException if the size of the board does not match the holes
+   */
+  public static BoardSymmetry of(int rows, int cols, boolean[] holes) {
+    if (rows < 1 || cols < 1 || holes == null || holes.length != rows * cols) {
+      throw new IllegalArgumentException("Holes must cover a board of " + rows + "x" + cols
+              + " cells.");
+    }
+    List<int[]> cellMaps = new ArrayList<>();
+    List<int[]> directionMaps = new ArrayList<>();
+    // A transform transposes the board or not, then mirrors its rows and its columns or not.
+    // Transform 0 does none of it and is the identity.
+    for (int transform = 0; transform < 8; transform++) {
+      boolean transpose = (transform & 4) != 0;
+      boolean flipRows = (transform & 2) != 0;
+      boolean flipCols = (transform & 1) != 0;
+      if (transpose && rows != cols) {
+        continue;
+      }
+      int[] cellMap = new int[rows * cols];
+      boolean keepsHoles = true;
+      for (int cell = 0; cell < cellMap.length && keepsHoles; cell++) {
+        int row = transpose ? cell % cols : cell / cols;
+        int col = transpose ? cell / cols : cell % cols;
+        row = flipRows ? rows - 1 - row : row;
+        col = flipCols ? cols - 1 - col : col;
+        cellMap[cell] = row * cols + col;
+        keepsHoles = holes[cell] == holes[cellMap[cell]];
+      }
+      if (keepsHoles) {
+        cellMaps.add(cellMap);
+        directionMaps.add(directionMap(transpose, flipRows, flipCols));
+      }
+    }
+    return new BoardSymmetry(rows, cols, cellMaps, directionMaps);
+  }
+
+  // Turns the offset of every direction the way the cells are turned
+  private static int[] directionMap(boolean transpose, boolean flipRows, boolean flipCols) {
+    int[] map = new int[DIRECTIONS];
+    for (Direction direction : Direction.values()) {
+      int rowOffset = transpose ? direction.getColOffset() : direction.getRowOffset();
+      int colOffset = transpose ? direction.getRowOffset() : direction.getColOffset();
+      rowOffset = flipRows ? -rowOffset : rowOffset;
+      colOffset = flipCols ? -colOffset : colOffset;
+      for (Direction target : Direction.values()) {
+        if (target.getRowOffset() == rowOffset && target.getColOffset() == colOffset) {
+          map[direction.ordinal()] = target.ordinal();
+        }
+      }
+    }
+    return map;
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  public int getColumns() {
+    return cols;
+  }
+
+  /**
+   * Returns the number of transforms in the group, the identity included.
+   *
+   * @return the order of the group, between 1 and 8
+   */
+  public int size() {
+    return cellMaps.length;
+  }
+
+  /**
+   * Checks if the identity is the only symmetry of the board.
+   *
+   * @return true if no rotation or reflection maps the board onto itself, false otherwise
+   */
+  public boolean isTrivial() {
+    return cellMaps.length == 1;
+  }
+
+  /**
+   * Returns the cell a transform moves a cell to.
+   *
+   * @param transform the index of the transform
+   * @param cell      the flat index of the cell
+   * @return the flat index of the transformed cell
+   */
+  public int mapCell(int transform, int cell) {
+    return cellMaps[transform][cell];
+  }
+
+  /**
+   * Returns the direction a transform turns a direction into.
+   *
+   * @param transform the index of the transform
+   * @param direction the ordinal of the direction
+   * @return the ordinal of the turned direction
+   */
+  public int mapDirection(int transform, int direction) {
+    return directionMaps[transform][direction];
+  }
+
+  /**
+   * Turns the packed attack values of a card the way a transform turns the board.
+   *
+   * @param transform    the index of the transform
+   * @param packedValues the packed attack values, see {@link PackedValues#pack}
+   * @return the packed attack values of the turned card
+   */
+  public int mapValues(int transform, int packedValues) {
+    if (transform == 0) {
+      return packedValues;
+    }
+    int[] sources = sourceDirections[transform];
+    return PackedValues.pack(PackedValues.valueOf(packedValues, sources[0]),
+            PackedValues.valueOf(packedValues, sources[1]),
+            PackedValues.valueOf(packedValues, sources[2]),
+            PackedValues.valueOf(packedValues, sources[3]));
+  }
+
+  /**
+   * Returns the transform that undoes a transform.
+   *
+   * @param transform the index of the transform
+   * @return the index of its inverse
+   */
+  public int inverse(int transform) {
+    return inverses[transform];
+  }
+}
@@ -0,0 +1,176 @@
+package model;
+
+import player.IPlayer;
+
+/**
+ * Immutable, read-only snapshot of a {@link PackedBoard}. The packed cells are stored in
+ * fixed-size chunks, and a snapshot shares every chunk that did not change with the snapshot
+ * taken before it, so snapshots are persistent: taking one costs about as much as the number of
+ * cells that changed, and a snapshot always shows the board exactly as it was at its version.
+ * Nothing in a snapshot is ever modified after it is built, so it can be read from any thread.
+ * Reading a cell never creates cell objects, which makes snapshots the cheap way for the view,
+ * the adapters and the strategies to look at the board.
+ */
+public final class BoardView {
+
+  private final int rows;
+  private final int cols;
+  private final int chunkShift;
+  private final int[][] chunks;
+  private final ICard[] cards;
+  private final IPlayer red;
+  private final IPlayer blue;
+  private final int redCount;
+  private final int blueCount;
+  private final int emptyCount;
+  private final long version;
+
+  BoardView(int rows, int cols, int chunkShift, int[][] chunks, ICard[] cards, IPlayer red,
+            IPlayer blue, int redCount, int blueCount, int emptyCount, long version) {
+    this.rows = rows;
+    this.cols = cols;
+    this.chunkShift = chunkShift;
+    this.chunks = chunks;
+    this.cards = cards;
+    this.red = red;
+    this.blue = blue;
+    this.redCount = redCount;
+    this.blueCount = blueCount;
+    this.emptyCount = emptyCount;
+    this.version = version;
+  }
+
+  int[] chunk(int chunk) {
+    return chunks[chunk];
+  }
+
+  ICard[] cards() {
+    return cards;
+  }
+
+  int cardCount() {
+    return cards.length;
+  }
+
+  boolean hasPlayers(IPlayer red, IPlayer blue) {
+    return this.red == red && this.blue == blue;
+  }
+
+  /**
+   * Returns the version of the board this snapshot was taken at.
+   *
+   * @return the board version of this snapshot
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  public int getColumns() {
+    return cols;
+  }
+
+  /**
+   * Checks if the cell at the given row and column is a hole.
+   *
+   * @param row the row of the cell
+   * @param col the column of the cell
+   * @return true if the cell is a hole, false otherwise
+   * @throws IllegalArgumentException if the row or column is out of bounds
+   */
+  public boolean isHole(int row, int col) {
+    return packedAt(row, col) == PackedBoard.HOLE;
+  }
+
+  /**
+   * Checks if the cell at the given row and column is a card cell without a card.
+   *
+   * @param row the row of the cell
+   * @param col the column of the cell
+   * @return true if the cell is an empty card cell, false otherwise
+   * @throws IllegalArgumentException if the row or column is out of bounds
+   */
+  public boolean isEmpty(int row, int col) {
+    return packedAt(row, col) == PackedBoard.EMPTY;
+  }
+
+  /**
+   * Returns the card in the cell at the given row and column.
+   *
+   * @param row the row of the cell
+   * @param col the column of the cell
+   * @return the card in the cell, or null if the cell holds no card
+   * @throws IllegalArgumentException if the row or column is out of bounds
+   */
+  public ICard getCard(int row, int col) {
+    int cardId = PackedBoard.cardIdOf(packedAt(row, col));
+    return cardId < 0 ? null : cards[cardId];
+  }
+
+  /**
+   * Returns the owner of the card in the cell at the given row and column.
+   *
+   * @param row the row of the cell
+   * @param col the column of the cell
+   * @return the owner of the card, or null if the cell holds no card
+   * @throws IllegalArgumentException if the row or column is out of bounds
+   */
+  public IPlayer getOwner(int row, int col) {
+    int slot = PackedBoard.ownerOf(packedAt(row, col));
+    if (slot < 0) {
+      return null;
+    }
+    return slot == 0 ? red : blue;
+  }
+
+  /**
+   * Returns the number of cards on the board owned by the given player.
+   *
+   * @param player the player whose cards are counted
+   * @return the number of cards on the board owned by the player
+   */
+  public int countOwnedBy(IPlayer player) {
+    if (player == red) {
+      return redCount;
+    }
+    return player == blue ? blueCount : 0;
+  }
+
+  /**
+   * Returns the number of card cells that did not hold a card when the view was taken.
+   *
+   * @return the number of empty card cells
+   */
+  public int countEmpty() {
+    return emptyCount;
+  }
+
+  /**
+   * Checks if every card cell held a card when the view was taken.
+   *
+   * @return true if there are no empty card cells, false otherwise
+   */
+  public boolean isFull() {
+    return emptyCount == 0;
+  }
+
+  /**
+   * Returns the raw packed value of the cell at the given row and column, encoded the same way as
+   * in {@link PackedBoard}.
+   *
+   * @param row the row of the cell
+   * @param col the column of the cell
+   * @return the packed value of the cell
+   * @throws IllegalArgumentException if the row or column is out of bounds
+   */
+  public int packedAt(int row, int col) {
+    if (row < 0 || row >= rows || col < 0 || col >= cols) {
+      throw new IllegalArgumentException("Index out of bounds: row " + row + ", col " + col);
+    }
+    int index = row * cols + col;
+    return chunks[index >>> chunkShift][index & ((1 << chunkShift) - 1)];
+  }
+}
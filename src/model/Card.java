@@ -1,9 +1,5 @@
 package model;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
-
 /**
  * Represents a card in the game.
  * A card has a name and 4 attack values, one for each direction in the order of north, south, east,
@@ -11,11 +7,13 @@ import java.util.Objects;
  * Card Structure:
  * - Name: A unique identifier for the card
  * - Attack Values: Four integers (1-10) or 'A' (representing 10) for North, South, East, and West.
+ * The attack values are kept packed in a single int, see {@link PackedValues#pack}, so cards with
+ * the same name and values are equal after one int comparison and a name comparison.
  */
 public class Card implements ICard {
 
   private final String name;
-  private Map<Direction, Integer> attackValues;
+  private final int attackValues;
   private Grid grid;
   private int row;
   private int col;
@@ -36,11 +34,7 @@ public class Card implements ICard {
 
     checkIfValidCard(name, north, south, east, west);
     this.name = name;
-    this.attackValues = new HashMap<>();
-    this.attackValues.put(Direction.NORTH, north);
-    this.attackValues.put(Direction.SOUTH, south);
-    this.attackValues.put(Direction.EAST, east);
-    this.attackValues.put(Direction.WEST, west);
+    this.attackValues = PackedValues.pack(north, south, east, west);
   }
 
   /**
@@ -69,6 +63,15 @@ public class Card implements ICard {
     return name;
   }
 
+  /**
+   * Returns the attack values of the card packed into one int, see {@link PackedValues#pack}.
+   *
+   * @return the packed attack values of the card
+   */
+  public int getPackedValues() {
+    return attackValues;
+  }
+
   /**
    * Returns the attack value for the given direction.
    *
@@ -80,7 +83,7 @@ public class Card implements ICard {
     if (direction == null) {
       throw new IllegalArgumentException("Direction cannot be null.");
     }
-    int value = attackValues.get(direction);
+    int value = PackedValues.valueOf(attackValues, direction.ordinal());
     return value == 10 ? "A" : String.valueOf(value);
   }
 
@@ -89,8 +92,7 @@ public class Card implements ICard {
     if (direction == null) {
       throw new IllegalArgumentException("Direction cannot be null.");
     }
-    return attackValues.get(direction);
-
+    return PackedValues.valueOf(attackValues, direction.ordinal());
   }
 
   @Override
@@ -102,13 +104,12 @@ public class Card implements ICard {
       return false;
     }
     Card card = (Card) obj;
-    return name.equals(card.name) && attackValues.equals(card.attackValues);
+    return attackValues == card.attackValues && name.equals(card.name);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(name, attackValues.get(Direction.NORTH), attackValues.get(Direction.SOUTH),
-            attackValues.get(Direction.EAST), attackValues.get(Direction.WEST));
+    return name.hashCode() * 31 + attackValues;
   }
 
   /**
@@ -154,6 +155,7 @@ public class Card implements ICard {
       return null;
     }
 
-    return grid.getCell(newRow, newCol).getCard();
+    PackedBoard board = grid.getBoard();
+    return board.cardAt(board.indexOf(newRow, newCol));
   }
 }
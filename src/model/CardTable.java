@@ -0,0 +1,55 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The cards a {@link PackedBoard} and its copies have seen, each with a small board-local id.
+ * Next to the card objects the table keeps the packed attack values of every card in a primitive
+ * array, so the battle phase can read attack values by id without going through the card.
+ */
+final class CardTable {
+
+  private final List<ICard> cards = new ArrayList<>();
+  private final Map<ICard, Integer> ids = new HashMap<>();
+  private int[] values = new int[16];
+
+  /**
+   * Returns the local id of a card, adding the card to the table if it has not been seen yet.
+   *
+   * @param card the card to look up
+   * @return the local id of the card
+   */
+  int idFor(ICard card) {
+    Integer id = ids.get(card);
+    if (id == null) {
+      id = cards.size();
+      if (id == values.length) {
+        values = Arrays.copyOf(values, id * 2);
+      }
+      values[id] = PackedValues.of(card);
+      cards.add(card);
+      ids.put(card, id);
+    }
+    return id;
+  }
+
+  ICard get(int id) {
+    return cards.get(id);
+  }
+
+  int values(int id) {
+    return values[id];
+  }
+
+  int size() {
+    return cards.size();
+  }
+
+  ICard[] toArray() {
+    return cards.toArray(new ICard[0]);
+  }
+}
@@ -65,4 +65,16 @@ public enum Direction {
         throw new IllegalArgumentException("Invalid direction");
     }
   }
+
+  /**
+   * Gets the ordinal of the opposite direction without going through the enum. Opposite
+   * directions are declared next to each other, so flipping the lowest bit of an ordinal gives
+   * the ordinal of its opposite.
+   *
+   * @param ordinal the ordinal of a direction
+   * @return the ordinal of the opposite direction
+   */
+  public static int opposite(int ordinal) {
+    return ordinal ^ 1;
+  }
 }
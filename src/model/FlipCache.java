@@ -0,0 +1,112 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Bounded memo of flip counts for one game, keyed by the player's slot, the card id and the cell
+ * the card is played on. Every count belongs to one version of the board: the first lookup for a
+ * newer version empties the cache, so nothing stale is ever returned once a card is played, and
+ * only the counts of the current board take up room. The cache is direct mapped, a count that
+ * falls on a slot already in use replaces the older one.
+ * Like the model it serves, the cache is meant to be used from one thread at a time.
+ */
+final class FlipCache {
+
+  private static final int DEFAULT_CAPACITY = 1 << 12;
+
+  // Key plus one of every entry, 0 for a free slot, and its flip count
+  private final long[] keys;
+  private final int[] flips;
+  private final int mask;
+  private long version = -1;
+  private long hits;
+  private long misses;
+
+  FlipCache() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Creates a cache with room for the given number of counts, rounded up to a power of two.
+   *
+   * @param minEntries the minimum number of counts the cache can hold
+   * @throws IllegalArgumentException if the number of entries is not positive or too large
+   */
+  FlipCache(int minEntries) {
+    if (minEntries < 1 || minEntries > (1 << 24)) {
+      throw new IllegalArgumentException("Cache size must be between 1 and 2^24 entries.");
+    }
+    int capacity = minEntries == 1 ? 1 : Integer.highestOneBit(minEntries - 1) << 1;
+    this.keys = new long[capacity];
+    this.flips = new int[capacity];
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Looks up the flip count of a move on a version of the board.
+   *
+   * @param version the version of the board the move is played on
+   * @param key     the move, see {@link #key(int, int, int, int)}
+   * @return the flip count, or -1 if it is not cached
+   */
+  int get(long version, long key) {
+    if (version != this.version) {
+      clear();
+      this.version = version;
+    }
+    int slot = slotOf(key);
+    if (keys[slot] == key + 1) {
+      hits++;
+      return flips[slot];
+    }
+    misses++;
+    return -1;
+  }
+
+  /**
+   * Remembers the flip count of a move on the version of the board of the last lookup.
+   *
+   * @param key   the move, see {@link #key(int, int, int, int)}
+   * @param count the number of cards the move flips
+   */
+  void put(long key, int count) {
+    int slot = slotOf(key);
+    keys[slot] = key + 1;
+    flips[slot] = count;
+  }
+
+  /**
+   * Forgets every count, for changes to the game the board version does not see, such as a new
+   * battle rule.
+   */
+  void clear() {
+    Arrays.fill(keys, 0L);
+    version = -1;
+  }
+
+  long getHits() {
+    return hits;
+  }
+
+  long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Packs a move into a cache key.
+   *
+   * @param slot   the owner slot of the player making the move
+   * @param cardId the id of the card played
+   * @param cell   the flat index of the cell played on
+   * @param cells  the number of cells on the board
+   * @return the key of the move
+   */
+  static long key(int slot, int cardId, int cell, int cells) {
+    return ((long) cardId * 2 + slot) * cells + cell;
+  }
+
+  private int slotOf(long key) {
+    long mixed = key * 0x9E3779B97F4A7C15L;
+    return (int) (mixed >>> 40) & mask;
+  }
+}
@@ -2,12 +2,14 @@ package model;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
+import java.util.stream.IntStream;
 
 import extrafeatures.BattleRuleStrategy;
+import extrafeatures.BattleTable;
 import player.IPlayer;
+import trace.Trace;
+import trace.TraceLevel;
 
 /**
  * Represents the initial game model created for ThreeTrios.
@@ -17,6 +19,13 @@ import player.IPlayer;
  */
 public class GameModel implements ThreeTriosModel {
 
+  // Direction.values() clones its array on every call, so the battle phase reuses this one
+  private static final Direction[] DIRECTIONS = Direction.values();
+  // Flip matrices with at least this many entries are scanned over the cells in parallel
+  private static final int PARALLEL_FLIP_MATRIX = 1 << 12;
+  // Flip matrix entry of a move whose battle still has to be played out
+  private static final int NEEDS_BATTLE = -2;
+
   private Grid grid;
   private IPlayer currentPlayer;
   private IPlayer pRed;
@@ -24,6 +33,19 @@ public class GameModel implements ThreeTriosModel {
   private boolean isGameOver;
   private final List<ModelStatusListener> modelStatusListeners = new ArrayList<>();
   private BattleRuleStrategy battleRuleStrategy;
+  // Lookup table for the battle rule, null if the rule cannot be compiled into one
+  private BattleTable battleTable;
+  private boolean packedBattles;
+  // Packed attack values of the cards around the attacking card, reused for every attacker
+  private final int[] neighborhood = new int[DIRECTIONS.length];
+  private final IntRingBuffer cascadeQueue = new IntRingBuffer(16);
+  // Versions of the grids this model played on before the current one, so restarting a game on a
+  // fresh grid does not make the model version go backwards
+  private long versionBase;
+  // Flip counts of the current board, shared by every strategy, hint and adapter asking the model
+  private final FlipCache flipCache = new FlipCache();
+  // Zobrist hash of both hands, kept up to date as cards are dealt and played, see Zobrist
+  private long handsHash;
 
   /**
    * Creates a new game model. Doesn't need to be passed in anything as this is basically a
@@ -34,10 +56,20 @@ public class GameModel implements ThreeTriosModel {
       throw new IllegalArgumentException("Battle strategy cannot be null");
     }
     this.battleRuleStrategy = battleRuleStrategy;
+    this.battleTable = BattleTable.compile(battleRuleStrategy);
+    this.packedBattles = battleRuleStrategy.supportsPackedBattles();
   }
 
   public void setBattleRuleStrategy(BattleRuleStrategy battleRuleStrategy) {
     this.battleRuleStrategy = battleRuleStrategy;
+    this.battleTable = battleRuleStrategy == null ? null : BattleTable.compile(battleRuleStrategy);
+    this.packedBattles = battleRuleStrategy != null && battleRuleStrategy.supportsPackedBattles();
+    flipCache.clear();
+  }
+
+  @Override
+  public BattleRuleStrategy getBattleRuleStrategy() {
+    return battleRuleStrategy;
   }
 
   public boolean shouldFlipCard(ICard cardA, ICard cardB, Direction direction) {
@@ -57,7 +89,11 @@ public class GameModel implements ThreeTriosModel {
   @Override
   public void startGameWithConfig(Grid grid, List<ICard> cards, boolean shuffle,
                                   IPlayer player1, IPlayer player2) {
+    if (this.grid != null) {
+      versionBase += this.grid.getBoard().getVersion() + 1;
+    }
     this.grid = grid;
+    this.grid.getBoard().bindPlayers(player1, player2);
     if (shuffle) {
       Collections.shuffle(cards);
     }
@@ -78,6 +114,7 @@ public class GameModel implements ThreeTriosModel {
 
     player1.setHand(redHand);
     player2.setHand(blueHand);
+    handsHash = Zobrist.handHash(0, redHand) ^ Zobrist.handHash(1, blueHand);
     pRed = player1;
     pBlue = player2;
 
@@ -108,47 +145,70 @@ public class GameModel implements ThreeTriosModel {
     return grid.copyOfGrid();
   }
 
+  @Override
+  public BoardView getBoardView() {
+    return grid.snapshot();
+  }
+
+  @Override
+  public long getVersion() {
+    return grid == null ? versionBase : versionBase + grid.getBoard().getVersion();
+  }
+
+  @Override
+  public long getPositionHash() {
+    if (grid == null) {
+      return 0;
+    }
+    return grid.getBoard().getHash() ^ handsHash
+            ^ (currentPlayer == pBlue ? Zobrist.BLUE_TO_MOVE : 0);
+  }
+
   @Override
   public List<ICard> getPlayerHand(IPlayer player) {
     return player.getHand();
   }
 
   /**
-   * Helper method that counts the number of occupied cells for each player.
+   * Helper method that counts the number of occupied cells for each player. The board keeps its
+   * per-player card counts up to date as cards are placed, flipped and undone, so this is O(1).
    */
   private int[] countOccupiedCells() {
-    int redCardCount = 0;
-    int blueCardCount = 0;
-    for (int row = 0; row < grid.getRows(); row++) {
-      for (int col = 0; col < grid.getColumns(); col++) {
-        if (!grid.getCell(row, col).isHole()) {
-          CardCell cell = (CardCell) grid.getCell(row, col);
-          if (cell.isOccupied()) {
-            IPlayer owner = cell.getOwner();
-            if (owner.equals(pRed)) {
-              redCardCount++;
-            } else if (owner.equals(pBlue)) {
-              blueCardCount++;
-            }
-          }
-        }
+    PackedBoard board = grid.getBoard();
+    int redSlot = board.slotOf(pRed);
+    int redCardCount = board.countOwnedBy(redSlot);
+    int blueCardCount = board.countOwnedBy(1 - redSlot);
+    return new int[]{redCardCount + pRed.getHandSize(), blueCardCount + pBlue.getHandSize()};
+  }
+
+  // Hands hash as multisets, so playing a card drops the key of the last copy of its values
+  private void removeFromHandsHash(IPlayer player, ICard card) {
+    int values = PackedValues.of(card);
+    int copies = 0;
+    for (ICard left : player.getHand()) {
+      if (PackedValues.of(left) == values) {
+        copies++;
       }
     }
-    return new int[]{redCardCount + getPlayerHand(pRed).size(), blueCardCount
-            + getPlayerHand(pBlue).size()};
+    handsHash ^= Zobrist.handKey(player.equals(pRed) ? 0 : 1, values, copies);
   }
 
   @Override
   public void playCard(IPlayer player, ICard card, int row, int col) {
     playCardConditions(player, row, col, card);
 
-    CardCell cardCell = new CardCell(card, player);
-    grid.setCell(row, col, cardCell);
+    PackedBoard board = grid.getBoard();
+    board.place(board.indexOf(row, col), board.cardIdFor(card), board.slotOf(player));
     if (card instanceof Card) {
       ((Card) card).setPosition(grid, row, col);
     }
     player.removeCard(card);
+    removeFromHandsHash(player, card);
     startBattlePhase(row, col);
+    if (Trace.isEnabled(TraceLevel.DEBUG)) {
+      Trace.log(TraceLevel.DEBUG, "GameModel", player.getName() + " played " + card.getName()
+              + " at row " + row + ", col " + col);
+    }
 
     // Switch the current player
     currentPlayer = currentPlayer.equals(pRed) ? pBlue : pRed;
@@ -169,7 +229,8 @@ public class GameModel implements ThreeTriosModel {
    */
   @Override
   public void playCardConditions(IPlayer player, int row, int col, ICard cardToPlay) {
-    Cell cell = grid.getCell(row, col);
+    PackedBoard board = grid.getBoard();
+    int index = board.indexOf(row, col);
     if (!player.equals(currentPlayer)) {
       throw new IllegalArgumentException("It is not " + player.getName() + "'s turn.");
     }
@@ -182,11 +243,11 @@ public class GameModel implements ThreeTriosModel {
       throw new IllegalArgumentException("Invalid row or column.");
     }
 
-    if (cell.isHole()) {
+    if (board.isHole(index)) {
       throw new IllegalArgumentException("Card cannot be placed on a hole.");
     }
 
-    if (!cell.isEmpty()) {
+    if (!board.isEmpty(index)) {
       throw new IllegalArgumentException("Cell is not empty.");
     }
 
@@ -201,8 +262,7 @@ public class GameModel implements ThreeTriosModel {
     if (cell.isHole()) {
       throw new IllegalArgumentException("No card at the specified cell or cell is a hole.");
     }
-    CardCell cardCell = (CardCell) cell;
-    IPlayer owner = cardCell.getOwner();
+    IPlayer owner = cell.getOwner();
 
     processBattlePhase(owner, row, col);
   }
@@ -218,21 +278,180 @@ public class GameModel implements ThreeTriosModel {
   }
 
 
+  /**
+   * {@inheritDoc}
+   * Counts are remembered for the current board, so asking again for the same player, card and
+   * cell before the next card is played costs a lookup. Counts asked for while a simulated move
+   * is open are not remembered.
+   */
   @Override
   public int getNumCardsAbleToFlip(IPlayer player, ICard card, int row, int col) {
-    // Save the current state of the grid
-    Grid originalGrid = grid.copyOfGrid();
+    PackedBoard board = grid.getBoard();
+    if (board.hasOpenMove() || !isValidCell(row, col)) {
+      int cardsFlipped = applyMove(player, card, row, col);
+      undoMove();
+      return cardsFlipped;
+    }
+    long key = FlipCache.key(board.slotOf(player), board.cardIdFor(card),
+            board.indexOf(row, col), board.size());
+    int cardsFlipped = flipCache.get(getVersion(), key);
+    if (cardsFlipped < 0) {
+      cardsFlipped = applyMove(player, card, row, col);
+      undoMove();
+      flipCache.put(key, cardsFlipped);
+    }
+    return cardsFlipped;
+  }
 
-    // Temporarily place the card on the grid
-    CardCell tempCardCell = new CardCell(card, player);
-    grid.setCell(row, col, tempCardCell);
+  /**
+   * {@inheritDoc}
+   * The matrix is filled in two passes. The first one only reads the board: the neighbors of
+   * every empty cell are looked up once for the whole hand, and where the battle rule compiles to
+   * a table, every card is checked against them with table lookups, so a card that flips no
+   * neighbor gets 0 without being played. Cards with equal values are only checked once. On large
+   * boards this pass runs over the cells in parallel. The second pass plays out the battles of the
+   * moves left, one after the other, reusing and filling the counts remembered for the board.
+   */
+  @Override
+  public void getFlipMatrix(IPlayer player, int[] flips) {
+    if (player == null || flips == null) {
+      throw new IllegalArgumentException("Player and flip array cannot be null.");
+    }
+    List<ICard> hand = player.getHand();
+    PackedBoard board = grid.getBoard();
+    int cells = board.size();
+    if (flips.length < hand.size() * cells) {
+      throw new IllegalArgumentException("Flip array is too small for the hand and the board.");
+    }
+    int slot = board.slotOf(player);
+    int[] cardIds = new int[hand.size()];
+    int[] values = new int[hand.size()];
+    // Index of the first card in hand with the same values, whose counts a card copies
+    int[] firstEqual = new int[hand.size()];
+    for (int card = 0; card < hand.size(); card++) {
+      cardIds[card] = board.cardIdFor(hand.get(card));
+      values[card] = board.cardValues(cardIds[card]);
+      firstEqual[card] = card;
+      for (int other = 0; other < card; other++) {
+        if (values[other] == values[card]) {
+          firstEqual[card] = other;
+          break;
+        }
+      }
+    }
 
-    // Simulate the battle phase and count the number of cards flipped
-    int cardsFlipped = simulateEntireBattlePhase(player, row, col);
+    // Each thread scanning cells reuses one buffer for the defense values of the neighbors
+    if ((long) hand.size() * cells >= PARALLEL_FLIP_MATRIX) {
+      ThreadLocal<int[]> defense = ThreadLocal.withInitial(() -> new int[DIRECTIONS.length]);
+      IntStream.range(0, cells).parallel().forEach(index ->
+              scanFlipCell(board, slot, values, firstEqual, index, defense.get(), flips));
+    } else {
+      int[] defense = new int[DIRECTIONS.length];
+      for (int index = 0; index < cells; index++) {
+        scanFlipCell(board, slot, values, firstEqual, index, defense, flips);
+      }
+    }
 
-    // Revert the grid to its original state
-    grid.setGrid(originalGrid);
-    return cardsFlipped;
+    // The battles share the cascade queue and play on the board, so they are played one by one
+    boolean cached = !board.hasOpenMove();
+    long version = getVersion();
+    for (int card = 0; card < hand.size(); card++) {
+      for (int index = 0; index < cells; index++) {
+        int entry = card * cells + index;
+        if (firstEqual[card] != card) {
+          flips[entry] = flips[firstEqual[card] * cells + index];
+        } else if (flips[entry] == NEEDS_BATTLE) {
+          long key = FlipCache.key(slot, cardIds[card], index, cells);
+          int cardsFlipped = cached ? flipCache.get(version, key) : -1;
+          if (cardsFlipped < 0) {
+            board.beginMove();
+            board.place(index, cardIds[card], slot);
+            cardsFlipped = processBattlePhase(player, board.rowOf(index), board.colOf(index));
+            board.undoMove();
+            if (cached) {
+              flipCache.put(key, cardsFlipped);
+            }
+          }
+          flips[entry] = cardsFlipped;
+        }
+      }
+    }
+  }
+
+  // Fills in one cell of the flip matrix for every first card of its values: -1 if the cell is
+  // not empty, 0 if the card cannot flip a neighbor, NEEDS_BATTLE if it may. Only reads the board;
+  // defense is scratch space, and only the entries of opponent neighbors are read back.
+  private void scanFlipCell(PackedBoard board, int slot, int[] values, int[] firstEqual,
+                            int index, int[] defense, int[] flips) {
+    int cells = board.size();
+    if (!board.isEmpty(index)) {
+      for (int card = 0; card < values.length; card++) {
+        flips[card * cells + index] = -1;
+      }
+      return;
+    }
+    // Opponent neighbors and the values they defend with, shared by every card
+    int opponents = 0;
+    for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+      int neighbor = board.neighbor(index, direction);
+      int owner = neighbor < 0 ? -1 : board.ownerAt(neighbor);
+      if (owner >= 0 && owner != slot) {
+        opponents |= 1 << direction;
+        defense[direction] = PackedValues.valueOf(board.cardValues(board.cardIdAt(neighbor)),
+                Direction.opposite(direction));
+      }
+    }
+    for (int card = 0; card < values.length; card++) {
+      if (firstEqual[card] != card) {
+        continue;
+      }
+      int result = 0;
+      if (opponents != 0 && battleTable == null) {
+        result = NEEDS_BATTLE;
+      } else {
+        // A card that flips no neighbor starts no cascade, so it flips nothing at all
+        for (int direction = 0; direction < DIRECTIONS.length && result == 0; direction++) {
+          if ((opponents & (1 << direction)) != 0 && battleTable.shouldFlip(
+                  PackedValues.valueOf(values[card], direction), defense[direction])) {
+            result = NEEDS_BATTLE;
+          }
+        }
+      }
+      flips[card * cells + index] = result;
+    }
+  }
+
+  // Number of flip counts answered from the cache and computed, for tests
+  long[] getFlipCacheStats() {
+    return new long[] {flipCache.getHits(), flipCache.getMisses()};
+  }
+
+  /**
+   * Places a card on the board and runs its battle phase as a move that can be taken back with
+   * {@link #undoMove()}. Only the board changes, hands and turns are left alone, so this is meant
+   * for simulating moves. Moves can be nested and must be undone in reverse order.
+   *
+   * @param player the player placing the card
+   * @param card   the card being placed
+   * @param row    the row of the cell the card is placed on
+   * @param col    the column of the cell the card is placed on
+   * @return the number of cards flipped by the placement and its combo cascade
+   */
+  public int applyMove(IPlayer player, ICard card, int row, int col) {
+    PackedBoard board = grid.getBoard();
+    board.beginMove();
+    board.place(board.indexOf(row, col), board.cardIdFor(card), board.slotOf(player));
+    return simulateEntireBattlePhase(player, row, col);
+  }
+
+  /**
+   * Takes back the most recent move made with {@link #applyMove}, restoring only the cells that
+   * move changed.
+   *
+   * @throws IllegalStateException if there is no move to undo
+   */
+  public void undoMove() {
+    grid.getBoard().undoMove();
   }
 
   /**
@@ -258,50 +477,59 @@ public class GameModel implements ThreeTriosModel {
 
   /**
    * Helper method which abstracts out much of the battle phase
-   * code from both the simulation and the actual battle phase.
+   * code from both the simulation and the actual battle phase. Cells waiting to attack are queued
+   * as flat indices in a ring buffer that is reused across battles, so resolving a battle does
+   * not allocate.
    */
   protected int processBattlePhase(IPlayer player, int startRow, int startCol) {
+    PackedBoard board = grid.getBoard();
+    int ownerSlot = board.slotOf(player);
     int cardsFlipped = 0;
-    Queue<int[]> toProcess = new LinkedList<>();
-    toProcess.offer(new int[]{startRow, startCol});
-
-    while (!toProcess.isEmpty()) {
-      int[] current = toProcess.poll();
-      int row = current[0];
-      int col = current[1];
-
-      CardCell currentCell = (CardCell) grid.getCell(row, col);
-      if (currentCell == null || currentCell.getCard() == null) {
+    // A cell is only queued when it flips to the attacker, which can happen once per battle
+    cascadeQueue.ensureCapacity(board.size() + 1);
+    cascadeQueue.clear();
+    cascadeQueue.offer(board.indexOf(startRow, startCol));
+
+    while (!cascadeQueue.isEmpty()) {
+      int index = cascadeQueue.poll();
+      int cardId = board.cardIdAt(index);
+      if (cardId < 0) {
         continue;
       }
-      cardsFlipped += processAdjacentCells(player, currentCell.getCard(), row, col, toProcess);
+      cardsFlipped += processAdjacentCells(ownerSlot, cardId, index);
     }
     return cardsFlipped;
   }
 
   /**
    * Checks to see which cells are being flipped and also flipping cards
-   * that have already been flipped.
+   * that have already been flipped. Every flipped cell is queued to attack in turn.
    */
-  protected int processAdjacentCells(IPlayer player, ICard currentCard, int row, int col,
-                                     Queue<int[]> toProcess) {
+  protected int processAdjacentCells(int ownerSlot, int cardId, int index) {
+    PackedBoard board = grid.getBoard();
+    if (battleTable == null && packedBattles) {
+      loadNeighborhood(board, index);
+    }
     int flipped = 0;
-    for (Direction direction : Direction.values()) {
-      int newRow = row + direction.getRowOffset();
-      int newCol = col + direction.getColOffset();
-
-      if (isValidCell(newRow, newCol)) {
-        int flippedInDirection = cardAttackDirections(
-                direction, newRow, newCol, player, currentCard);
-        flipped += flippedInDirection;
-        if (flippedInDirection > 0) {
-          toProcess.offer(new int[]{newRow, newCol});
-        }
+    for (Direction direction : DIRECTIONS) {
+      int neighbor = board.neighbor(index, direction.ordinal());
+      if (neighbor >= 0 && cardAttackDirections(direction, neighbor, ownerSlot, cardId)) {
+        flipped++;
+        cascadeQueue.offer(neighbor);
       }
     }
     return flipped;
   }
 
+  // Reads the packed attack values of the cards around a cell, -1 where there is no card.
+  private void loadNeighborhood(PackedBoard board, int index) {
+    for (int direction = 0; direction < neighborhood.length; direction++) {
+      int neighbor = board.neighbor(index, direction);
+      neighborhood[direction] = neighbor >= 0 && board.isOccupied(neighbor)
+              ? board.cardValues(board.cardIdAt(neighbor)) : -1;
+    }
+  }
+
   /**
    * Helper method that abstracted out redundant code to check if a CELL is valid. A cell is
    * considered valid if it is within the grid boundaries and is not a hole.
@@ -311,29 +539,40 @@ public class GameModel implements ThreeTriosModel {
   }
 
   /**
-   * This method allows us to flip cards in the 4 directions and keep track of how many cards
-   * are flipped from each turn.
+   * This method lets a card attack the cell next to it in one direction and flips the card in
+   * that cell if the battle rule says so. Rules that were compiled into a battle table are decided
+   * by looking up the two facing values instead of calling the rule, and rules that support
+   * packed battles are given the attacker's neighborhood instead of relying on card positions.
+   *
+   * @return true if the attacked card was flipped, false otherwise
    */
-  protected int cardAttackDirections(Direction direction, int newRow, int newCol,
-                                     IPlayer owner, ICard card) {
-    int cardsFlipped = 0;
-    if (newRow >= 0 && newRow < grid.getRows() && newCol >= 0 && newCol < grid.getColumns()) {
-      Cell adjacentCell = grid.getCell(newRow, newCol);
-
-      if (!(adjacentCell.isHole())) {
-        CardCell adjacentCardCell = (CardCell) adjacentCell;
-        ICard adjacentCard = adjacentCardCell.getCard();
-        IPlayer adjacentOwner = adjacentCardCell.getOwner();
-
-        if (adjacentCard != null && !owner.equals(adjacentOwner)) {
-          if (shouldFlipCard(card, adjacentCard, direction)) {
-            adjacentCardCell.setOwner(owner);
-            cardsFlipped++;
-          }
-        }
+  protected boolean cardAttackDirections(Direction direction, int index, int ownerSlot,
+                                         int cardId) {
+    PackedBoard board = grid.getBoard();
+    int adjacent = board.get(index);
+
+    // Holes and empty cells have no owner, so only occupied cells get past this check
+    int adjacentOwner = PackedBoard.ownerOf(adjacent);
+    if (adjacentOwner >= 0 && adjacentOwner != ownerSlot) {
+      int adjacentId = PackedBoard.cardIdOf(adjacent);
+      boolean flips;
+      if (battleTable != null) {
+        flips = battleTable.shouldFlip(
+                PackedValues.valueOf(board.cardValues(cardId), direction.ordinal()),
+                PackedValues.valueOf(board.cardValues(adjacentId),
+                        direction.getOpposite().ordinal()));
+      } else if (packedBattles) {
+        flips = battleRuleStrategy.shouldFlip(board.cardValues(cardId),
+                board.cardValues(adjacentId), direction.ordinal(), neighborhood);
+      } else {
+        flips = shouldFlipCard(board.cardForId(cardId), board.cardForId(adjacentId), direction);
+      }
+      if (flips) {
+        board.setOwner(index, ownerSlot);
+        return true;
       }
     }
-    return cardsFlipped;
+    return false;
   }
 
   /**
@@ -345,24 +584,15 @@ public class GameModel implements ThreeTriosModel {
 
   @Override
   public boolean isGameOver() {
-    for (int row = 0; row < grid.getRows(); row++) {
-      for (int col = 0; col < grid.getColumns(); col++) {
-        Cell cell = grid.getCell(row, col);
-        if (!cell.isHole() && cell.isEmpty()) {
-          isGameOver = false;
-          return false;
-        }
-      }
-    }
-    isGameOver = true;
-    return true;
+    isGameOver = grid.getBoard().countEmpty() == 0;
+    return isGameOver;
   }
 
   @Override
   public IPlayer getWinner() {
     int[] counts = countOccupiedCells();
-    int redCardCount = counts[0] + getPlayerHand(pRed).size();
-    int blueCardCount = counts[1] + getPlayerHand(pBlue).size();
+    int redCardCount = counts[0] + pRed.getHandSize();
+    int blueCardCount = counts[1] + pBlue.getHandSize();
 
     if (redCardCount > blueCardCount) {
       // Red Player wins
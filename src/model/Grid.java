@@ -7,22 +7,28 @@ package model;
  *  - Each cell can be either a card cell (playable) or a hole (non-playable).
  *  - The number of card cells must be odd.
  *  - Rows and Cols start at index 0.
+ * The cells themselves live in a {@link PackedBoard}. Cell objects returned by getCell are built
+ * on demand and are not part of the grid, so changing one does not change the grid: cells are
+ * changed with setCell or through getBoard(). The model and the strategies should go through
+ * getBoard() for reads as well.
  */
 public class Grid {
 
-  private Cell[][] cells;
+  private final PackedBoard board;
+  // Symmetries of the layout, found on first use, shared with copies and forgotten when a hole is
+  // added or removed
+  private BoardSymmetry symmetry;
 
   /**
    * Default if given no config file but given row and col.
    * Not used yet (Waiting for further implementation).
    */
   public Grid(int row, int col) {
-    cells = new Cell[row][col];
-    for (int rows = 0; rows < row; rows++) {
-      for (int cols = 0; cols < col; cols++) {
-        cells[rows][cols] = new CardCell();
-      }
-    }
+    this(new PackedBoard(row, col));
+  }
+
+  private Grid(PackedBoard board) {
+    this.board = board;
   }
 
   /**
@@ -30,7 +36,7 @@ public class Grid {
    * @return the number of rows in the grid
    */
   public int getRows() {
-    return cells.length;
+    return board.getRows();
   }
 
   /**
@@ -38,21 +44,36 @@ public class Grid {
    * @return the number of columns in the grid
    */
   public int getColumns() {
-    return cells[0].length;
+    return board.getColumns();
+  }
+
+  /**
+   * Returns the packed board that stores the cells of this grid. Changes made to the board are
+   * changes made to the grid.
+   * @return the board backing this grid
+   */
+  public PackedBoard getBoard() {
+    return board;
   }
 
   /**
-   * Returns the cell at the given row and column.
+   * Returns the cell at the given row and column. The cell is a new object built from the board
+   * on every call, detached from the grid: to change the cell, pass the changed cell to setCell.
    * @param row the row of the cell
    * @param col the column of the cell
-   * @return the cell at the given row and column
+   * @return a detached copy of the cell at the given row and column
    * @throws IllegalArgumentException if the row or column is out of bounds
    */
   public Cell getCell(int row, int col) {
-    if (row < 0 || row >= cells.length || col < 0 || col >= cells[0].length) {
-      throw new IllegalArgumentException("Index out of bounds: row " + row + ", col " + col);
+    checkBounds(row, col);
+    int index = board.indexOf(row, col);
+    if (board.isHole(index)) {
+      return new Hole();
+    }
+    if (board.isEmpty(index)) {
+      return new CardCell();
     }
-    return cells[row][col];
+    return new CardCell(board.cardAt(index), board.ownerPlayerAt(index));
   }
 
   /**
@@ -60,23 +81,60 @@ public class Grid {
    * @param row the row of the cell
    * @param col the column of the cell
    * @param cellToSet the cell to set at the given row and column
+   * @throws IllegalArgumentException if the row or column is out of bounds
    */
   public void setCell(int row, int col, Cell cellToSet) {
-    cells[row][col] = cellToSet;
+    checkBounds(row, col);
+    int index = board.indexOf(row, col);
+    if (cellToSet.isHole() != board.isHole(index)) {
+      symmetry = null;
+    }
+    if (cellToSet.isHole()) {
+      board.set(index, PackedBoard.HOLE);
+    } else if (cellToSet.getCard() == null) {
+      board.set(index, PackedBoard.EMPTY);
+    } else {
+      board.place(index, board.cardIdFor(cellToSet.getCard()),
+              board.slotOf(cellToSet.getOwner()));
+    }
+  }
+
+  // Helper that rejects positions outside the grid before they are turned into flat indices.
+  private void checkBounds(int row, int col) {
+    if (row < 0 || row >= getRows() || col < 0 || col >= getColumns()) {
+      throw new IllegalArgumentException("Index out of bounds: row " + row + ", col " + col);
+    }
+  }
+
+  /**
+   * Returns an immutable snapshot of the grid as it is right now. Snapshots are persistent, so a
+   * new one shares every unchanged chunk of cells with the one taken before it, and taking a
+   * snapshot of a grid that has not changed since the last one costs nothing.
+   * @return a read-only snapshot of the grid
+   */
+  public BoardView snapshot() {
+    return board.view();
   }
 
   /**
    * Sets the grid to a new grid. Used primarily for testing purposes.
    */
   public void setGrid(Grid newGrid) {
-    if (newGrid.getRows() != getRows() || newGrid.getColumns() != getColumns()) {
-      throw new IllegalArgumentException("New grid dimensions must match current grid dimensions");
-    }
-    for (int row = 0; row < getRows(); row++) {
-      for (int col = 0; col < getColumns(); col++) {
-        this.cells[row][col] = newGrid.getCell(row, col);
-      }
+    board.copyFrom(newGrid.board);
+    symmetry = null;
+  }
+
+  /**
+   * Returns the rotations and reflections that map the holes of this grid onto holes and its
+   * card cells onto card cells. They are found when first asked for after the grid was loaded,
+   * and copies of the grid share them, so the search finds them once per game.
+   * @return the symmetries of the grid's layout
+   */
+  public BoardSymmetry getSymmetry() {
+    if (symmetry == null) {
+      symmetry = BoardSymmetry.of(this);
     }
+    return symmetry;
   }
 
   /**
@@ -84,37 +142,18 @@ public class Grid {
    * @return the number of cells that are not holes
    */
   public int getNumCardCells() {
-    int count = 0;
-    for (int row = 0; row < getRows(); row++) {
-      for (int col = 0; col < getColumns(); col++) {
-        if (!cells[row][col].isHole()) {
-          count++;
-        }
-      }
-    }
-    return count;
+    return board.countCardCells();
   }
 
   /**
    * Method that is used within the model to return a mutable copy of the
-   * grid so that the initial grid is not changed. Scoped because this is only used in the package
-   * and not even in any of the subclasses. So this allows for the minimal method scope.
+   * grid so that the initial grid is not changed. Copying only duplicates the packed cell array,
+   * no cell objects are created.
    */
   public Grid copyOfGrid() {
-    Grid newGrid = new Grid(this.getRows(), this.getColumns());
-    for (int row = 0; row < this.getRows(); row++) {
-      for (int col = 0; col < this.getColumns(); col++) {
-        Cell originalCell = this.getCell(row, col);
-        if (originalCell.isHole()) {
-          newGrid.setCell(row, col, new Hole());
-        } else {
-          CardCell originalCardCell = (CardCell) originalCell;
-          newGrid.setCell(row, col, new CardCell(
-                  originalCardCell.getCard(), originalCardCell.getOwner()));
-        }
-      }
-    }
-    return newGrid;
+    Grid copy = new Grid(board.copy());
+    copy.symmetry = getSymmetry();
+    return copy;
   }
 
   /**
@@ -125,7 +164,7 @@ public class Grid {
    * @return true if the cell is empty, false otherwise
    */
   public boolean isCellEmpty(int row, int col) {
-    return cells[row][col].isEmpty();
+    return board.isEmpty(board.indexOf(row, col));
   }
 
   @Override
@@ -133,12 +172,11 @@ public class Grid {
     StringBuilder sb = new StringBuilder();
     for (int row = 0; row < getRows(); row++) {
       for (int col = 0; col < getColumns(); col++) {
-        Cell cell = getCell(row, col);
-        if (cell.isHole()) {
+        int index = board.indexOf(row, col);
+        if (board.isHole(index)) {
           sb.append("H ");
         } else {
-          CardCell cardCell = (CardCell) cell;
-          sb.append(cardCell.getCard() != null ? "C " : "E ");
+          sb.append(board.isOccupied(index) ? "C " : "E ");
         }
       }
       sb.append("\n");
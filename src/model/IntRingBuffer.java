@@ -0,0 +1,71 @@
+package model;
+
+/**
+ * Fixed-capacity FIFO queue of primitive ints backed by a power-of-two ring. Used by the battle
+ * phase to queue the cells of a combo cascade without boxing or allocating per cell. The buffer is
+ * meant to be created once and reused for every battle.
+ */
+final class IntRingBuffer {
+
+  private int[] elements;
+  private int mask;
+  private int head;
+  private int tail;
+
+  /**
+   * Creates a ring buffer that can hold at least the given number of ints at once.
+   *
+   * @param minCapacity the minimum number of ints the buffer must hold
+   */
+  IntRingBuffer(int minCapacity) {
+    ensureCapacity(minCapacity);
+  }
+
+  /**
+   * Makes sure the buffer can hold at least the given number of ints, emptying it if it has to
+   * grow.
+   *
+   * @param minCapacity the minimum number of ints the buffer must hold
+   */
+  void ensureCapacity(int minCapacity) {
+    if (elements != null && elements.length >= minCapacity) {
+      return;
+    }
+    int capacity = Integer.highestOneBit(Math.max(1, minCapacity - 1)) << 1;
+    elements = new int[capacity];
+    mask = capacity - 1;
+    head = 0;
+    tail = 0;
+  }
+
+  void clear() {
+    head = 0;
+    tail = 0;
+  }
+
+  boolean isEmpty() {
+    return head == tail;
+  }
+
+  /**
+   * Adds an int to the back of the queue.
+   *
+   * @param value the int to add
+   * @throws IllegalStateException if the buffer is full
+   */
+  void offer(int value) {
+    if (tail - head == elements.length) {
+      throw new IllegalStateException("Ring buffer is full.");
+    }
+    elements[tail++ & mask] = value;
+  }
+
+  /**
+   * Removes and returns the int at the front of the queue. Only call on a non-empty buffer.
+   *
+   * @return the int at the front of the queue
+   */
+  int poll() {
+    return elements[head++ & mask];
+  }
+}
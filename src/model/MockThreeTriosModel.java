@@ -7,10 +7,14 @@ import java.util.List;
 import java.util.Queue;
 import java.util.Set;
 
+import extrafeatures.BattleRuleStrategy;
+import extrafeatures.NormalBattleRule;
 import player.HumanPlayer;
 import player.IPlayer;
 import player.MachinePlayer;
 import strategy.Strategy;
+import trace.Trace;
+import trace.TraceLevel;
 
 import static model.CardValues.A;
 
@@ -47,7 +51,7 @@ public class MockThreeTriosModel implements ThreeTriosModel {
 
     this.currentPlayer = redPlayer;
     this.isGameOver = false;
-
+    grid.getBoard().bindPlayers(redPlayer, bluePlayer);
   }
 
   /**
@@ -78,8 +82,9 @@ public class MockThreeTriosModel implements ThreeTriosModel {
 
       this.currentPlayer = redPlayer;
       this.isGameOver = false;
+      grid.getBoard().bindPlayers(redPlayer, bluePlayer);
     } else {
-      System.out.println("This is a computer only game."
+      Trace.log(TraceLevel.WARN, "MockThreeTriosModel", "This is a computer only game."
               + " Pass in nothing if u want a human vs human.");
     }
   }
@@ -113,8 +118,9 @@ public class MockThreeTriosModel implements ThreeTriosModel {
 
       this.currentPlayer = redPlayer;
       this.isGameOver = false;
+      grid.getBoard().bindPlayers(redPlayer, bluePlayer);
     } else {
-      System.out.println("This is a computer only game."
+      Trace.log(TraceLevel.WARN, "MockThreeTriosModel", "This is a computer only game."
               + " Pass in nothing if u want a human vs human.");
     }
   }
@@ -135,6 +141,7 @@ public class MockThreeTriosModel implements ThreeTriosModel {
    */
   public void startGameWithConfig(Grid grid) {
     this.grid = grid;
+    this.grid.getBoard().bindPlayers(redPlayer, bluePlayer);
     isGameOver = false;
   }
 
@@ -199,6 +206,28 @@ public class MockThreeTriosModel implements ThreeTriosModel {
     return this.grid;
   }
 
+  @Override
+  public BoardView getBoardView() {
+    return grid.snapshot();
+  }
+
+  @Override
+  public BattleRuleStrategy getBattleRuleStrategy() {
+    // The mock resolves battles with the normal high beats low rule
+    return new NormalBattleRule();
+  }
+
+  @Override
+  public long getVersion() {
+    return grid.getBoard().getVersion();
+  }
+
+  @Override
+  public long getPositionHash() {
+    return Zobrist.positionHash(grid.getBoard().getHash(), redPlayer.getHand(),
+            bluePlayer.getHand(), currentPlayer == bluePlayer);
+  }
+
   @Override
   public List<ICard> getPlayerHand(IPlayer player) {
     return player.getHand();
@@ -216,8 +245,8 @@ public class MockThreeTriosModel implements ThreeTriosModel {
 
   @Override
   public int getNumCardsAbleToFlip(IPlayer player, ICard card, int row, int col) {
-    // Save the current state of the grid
-    Grid originalGrid = grid.copyOfGrid();
+    // Open a move so the placement and every flip it causes can be undone
+    grid.getBoard().beginMove();
 
     // Temporarily place the card on the grid
     CardCell tempCardCell = new CardCell(card, player);
@@ -227,10 +256,30 @@ public class MockThreeTriosModel implements ThreeTriosModel {
     int cardsFlipped = simulateEntireBattlePhase(player, row, col);
 
     // Revert the grid to its original state
-    grid.setGrid(originalGrid);
+    grid.getBoard().undoMove();
     return cardsFlipped;
   }
 
+  @Override
+  public void getFlipMatrix(IPlayer player, int[] flips) {
+    if (player == null || flips == null) {
+      throw new IllegalArgumentException("Player and flip array cannot be null.");
+    }
+    List<ICard> hand = player.getHand();
+    PackedBoard board = grid.getBoard();
+    if (flips.length < hand.size() * board.size()) {
+      throw new IllegalArgumentException("Flip array is too small for the hand and the board.");
+    }
+    for (int card = 0; card < hand.size(); card++) {
+      for (int index = 0; index < board.size(); index++) {
+        flips[card * board.size() + index] = board.isEmpty(index)
+                ? getNumCardsAbleToFlip(player, hand.get(card), board.rowOf(index),
+                        board.colOf(index))
+                : -1;
+      }
+    }
+  }
+
   /**
    * Simulation of entire battle phase. Abstracted into its own method for code clarity.
    */
@@ -240,15 +289,7 @@ public class MockThreeTriosModel implements ThreeTriosModel {
 
   @Override
   public boolean isGameOver() {
-    for (int row = 0; row < grid.getRows(); row++) {
-      for (int col = 0; col < grid.getColumns(); col++) {
-        Cell cell = grid.getCell(row, col);
-        if (!cell.isHole() && cell.isEmpty()) {
-          return false;
-        }
-      }
-    }
-    return true;
+    return grid.getBoard().countEmpty() == 0;
   }
 
   @Override
@@ -414,16 +455,16 @@ public class MockThreeTriosModel implements ThreeTriosModel {
       Cell adjacentCell = grid.getCell(newRow, newCol);
 
       if (!(adjacentCell.isHole())) {
-        CardCell adjacentCardCell = (CardCell) adjacentCell;
-        ICard adjacentCard = adjacentCardCell.getCard();
-        IPlayer adjacentOwner = adjacentCardCell.getOwner();
+        ICard adjacentCard = adjacentCell.getCard();
+        IPlayer adjacentOwner = adjacentCell.getOwner();
 
         if (adjacentCard != null && !owner.equals(adjacentOwner)) {
           int attackValue = parseAttackValue(card.getAttackValue(direction));
           int defenseValue = parseAttackValue(adjacentCard.getAttackValue(direction.getOpposite()));
 
           if (attackValue > defenseValue) {
-            adjacentCardCell.setOwner(owner);
+            PackedBoard board = grid.getBoard();
+            board.setOwner(board.indexOf(newRow, newCol), board.slotOf(owner));
             cardsFlipped++;
           }
         }
@@ -0,0 +1,90 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Undo log for a {@link PackedBoard}. While at least one move is open, every cell write on the
+ * board records the index and the previous packed value of the cell, so undoing a move only
+ * touches the cells that the placement and its combo cascade actually changed.
+ * Moves can be nested, each undo rolls back to where the matching begin left off.
+ */
+final class MoveJournal {
+
+  private int[] indices = new int[16];
+  private int[] values = new int[16];
+  private int size;
+  private int[] marks = new int[8];
+  private int depth;
+
+  /**
+   * Checks if there is a move open that writes should be recorded for.
+   *
+   * @return true if writes are being recorded, false otherwise
+   */
+  boolean isRecording() {
+    return depth > 0;
+  }
+
+  /**
+   * Opens a new move. Every write from now until the matching rollback is recorded.
+   */
+  void begin() {
+    if (depth == marks.length) {
+      marks = Arrays.copyOf(marks, depth * 2);
+    }
+    marks[depth++] = size;
+  }
+
+  /**
+   * Records the value a cell had before it was overwritten.
+   *
+   * @param index    the flat index of the cell
+   * @param oldValue the packed value of the cell before the write
+   */
+  void record(int index, int oldValue) {
+    if (size == indices.length) {
+      indices = Arrays.copyOf(indices, size * 2);
+      values = Arrays.copyOf(values, size * 2);
+    }
+    indices[size] = index;
+    values[size] = oldValue;
+    size++;
+  }
+
+  /**
+   * Closes the most recent open move and returns where its writes start in the log.
+   *
+   * @return the log position of the first write of the closed move
+   * @throws IllegalStateException if there is no open move
+   */
+  int end() {
+    if (depth == 0) {
+      throw new IllegalStateException("No move to undo.");
+    }
+    return marks[--depth];
+  }
+
+  /**
+   * Returns the number of writes currently in the log.
+   *
+   * @return the number of recorded writes
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Removes the newest write from the log.
+   */
+  void pop() {
+    size--;
+  }
+
+  int lastIndex() {
+    return indices[size - 1];
+  }
+
+  int lastValue() {
+    return values[size - 1];
+  }
+}
@@ -0,0 +1,645 @@
+package model;
+
+import java.util.Arrays;
+
+import player.IPlayer;
+
+/**
+ * Primitive board engine that backs {@link Grid}. Every cell of the board is stored as a single
+ * packed int in a flat row-major array, so reading or changing a cell never touches a heap object.
+ * Cell Encoding:
+ *  - bit 0: hole flag, set if the cell is a hole.
+ *  - bit 1: owner bit, 0 for the player in slot 0 (red) and 1 for the player in slot 1 (blue).
+ *  - bits 2 and up: the id of the card in the cell plus one, so 0 means the cell is empty.
+ * Card ids index into a card table that is shared between a board and all of its copies, and
+ * owner slots are bound to players by the model when a game starts.
+ * The cell array itself is copy-on-write: copies share it with this board until one side writes,
+ * and only then is the array cloned. Snapshots are persistent: the cells are cut into fixed-size
+ * chunks, and a new {@link BoardView} reuses every chunk of the previous one that has not been
+ * written since, so taking a snapshot only copies the chunks that changed.
+ */
+public final class PackedBoard {
+
+  /**
+   * Packed value of an empty card cell.
+   */
+  public static final int EMPTY = 0;
+
+  /**
+   * Packed value of a hole.
+   */
+  public static final int HOLE = 1;
+
+  private static final int OWNER_BIT = 2;
+  private static final int CARD_SHIFT = 2;
+  private static final int CHUNK_SHIFT = 4;
+
+  private final int rows;
+  private final int cols;
+  private int[] cells;
+  private boolean cellsShared;
+  private final int[] neighbors;
+  private final CardTable cardTable;
+  private IPlayer[] players;
+  private boolean playersShared;
+  private final MoveJournal journal = new MoveJournal();
+  private final int[] ownedCounts = new int[2];
+  private int emptyCount;
+  // Zobrist hash of the cards on the board, kept up to date by every write like the counts
+  private long hash;
+  private long version;
+  private long[] dirtyChunks;
+  private BoardView lastView;
+
+  /**
+   * Creates a new board with the given dimensions where every cell is an empty card cell.
+   *
+   * @param rows the number of rows on the board
+   * @param cols the number of columns on the board
+   */
+  public PackedBoard(int rows, int cols) {
+    this(rows, cols, new int[rows * cols], buildNeighbors(rows, cols), new CardTable(),
+            new IPlayer[2]);
+    recount();
+  }
+
+  private PackedBoard(int rows, int cols, int[] cells, int[] neighbors, CardTable cardTable,
+                      IPlayer[] players) {
+    this.rows = rows;
+    this.cols = cols;
+    this.cells = cells;
+    this.neighbors = neighbors;
+    this.cardTable = cardTable;
+    this.players = players;
+    this.dirtyChunks = new long[(chunkCount() + 63) >>> 6];
+  }
+
+  private int chunkCount() {
+    return (cells.length + (1 << CHUNK_SHIFT) - 1) >>> CHUNK_SHIFT;
+  }
+
+  private void markAllDirty() {
+    Arrays.fill(dirtyChunks, -1L);
+  }
+
+  /**
+   * Rebuilds the per-slot card counts, the empty cell count and the hash from the cells. Only needed when
+   * cells are changed in bulk, single cell writes keep the counts up to date on their own.
+   */
+  private void recount() {
+    ownedCounts[0] = 0;
+    ownedCounts[1] = 0;
+    emptyCount = 0;
+    hash = 0;
+    for (int index = 0; index < cells.length; index++) {
+      int cell = cells[index];
+      int slot = ownerOf(cell);
+      if (slot >= 0) {
+        ownedCounts[slot]++;
+        hash ^= Zobrist.cellKey(index, cardTable.values(cardIdOf(cell)), slot);
+      } else if (cell == EMPTY) {
+        emptyCount++;
+      }
+    }
+  }
+
+  /**
+   * Precomputes the neighbor of every cell in every direction, in the order of
+   * {@link Direction#values()}, with -1 marking a neighbor that falls off the board. The neighbor
+   * of the cell at flat index {@code i} in the direction with ordinal {@code d} is at
+   * {@code i * 4 + d}, the layout {@link #neighbor(int, int)} reads. Shared with the search,
+   * which keeps its own board.
+   *
+   * @param rows the number of rows on the board
+   * @param cols the number of columns on the board
+   * @return the neighbor table of the board
+   */
+  public static int[] buildNeighbors(int rows, int cols) {
+    Direction[] directions = Direction.values();
+    int[] neighbors = new int[rows * cols * directions.length];
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < cols; col++) {
+        for (Direction direction : directions) {
+          int newRow = row + direction.getRowOffset();
+          int newCol = col + direction.getColOffset();
+          boolean onBoard = newRow >= 0 && newRow < rows && newCol >= 0 && newCol < cols;
+          neighbors[(row * cols + col) * directions.length + direction.ordinal()] =
+                  onBoard ? newRow * cols + newCol : -1;
+        }
+      }
+    }
+    return neighbors;
+  }
+
+  /**
+   * Packs a card id and an owner slot into a single cell value.
+   *
+   * @param cardId the id of the card in the cell
+   * @param slot   the owner slot of the card (0 or 1)
+   * @return the packed cell value
+   */
+  public static int encode(int cardId, int slot) {
+    return ((cardId + 1) << CARD_SHIFT) | (slot << 1);
+  }
+
+  /**
+   * Returns the card id stored in a packed cell value.
+   *
+   * @param packed the packed cell value
+   * @return the card id, or -1 if the cell holds no card
+   */
+  public static int cardIdOf(int packed) {
+    return (packed >>> CARD_SHIFT) - 1;
+  }
+
+  /**
+   * Returns the owner slot stored in a packed cell value.
+   *
+   * @param packed the packed cell value
+   * @return the owner slot, or -1 if the cell holds no card
+   */
+  public static int ownerOf(int packed) {
+    return packed < (1 << CARD_SHIFT) ? -1 : (packed & OWNER_BIT) >>> 1;
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  public int getColumns() {
+    return cols;
+  }
+
+  /**
+   * Returns the number of cells on the board, holes included.
+   *
+   * @return the number of cells on the board
+   */
+  public int size() {
+    return cells.length;
+  }
+
+  /**
+   * Converts a row and column into the flat index of that cell.
+   *
+   * @param row the row of the cell
+   * @param col the column of the cell
+   * @return the flat index of the cell
+   */
+  public int indexOf(int row, int col) {
+    return row * cols + col;
+  }
+
+  public int rowOf(int index) {
+    return index / cols;
+  }
+
+  public int colOf(int index) {
+    return index % cols;
+  }
+
+  /**
+   * Returns the index of the cell next to a cell in the given direction.
+   *
+   * @param index     the flat index of the cell
+   * @param direction the ordinal of the direction to look in
+   * @return the flat index of the neighboring cell, or -1 if it is off the board
+   */
+  public int neighbor(int index, int direction) {
+    return neighbors[(index << 2) + direction];
+  }
+
+  /**
+   * Returns the raw packed value of a cell.
+   *
+   * @param index the flat index of the cell
+   * @return the packed value of the cell
+   */
+  public int get(int index) {
+    return cells[index];
+  }
+
+  public boolean isHole(int index) {
+    return cells[index] == HOLE;
+  }
+
+  /**
+   * Checks if a cell is a card cell that does not hold a card yet.
+   *
+   * @param index the flat index of the cell
+   * @return true if the cell is an empty card cell, false otherwise
+   */
+  public boolean isEmpty(int index) {
+    return cells[index] == EMPTY;
+  }
+
+  public boolean isOccupied(int index) {
+    return cells[index] > HOLE;
+  }
+
+  public int cardIdAt(int index) {
+    return cardIdOf(cells[index]);
+  }
+
+  public int ownerAt(int index) {
+    return ownerOf(cells[index]);
+  }
+
+  /**
+   * Returns the card in a cell.
+   *
+   * @param index the flat index of the cell
+   * @return the card in the cell, or null if the cell holds no card
+   */
+  public ICard cardAt(int index) {
+    int cardId = cardIdOf(cells[index]);
+    return cardId < 0 ? null : cardTable.get(cardId);
+  }
+
+  /**
+   * Returns the player who owns a cell.
+   *
+   * @param index the flat index of the cell
+   * @return the owner of the cell, or null if the cell holds no card
+   */
+  public IPlayer ownerPlayerAt(int index) {
+    int slot = ownerOf(cells[index]);
+    return slot < 0 ? null : players[slot];
+  }
+
+  /**
+   * Returns the card with the given id.
+   *
+   * @param cardId the id of the card
+   * @return the card registered under that id
+   */
+  public ICard cardForId(int cardId) {
+    return cardTable.get(cardId);
+  }
+
+  /**
+   * Returns the attack values of the card with the given id, packed into one int the way
+   * {@link PackedValues#pack} does.
+   *
+   * @param cardId the id of the card
+   * @return the packed attack values of the card
+   */
+  public int cardValues(int cardId) {
+    return cardTable.values(cardId);
+  }
+
+  /**
+   * Returns the id of a card, registering the card in the card table if it has not been seen yet.
+   *
+   * @param card the card to look up
+   * @return the id of the card
+   */
+  public int cardIdFor(ICard card) {
+    return cardTable.idFor(card);
+  }
+
+  /**
+   * Returns the owner slot of a player. Players that have not been bound yet take the first free
+   * slot.
+   *
+   * @param player the player to look up
+   * @return the owner slot of the player (0 or 1)
+   * @throws IllegalArgumentException if the player is null or both slots belong to other players
+   */
+  public int slotOf(IPlayer player) {
+    if (player == null) {
+      throw new IllegalArgumentException("Owner cannot be null.");
+    }
+    for (int slot = 0; slot < players.length; slot++) {
+      if (players[slot] == player) {
+        return slot;
+      }
+    }
+    for (int slot = 0; slot < players.length; slot++) {
+      if (players[slot] == null) {
+        ownPlayers();
+        players[slot] = player;
+        return slot;
+      }
+      if (players[slot].equals(player)) {
+        return slot;
+      }
+    }
+    throw new IllegalArgumentException("Board already has two players.");
+  }
+
+  /**
+   * Returns the player bound to an owner slot.
+   *
+   * @param slot the owner slot (0 or 1)
+   * @return the player in that slot, or null if the slot is not bound yet
+   */
+  public IPlayer playerInSlot(int slot) {
+    return players[slot];
+  }
+
+  /**
+   * Binds the red player to slot 0 and the blue player to slot 1. Cards owned by a player that
+   * was bound to the other slot before have their owner bit moved along with the player.
+   *
+   * @param red  the red player
+   * @param blue the blue player
+   */
+  void bindPlayers(IPlayer red, IPlayer blue) {
+    boolean moveSlot0 = players[0] != null && players[0] == blue && red != blue;
+    boolean moveSlot1 = players[1] != null && players[1] == red && red != blue;
+    if (moveSlot0 || moveSlot1) {
+      ownCells();
+      for (int index = 0; index < cells.length; index++) {
+        int slot = ownerOf(cells[index]);
+        if ((slot == 0 && moveSlot0) || (slot == 1 && moveSlot1)) {
+          cells[index] ^= OWNER_BIT;
+        }
+      }
+      recount();
+      markAllDirty();
+    }
+    ownPlayers();
+    players[0] = red;
+    players[1] = blue;
+    version++;
+  }
+
+  /**
+   * Sets the raw packed value of a cell.
+   *
+   * @param index  the flat index of the cell
+   * @param packed the new packed value of the cell
+   */
+  public void set(int index, int packed) {
+    write(index, packed);
+  }
+
+  /**
+   * Places a card owned by the player in the given slot on a cell.
+   *
+   * @param index  the flat index of the cell
+   * @param cardId the id of the card
+   * @param slot   the owner slot of the card
+   */
+  public void place(int index, int cardId, int slot) {
+    write(index, encode(cardId, slot));
+  }
+
+  /**
+   * Changes the owner of the card in a cell.
+   *
+   * @param index the flat index of the cell
+   * @param slot  the new owner slot of the card
+   */
+  public void setOwner(int index, int slot) {
+    write(index, (cells[index] & ~OWNER_BIT) | (slot << 1));
+  }
+
+  // Gives this board its own cell array if the current one is shared with a copy or a view.
+  private void ownCells() {
+    if (cellsShared) {
+      cells = cells.clone();
+      cellsShared = false;
+    }
+  }
+
+  // Gives this board its own player slots if the current ones are shared with a copy, so binding
+  // the players of one board never rebinds its copies
+  private void ownPlayers() {
+    if (playersShared) {
+      players = players.clone();
+      playersShared = false;
+    }
+  }
+
+  // Every cell change goes through here so that open moves can be undone.
+  private void write(int index, int packed) {
+    if (journal.isRecording()) {
+      journal.record(index, cells[index]);
+    } else {
+      version++;
+    }
+    store(index, packed);
+  }
+
+  // Stores a packed value, moves the cell between the per-slot card counts and the empty count and
+  // swaps the key of the old card in the hash for the key of the new one.
+  private void store(int index, int packed) {
+    int old = cells[index];
+    if (old == packed) {
+      return;
+    }
+    ownCells();
+    int chunk = index >>> CHUNK_SHIFT;
+    dirtyChunks[chunk >>> 6] |= 1L << chunk;
+    int oldSlot = ownerOf(old);
+    if (oldSlot >= 0) {
+      ownedCounts[oldSlot]--;
+      hash ^= Zobrist.cellKey(index, cardTable.values(cardIdOf(old)), oldSlot);
+    } else if (old == EMPTY) {
+      emptyCount--;
+    }
+    int newSlot = ownerOf(packed);
+    if (newSlot >= 0) {
+      ownedCounts[newSlot]++;
+      hash ^= Zobrist.cellKey(index, cardTable.values(cardIdOf(packed)), newSlot);
+    } else if (packed == EMPTY) {
+      emptyCount++;
+    }
+    cells[index] = packed;
+  }
+
+  /**
+   * Opens a move on this board. Every cell written until the matching {@link #undoMove()} is
+   * logged, so the move can be taken back without copying the board. Moves can be nested.
+   */
+  public void beginMove() {
+    journal.begin();
+  }
+
+  /**
+   * Checks if a move is open on this board, that is if the board holds writes that will be undone.
+   *
+   * @return true if a move has been opened and not undone yet, false otherwise
+   */
+  public boolean hasOpenMove() {
+    return journal.isRecording();
+  }
+
+  /**
+   * Takes back the most recently opened move by restoring only the cells it wrote, newest first.
+   *
+   * @return the number of cell writes that were undone
+   * @throws IllegalStateException if there is no open move
+   */
+  public int undoMove() {
+    int mark = journal.end();
+    int undone = journal.size() - mark;
+    while (journal.size() > mark) {
+      store(journal.lastIndex(), journal.lastValue());
+      journal.pop();
+    }
+    return undone;
+  }
+
+  /**
+   * Returns the number of cards on the board owned by the player in a slot. The count is kept up
+   * to date by every write and undo, so this does not scan the board.
+   *
+   * @param slot the owner slot (0 or 1)
+   * @return the number of cards on the board owned by that slot
+   */
+  public int countOwnedBy(int slot) {
+    return ownedCounts[slot];
+  }
+
+  /**
+   * Returns the number of card cells that do not hold a card yet. Like the per-slot counts, this
+   * is kept up to date by every write and undo, so a simulated move that is taken back leaves it
+   * where it was.
+   *
+   * @return the number of empty card cells on the board
+   */
+  public int countEmpty() {
+    return emptyCount;
+  }
+
+  /**
+   * Returns the number of cells that are not holes.
+   *
+   * @return the number of card cells on the board
+   */
+  public int countCardCells() {
+    int count = 0;
+    for (int cell : cells) {
+      if (cell != HOLE) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns a copy of this board. The copy shares the card table with this board. It also shares
+   * the cell array until either board writes a cell, and the player slots until either board
+   * binds a player, so copying a board that is only read never clones anything.
+   *
+   * @return a copy of this board
+   */
+  public PackedBoard copy() {
+    cellsShared = true;
+    playersShared = true;
+    PackedBoard copy = new PackedBoard(rows, cols, cells, neighbors, cardTable, players);
+    copy.cellsShared = true;
+    copy.playersShared = true;
+    copy.ownedCounts[0] = ownedCounts[0];
+    copy.ownedCounts[1] = ownedCounts[1];
+    copy.emptyCount = emptyCount;
+    copy.hash = hash;
+    copy.version = version;
+    copy.lastView = lastView;
+    System.arraycopy(dirtyChunks, 0, copy.dirtyChunks, 0, dirtyChunks.length);
+    return copy;
+  }
+
+  /**
+   * Returns the Zobrist hash of the cards on this board, see {@link Zobrist#cellKey}. Like the
+   * counts it is updated by every write and undo, so a simulated move that is taken back leaves
+   * the hash where it was.
+   *
+   * @return the hash of the cards on the board
+   */
+  public long getHash() {
+    return hash;
+  }
+
+  /**
+   * Returns the version of this board. The version goes up with every cell write made outside of
+   * an open move and never goes down. Writes inside a move are tentative and do not count, so a
+   * move that is simulated and undone leaves the version where it was.
+   *
+   * @return the current version of the board
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns an immutable snapshot of the board as it is right now. Chunks of cells that have not
+   * been written since the previous snapshot are shared with it instead of copied, and if nothing
+   * was written at all the previous snapshot is returned as is. Snapshots never change after they
+   * are taken and can be handed to other threads, but taking one must happen on the thread that
+   * owns this board. A snapshot taken while a move is open shows the tentative cells of the move;
+   * it is never shared with later snapshots, which go on from the last one taken outside a move.
+   *
+   * @return a read-only snapshot of this board
+   */
+  public BoardView view() {
+    BoardView previous = lastView;
+    if (previous != null && previous.getVersion() == version && !journal.isRecording()
+            && !isAnyChunkDirty() && previous.hasPlayers(players[0], players[1])) {
+      return previous;
+    }
+    int[][] chunks = new int[chunkCount()][];
+    for (int chunk = 0; chunk < chunks.length; chunk++) {
+      boolean dirty = (dirtyChunks[chunk >>> 6] & (1L << chunk)) != 0;
+      if (previous != null && !dirty) {
+        chunks[chunk] = previous.chunk(chunk);
+      } else {
+        int from = chunk << CHUNK_SHIFT;
+        chunks[chunk] = Arrays.copyOfRange(cells, from,
+                Math.min(from + (1 << CHUNK_SHIFT), cells.length));
+      }
+    }
+    ICard[] cards = previous != null && previous.cardCount() == cardTable.size()
+            ? previous.cards() : cardTable.toArray();
+    BoardView view = new BoardView(rows, cols, CHUNK_SHIFT, chunks, cards, players[0], players[1],
+            ownedCounts[0], ownedCounts[1], emptyCount, version);
+    if (!journal.isRecording()) {
+      // Chunks written by an open move stay dirty, so they are copied again once it is undone
+      Arrays.fill(dirtyChunks, 0L);
+      lastView = view;
+    }
+    return view;
+  }
+
+  private boolean isAnyChunkDirty() {
+    for (long word : dirtyChunks) {
+      if (word != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Overwrites every cell of this board with the cells of another board of the same size. Boards
+   * that do not share a card table are re-encoded cell by cell.
+   *
+   * @param other the board to copy the cells from
+   * @throws IllegalArgumentException if the boards have different dimensions
+   */
+  public void copyFrom(PackedBoard other) {
+    if (other.rows != rows || other.cols != cols) {
+      throw new IllegalArgumentException("New grid dimensions must match current grid dimensions");
+    }
+    if (other.cardTable == cardTable && other.players[0] == players[0]
+            && other.players[1] == players[1]) {
+      ownCells();
+      System.arraycopy(other.cells, 0, cells, 0, cells.length);
+      recount();
+      markAllDirty();
+      version++;
+      return;
+    }
+    for (int index = 0; index < cells.length; index++) {
+      int packed = other.cells[index];
+      if (packed > HOLE) {
+        packed = encode(cardIdFor(other.cardAt(index)), slotOf(other.ownerPlayerAt(index)));
+      }
+      store(index, packed);
+    }
+    version++;
+  }
+}
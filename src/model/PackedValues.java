@@ -0,0 +1,53 @@
+package model;
+
+/**
+ * Packed attack values: the four attack values of a card in one int of four 4-bit values, one per
+ * direction in the order of {@link Direction#values()}, so cards and the engine can keep and
+ * compare them as a single int.
+ */
+public final class PackedValues {
+
+  private static final int VALUE_BITS = 4;
+  private static final int VALUE_MASK = (1 << VALUE_BITS) - 1;
+
+  private PackedValues() {
+  }
+
+  /**
+   * Packs four attack values into a single int, in the order of {@link Direction#values()}.
+   *
+   * @param north the attack value for the north direction
+   * @param south the attack value for the south direction
+   * @param east  the attack value for the east direction
+   * @param west  the attack value for the west direction
+   * @return the packed attack values
+   */
+  public static int pack(int north, int south, int east, int west) {
+    return north | (south << VALUE_BITS) | (east << (2 * VALUE_BITS)) | (west << (3 * VALUE_BITS));
+  }
+
+  /**
+   * Returns the packed attack values of any card, packing them if the card is not a {@link Card}.
+   *
+   * @param card the card
+   * @return the packed attack values of the card
+   */
+  public static int of(ICard card) {
+    if (card instanceof Card) {
+      return ((Card) card).getPackedValues();
+    }
+    return pack(card.getCardValue(Direction.NORTH), card.getCardValue(Direction.SOUTH),
+            card.getCardValue(Direction.EAST), card.getCardValue(Direction.WEST));
+  }
+
+  /**
+   * Returns the attack value in a direction from packed attack values.
+   *
+   * @param packedValues the packed attack values of a card
+   * @param direction    the ordinal of the direction
+   * @return the attack value in that direction
+   */
+  public static int valueOf(int packedValues, int direction) {
+    return (packedValues >>> (direction * VALUE_BITS)) & VALUE_MASK;
+  }
+}
@@ -2,6 +2,7 @@ package model;
 
 import java.util.List;
 
+import extrafeatures.BattleRuleStrategy;
 import player.IPlayer;
 
 /**
@@ -25,6 +26,41 @@ public interface ReadOnlyThreeTriosModel {
    */
   Grid getGrid();
 
+  /**
+   * Gets a read-only view of the board as it is right now. Unlike getGrid, taking a view does not
+   * copy the board, and reading it does not create any cell objects. The view does not change
+   * when later moves are played.
+   *
+   * @return an immutable view of the current board
+   */
+  BoardView getBoardView();
+
+  /**
+   * Gets the version of the game board. The version goes up every time the board changes and
+   * never goes down, so two equal versions always mean the same board. Moves that are only
+   * simulated and then undone do not change it.
+   *
+   * @return the current board version
+   */
+  long getVersion();
+
+  /**
+   * Gets the Zobrist hash of the current position: the cards on the board with their owners,
+   * both hands and the player to move. Positions reached through different move orders hash the
+   * same, so searches can recognize transpositions. See {@link Zobrist}.
+   *
+   * @return the hash of the current position
+   */
+  long getPositionHash();
+
+  /**
+   * Gets the battle rule cards are played under, so that searches can resolve battles on their
+   * own copies of the board the same way the model does.
+   *
+   * @return the battle rule of the game
+   */
+  BattleRuleStrategy getBattleRuleStrategy();
+
   /**
    * Gets the hand of cards (list of Cards) for the specified player.
    *
@@ -85,6 +121,19 @@ public interface ReadOnlyThreeTriosModel {
    */
   int getNumCardsAbleToFlip(IPlayer player, ICard card, int row, int col);
 
+  /**
+   * Fills in the number of cards every card in a player's hand would flip on every cell of the
+   * board, in one call, as {@link #getNumCardsAbleToFlip} would count them. The count of the card
+   * at index {@code h} of the hand on the cell at row {@code r} and column {@code c} goes to
+   * {@code flips[h * rows * columns + r * columns + c]}. Holes and cells that already hold a card
+   * get -1.
+   *
+   * @param player the player whose hand is played
+   * @param flips  the array to fill, at least hand size times board size long
+   * @throws IllegalArgumentException if the player or the array is null, or the array is too small
+   */
+  void getFlipMatrix(IPlayer player, int[] flips);
+
   /**
    * Returns the opponent of the player who is currently playing.
    * Used primarily in the AI strategies that were implemented.
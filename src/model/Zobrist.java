@@ -0,0 +1,96 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Zobrist keys for ThreeTrios positions. A position hashes to the xor of one key per card on the
+ * board (its cell, attack values and owner), one key per card in a hand (its owner, attack values
+ * and how many equal cards come before it in that hand) and a key for the side to move.
+ * Cards are keyed by their packed attack values rather than their names, since two cards with the
+ * same values play the same, so positions that only differ in card names share a hash.
+ * Keys are derived on the fly with the SplitMix64 finalizer instead of being stored in tables,
+ * which keeps them identical across boards of any size and across runs.
+ */
+public final class Zobrist {
+
+  /**
+   * Key xored into a position hash when the blue player is to move.
+   */
+  public static final long BLUE_TO_MOVE = mix(0x6A09E667F3BCC909L);
+
+  private static final long CELL_SALT = 0x243F6A8885A308D3L;
+  private static final long HAND_SALT = 0x13198A2E03707344L;
+
+  private Zobrist() {
+  }
+
+  /**
+   * Returns the key of a card on the board.
+   *
+   * @param cell         the flat index of the cell holding the card
+   * @param packedValues the packed attack values of the card
+   * @param slot         the owner slot of the card (0 or 1)
+   * @return the key of the card in that cell
+   */
+  public static long cellKey(int cell, int packedValues, int slot) {
+    return mix(CELL_SALT + ((((long) cell << 16) | packedValues) << 1 | slot));
+  }
+
+  /**
+   * Returns the key of a card in a hand. A hand holding the same card values more than once
+   * gets a different key for every copy, so hands hash as multisets.
+   *
+   * @param slot         the slot of the player holding the card (0 or 1)
+   * @param packedValues the packed attack values of the card
+   * @param copy         how many cards with the same values come before it in the hand
+   * @return the key of the card in that hand
+   */
+  public static long handKey(int slot, int packedValues, int copy) {
+    return mix(HAND_SALT + ((((long) copy << 16) | packedValues) << 1 | slot));
+  }
+
+  /**
+   * Returns the hash of a whole hand, the xor of the keys of its cards.
+   *
+   * @param slot the slot of the player holding the hand (0 or 1)
+   * @param hand the cards in the hand
+   * @return the hash of the hand
+   */
+  public static long handHash(int slot, List<ICard> hand) {
+    long hash = 0;
+    int[] values = new int[hand.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = PackedValues.of(hand.get(i));
+      int copy = 0;
+      for (int j = 0; j < i; j++) {
+        if (values[j] == values[i]) {
+          copy++;
+        }
+      }
+      hash ^= handKey(slot, values[i], copy);
+    }
+    return hash;
+  }
+
+  /**
+   * Returns the hash of a whole position.
+   *
+   * @param boardHash  the hash of the cards on the board, see {@link PackedBoard#getHash()}
+   * @param redHand    the hand of the red player
+   * @param blueHand   the hand of the blue player
+   * @param blueToMove whether it is the blue player's turn
+   * @return the hash of the position
+   */
+  public static long positionHash(long boardHash, List<ICard> redHand, List<ICard> blueHand,
+                                  boolean blueToMove) {
+    return boardHash ^ handHash(0, redHand) ^ handHash(1, blueHand)
+            ^ (blueToMove ? BLUE_TO_MOVE : 0);
+  }
+
+  // SplitMix64 finalizer, spreads every input bit over the whole key
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
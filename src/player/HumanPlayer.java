@@ -50,6 +50,11 @@ public class HumanPlayer implements IPlayer {
     return new ArrayList<>(this.hand);
   }
 
+  @Override
+  public int getHandSize() {
+    return hand.size();
+  }
+
   @Override
   public boolean isComputer() {
     return false;
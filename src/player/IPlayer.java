@@ -61,6 +61,13 @@ public interface IPlayer {
    */
   List<ICard> getHand();
 
+  /**
+   * Returns the number of cards in the player's hand without copying the hand.
+   *
+   * @return the number of cards in the player's hand
+   */
+  int getHandSize();
+
   /**
    * Checks if the player is a computer.
    *
@@ -8,6 +8,8 @@ import controller.PlayerActionListener;
 import model.ICard;
 import model.ThreeTriosModel;
 import strategy.Move;
+import strategy.OpeningBook;
+import strategy.SearchBudget;
 import strategy.Strategy;
 
 
@@ -21,6 +23,8 @@ public class MachinePlayer implements IPlayer {
   private final List<ICard> hand;
   private final List<PlayerActionListener> listeners = new ArrayList<>();
   private final Strategy strategy;
+  private final SearchBudget budget;
+  private final OpeningBook book;
 
   /**
    * Creates a new machine player with the given name, hand, and strategy.
@@ -31,12 +35,43 @@ public class MachinePlayer implements IPlayer {
    * @throws IllegalArgumentException if the player name, hand, or strategy is null
    */
   public MachinePlayer(String name, List<ICard> hand, Strategy strategy) {
-    if (name == null || hand == null || strategy == null) {
-      throw new IllegalArgumentException("Player name, hand, or strategy cannot be null.");
+    this(name, hand, strategy, SearchBudget.unlimited());
+  }
+
+  /**
+   * Creates a new machine player that selects every move within the given budget.
+   *
+   * @param name     the name of the player
+   * @param hand     the list of cards in the player's hand
+   * @param strategy the strategy to use for selecting moves
+   * @param budget   the most time or work the strategy may spend on one move
+   * @throws IllegalArgumentException if any argument is null
+   */
+  public MachinePlayer(String name, List<ICard> hand, Strategy strategy, SearchBudget budget) {
+    this(name, hand, strategy, budget, null);
+  }
+
+  /**
+   * Creates a new machine player that plays the moves of an opening book while the game is in
+   * the book, and selects every other move with its strategy within the given budget.
+   *
+   * @param name     the name of the player
+   * @param hand     the list of cards in the player's hand
+   * @param strategy the strategy to use for selecting moves
+   * @param budget   the most time or work the strategy may spend on one move
+   * @param book     the opening book to look moves up in, or null to always use the strategy
+   * @throws IllegalArgumentException if the name, hand, strategy or budget is null
+   */
+  public MachinePlayer(String name, List<ICard> hand, Strategy strategy, SearchBudget budget,
+                       OpeningBook book) {
+    if (name == null || hand == null || strategy == null || budget == null) {
+      throw new IllegalArgumentException("Player name, hand, strategy, or budget cannot be null.");
     }
     this.name = generateUniqueName(name);
     this.hand = new ArrayList<>(hand);
     this.strategy = strategy;
+    this.budget = budget;
+    this.book = book;
   }
 
   // Helper to generate completely unique names for machine players.
@@ -47,7 +82,10 @@ public class MachinePlayer implements IPlayer {
 
   @Override
   public void takeTurn(ThreeTriosModel model) {
-    Move move = strategy.selectMove(this, model);
+    Move move = book == null ? null : book.lookup(this, model);
+    if (move == null) {
+      move = strategy.selectMove(this, model, budget);
+    }
     for (PlayerActionListener listener : listeners) {
       listener.onMoveSelected(move);
     }
@@ -83,6 +121,11 @@ public class MachinePlayer implements IPlayer {
     return new ArrayList<>(hand);
   }
 
+  @Override
+  public int getHandSize() {
+    return hand.size();
+  }
+
   @Override
   public boolean isComputer() {
     return true;
@@ -93,6 +136,24 @@ public class MachinePlayer implements IPlayer {
     return this.strategy;
   }
 
+  /**
+   * Returns the budget the strategy of this player searches each move within.
+   *
+   * @return the search budget of every move
+   */
+  public SearchBudget getBudget() {
+    return budget;
+  }
+
+  /**
+   * Returns the opening book this player plays from before asking its strategy.
+   *
+   * @return the opening book, or null if the player has none
+   */
+  public OpeningBook getOpeningBook() {
+    return book;
+  }
+
   @Override
   public void setHand(List<ICard> hand) {
     this.hand.clear();
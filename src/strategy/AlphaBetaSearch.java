@@ -0,0 +1,331 @@
+package strategy;
+
+import model.BoardSymmetry;
+
+/**
+ * Depth-limited negamax search with alpha-beta pruning over a {@link SearchPosition}. Every move
+ * is applied to the position and undone again, so the search allocates nothing per node and
+ * scores leaves with the true score differential of the game.
+ * At the root, moves are tried cell by cell from the upper-left corner, and for each cell card by
+ * card in hand order. The first move with the best score wins ties, the same tie-break the other
+ * strategies use. Below the root, moves are tried in the order of a {@link MoveOrdering}, which
+ * changes how many nodes are searched but never the result.
+ * With a {@link TranspositionTable}, positions reached again through another move order are
+ * answered from the table, and the best move stored for a position is tried first. Every move
+ * fills one cell, so a position is always at the same ply of a search and within one search a
+ * table hit never changes the result, only how many nodes it takes. Entries left by earlier,
+ * deeper searches can only make the result more accurate.
+ * Positions are looked up by their canonical hash, so a rotation or reflection of a position
+ * that was searched before is a table hit too, and moves at the root that only lead to a turned
+ * copy of what an earlier root move leads to are skipped, see
+ * {@link SearchPosition#isSymmetricDuplicate(int, int)}.
+ * A search can also be given a {@link SearchBudget}, in which case it deepens one ply at a time
+ * and returns the result of the deepest search it completed before the budget ran out.
+ */
+public final class AlphaBetaSearch {
+
+  static final int INFINITY = Integer.MAX_VALUE - 1;
+  // How many nodes are searched between two looks at the clock
+  private static final int CLOCK_INTERVAL = 1024;
+
+  private final TranspositionTable table;
+  private final MoveOrdering ordering = new MoveOrdering();
+  private long nodes;
+  private long tableHits;
+  private boolean abortable;
+  private boolean aborted;
+  private long deadline = Long.MAX_VALUE;
+  private long nodeLimit = Long.MAX_VALUE;
+
+  /**
+   * Creates a search without a transposition table.
+   */
+  public AlphaBetaSearch() {
+    this(null);
+  }
+
+  /**
+   * Creates a search that shares the given transposition table.
+   *
+   * @param table the table to share, or null to search without one
+   */
+  public AlphaBetaSearch(TranspositionTable table) {
+    this.table = table;
+  }
+
+  /**
+   * Searches a position to a fixed depth and returns the best move for the player to move.
+   *
+   * @param position the position to search, left unchanged when the search returns
+   * @param depth    the number of plies to search
+   * @return the best move found, or a result without a move if the position is over
+   * @throws IllegalArgumentException if the position is null or the depth is not positive
+   */
+  public SearchResult search(SearchPosition position, int depth) {
+    if (position == null) {
+      throw new IllegalArgumentException("Position cannot be null.");
+    }
+    if (depth < 1) {
+      throw new IllegalArgumentException("Search depth must be positive.");
+    }
+    nodes = 0;
+    tableHits = 0;
+    abortable = false;
+    ordering.reset(position);
+    return searchRoot(position, depth);
+  }
+
+  /**
+   * Searches a position deeper and deeper until the budget runs out, the maximum depth is reached
+   * or the search reaches the end of the game. The first ply is always searched in full, so the
+   * result has a move whenever the position has one, however small the budget.
+   *
+   * @param position the position to search, left unchanged when the search returns
+   * @param maxDepth the deepest search to run
+   * @param budget   the most time or nodes to spend on the whole search
+   * @return the result of the deepest completed search, with the nodes of all of them
+   * @throws IllegalArgumentException if an argument is null or the depth is not positive
+   */
+  public SearchResult search(SearchPosition position, int maxDepth, SearchBudget budget) {
+    if (position == null || budget == null) {
+      throw new IllegalArgumentException("Position and budget cannot be null.");
+    }
+    if (maxDepth < 1) {
+      throw new IllegalArgumentException("Search depth must be positive.");
+    }
+    nodes = 0;
+    tableHits = 0;
+    ordering.reset(position);
+    deadline = budget.deadlineFrom(System.nanoTime());
+    nodeLimit = budget.getNodes() == 0 ? Long.MAX_VALUE : budget.getNodes();
+    abortable = false;
+    SearchResult best = searchRoot(position, 1);
+    int lastDepth = Math.min(maxDepth, Math.max(1, position.emptyCount()));
+    abortable = true;
+    for (int depth = 2; depth <= lastDepth && !outOfBudget(); depth++) {
+      SearchResult result = searchRoot(position, depth);
+      if (aborted) {
+        break;
+      }
+      best = result;
+    }
+    abortable = false;
+    return new SearchResult(best.getHandIndex(), best.getCell(), best.getScore(),
+            best.getDepth(), nodes);
+  }
+
+  private boolean outOfBudget() {
+    return nodes >= nodeLimit
+            || (deadline != Long.MAX_VALUE && System.nanoTime() - deadline >= 0);
+  }
+
+  private SearchResult searchRoot(SearchPosition position, int depth) {
+    aborted = false;
+    nodes++;
+    if (position.isTerminal()) {
+      return new SearchResult(-1, -1, position.evaluate(), depth, nodes);
+    }
+    int side = position.getToMove();
+    int bestHand = -1;
+    int bestCell = -1;
+    int alpha = -INFINITY;
+    for (int cell = 0; cell < position.size(); cell++) {
+      if (!position.isEmpty(cell)) {
+        continue;
+      }
+      for (int hand = 0; hand < position.handSize(side); hand++) {
+        if (!position.isDistinctCard(side, hand) || position.isSymmetricDuplicate(hand, cell)) {
+          continue;
+        }
+        position.apply(hand, cell);
+        int score = -negamax(position, depth - 1, 1, -INFINITY, -alpha);
+        position.undo();
+        if (aborted) {
+          return null;
+        }
+        if (score > alpha) {
+          alpha = score;
+          bestHand = hand;
+          bestCell = cell;
+        }
+      }
+    }
+    if (table != null) {
+      store(position, depth, alpha, Bound.EXACT, bestHand, bestCell);
+    }
+    return new SearchResult(bestHand, bestCell, alpha, depth, nodes);
+  }
+
+  /**
+   * Scores one move of the player to move, the way the root of a fixed-depth search does. The
+   * score is exact if it is above alpha, otherwise it is only known to be at most alpha.
+   * Adds to the node count instead of resetting it, but resets the move ordering.
+   *
+   * @param position  the position to play the move on, left unchanged when this returns
+   * @param handIndex the hand index of the card to play
+   * @param cell      the cell to play the card on
+   * @param depth     the depth of the search the move is a root move of
+   * @param alpha     the best score already found for another move
+   * @return the score of the move for the player to move
+   */
+  int scoreMove(SearchPosition position, int handIndex, int cell, int depth, int alpha) {
+    abortable = false;
+    ordering.reset(position);
+    position.apply(handIndex, cell);
+    int score = -negamax(position, depth - 1, 1, -INFINITY, -alpha);
+    position.undo();
+    return score;
+  }
+
+  /**
+   * Scores one move like {@link #scoreMove(SearchPosition, int, int, int, int)}, but gives up once
+   * the deadline passes or the node count of this search reaches the limit. The score of a move
+   * that was given up on means nothing, see {@link #wasAborted()}.
+   *
+   * @param position  the position to play the move on, left unchanged when this returns
+   * @param handIndex the hand index of the card to play
+   * @param cell      the cell to play the card on
+   * @param depth     the depth of the search the move is a root move of
+   * @param alpha     the best score already found for another move
+   * @param deadline  the {@link System#nanoTime()} to give up at, or {@link Long#MAX_VALUE}
+   * @param nodeLimit the node count to give up at, or {@link Long#MAX_VALUE}
+   * @return the score of the move for the player to move
+   */
+  int scoreMove(SearchPosition position, int handIndex, int cell, int depth, int alpha,
+                long deadline, long nodeLimit) {
+    this.deadline = deadline;
+    this.nodeLimit = nodeLimit;
+    ordering.reset(position);
+    aborted = false;
+    abortable = true;
+    position.apply(handIndex, cell);
+    int score = -negamax(position, depth - 1, 1, -INFINITY, -alpha);
+    position.undo();
+    abortable = false;
+    return score;
+  }
+
+  // Whether the last limited scoreMove gave up before it was done
+  boolean wasAborted() {
+    return aborted;
+  }
+
+  /**
+   * Returns the number of positions visited by the last search.
+   *
+   * @return the node count of the last search
+   */
+  public long getNodeCount() {
+    return nodes;
+  }
+
+  /**
+   * Returns the move ordering of this search, with the cutoff statistics of the last search.
+   *
+   * @return the move ordering
+   */
+  public MoveOrdering getOrdering() {
+    return ordering;
+  }
+
+  /**
+   * Returns the number of positions the last search answered from its transposition table.
+   *
+   * @return the table hits of the last search
+   */
+  public long getTableHits() {
+    return tableHits;
+  }
+
+  private int negamax(SearchPosition position, int depth, int ply, int alpha, int beta) {
+    nodes++;
+    if (abortable && !aborted && ((nodes & (CLOCK_INTERVAL - 1)) == 0 || nodes >= nodeLimit)) {
+      aborted = outOfBudget();
+    }
+    if (aborted) {
+      return 0;
+    }
+    if (depth == 0 || position.isTerminal()) {
+      return position.evaluate();
+    }
+    int originalAlpha = alpha;
+    int tableHand = -1;
+    int tableCell = -1;
+    int side = position.getToMove();
+    if (table != null) {
+      long entry = table.probe(position.getCanonicalHash());
+      if (entry != TranspositionTable.MISS) {
+        if (TranspositionTable.depthOf(entry) >= depth) {
+          int score = TranspositionTable.scoreOf(entry);
+          Bound bound = TranspositionTable.boundOf(entry);
+          if (bound == Bound.EXACT
+                  || (bound == Bound.LOWER && score >= beta)
+                  || (bound == Bound.UPPER && score <= alpha)) {
+            tableHits++;
+            return score;
+          }
+        }
+        // The move is stored turned like the canonical variant of the position, turn it back.
+        // Entries without a move, or with a cell too far in to store, hold cell -1
+        int storedCell = TranspositionTable.cellOf(entry);
+        if (storedCell >= 0) {
+          BoardSymmetry symmetry = position.getSymmetry();
+          int back = symmetry.inverse(position.getCanonicalSymmetry());
+          tableCell = symmetry.mapCell(back, storedCell);
+          tableHand = findCard(position, side,
+                  symmetry.mapValues(back, TranspositionTable.valuesOf(entry)));
+        }
+      }
+    }
+
+    int best = -INFINITY;
+    int bestHand = -1;
+    int bestCell = -1;
+    ordering.start(position, ply, depth, tableCell, tableHand);
+    int move;
+    for (int i = 0; alpha < beta && (move = ordering.next(position, ply)) >= 0; i++) {
+      int hand = move >>> 16;
+      int cell = move & 0xFFFF;
+      position.apply(hand, cell);
+      int score = -negamax(position, depth - 1, ply + 1, -beta, -alpha);
+      position.undo();
+      if (aborted) {
+        return 0;
+      }
+      if (score > best) {
+        best = score;
+        bestHand = hand;
+        bestCell = cell;
+        alpha = Math.max(alpha, score);
+        if (alpha >= beta) {
+          ordering.recordCutoff(position, ply, hand, cell, depth, i);
+        }
+      }
+    }
+
+    if (table != null) {
+      Bound bound = best <= originalAlpha ? Bound.UPPER : best >= beta ? Bound.LOWER : Bound.EXACT;
+      store(position, depth, best, bound, bestHand, bestCell);
+    }
+    return best;
+  }
+
+  // Stores a search result under the canonical hash, with the move turned the same way
+  private void store(SearchPosition position, int depth, int score, Bound bound, int hand,
+                     int cell) {
+    BoardSymmetry symmetry = position.getSymmetry();
+    int frame = position.getCanonicalSymmetry();
+    table.store(position.getCanonicalHash(), depth, score, bound, symmetry.mapCell(frame, cell),
+            symmetry.mapValues(frame, position.handValues(position.getToMove(), hand)));
+  }
+
+  // Finds a card in the hand of a player with the given attack values, -1 if there is none
+  private static int findCard(SearchPosition position, int side, int packedValues) {
+    for (int hand = 0; hand < position.handSize(side); hand++) {
+      if (position.isAvailable(side, hand) && position.handValues(side, hand) == packedValues) {
+        return hand;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,115 @@
+package strategy;
+
+import java.util.List;
+
+import model.ICard;
+import model.ReadOnlyThreeTriosModel;
+import player.IPlayer;
+
+/**
+ * Strategy that looks several moves ahead with an {@link AlphaBetaSearch}. Unlike the
+ * {@link MinimaxStrategy}, which only counts flips, it plays out every line on a
+ * {@link SearchPosition} and picks the move that leaves the best score differential once both
+ * players have played their best replies. Given a {@link SearchBudget}, it deepens one ply at a
+ * time and always has a move ready when the budget runs out.
+ */
+public class AlphaBetaStrategy implements Strategy {
+
+  private static final int DEFAULT_DEPTH = 4;
+  private static final int DEFAULT_TABLE_ENTRIES = 1 << 18;
+
+  private final int depth;
+  private final TranspositionTable table;
+  private final AlphaBetaSearch search;
+  private SearchResult lastResult;
+
+  /**
+   * Creates an alpha-beta strategy that searches to the default depth.
+   */
+  public AlphaBetaStrategy() {
+    this(DEFAULT_DEPTH);
+  }
+
+  /**
+   * Creates an alpha-beta strategy that searches to the given depth with a transposition table of
+   * its own.
+   *
+   * @param depth the number of plies to search
+   * @throws IllegalArgumentException if the depth is not positive
+   */
+  public AlphaBetaStrategy(int depth) {
+    this(depth, new TranspositionTable(DEFAULT_TABLE_ENTRIES));
+  }
+
+  /**
+   * Creates an alpha-beta strategy that searches to the given depth and shares a transposition
+   * table, for example with the strategy of the other machine player.
+   *
+   * @param depth the number of plies to search
+   * @param table the transposition table to share
+   * @throws IllegalArgumentException if the depth is not positive or the table is null
+   */
+  public AlphaBetaStrategy(int depth, TranspositionTable table) {
+    if (depth < 1) {
+      throw new IllegalArgumentException("Search depth must be positive.");
+    }
+    if (table == null) {
+      throw new IllegalArgumentException("Transposition table cannot be null.");
+    }
+    this.depth = depth;
+    this.table = table;
+    this.search = new AlphaBetaSearch(table);
+  }
+
+  @Override
+  public Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model) {
+    return selectMove(player, model, SearchBudget.unlimited());
+  }
+
+  /**
+   * Selects a move by searching deeper one ply at a time until the budget runs out, and plays the
+   * best move of the deepest search that completed. Without a limit the search stops at the depth
+   * of this strategy, with a limit it keeps deepening until the end of the game.
+   */
+  @Override
+  public Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model, SearchBudget budget) {
+    if (budget == null) {
+      throw new IllegalArgumentException("Budget cannot be null.");
+    }
+    List<ICard> hand = model.getPlayerHand(player);
+    if (hand.isEmpty()) {
+      return null;
+    }
+    SearchPosition position = SearchPosition.of(model, player);
+    table.newSearch();
+    if (budget.isUnlimited()) {
+      lastResult = search.search(position, depth);
+    } else {
+      lastResult = search.search(position, position.size(), budget);
+    }
+    if (!lastResult.hasMove()) {
+      return Move.findFallbackMove(hand, model.getGrid(), model, player);
+    }
+    int cell = lastResult.getCell();
+    return new Move(position.handCard(position.getToMove(), lastResult.getHandIndex()),
+            cell / position.getColumns(), cell % position.getColumns());
+  }
+
+  /**
+   * Returns the number of positions visited while selecting the last move.
+   *
+   * @return the node count of the last search, 0 if no move was selected yet
+   */
+  public long getLastNodeCount() {
+    return lastResult == null ? 0 : lastResult.getNodes();
+  }
+
+  /**
+   * Returns the result of the search behind the last selected move.
+   *
+   * @return the last search result, or null if no move was selected yet
+   */
+  public SearchResult getLastResult() {
+    return lastResult;
+  }
+}
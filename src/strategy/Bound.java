@@ -0,0 +1,19 @@
+package strategy;
+
+/**
+ * What a score stored in a {@link TranspositionTable} says about the true score of its position.
+ */
+public enum Bound {
+  /**
+   * The score is the true score of the position.
+   */
+  EXACT,
+  /**
+   * The search failed high, the true score is at least the stored score.
+   */
+  LOWER,
+  /**
+   * The search failed low, the true score is at most the stored score.
+   */
+  UPPER
+}
@@ -4,6 +4,7 @@ import java.util.List;
 
 import model.Grid;
 import model.ICard;
+import model.PackedBoard;
 import model.ReadOnlyThreeTriosModel;
 import player.IPlayer;
 
@@ -18,6 +19,7 @@ public class CornerStrategy implements Strategy {
   public Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model) {
     List<ICard> hand = model.getPlayerHand(player);
     Grid grid = model.getGrid();
+    PackedBoard board = grid.getBoard();
     int cols = grid.getColumns() - 1;
 
     // Define corner positions: top-left, top-right, bottom-left, bottom-right
@@ -25,28 +27,24 @@ public class CornerStrategy implements Strategy {
 
     Move bestMove = null;
     int minOpponentFlips = Integer.MAX_VALUE;
+    // Only counted once a corner is free, and only once: no candidate changes the board
+    int opponentMaxFlips = -1;
 
     for (int[] corner : corners) {
       int row = corner[0];
       int col = corner[1];
 
       // Skip if this corner is a hole or already occupied
-      if (!grid.getCell(row, col).isEmpty()) {
+      if (!board.isEmpty(board.indexOf(row, col))) {
         continue;
       }
 
-      for (ICard card : hand) {
-        // Create a deep copy of the model for simulation
-
-        // Simulate placing this card at this position
-        model.getNumCardsAbleToFlip(player, card, row, col);
-
-        // Find the maximum number of flips the opponent could achieve
-        int opponentMaxFlips = findMaxFlipsForOpponent(
-                model.getOpponent(player),
-                model
-        );
+      // Find the maximum number of flips the opponent could achieve
+      if (opponentMaxFlips < 0) {
+        opponentMaxFlips = findMaxFlipsForOpponent(model.getOpponent(player), model);
+      }
 
+      for (ICard card : Move.distinctCards(hand)) {
         // Choose the move that minimizes the opponent's potential flips
         if (opponentMaxFlips < minOpponentFlips
                 || (opponentMaxFlips == minOpponentFlips && isUpperLeft(row, col, bestMove))) {
@@ -74,22 +72,21 @@ public class CornerStrategy implements Strategy {
 
   private int findMaxFlipsForOpponent(IPlayer opponent, ReadOnlyThreeTriosModel model) {
     List<ICard> hand = model.getPlayerHand(opponent);
-    Grid grid = model.getGrid();
+    PackedBoard board = model.getGrid().getBoard();
 
     int maxFlips = 0;
 
     // Iterate over all cards in hand and all positions on grid
-    for (ICard card : hand) {
-      for (int row = 0; row < grid.getRows(); row++) {
-        for (int col = 0; col < grid.getColumns(); col++) {
-          if (grid.getCell(row, col).isEmpty()) {
-            // Simulate placing this card at this position and calculate flips
-            int flips = model.getNumCardsAbleToFlip(opponent, card, row, col);
-
-            // Track maximum flips that opponent can achieve
-            if (flips > maxFlips) {
-              maxFlips = flips;
-            }
+    for (ICard card : Move.distinctCards(hand)) {
+      for (int index = 0; index < board.size(); index++) {
+        if (board.isEmpty(index)) {
+          // Simulate placing this card at this position and calculate flips
+          int flips = model.getNumCardsAbleToFlip(
+                  opponent, card, board.rowOf(index), board.colOf(index));
+
+          // Track maximum flips that opponent can achieve
+          if (flips > maxFlips) {
+            maxFlips = flips;
           }
         }
       }
@@ -0,0 +1,158 @@
+package strategy;
+
+import java.util.Arrays;
+
+/**
+ * Exact solver for the end of a game. It searches every line to the last empty cell, walking the
+ * empty cells on the bitboard of the {@link SearchPosition} and remembering every position it
+ * solves, so transpositions are only solved once. The score of the result is the final margin of
+ * the player to move: their final score minus their opponent's, with both players playing
+ * perfectly from the position on.
+ * Among moves with the same margin the first one in move order is returned, cells first and then
+ * hand order, the same as {@link AlphaBetaSearch}.
+ * Positions are remembered by their canonical hash, which says nothing about the holes of the
+ * board or the battle rule, so the memo is cleared whenever the solver is given a position of
+ * another board or rule than the last one.
+ */
+public final class EndgameSolver {
+
+  private static final int DEFAULT_TABLE_ENTRIES = 1 << 16;
+
+  private final TranspositionTable memo;
+  private long nodes;
+  // Rule, board size and holes of the positions in the memo, see layoutOf
+  private long[] memoLayout;
+
+  /**
+   * Creates a solver with a memo table of its own.
+   */
+  public EndgameSolver() {
+    this(new TranspositionTable(DEFAULT_TABLE_ENTRIES));
+  }
+
+  /**
+   * Creates a solver that remembers solved positions in the given table.
+   *
+   * @param memo the table to remember solved positions in
+   * @throws IllegalArgumentException if the table is null
+   */
+  public EndgameSolver(TranspositionTable memo) {
+    if (memo == null) {
+      throw new IllegalArgumentException("Memo table cannot be null.");
+    }
+    this.memo = memo;
+  }
+
+  /**
+   * Solves a position to the end of the game.
+   *
+   * @param position the position to solve, left unchanged when the solver returns
+   * @return the optimal move and the final margin, or a result without a move if the game is over
+   * @throws IllegalArgumentException if the position is null
+   */
+  public SearchResult solve(SearchPosition position) {
+    if (position == null) {
+      throw new IllegalArgumentException("Position cannot be null.");
+    }
+    long[] layout = layoutOf(position);
+    if (!Arrays.equals(layout, memoLayout)) {
+      memo.clear();
+      memoLayout = layout;
+    }
+    memo.newSearch();
+    nodes = 1;
+    int depth = position.emptyCount();
+    if (position.isTerminal()) {
+      return new SearchResult(-1, -1, position.evaluate(), 0, nodes);
+    }
+    int side = position.getToMove();
+    int bestHand = -1;
+    int bestCell = -1;
+    int alpha = -AlphaBetaSearch.INFINITY;
+    for (int cell = position.nextEmpty(0); cell >= 0; cell = position.nextEmpty(cell + 1)) {
+      for (int hand = 0; hand < position.handSize(side); hand++) {
+        if (!position.isDistinctCard(side, hand) || position.isSymmetricDuplicate(hand, cell)) {
+          continue;
+        }
+        position.apply(hand, cell);
+        int score = -solve(position, -AlphaBetaSearch.INFINITY, -alpha);
+        position.undo();
+        if (score > alpha) {
+          alpha = score;
+          bestHand = hand;
+          bestCell = cell;
+        }
+      }
+    }
+    return new SearchResult(bestHand, bestCell, alpha, depth, nodes);
+  }
+
+  /**
+   * Returns the number of positions visited by the last solve.
+   *
+   * @return the node count of the last solve
+   */
+  public long getNodeCount() {
+    return nodes;
+  }
+
+  // The battle rule, the board size and the holes of a position, one bit per cell
+  private static long[] layoutOf(SearchPosition position) {
+    long[] layout = new long[3 + (position.size() + Long.SIZE - 1) / Long.SIZE];
+    layout[0] = OpeningBook.ruleId(position.getBattleRule());
+    layout[1] = position.getRows();
+    layout[2] = position.getColumns();
+    for (int cell = 0; cell < position.size(); cell++) {
+      if (position.ownerAt(cell) == SearchPosition.HOLE) {
+        layout[3 + (cell >>> 6)] |= 1L << cell;
+      }
+    }
+    return layout;
+  }
+
+  private int solve(SearchPosition position, int alpha, int beta) {
+    nodes++;
+    if (position.isTerminal()) {
+      return position.evaluate();
+    }
+    int depth = position.emptyCount();
+    long entry = memo.probe(position.getCanonicalHash());
+    if (entry != TranspositionTable.MISS && TranspositionTable.depthOf(entry) >= depth) {
+      int score = TranspositionTable.scoreOf(entry);
+      Bound bound = TranspositionTable.boundOf(entry);
+      if (bound == Bound.EXACT
+              || (bound == Bound.LOWER && score >= beta)
+              || (bound == Bound.UPPER && score <= alpha)) {
+        return score;
+      }
+    }
+    int originalAlpha = alpha;
+    int side = position.getToMove();
+    int best = -AlphaBetaSearch.INFINITY;
+    int bestCell = -1;
+    int bestValues = 0;
+    for (int cell = position.nextEmpty(0); cell >= 0 && alpha < beta;
+         cell = position.nextEmpty(cell + 1)) {
+      for (int hand = 0; hand < position.handSize(side) && alpha < beta; hand++) {
+        if (!position.isDistinctCard(side, hand)) {
+          continue;
+        }
+        position.apply(hand, cell);
+        int score = -solve(position, -beta, -alpha);
+        position.undo();
+        if (score > best) {
+          best = score;
+          bestCell = cell;
+          bestValues = position.handValues(side, hand);
+          alpha = Math.max(alpha, score);
+        }
+      }
+    }
+    Bound bound = best <= originalAlpha ? Bound.UPPER : best >= beta ? Bound.LOWER : Bound.EXACT;
+    int frame = position.getCanonicalSymmetry();
+    memo.store(position.getCanonicalHash(), depth, best, bound,
+            position.getSymmetry().mapCell(frame, bestCell),
+            position.getSymmetry().mapValues(frame, bestValues));
+    return best;
+  }
+}
@@ -0,0 +1,90 @@
+package strategy;
+
+import java.util.List;
+
+import model.ICard;
+import model.ReadOnlyThreeTriosModel;
+import player.IPlayer;
+
+/**
+ * Strategy that wraps another strategy and takes over at the end of the game. As soon as the
+ * number of empty cells times the number of cards in the hand of the player to move drops to the
+ * threshold, the move is solved exactly with an {@link EndgameSolver}; before that, every move is
+ * left to the wrapped strategy.
+ */
+public class EndgameSolverStrategy implements Strategy {
+
+  private static final int DEFAULT_THRESHOLD = 30;
+
+  private final Strategy strategy;
+  private final int threshold;
+  private final EndgameSolver solver = new EndgameSolver();
+  private SearchResult lastSolution;
+
+  /**
+   * Creates an endgame solver strategy with the default threshold.
+   *
+   * @param strategy the strategy to use until the endgame
+   * @throws IllegalArgumentException if the strategy is null
+   */
+  public EndgameSolverStrategy(Strategy strategy) {
+    this(strategy, DEFAULT_THRESHOLD);
+  }
+
+  /**
+   * Creates an endgame solver strategy.
+   *
+   * @param strategy  the strategy to use until the endgame
+   * @param threshold the largest product of empty cells and cards in hand that is solved exactly
+   * @throws IllegalArgumentException if the strategy is null or the threshold is negative
+   */
+  public EndgameSolverStrategy(Strategy strategy, int threshold) {
+    if (strategy == null) {
+      throw new IllegalArgumentException("Strategy cannot be null.");
+    }
+    if (threshold < 0) {
+      throw new IllegalArgumentException("Threshold cannot be negative.");
+    }
+    this.strategy = strategy;
+    this.threshold = threshold;
+  }
+
+  @Override
+  public Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model) {
+    return selectMove(player, model, SearchBudget.unlimited());
+  }
+
+  @Override
+  public Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model, SearchBudget budget) {
+    List<ICard> hand = model.getPlayerHand(player);
+    SearchPosition position = hand.isEmpty() ? null : SearchPosition.of(model, player);
+    if (position == null || position.isTerminal()
+            || position.emptyCount() * position.cardsInHand(position.getToMove()) > threshold) {
+      lastSolution = null;
+      return strategy.selectMove(player, model, budget);
+    }
+    lastSolution = solver.solve(position);
+    int cell = lastSolution.getCell();
+    return new Move(position.handCard(position.getToMove(), lastSolution.getHandIndex()),
+            cell / position.getColumns(), cell % position.getColumns());
+  }
+
+  /**
+   * Returns the solution behind the last selected move, its score being the final margin of the
+   * game for the player who moved.
+   *
+   * @return the last solution, or null if the last move was left to the wrapped strategy
+   */
+  public SearchResult getLastSolution() {
+    return lastSolution;
+  }
+
+  /**
+   * Returns the strategy that picks the moves before the endgame is small enough to solve.
+   *
+   * @return the wrapped strategy
+   */
+  public Strategy getStrategy() {
+    return strategy;
+  }
+}
@@ -5,6 +5,7 @@ import java.util.Objects;
 
 import model.Grid;
 import model.ICard;
+import model.PackedBoard;
 import model.ReadOnlyThreeTriosModel;
 import player.IPlayer;
 
@@ -21,27 +22,33 @@ public class FlipMaximizerStrategy implements Strategy {
   public Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model) {
     List<ICard> hand = model.getPlayerHand(player);
     Grid grid = model.getGrid();
+    PackedBoard board = grid.getBoard();
 
     Move bestMove = null;
     int maxFlips = -1;
 
+    // Flip counts of every card in hand on every cell, from one call to the model
+    int cells = board.size();
+    int[] flips = new int[hand.size() * cells];
+    model.getFlipMatrix(player, flips);
+
     // Iterate over all cards in hand and all positions on grid
-    for (ICard card : hand) {
-      for (int row = 0; row < grid.getRows(); row++) {
-        for (int col = 0; col < grid.getColumns(); col++) {
-          if (grid.getCell(row, col).isEmpty()) {
-            // Simulate placing this card at this position
-            int flips = model.getNumCardsAbleToFlip(player, card, row, col);
-            Move currentMove = new Move(card, row, col);
+    for (ICard card : Move.distinctCards(hand)) {
+      int offset = hand.indexOf(card) * cells;
+      for (int index = 0; index < cells; index++) {
+        if (flips[offset + index] >= 0) {
+          int row = board.rowOf(index);
+          int col = board.colOf(index);
+          int cardFlips = flips[offset + index];
+          Move currentMove = new Move(card, row, col);
 
-            // If this move flips more cards than previous best, choose it
-            if (flips > maxFlips) {
-              bestMove = new Move(card, row, col);
-              maxFlips = flips;
-            } else if (flips == maxFlips) {
-              bestMove = findUpperLeft(row, col,
-                      Objects.requireNonNull(bestMove), Objects.requireNonNull(currentMove));
-            }
+          // If this move flips more cards than previous best, choose it
+          if (cardFlips > maxFlips) {
+            bestMove = currentMove;
+            maxFlips = cardFlips;
+          } else if (cardFlips == maxFlips) {
+            bestMove = findUpperLeft(row, col,
+                    Objects.requireNonNull(bestMove), Objects.requireNonNull(currentMove));
           }
         }
       }
@@ -2,8 +2,6 @@ package strategy;
 
 import java.util.List;
 
-import model.CardCell;
-import model.Grid;
 import model.ICard;
 import model.ReadOnlyThreeTriosModel;
 import player.IPlayer;
@@ -13,56 +11,54 @@ import player.IPlayer;
  * This is done by calculating the flip risk for each possible move and selecting the one with the
  * least flip risk. We consider "hardest to flip" to be the move in which the opponent can flip
  * the least number of the current player's cards in the following move.
+ * The risk of every move is read from a {@link ThreatMap} of the opponent's threats, built once
+ * per decision and brought up to date around each simulated move, instead of playing every card
+ * of the opponent on every cell again.
  */
 public class LeastLikelyFlippedStrategy implements Strategy {
 
   @Override
   public Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model) {
     List<ICard> hand = model.getPlayerHand(player);
-    Grid grid = model.getGrid();
+    if (hand.isEmpty()) {
+      return Move.findFallbackMove(hand, model.getGrid(), model, player);
+    }
+    SearchPosition position = SearchPosition.of(model, player);
+    int side = position.getToMove();
+    ThreatMap threats = ThreatMap.of(position, 1 - side);
 
     Move bestMove = null;
     int minFlipRisk = Integer.MAX_VALUE;
 
-    for (ICard card : hand) {
-      for (int row = 0; row < grid.getRows(); row++) {
-        for (int col = 0; col < grid.getColumns(); col++) {
-          if (grid.getCell(row, col).isEmpty()) {
-            int flipRisk = calculateFlipRisk(card, row, col, player, model);
-            if (flipRisk < minFlipRisk
-                    || (flipRisk == minFlipRisk && isUpperLeft(row, col, bestMove))) {
-              bestMove = new Move(card, row, col);
-              minFlipRisk = flipRisk;
-            }
-          }
+    for (int handIndex = 0; handIndex < position.handSize(side); handIndex++) {
+      if (!position.isDistinctCard(side, handIndex)) {
+        continue;
+      }
+      for (int cell = position.nextEmpty(0); cell >= 0; cell = position.nextEmpty(cell + 1)) {
+        int flipRisk = calculateFlipRisk(position, threats, handIndex, cell);
+        int row = cell / position.getColumns();
+        int col = cell % position.getColumns();
+        if (flipRisk < minFlipRisk
+                || (flipRisk == minFlipRisk && isUpperLeft(row, col, bestMove))) {
+          bestMove = new Move(position.handCard(side, handIndex), row, col);
+          minFlipRisk = flipRisk;
         }
       }
     }
 
-    return bestMove != null ? bestMove : Move.findFallbackMove(hand, grid, model, player);
+    return bestMove != null ? bestMove : Move.findFallbackMove(hand, model.getGrid(), model,
+            player);
   }
 
-  private int calculateFlipRisk(ICard card, int row, int col,
-                                IPlayer player, ReadOnlyThreeTriosModel model) {
-    int flipRisk = 0;
-    IPlayer opponent = model.getOpponent(player);
-    List<ICard> opponentHand = model.getPlayerHand(opponent);
-
-    // Simulate placing the card
-    Grid simulatedGrid = model.getGrid().copyOfGrid();
-    simulatedGrid.setCell(row, col, new CardCell(card, player));
-
-    for (ICard opponentCard : opponentHand) {
-      for (int oppRow = 0; oppRow < simulatedGrid.getRows(); oppRow++) {
-        for (int oppCol = 0; oppCol < simulatedGrid.getColumns(); oppCol++) {
-          if (simulatedGrid.getCell(oppRow, oppCol).isEmpty()) {
-            int flips = model.getNumCardsAbleToFlip(opponent, opponentCard, oppRow, oppCol);
-            flipRisk += flips;
-          }
-        }
-      }
-    }
-
+  // Simulates placing the card, battle included, and reads how many of the player's cards the
+  // opponent could flip afterwards
+  private int calculateFlipRisk(SearchPosition position, ThreatMap threats, int handIndex,
+                                int cell) {
+    position.apply(handIndex, cell);
+    threats.update();
+    int flipRisk = threats.totalThreat();
+    threats.undo();
+    position.undo();
     return flipRisk;
   }
 
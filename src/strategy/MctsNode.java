@@ -0,0 +1,148 @@
+package strategy;
+
+import java.util.Arrays;
+
+/**
+ * Node of a Monte Carlo search tree. A node stands for the position reached by playing its move,
+ * given as a cell and the packed attack values of the card, so that a tree built on one turn can
+ * still be followed on the next one when the hand indices of the cards have changed. Cards with
+ * equal values in the same hand play the same, so they share one move.
+ * Nodes are only touched by the thread that owns the tree.
+ */
+final class MctsNode {
+
+  final int cell;
+  final int values;
+  final long hash;
+  int visits;
+  double wins;
+  private int[] moveCells;
+  private int[] moveValues;
+  private MctsNode[] children;
+  private int expanded;
+
+  /**
+   * Creates a node for the position reached by a move.
+   *
+   * @param cell   the cell of the move, -1 for the root
+   * @param values the packed attack values of the card of the move
+   * @param hash   the hash of the position after the move
+   */
+  MctsNode(int cell, int values, long hash) {
+    this.cell = cell;
+    this.values = values;
+    this.hash = hash;
+  }
+
+  /**
+   * Lists the moves of the player to move the first time the node is expanded, one per cell and
+   * distinct card values, in cell order and then hand order.
+   *
+   * @param position the position of this node
+   */
+  void generateMoves(SearchPosition position) {
+    if (moveCells != null) {
+      return;
+    }
+    int side = position.getToMove();
+    int[] cells = new int[position.size() * position.handSize(side)];
+    int[] values = new int[cells.length];
+    int count = 0;
+    for (int cell = 0; cell < position.size(); cell++) {
+      if (!position.isEmpty(cell)) {
+        continue;
+      }
+      for (int hand = 0; hand < position.handSize(side); hand++) {
+        if (position.isDistinctCard(side, hand)) {
+          cells[count] = cell;
+          values[count] = position.handValues(side, hand);
+          count++;
+        }
+      }
+    }
+    moveCells = Arrays.copyOf(cells, count);
+    moveValues = Arrays.copyOf(values, count);
+    children = new MctsNode[count];
+  }
+
+  boolean hasUntriedMoves() {
+    return expanded < moveCells.length;
+  }
+
+  int moveCount() {
+    return moveCells == null ? 0 : moveCells.length;
+  }
+
+  int untriedCell() {
+    return moveCells[expanded];
+  }
+
+  int untriedValues() {
+    return moveValues[expanded];
+  }
+
+  /**
+   * Adds the child for the next untried move.
+   *
+   * @param hash the hash of the position after the move
+   * @return the new child
+   */
+  MctsNode expand(long hash) {
+    MctsNode child = new MctsNode(moveCells[expanded], moveValues[expanded], hash);
+    children[expanded++] = child;
+    return child;
+  }
+
+  int childCount() {
+    return expanded;
+  }
+
+  MctsNode child(int index) {
+    return children[index];
+  }
+
+  /**
+   * Selects the child with the best upper confidence bound.
+   *
+   * @param exploration the weight of the exploration term
+   * @return the selected child
+   */
+  MctsNode selectChild(double exploration) {
+    double logVisits = Math.log(visits);
+    MctsNode best = null;
+    double bestValue = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < expanded; i++) {
+      MctsNode child = children[i];
+      double value = child.wins / child.visits
+              + exploration * Math.sqrt(logVisits / child.visits);
+      if (value > bestValue) {
+        bestValue = value;
+        best = child;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Finds the node of a position among this node and its descendants down to the given depth.
+   *
+   * @param target the hash of the position to find
+   * @param depth  how many plies below this node to look
+   * @return the node of the position, or null if it is not in the tree that shallow
+   */
+  MctsNode find(long target, int depth) {
+    if (hash == target) {
+      return this;
+    }
+    if (depth == 0) {
+      return null;
+    }
+    for (int i = 0; i < expanded; i++) {
+      MctsNode found = children[i].find(target, depth - 1);
+      if (found != null) {
+        return found;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,281 @@
+package strategy;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import model.ICard;
+import model.ReadOnlyThreeTriosModel;
+import player.IPlayer;
+
+/**
+ * Strategy that selects moves with Monte Carlo tree search (UCT). Every playout walks down the
+ * tree by upper confidence bound, adds one node, and finishes the game with random moves on a
+ * {@link SearchPosition}, which is then undone again.
+ * Playouts run in parallel with root parallelism: every worker grows its own tree on its own copy
+ * of the position, on a {@link ForkJoinPool}, and the visit counts of the root moves of all trees
+ * are added up to pick the move. The trees are kept between moves, so on the next turn of the same
+ * player every worker carries on from the node of the new position if it is in its tree.
+ * With the same seed, number of workers and number of playouts, the selected move is always the
+ * same, however the workers are scheduled.
+ */
+public class MctsStrategy implements Strategy {
+
+  private static final int DEFAULT_PLAYOUTS = 20_000;
+  private static final double EXPLORATION = Math.sqrt(2);
+  // How far below the old root the new position can be: our move and the opponent's reply
+  private static final int REUSE_DEPTH = 2;
+
+  private final int playouts;
+  private final int workers;
+  private final ForkJoinPool pool;
+  private final long seed;
+  private final MctsNode[] trees;
+  private int turn;
+  private long lastPlayouts;
+  private int reusedTrees;
+
+  /**
+   * Creates an MCTS strategy with the default number of playouts per move, with one worker per
+   * thread of the common pool.
+   */
+  public MctsStrategy() {
+    this(DEFAULT_PLAYOUTS, ForkJoinPool.commonPool().getParallelism(),
+            ForkJoinPool.commonPool(), System.nanoTime());
+  }
+
+  /**
+   * Creates an MCTS strategy.
+   *
+   * @param playouts the number of playouts per move when the move has no budget, over all workers
+   * @param workers  the number of trees grown in parallel
+   * @param pool     the pool to run the workers on
+   * @param seed     the seed of the random playouts
+   * @throws IllegalArgumentException if a count is not positive or the pool is null
+   */
+  public MctsStrategy(int playouts, int workers, ForkJoinPool pool, long seed) {
+    if (playouts < 1 || workers < 1) {
+      throw new IllegalArgumentException("Playouts and workers must be positive.");
+    }
+    if (pool == null) {
+      throw new IllegalArgumentException("Pool cannot be null.");
+    }
+    this.playouts = playouts;
+    this.workers = workers;
+    this.pool = pool;
+    this.seed = seed;
+    this.trees = new MctsNode[workers];
+  }
+
+  @Override
+  public Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model) {
+    return selectMove(player, model, SearchBudget.unlimited());
+  }
+
+  /**
+   * Selects a move by running playouts until the budget runs out, a node of the budget being one
+   * playout. Without a limit, the default number of playouts of this strategy is run.
+   */
+  @Override
+  public Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model, SearchBudget budget) {
+    if (budget == null) {
+      throw new IllegalArgumentException("Budget cannot be null.");
+    }
+    List<ICard> hand = model.getPlayerHand(player);
+    if (hand.isEmpty()) {
+      return null;
+    }
+    SearchPosition position = SearchPosition.of(model, player);
+    if (position.isTerminal()) {
+      return Move.findFallbackMove(hand, model.getGrid(), model, player);
+    }
+    long total = budget.isUnlimited() ? playouts
+            : budget.getNodes() == 0 ? Long.MAX_VALUE : budget.getNodes();
+    long deadline = budget.deadlineFrom(System.nanoTime());
+
+    reusedTrees = 0;
+    Worker[] tasks = new Worker[workers];
+    for (int w = 0; w < workers; w++) {
+      MctsNode root = trees[w] == null ? null : trees[w].find(position.getHash(), REUSE_DEPTH);
+      if (root == null) {
+        root = new MctsNode(-1, 0, position.getHash());
+      } else {
+        reusedTrees++;
+      }
+      trees[w] = root;
+      long share = total / workers + (w < total % workers ? 1 : 0);
+      tasks[w] = new Worker(position, root, Math.max(1, share), deadline,
+              new SplittableRandom(seed + 31L * turn + w));
+    }
+    turn++;
+    pool.invoke(new RecursiveAction() {
+      @Override
+      protected void compute() {
+        invokeAll(tasks);
+      }
+    });
+
+    lastPlayouts = 0;
+    for (Worker task : tasks) {
+      lastPlayouts += task.done;
+    }
+    return bestMove(position);
+  }
+
+  // Adds up the visits of every root move over all trees and plays the most visited one, the
+  // first one seen on a tie.
+  private Move bestMove(SearchPosition position) {
+    Map<Long, Integer> visits = new LinkedHashMap<>();
+    for (MctsNode root : trees) {
+      for (int i = 0; i < root.childCount(); i++) {
+        MctsNode child = root.child(i);
+        visits.merge(moveKey(child.cell, child.values), child.visits, Integer::sum);
+      }
+    }
+    long bestKey = -1;
+    int bestVisits = -1;
+    for (Map.Entry<Long, Integer> entry : visits.entrySet()) {
+      if (entry.getValue() > bestVisits) {
+        bestVisits = entry.getValue();
+        bestKey = entry.getKey();
+      }
+    }
+    int cell = (int) (bestKey >>> 16);
+    int hand = findCard(position, (int) (bestKey & 0xFFFF));
+    return new Move(position.handCard(position.getToMove(), hand),
+            cell / position.getColumns(), cell % position.getColumns());
+  }
+
+  private static long moveKey(int cell, int values) {
+    return (long) cell << 16 | values;
+  }
+
+  // Finds the first card in the hand of the player to move with the given attack values
+  private static int findCard(SearchPosition position, int values) {
+    int side = position.getToMove();
+    for (int hand = 0; hand < position.handSize(side); hand++) {
+      if (position.isAvailable(side, hand) && position.handValues(side, hand) == values) {
+        return hand;
+      }
+    }
+    throw new IllegalStateException("No card with the values of the move in hand.");
+  }
+
+  /**
+   * Returns the number of playouts run for the last selected move, over all workers.
+   *
+   * @return the playouts of the last move
+   */
+  public long getLastPlayoutCount() {
+    return lastPlayouts;
+  }
+
+  /**
+   * Returns how many workers carried on with their tree from the previous move for the last
+   * selected move.
+   *
+   * @return the number of reused trees
+   */
+  public int getReusedTreeCount() {
+    return reusedTrees;
+  }
+
+  /**
+   * Grows one tree on its own copy of the position.
+   */
+  private static final class Worker extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final SearchPosition root;
+    private final MctsNode tree;
+    private final long playouts;
+    private final long deadline;
+    private final SplittableRandom random;
+    private long done;
+
+    Worker(SearchPosition root, MctsNode tree, long playouts, long deadline,
+           SplittableRandom random) {
+      this.root = root;
+      this.tree = tree;
+      this.playouts = playouts;
+      this.deadline = deadline;
+      this.random = random;
+    }
+
+    @Override
+    protected void compute() {
+      // The root is only read while the workers run, so copying it from many threads is safe
+      SearchPosition position = root.copy();
+      MctsNode[] path = new MctsNode[position.emptyCount() + 1];
+      while (done < playouts
+              && (done == 0 || deadline == Long.MAX_VALUE || System.nanoTime() - deadline < 0)) {
+        playout(position, path);
+        done++;
+      }
+    }
+
+    private void playout(SearchPosition position, MctsNode[] path) {
+      int rootSlot = position.getToMove();
+      int length = 0;
+      MctsNode node = tree;
+      path[length++] = node;
+
+      // Selection, through nodes whose moves have all been tried
+      while (!position.isTerminal()) {
+        node.generateMoves(position);
+        if (node.hasUntriedMoves()) {
+          break;
+        }
+        node = node.selectChild(EXPLORATION);
+        play(position, node.cell, node.values);
+        path[length++] = node;
+      }
+
+      // Expansion
+      if (!position.isTerminal()) {
+        play(position, node.untriedCell(), node.untriedValues());
+        node = node.expand(position.getHash());
+        path[length++] = node;
+      }
+
+      // Random rollout to the end of the game
+      int rolloutPlies = 0;
+      while (!position.isTerminal()) {
+        playRandom(position);
+        rolloutPlies++;
+      }
+      int margin = position.scoreOf(rootSlot) - position.scoreOf(1 - rootSlot);
+      double rootReward = margin > 0 ? 1 : margin == 0 ? 0.5 : 0;
+      for (int i = 0; i < rolloutPlies + length - 1; i++) {
+        position.undo();
+      }
+
+      // Backpropagation, every node is scored for the player who played its move
+      tree.visits++;
+      for (int i = 1; i < length; i++) {
+        path[i].visits++;
+        path[i].wins += (i % 2 == 1) ? rootReward : 1 - rootReward;
+      }
+    }
+
+    private void playRandom(SearchPosition position) {
+      int side = position.getToMove();
+      int cell = random.nextInt(position.size());
+      while (!position.isEmpty(cell)) {
+        cell = cell + 1 == position.size() ? 0 : cell + 1;
+      }
+      int hand = random.nextInt(position.handSize(side));
+      while (!position.isAvailable(side, hand)) {
+        hand = hand + 1 == position.handSize(side) ? 0 : hand + 1;
+      }
+      position.apply(hand, cell);
+    }
+
+    private static void play(SearchPosition position, int cell, int values) {
+      position.apply(findCard(position, values), cell);
+    }
+  }
+}
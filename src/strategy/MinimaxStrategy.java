@@ -4,6 +4,7 @@ import java.util.List;
 
 import model.Grid;
 import model.ICard;
+import model.PackedBoard;
 import model.ReadOnlyThreeTriosModel;
 import player.IPlayer;
 
@@ -22,19 +23,20 @@ public class MinimaxStrategy implements Strategy {
   public Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model) {
     List<ICard> hand = model.getPlayerHand(player);
     Grid grid = model.getGrid();
+    PackedBoard board = grid.getBoard();
 
     Move bestMove = null;
     int bestScore = Integer.MIN_VALUE;
 
-    for (ICard card : hand) {
-      for (int row = 0; row < grid.getRows(); row++) {
-        for (int col = 0; col < grid.getColumns(); col++) {
-          if (grid.getCell(row, col).isEmpty()) {
-            int score = minimax(card, row, col, player, model, MAX_DEPTH, true);
-            if (score > bestScore || (score == bestScore && isUpperLeft(row, col, bestMove))) {
-              bestMove = new Move(card, row, col);
-              bestScore = score;
-            }
+    for (ICard card : Move.distinctCards(hand)) {
+      for (int index = 0; index < board.size(); index++) {
+        if (board.isEmpty(index)) {
+          int row = board.rowOf(index);
+          int col = board.colOf(index);
+          int score = minimax(card, row, col, player, model, MAX_DEPTH, true);
+          if (score > bestScore || (score == bestScore && isUpperLeft(row, col, bestMove))) {
+            bestMove = new Move(card, row, col);
+            bestScore = score;
           }
         }
       }
@@ -53,31 +55,33 @@ public class MinimaxStrategy implements Strategy {
 
     if (isMaximizingPlayer) {
       int maxEval = Integer.MIN_VALUE;
-      for (ICard opponentCard : model.getPlayerHand(opponent)) {
-        for (int r = 0; r < model.getGrid().getRows(); r++) {
-          for (int c = 0; c < model.getGrid().getColumns(); c++) {
-            if (model.getGrid().getCell(r, c).isEmpty()) {
-              int flips = model.getNumCardsAbleToFlip(opponent, opponentCard, r, c);
-              int eval = minimax(
-                      opponentCard, r, c, opponent, model, depth - 1, false)
-                      + flips;
-              maxEval = Math.max(maxEval, eval);
-            }
+      PackedBoard board = model.getGrid().getBoard();
+      for (ICard opponentCard : Move.distinctCards(model.getPlayerHand(opponent))) {
+        for (int index = 0; index < board.size(); index++) {
+          if (board.isEmpty(index)) {
+            int r = board.rowOf(index);
+            int c = board.colOf(index);
+            int flips = model.getNumCardsAbleToFlip(opponent, opponentCard, r, c);
+            int eval = minimax(
+                    opponentCard, r, c, opponent, model, depth - 1, false)
+                    + flips;
+            maxEval = Math.max(maxEval, eval);
           }
         }
       }
       return maxEval;
     } else {
       int minEval = Integer.MAX_VALUE;
-      for (ICard playerCard : model.getPlayerHand(player)) {
-        for (int r = 0; r < model.getGrid().getRows(); r++) {
-          for (int c = 0; c < model.getGrid().getColumns(); c++) {
-            if (model.getGrid().getCell(r, c).isEmpty()) {
-              int flips = model.getNumCardsAbleToFlip(player, playerCard, r, c);
-              int eval = minimax(
-                      playerCard, r, c, player, model, depth - 1, true) - flips;
-              minEval = Math.min(minEval, eval);
-            }
+      PackedBoard board = model.getGrid().getBoard();
+      for (ICard playerCard : Move.distinctCards(model.getPlayerHand(player))) {
+        for (int index = 0; index < board.size(); index++) {
+          if (board.isEmpty(index)) {
+            int r = board.rowOf(index);
+            int c = board.colOf(index);
+            int flips = model.getNumCardsAbleToFlip(player, playerCard, r, c);
+            int eval = minimax(
+                    playerCard, r, c, player, model, depth - 1, true) - flips;
+            minEval = Math.min(minEval, eval);
           }
         }
       }
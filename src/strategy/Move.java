@@ -1,11 +1,16 @@
 package strategy;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import model.Grid;
 import model.ICard;
+import model.PackedBoard;
+import model.PackedValues;
 import model.ReadOnlyThreeTriosModel;
 import player.IPlayer;
+import trace.Trace;
+import trace.TraceLevel;
 
 /**
  * Represents a move in the ThreeTrios game, consisting of a card and its position on the grid.
@@ -53,16 +58,42 @@ public class Move {
    */
   public static Move findFallbackMove(List<ICard> hand, Grid grid,
                                       ReadOnlyThreeTriosModel model, IPlayer player) {
-    for (int row = 0; row < grid.getRows(); row++) {
-      for (int col = 0; col < grid.getColumns(); col++) {
-        if (grid.getCell(row, col).isEmpty()) {
-          // Select the first card in the hand for the fallback move
-          ICard fallbackCard = hand.get(0);
-          return new Move(fallbackCard, row, col);
-        }
+    PackedBoard board = grid.getBoard();
+    for (int index = 0; index < board.size(); index++) {
+      if (board.isEmpty(index)) {
+        // Select the first card in the hand for the fallback move
+        ICard fallbackCard = hand.get(0);
+        return new Move(fallbackCard, board.rowOf(index), board.colOf(index));
       }
     }
-    System.out.println("Should never be reached. Fallback move should always be found");
+    Trace.log(TraceLevel.WARN, "Move",
+            "Should never be reached. Fallback move should always be found");
     return null;
   }
+
+  /**
+   * Returns the cards of a hand that have distinct attack values, the first one of every set of
+   * equal cards, in hand order. Cards with equal values only differ by name and always play the
+   * same way, so a strategy that tries only these cards still tries every different move once
+   * and, breaking ties by hand order, picks the card it would have picked from the whole hand.
+   *
+   * @param hand the cards in the player's hand
+   * @return the first card of every distinct value signature in the hand
+   */
+  public static List<ICard> distinctCards(List<ICard> hand) {
+    List<ICard> distinct = new ArrayList<>(hand.size());
+    int[] signatures = new int[hand.size()];
+    for (ICard card : hand) {
+      int signature = PackedValues.of(card);
+      boolean seen = false;
+      for (int i = 0; i < distinct.size() && !seen; i++) {
+        seen = signatures[i] == signature;
+      }
+      if (!seen) {
+        signatures[distinct.size()] = signature;
+        distinct.add(card);
+      }
+    }
+    return distinct;
+  }
 }
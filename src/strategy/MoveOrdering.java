@@ -0,0 +1,408 @@
+package strategy;
+
+import java.util.Arrays;
+
+/**
+ * Orders the moves of a node of an alpha-beta search so that the move most likely to cause a
+ * cutoff is searched first. Moves come out in stages, best first:
+ * <ul>
+ *   <li>the best move the transposition table has for the position,</li>
+ *   <li>moves that flip cards right away, more flips first, scored without playing them,</li>
+ *   <li>the two killer moves of the ply, the last quiet moves that caused a cutoff there,</li>
+ *   <li>all other moves. In deep nodes they are sorted by the history of the card and cell, how
+ *   often and how deep playing that card on that cell caused a cutoff anywhere in the search.
+ *   In shallow nodes, where sorting costs more than it saves, they come in board order.</li>
+ * </ul>
+ * Every stage is only listed once the stages before it are used up, so a node that cuts off
+ * early never lists its quiet moves at all. An ordering keeps track of how many cutoffs happened
+ * on the first move searched, which is the measure of how good the ordering is.
+ * An ordering belongs to one search on one thread.
+ */
+public final class MoveOrdering {
+
+  private static final int STAGE_TABLE = 0;
+  private static final int STAGE_CAPTURES = 1;
+  private static final int STAGE_KILLERS = 2;
+  private static final int STAGE_QUIETS = 3;
+  private static final int STAGE_DONE = 4;
+
+  private static final int HISTORY_LIMIT = 1 << 19;
+  // Shallowest remaining depth at which quiet moves are sorted by history
+  private static final int SORT_DEPTH = 3;
+
+  // Per ply state of the node being searched at that ply
+  private int[] stages = new int[0];
+  private int[] depths = new int[0];
+  private int[] tableMoves = new int[0];
+  private int[][] killerMoves = new int[0][];
+  private int[] killerIndex = new int[0];
+  private int[][] captures = new int[0][];
+  private int[][] captureScores = new int[0][];
+  private int[] captureCounts = new int[0];
+  private int[] captureIndex = new int[0];
+  private int[][] quiets = new int[0][];
+  private int[] quietCounts = new int[0];
+  private int[] quietIndex = new int[0];
+  private boolean[] quietsListed = new boolean[0];
+  private int[] cursorCells = new int[0];
+  private int[] cursorHands = new int[0];
+  private int[][] killers = new int[0][];
+  private long[] sortBuffer = new long[0];
+  private int[] sortedMoves = new int[0];
+
+  private int[] history = new int[0];
+  private int handSize;
+  private int cells;
+
+  private long cutoffs;
+  private long firstMoveCutoffs;
+
+  /**
+   * Gets the ordering ready for a search of a position. Killer moves and statistics are cleared,
+   * the history is kept but halved, so it fades out over consecutive searches of the same game.
+   *
+   * @param position the position the search starts from
+   */
+  public void reset(SearchPosition position) {
+    int newHandSize = Math.max(position.handSize(0), position.handSize(1));
+    if (newHandSize != handSize || position.size() != cells) {
+      handSize = newHandSize;
+      cells = position.size();
+      history = new int[2 * handSize * cells];
+    } else {
+      for (int i = 0; i < history.length; i++) {
+        history[i] >>= 1;
+      }
+    }
+    for (int[] plyKillers : killers) {
+      if (plyKillers != null) {
+        Arrays.fill(plyKillers, -1);
+      }
+    }
+    cutoffs = 0;
+    firstMoveCutoffs = 0;
+  }
+
+  /**
+   * Starts handing out the moves of a node.
+   *
+   * @param position  the position of the node
+   * @param ply       the ply of the node below the root of the search
+   * @param depth     the remaining depth of the node
+   * @param tableCell the cell of the transposition table move, -1 if there is none
+   * @param tableHand the hand index of the transposition table move, -1 if there is none
+   */
+  void start(SearchPosition position, int ply, int depth, int tableCell, int tableHand) {
+    ensurePly(ply, position.size() * handSize);
+    stages[ply] = STAGE_TABLE;
+    depths[ply] = depth;
+    boolean tableMoveValid = tableHand >= 0 && tableCell >= 0 && tableCell < position.size()
+            && position.isEmpty(tableCell);
+    tableMoves[ply] = tableMoveValid ? encode(tableHand, tableCell) : -1;
+    killerMoves[ply][0] = -1;
+    killerMoves[ply][1] = -1;
+  }
+
+  /**
+   * Returns the next move of a node, the hand index in the upper and the cell in the lower 16
+   * bits. The position must be the position of the node.
+   *
+   * @param position the position of the node
+   * @param ply      the ply of the node
+   * @return the next move, or -1 when every move has been handed out
+   */
+  int next(SearchPosition position, int ply) {
+    while (true) {
+      switch (stages[ply]) {
+        case STAGE_TABLE:
+          stages[ply] = STAGE_CAPTURES;
+          listCaptures(position, ply);
+          if (tableMoves[ply] >= 0) {
+            return tableMoves[ply];
+          }
+          break;
+        case STAGE_CAPTURES:
+          if (captureIndex[ply] < captureCounts[ply]) {
+            return pickBest(ply);
+          }
+          stages[ply] = STAGE_KILLERS;
+          killerIndex[ply] = 0;
+          break;
+        case STAGE_KILLERS:
+          while (killerIndex[ply] < 2) {
+            int move = resolveKiller(position, ply, killers[ply][killerIndex[ply]]);
+            killerMoves[ply][killerIndex[ply]++] = move;
+            if (move >= 0) {
+              return move;
+            }
+          }
+          stages[ply] = STAGE_QUIETS;
+          quietsListed[ply] = false;
+          cursorCells[ply] = position.nextEmpty(0);
+          cursorHands[ply] = 0;
+          if (depths[ply] >= SORT_DEPTH) {
+            listQuiets(position, ply);
+          }
+          break;
+        case STAGE_QUIETS:
+          int move = quietsListed[ply] ? nextListed(ply) : nextInBoardOrder(position, ply);
+          if (move >= 0) {
+            return move;
+          }
+          stages[ply] = STAGE_DONE;
+          break;
+        default:
+          return -1;
+      }
+    }
+  }
+
+  // Lists the moves that flip at least one card, other than the table move, scored by flips
+  private void listCaptures(SearchPosition position, int ply) {
+    int[] list = captures[ply];
+    int[] scores = captureScores[ply];
+    int side = position.getToMove();
+    int count = 0;
+    for (int cell = position.nextEmpty(0); cell >= 0; cell = position.nextEmpty(cell + 1)) {
+      if (!position.hasOpponentNeighbor(cell)) {
+        continue;
+      }
+      for (int hand = 0; hand < position.handSize(side); hand++) {
+        if (!position.isDistinctCard(side, hand) || encode(hand, cell) == tableMoves[ply]) {
+          continue;
+        }
+        int flips = position.countDirectFlips(hand, cell);
+        if (flips > 0) {
+          list[count] = encode(hand, cell);
+          scores[count] = flips << 20 | historyAt(side, hand, cell);
+          count++;
+        }
+      }
+    }
+    captureCounts[ply] = count;
+    captureIndex[ply] = 0;
+  }
+
+  // Lists and sorts every move not handed out by an earlier stage, by history
+  private void listQuiets(SearchPosition position, int ply) {
+    int[] list = quiets[ply];
+    int side = position.getToMove();
+    int count = 0;
+    for (int cell = position.nextEmpty(0); cell >= 0; cell = position.nextEmpty(cell + 1)) {
+      boolean contested = position.hasOpponentNeighbor(cell);
+      for (int hand = 0; hand < position.handSize(side); hand++) {
+        if (position.isDistinctCard(side, hand) && isQuiet(position, ply, hand, cell, contested)) {
+          list[count++] = encode(hand, cell);
+        }
+      }
+    }
+    if (sortBuffer.length < count) {
+      sortBuffer = new long[list.length];
+      sortedMoves = new int[list.length];
+    }
+    for (int i = 0; i < count; i++) {
+      // Scores are never negative, so sorting the complements sorts the moves best first, and
+      // the index keeps equal moves in board order
+      int move = list[i];
+      sortBuffer[i] = (long) (Integer.MAX_VALUE - historyAt(side, move >>> 16, move & 0xFFFF)) << 32
+              | i;
+    }
+    Arrays.sort(sortBuffer, 0, count);
+    for (int i = 0; i < count; i++) {
+      sortedMoves[i] = list[(int) sortBuffer[i]];
+    }
+    System.arraycopy(sortedMoves, 0, list, 0, count);
+    quietCounts[ply] = count;
+    quietIndex[ply] = 0;
+    quietsListed[ply] = true;
+  }
+
+  private int nextListed(int ply) {
+    return quietIndex[ply] < quietCounts[ply] ? quiets[ply][quietIndex[ply]++] : -1;
+  }
+
+  // Walks the board for the next move not handed out by an earlier stage
+  private int nextInBoardOrder(SearchPosition position, int ply) {
+    int side = position.getToMove();
+    for (int cell = cursorCells[ply]; cell >= 0; cell = position.nextEmpty(cell + 1)) {
+      boolean contested = position.hasOpponentNeighbor(cell);
+      for (int hand = cursorHands[ply]; hand < position.handSize(side); hand++) {
+        if (position.isDistinctCard(side, hand) && isQuiet(position, ply, hand, cell, contested)) {
+          cursorCells[ply] = cell;
+          cursorHands[ply] = hand + 1;
+          return encode(hand, cell);
+        }
+      }
+      cursorHands[ply] = 0;
+    }
+    cursorCells[ply] = -1;
+    return -1;
+  }
+
+  private boolean isQuiet(SearchPosition position, int ply, int hand, int cell,
+                          boolean contested) {
+    int move = encode(hand, cell);
+    return move != tableMoves[ply] && move != killerMoves[ply][0] && move != killerMoves[ply][1]
+            && (!contested || !isCapture(ply, move));
+  }
+
+  // Captures are only ever moves on contested cells and there are few of them
+  private boolean isCapture(int ply, int move) {
+    int[] list = captures[ply];
+    for (int i = 0; i < captureCounts[ply]; i++) {
+      if (list[i] == move) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Turns a killer into a move of this node, -1 if it is not a new quiet move here
+  private int resolveKiller(SearchPosition position, int ply, int killer) {
+    if (killer < 0) {
+      return -1;
+    }
+    int cell = killer >>> 16;
+    int values = killer & 0xFFFF;
+    if (cell >= position.size() || !position.isEmpty(cell)) {
+      return -1;
+    }
+    int side = position.getToMove();
+    for (int hand = 0; hand < position.handSize(side); hand++) {
+      if (position.isAvailable(side, hand) && position.handValues(side, hand) == values) {
+        int move = encode(hand, cell);
+        boolean tried = move == tableMoves[ply] || move == killerMoves[ply][0];
+        return tried || isCapture(ply, move) ? -1 : move;
+      }
+    }
+    return -1;
+  }
+
+  private int pickBest(int ply) {
+    int[] list = captures[ply];
+    int[] scores = captureScores[ply];
+    int index = captureIndex[ply]++;
+    int best = index;
+    for (int i = index + 1; i < captureCounts[ply]; i++) {
+      if (scores[i] > scores[best]) {
+        best = i;
+      }
+    }
+    int move = list[best];
+    list[best] = list[index];
+    scores[best] = scores[index];
+    list[index] = move;
+    return move;
+  }
+
+  /**
+   * Records that a move caused a cutoff, so it is tried earlier in sibling and later nodes.
+   *
+   * @param position  the position of the node, before the move
+   * @param ply       the ply of the node
+   * @param hand      the hand index of the move
+   * @param cell      the cell of the move
+   * @param depth     the remaining depth of the node
+   * @param moveIndex how many moves were searched before it
+   */
+  void recordCutoff(SearchPosition position, int ply, int hand, int cell, int depth,
+                    int moveIndex) {
+    ensurePly(ply, cells * handSize);
+    cutoffs++;
+    if (moveIndex == 0) {
+      firstMoveCutoffs++;
+    }
+    int side = position.getToMove();
+    if (!position.hasOpponentNeighbor(cell) || position.countDirectFlips(hand, cell) == 0) {
+      int[] plyKillers = killers[ply];
+      int killer = killerKey(cell, position.handValues(side, hand));
+      if (plyKillers[0] != killer) {
+        plyKillers[1] = plyKillers[0];
+        plyKillers[0] = killer;
+      }
+    }
+    int index = historyIndex(side, hand, cell);
+    history[index] += depth * depth;
+    if (history[index] >= HISTORY_LIMIT) {
+      for (int i = 0; i < history.length; i++) {
+        history[i] >>= 1;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of cutoffs since the last reset.
+   *
+   * @return the number of nodes that cut off
+   */
+  public long getCutoffCount() {
+    return cutoffs;
+  }
+
+  /**
+   * Returns the number of cutoffs since the last reset that happened on the first move searched.
+   *
+   * @return the number of nodes that cut off on their first move
+   */
+  public long getFirstMoveCutoffCount() {
+    return firstMoveCutoffs;
+  }
+
+  /**
+   * Returns the share of cutoffs that happened on the first move searched. The closer to 1, the
+   * better the ordering.
+   *
+   * @return the first move cutoff rate, 0 if there was no cutoff
+   */
+  public double getFirstMoveCutoffRate() {
+    return cutoffs == 0 ? 0 : (double) firstMoveCutoffs / cutoffs;
+  }
+
+  private static int encode(int hand, int cell) {
+    return hand << 16 | cell;
+  }
+
+  private int historyAt(int side, int hand, int cell) {
+    return history[historyIndex(side, hand, cell)];
+  }
+
+  private int historyIndex(int side, int hand, int cell) {
+    return (side * handSize + hand) * cells + cell;
+  }
+
+  // Killers are kept by card values, hand indices of equal cards differ between siblings
+  private static int killerKey(int cell, int values) {
+    return cell << 16 | values;
+  }
+
+  private void ensurePly(int ply, int maxMoves) {
+    if (ply >= stages.length) {
+      int newLength = Math.max(ply + 1, stages.length * 2);
+      stages = Arrays.copyOf(stages, newLength);
+      depths = Arrays.copyOf(depths, newLength);
+      tableMoves = Arrays.copyOf(tableMoves, newLength);
+      killerMoves = Arrays.copyOf(killerMoves, newLength);
+      killerIndex = Arrays.copyOf(killerIndex, newLength);
+      captures = Arrays.copyOf(captures, newLength);
+      captureScores = Arrays.copyOf(captureScores, newLength);
+      captureCounts = Arrays.copyOf(captureCounts, newLength);
+      captureIndex = Arrays.copyOf(captureIndex, newLength);
+      quiets = Arrays.copyOf(quiets, newLength);
+      quietCounts = Arrays.copyOf(quietCounts, newLength);
+      quietIndex = Arrays.copyOf(quietIndex, newLength);
+      quietsListed = Arrays.copyOf(quietsListed, newLength);
+      cursorCells = Arrays.copyOf(cursorCells, newLength);
+      cursorHands = Arrays.copyOf(cursorHands, newLength);
+      killers = Arrays.copyOf(killers, newLength);
+    }
+    if (quiets[ply] == null || quiets[ply].length < maxMoves) {
+      captures[ply] = new int[maxMoves];
+      captureScores[ply] = new int[maxMoves];
+      quiets[ply] = new int[maxMoves];
+    }
+    if (killers[ply] == null) {
+      killers[ply] = new int[] {-1, -1};
+      killerMoves[ply] = new int[2];
+    }
+  }
+}
@@ -0,0 +1,275 @@
+package strategy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import extrafeatures.BattleRuleStrategy;
+import extrafeatures.CombinedBattleRule;
+import extrafeatures.NormalBattleRule;
+import model.BoardView;
+import model.ICard;
+import model.PackedValues;
+import model.ReadOnlyThreeTriosModel;
+import player.IPlayer;
+
+/**
+ * Read-only opening book, memory-mapped from a file written by {@link OpeningBookBuilder}. The
+ * file is mapped, not read, so every game process that opens the same book shares one copy of it
+ * in the page cache and a lookup is a binary search over the mapped entries, with no search and
+ * no allocation. A book is built for one board, deck and battle rule: a book never answers for a
+ * game on another board layout or under another battle rule, and positions of other decks
+ * simply miss.
+ * The file starts with a header of the magic number, the format version, the number of entries,
+ * the search depth, the battle rule, the rows and columns of the board and its holes, one bit per
+ * cell in 64-bit words. It is followed by the entries in ascending order of position hash,
+ * 16 bytes each: the hash, the cell and the packed attack values of the best move, its score and
+ * the depth it was searched to.
+ */
+public final class OpeningBook {
+
+  static final int MAGIC = 0x54544F42;
+  static final int VERSION = 2;
+  // Header bytes before the hole words, which take 8 bytes per 64 cells
+  static final int HEADER_BYTES = 28;
+  static final int ENTRY_BYTES = 16;
+
+  /**
+   * Value returned by {@link #probe(long)} when the book has no entry for a position.
+   */
+  public static final long MISS = -1L;
+
+  private final ByteBuffer entries;
+  private final int entriesStart;
+  private final int size;
+  private final int depth;
+  private final int rule;
+  private final int rows;
+  private final int cols;
+  private final long[] holes;
+
+  private OpeningBook(ByteBuffer entries, int size, int depth, int rule, int rows, int cols,
+                      long[] holes) {
+    this.entries = entries;
+    this.entriesStart = HEADER_BYTES + holes.length * Long.BYTES;
+    this.size = size;
+    this.depth = depth;
+    this.rule = rule;
+    this.rows = rows;
+    this.cols = cols;
+    this.holes = holes;
+  }
+
+  /**
+   * Maps a book file into memory.
+   *
+   * @param path the book file
+   * @return the book
+   * @throws IOException if the file cannot be read or is not a book
+   * @throws IllegalArgumentException if the path is null
+   */
+  public static OpeningBook open(Path path) throws IOException {
+    if (path == null) {
+      throw new IllegalArgumentException("Book path cannot be null.");
+    }
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_BYTES) {
+        throw new IOException("Not an opening book: " + path);
+      }
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+      throw new IOException("Not an opening book of version " + VERSION + ": " + path);
+    }
+    int size = buffer.getInt(8);
+    int rows = buffer.getInt(20);
+    int cols = buffer.getInt(24);
+    if (rows < 1 || cols < 1) {
+      throw new IOException("Opening book header is corrupt: " + path);
+    }
+    long[] holes = new long[holeWords(rows, cols)];
+    long offset = HEADER_BYTES + (long) holes.length * Long.BYTES;
+    if (size < 0 || buffer.capacity() != offset + (long) size * ENTRY_BYTES) {
+      throw new IOException("Opening book is truncated: " + path);
+    }
+    for (int i = 0; i < holes.length; i++) {
+      holes[i] = buffer.getLong(HEADER_BYTES + i * Long.BYTES);
+    }
+    return new OpeningBook(buffer, size, buffer.getInt(12), buffer.getInt(16), rows, cols,
+            holes);
+  }
+
+  /**
+   * Looks up the best move of a position.
+   *
+   * @param hash the Zobrist hash of the position, as the model and {@link SearchPosition} report
+   * @return the entry of the position, read with the static accessors, or {@link #MISS}
+   */
+  public long probe(long hash) {
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int offset = entriesStart + middle * ENTRY_BYTES;
+      long key = entries.getLong(offset);
+      if (key < hash) {
+        low = middle + 1;
+      } else if (key > hash) {
+        high = middle - 1;
+      } else {
+        long move = entries.getInt(offset + 8);
+        return move << 32 | (entries.getInt(offset + 12) & 0xFFFFFFFFL);
+      }
+    }
+    return MISS;
+  }
+
+  /**
+   * Checks if the book was built for the game: the game is played on a board with the same rows,
+   * columns and holes, and under the same battle rule.
+   *
+   * @param model the game to check
+   * @return true if the book may hold positions of the game, false if it cannot
+   */
+  public boolean covers(ReadOnlyThreeTriosModel model) {
+    if (model == null || ruleId(model.getBattleRuleStrategy()) != rule) {
+      return false;
+    }
+    BoardView board = model.getBoardView();
+    if (board.getRows() != rows || board.getColumns() != cols) {
+      return false;
+    }
+    for (int cell = 0; cell < rows * cols; cell++) {
+      boolean hole = (holes[cell >>> 6] & 1L << cell) != 0;
+      if (hole != board.isHole(cell / cols, cell % cols)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Looks up the move of a player in the current position of a game and turns it into a move
+   * with a card of the player's hand.
+   *
+   * @param player the player to move
+   * @param model  the game
+   * @return the book move, or null if the position is not in the book, the book was built for
+   *         another board or battle rule, or the book move cannot be played
+   */
+  public Move lookup(IPlayer player, ReadOnlyThreeTriosModel model) {
+    if (player == null || model == null || model.getCurrentPlayer() != player
+            || !covers(model)) {
+      return null;
+    }
+    long entry = probe(model.getPositionHash());
+    if (entry == MISS) {
+      return null;
+    }
+    int cell = cellOf(entry);
+    int row = cell / cols;
+    int col = cell % cols;
+    if (row >= rows || !model.getBoardView().isEmpty(row, col)) {
+      return null;
+    }
+    List<ICard> hand = model.getPlayerHand(player);
+    for (ICard card : hand) {
+      if (PackedValues.of(card) == valuesOf(entry)) {
+        return new Move(card, row, col);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the number of positions in the book.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the depth the book moves were searched to, at least.
+   *
+   * @return the search depth of the book
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+  /**
+   * Reads the cell of the book move from an entry.
+   *
+   * @param entry an entry returned by {@link #probe(long)}
+   * @return the flat row-major index of the cell to play on
+   */
+  public static int cellOf(long entry) {
+    return (int) (entry >>> 48);
+  }
+
+  /**
+   * Reads the card of the book move from an entry.
+   *
+   * @param entry an entry returned by {@link #probe(long)}
+   * @return the packed attack values of the card to play
+   */
+  public static int valuesOf(long entry) {
+    return (int) (entry >>> 32) & 0xFFFF;
+  }
+
+  /**
+   * Reads the score of the book move from an entry.
+   *
+   * @param entry an entry returned by {@link #probe(long)}
+   * @return the search score of the move for the player to move
+   */
+  public static int scoreOf(long entry) {
+    return (short) (entry >>> 16);
+  }
+
+  /**
+   * Reads the depth the book move was searched to from an entry.
+   *
+   * @param entry an entry returned by {@link #probe(long)}
+   * @return the search depth of the move
+   */
+  public static int depthOf(long entry) {
+    return (int) entry & 0xFFFF;
+  }
+
+  // Identifies a battle rule by its class and, for a combined rule, the rules it combines in
+  // order. A game without a rule plays the normal rule
+  static int ruleId(BattleRuleStrategy battleRule) {
+    Class<?> type = battleRule == null ? NormalBattleRule.class : battleRule.getClass();
+    int id = type.getName().hashCode();
+    if (battleRule instanceof CombinedBattleRule) {
+      for (BattleRuleStrategy part : ((CombinedBattleRule) battleRule).getStrategies()) {
+        id = id * 31 + ruleId(part);
+      }
+    }
+    return id;
+  }
+
+  static int holeWords(int rows, int cols) {
+    return (rows * cols + Long.SIZE - 1) / Long.SIZE;
+  }
+
+  // The holes of a board, one bit per cell in row-major order
+  static long[] holesOf(BoardView board) {
+    int cols = board.getColumns();
+    long[] holes = new long[holeWords(board.getRows(), cols)];
+    for (int cell = 0; cell < board.getRows() * cols; cell++) {
+      if (board.isHole(cell / cols, cell % cols)) {
+        holes[cell >>> 6] |= 1L << cell;
+      }
+    }
+    return holes;
+  }
+}
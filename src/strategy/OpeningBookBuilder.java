@@ -0,0 +1,209 @@
+package strategy;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import configuration.ConfigurationReader;
+import extrafeatures.BattleRuleStrategy;
+import extrafeatures.CombinedBattleRule;
+import extrafeatures.FallenAceBattleRule;
+import extrafeatures.NormalBattleRule;
+import extrafeatures.PlusBattleRule;
+import extrafeatures.ReverseBattleRule;
+import extrafeatures.SameBattleRule;
+import model.BoardView;
+import model.GameModel;
+import model.Grid;
+import model.ICard;
+import model.ReadOnlyThreeTriosModel;
+import player.HumanPlayer;
+import player.IPlayer;
+
+/**
+ * Offline builder of {@link OpeningBook} files. It visits every position within a number of plies
+ * of the start of a game, for both players, searches each one with an {@link AlphaBetaSearch}
+ * and writes the best moves to a book. Positions reached through different move orders, or only
+ * differing by cards of equal values, are searched once. The searches share one transposition
+ * table, so each of them starts from what the searches before it found.
+ * Building is meant to be run once per board, deck and battle rule, ahead of the games:
+ * <pre>
+ * java strategy.OpeningBookBuilder board.config cards.config out.book [plies] [depth] [+rule...]
+ * </pre>
+ */
+public final class OpeningBookBuilder {
+
+  private static final int TABLE_ENTRIES = 1 << 20;
+
+  private final int plies;
+  private final int depth;
+  private final AlphaBetaSearch search = new AlphaBetaSearch(new TranspositionTable(TABLE_ENTRIES));
+  private final Set<Long> visited = new HashSet<>();
+  private long[] keys = new long[64];
+  private int[] moves = new int[64];
+  private int[] results = new int[64];
+  private int size;
+
+  /**
+   * Creates a builder.
+   *
+   * @param plies how many plies from the start of the game the book covers, 0 for the first move
+   *              only
+   * @param depth the depth every position of the book is searched to
+   * @throws IllegalArgumentException if the plies are negative or the depth is not positive
+   */
+  public OpeningBookBuilder(int plies, int depth) {
+    if (plies < 0 || depth < 1) {
+      throw new IllegalArgumentException("Plies cannot be negative and depth must be positive.");
+    }
+    this.plies = plies;
+    this.depth = depth;
+  }
+
+  /**
+   * Builds the book of the current position of a game and writes it to a file.
+   *
+   * @param model the game, in the position the book starts from
+   * @param path  the file to write the book to, replaced if it exists
+   * @return the number of positions in the book
+   * @throws IOException if the book cannot be written
+   * @throws IllegalArgumentException if an argument is null
+   */
+  public int build(ReadOnlyThreeTriosModel model, Path path) throws IOException {
+    if (model == null || path == null) {
+      throw new IllegalArgumentException("Model and path cannot be null.");
+    }
+    size = 0;
+    visited.clear();
+    SearchPosition position = SearchPosition.of(model, model.getCurrentPlayer());
+    visit(position, plies);
+    write(path, OpeningBook.ruleId(model.getBattleRuleStrategy()), model.getBoardView());
+    return size;
+  }
+
+  private void visit(SearchPosition position, int pliesLeft) {
+    if (position.isTerminal() || !visited.add(position.getHash())) {
+      return;
+    }
+    SearchResult result = search.search(position, Math.min(depth, position.emptyCount()));
+    add(position.getHash(), result, position.handValues(position.getToMove(),
+            result.getHandIndex()));
+    if (pliesLeft == 0) {
+      return;
+    }
+    int side = position.getToMove();
+    for (int cell = position.nextEmpty(0); cell >= 0; cell = position.nextEmpty(cell + 1)) {
+      for (int hand = 0; hand < position.handSize(side); hand++) {
+        if (position.isDistinctCard(side, hand)) {
+          position.apply(hand, cell);
+          visit(position, pliesLeft - 1);
+          position.undo();
+        }
+      }
+    }
+  }
+
+  private void add(long key, SearchResult result, int values) {
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size * 2);
+      moves = Arrays.copyOf(moves, size * 2);
+      results = Arrays.copyOf(results, size * 2);
+    }
+    keys[size] = key;
+    moves[size] = result.getCell() << 16 | values;
+    results[size] = result.getScore() << 16 | (result.getDepth() & 0xFFFF);
+    size++;
+  }
+
+  private void write(Path path, int rule, BoardView board) throws IOException {
+    Integer[] order = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+    try (OutputStream file = Files.newOutputStream(path);
+         DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+      out.writeInt(OpeningBook.MAGIC);
+      out.writeInt(OpeningBook.VERSION);
+      out.writeInt(size);
+      out.writeInt(depth);
+      out.writeInt(rule);
+      out.writeInt(board.getRows());
+      out.writeInt(board.getColumns());
+      for (long word : OpeningBook.holesOf(board)) {
+        out.writeLong(word);
+      }
+      for (int i : order) {
+        out.writeLong(keys[i]);
+        out.writeInt(moves[i]);
+        out.writeInt(results[i]);
+      }
+    }
+  }
+
+  /**
+   * Builds a book from configuration files.
+   * Arguments: the board configuration, the card configuration, the book file to write, then
+   * optionally the plies to cover (default 1), the search depth (default 6) and battle rules as
+   * in the game: +reverse, +fallenace, +same, +plus.
+   *
+   * @param args the command line arguments
+   */
+  public static void main(String[] args) {
+    if (args.length < 3) {
+      System.err.println("Usage: java strategy.OpeningBookBuilder <board> <cards> <book> "
+              + "[plies] [depth] [+rule...]");
+      System.exit(1);
+    }
+    List<String> numbers = new ArrayList<>();
+    List<BattleRuleStrategy> rules = new ArrayList<>();
+    for (int i = 3; i < args.length; i++) {
+      switch (args[i].toLowerCase()) {
+        case "+reverse":
+          rules.add(new ReverseBattleRule());
+          break;
+        case "+fallenace":
+          rules.add(new FallenAceBattleRule());
+          break;
+        case "+same":
+          rules.add(new SameBattleRule());
+          break;
+        case "+plus":
+          rules.add(new PlusBattleRule());
+          break;
+        default:
+          numbers.add(args[i]);
+          break;
+      }
+    }
+    BattleRuleStrategy rule = rules.isEmpty() ? new NormalBattleRule()
+            : rules.size() == 1 ? rules.get(0) : new CombinedBattleRule(rules);
+    try {
+      int plies = numbers.size() > 0 ? Integer.parseInt(numbers.get(0)) : 1;
+      int depth = numbers.size() > 1 ? Integer.parseInt(numbers.get(1)) : 6;
+      Grid grid = ConfigurationReader.readGridConfig(args[0]);
+      List<ICard> cards = ConfigurationReader.readCardData(args[1]);
+      IPlayer red = new HumanPlayer("Red", new ArrayList<>());
+      IPlayer blue = new HumanPlayer("Blue", new ArrayList<>());
+      GameModel model = new GameModel(rule);
+      model.startGameWithConfig(grid, cards, false, red, blue);
+      long start = System.nanoTime();
+      int entries = new OpeningBookBuilder(plies, depth).build(model, Paths.get(args[2]));
+      System.out.println("Wrote " + entries + " positions to " + args[2]
+              + " in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+    } catch (IOException e) {
+      System.err.println("Error building the opening book: " + e.getMessage());
+    } catch (IllegalArgumentException e) {
+      System.err.println("Invalid configuration: " + e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,30 @@
+package strategy;
+
+/**
+ * How a game ends for the player to move in a position, with both players playing perfectly, as
+ * a {@link Tablebase} knows it.
+ */
+public enum Outcome {
+  /**
+   * The player to move ends the game with more cards than their opponent.
+   */
+  WIN,
+  /**
+   * Both players end the game with the same number of cards.
+   */
+  DRAW,
+  /**
+   * The player to move ends the game with fewer cards than their opponent.
+   */
+  LOSS;
+
+  /**
+   * Returns the outcome of a final margin.
+   *
+   * @param margin the final score of the player to move minus the score of their opponent
+   * @return the outcome for the player to move
+   */
+  public static Outcome of(int margin) {
+    return margin > 0 ? WIN : margin == 0 ? DRAW : LOSS;
+  }
+}
@@ -0,0 +1,106 @@
+package strategy;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import model.ICard;
+import model.ReadOnlyThreeTriosModel;
+import player.IPlayer;
+
+/**
+ * Strategy that plays like an {@link AlphaBetaStrategy} of the same depth, but spreads the search
+ * over the cores of the machine with a {@link ParallelSearch}. Given a {@link SearchBudget}, it
+ * deepens one ply at a time like the serial strategy.
+ */
+public class ParallelAlphaBetaStrategy implements Strategy {
+
+  private static final int DEFAULT_DEPTH = 4;
+  private static final int DEFAULT_TABLE_ENTRIES = 1 << 20;
+
+  private final int depth;
+  private final TranspositionTable table;
+  private final ParallelSearch search;
+  private SearchResult lastResult;
+
+  /**
+   * Creates a parallel alpha-beta strategy that searches to the default depth on the common
+   * pool.
+   */
+  public ParallelAlphaBetaStrategy() {
+    this(DEFAULT_DEPTH);
+  }
+
+  /**
+   * Creates a parallel alpha-beta strategy that searches to the given depth on the common pool.
+   *
+   * @param depth the number of plies to search
+   * @throws IllegalArgumentException if the depth is not positive
+   */
+  public ParallelAlphaBetaStrategy(int depth) {
+    this(depth, ForkJoinPool.commonPool(), new TranspositionTable(DEFAULT_TABLE_ENTRIES));
+  }
+
+  /**
+   * Creates a parallel alpha-beta strategy that searches to the given depth on the given pool
+   * and shares the given transposition table.
+   *
+   * @param depth the number of plies to search
+   * @param pool  the pool to run the search on
+   * @param table the transposition table to share
+   * @throws IllegalArgumentException if the depth is not positive or the pool or table is null
+   */
+  public ParallelAlphaBetaStrategy(int depth, ForkJoinPool pool, TranspositionTable table) {
+    if (depth < 1) {
+      throw new IllegalArgumentException("Search depth must be positive.");
+    }
+    if (table == null) {
+      throw new IllegalArgumentException("Transposition table cannot be null.");
+    }
+    this.depth = depth;
+    this.table = table;
+    this.search = new ParallelSearch(pool, table);
+  }
+
+  @Override
+  public Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model) {
+    return selectMove(player, model, SearchBudget.unlimited());
+  }
+
+  /**
+   * Selects a move by searching deeper one ply at a time until the budget runs out, and plays the
+   * best move of the deepest search that completed. Without a limit the search stops at the depth
+   * of this strategy, with a limit it keeps deepening until the end of the game.
+   */
+  @Override
+  public Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model, SearchBudget budget) {
+    if (budget == null) {
+      throw new IllegalArgumentException("Budget cannot be null.");
+    }
+    List<ICard> hand = model.getPlayerHand(player);
+    if (hand.isEmpty()) {
+      return null;
+    }
+    SearchPosition position = SearchPosition.of(model, player);
+    table.newSearch();
+    if (budget.isUnlimited()) {
+      lastResult = search.search(position, depth);
+    } else {
+      lastResult = search.search(position, position.size(), budget);
+    }
+    if (!lastResult.hasMove()) {
+      return Move.findFallbackMove(hand, model.getGrid(), model, player);
+    }
+    int cell = lastResult.getCell();
+    return new Move(position.handCard(position.getToMove(), lastResult.getHandIndex()),
+            cell / position.getColumns(), cell % position.getColumns());
+  }
+
+  /**
+   * Returns the result of the search behind the last selected move.
+   *
+   * @return the last search result, or null if no move was selected yet
+   */
+  public SearchResult getLastResult() {
+    return lastResult;
+  }
+}
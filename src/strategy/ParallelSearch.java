@@ -0,0 +1,225 @@
+package strategy;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-depth alpha-beta search that splits the root moves over a {@link ForkJoinPool}, in the
+ * young brothers wait style: the first root move is searched alone to get a bound, then every
+ * other root move is searched as its own task on its own copy of the position, and idle workers
+ * steal the tasks that are left. All tasks share one {@link TranspositionTable} and the best
+ * score found so far, which they use as their bound.
+ * Started with an empty table, or a table holding the same entries as the table of the serial
+ * search, the result is exactly the result of {@link AlphaBetaSearch} to the same depth, move
+ * included: every move that could tie with the best one is scored exactly, and ties go to the
+ * move that comes first in the serial move order. A table the workers have filled in before, in
+ * whatever order they happened to run, can still change which of two equal moves is found.
+ * Given a {@link SearchBudget}, the search deepens one ply at a time like the serial one. A node
+ * limit is split evenly over the root moves of a depth, so all threads together stay within it.
+ */
+public final class ParallelSearch {
+
+  private final ForkJoinPool pool;
+  private final TranspositionTable table;
+  private long nodes;
+
+  /**
+   * Creates a parallel search that runs on the given pool and shares the given table.
+   *
+   * @param pool  the pool to run the search tasks on
+   * @param table the transposition table to share, or null to search without one
+   * @throws IllegalArgumentException if the pool is null
+   */
+  public ParallelSearch(ForkJoinPool pool, TranspositionTable table) {
+    if (pool == null) {
+      throw new IllegalArgumentException("Pool cannot be null.");
+    }
+    this.pool = pool;
+    this.table = table;
+  }
+
+  /**
+   * Searches a position to a fixed depth and returns the best move for the player to move.
+   *
+   * @param position the position to search, left unchanged when the search returns
+   * @param depth    the number of plies to search
+   * @return the best move found, or a result without a move if the position is over
+   * @throws IllegalArgumentException if the position is null or the depth is not positive
+   */
+  public SearchResult search(SearchPosition position, int depth) {
+    if (position == null) {
+      throw new IllegalArgumentException("Position cannot be null.");
+    }
+    if (depth < 1) {
+      throw new IllegalArgumentException("Search depth must be positive.");
+    }
+    return searchDepth(position, depth, Long.MAX_VALUE, Long.MAX_VALUE);
+  }
+
+  /**
+   * Searches a position deeper and deeper until the budget runs out, the maximum depth is reached
+   * or the search reaches the end of the game. The first ply is always searched in full, so the
+   * result has a move whenever the position has one, however small the budget.
+   *
+   * @param position the position to search, left unchanged when the search returns
+   * @param maxDepth the deepest search to run
+   * @param budget   the most time or nodes to spend on the whole search
+   * @return the result of the deepest completed search, with the nodes of all of them
+   * @throws IllegalArgumentException if an argument is null or the depth is not positive
+   */
+  public SearchResult search(SearchPosition position, int maxDepth, SearchBudget budget) {
+    if (position == null || budget == null) {
+      throw new IllegalArgumentException("Position and budget cannot be null.");
+    }
+    if (maxDepth < 1) {
+      throw new IllegalArgumentException("Search depth must be positive.");
+    }
+    long deadline = budget.deadlineFrom(System.nanoTime());
+    long nodeLimit = budget.getNodes() == 0 ? Long.MAX_VALUE : budget.getNodes();
+    SearchResult best = searchDepth(position, 1, Long.MAX_VALUE, Long.MAX_VALUE);
+    long spent = nodes;
+    int lastDepth = Math.min(maxDepth, Math.max(1, position.emptyCount()));
+    for (int depth = 2; depth <= lastDepth && spent < nodeLimit
+            && (deadline == Long.MAX_VALUE || System.nanoTime() - deadline < 0); depth++) {
+      SearchResult result = searchDepth(position, depth, deadline,
+              nodeLimit == Long.MAX_VALUE ? nodeLimit : nodeLimit - spent);
+      spent += nodes;
+      if (result == null) {
+        break;
+      }
+      best = result;
+    }
+    nodes = spent;
+    return new SearchResult(best.getHandIndex(), best.getCell(), best.getScore(),
+            best.getDepth(), spent);
+  }
+
+  // One search to a fixed depth, null if a root move ran out of time or of its share of nodes
+  private SearchResult searchDepth(SearchPosition position, int depth, long deadline,
+                                   long nodeLimit) {
+    if (position.isTerminal()) {
+      nodes = 1;
+      return new SearchResult(-1, -1, position.evaluate(), depth, nodes);
+    }
+    int side = position.getToMove();
+    int count = 0;
+    int[] hands = new int[position.size() * position.handSize(side)];
+    int[] cells = new int[hands.length];
+    for (int cell = 0; cell < position.size(); cell++) {
+      for (int hand = 0; hand < position.handSize(side); hand++) {
+        if (position.isEmpty(cell) && position.isDistinctCard(side, hand)
+                && !position.isSymmetricDuplicate(hand, cell)) {
+          hands[count] = hand;
+          cells[count] = cell;
+          count++;
+        }
+      }
+    }
+
+    // The eldest brother is searched alone, the others wait for its score
+    long share = nodeLimit == Long.MAX_VALUE ? nodeLimit : Math.max(1, nodeLimit / count);
+    AlphaBetaSearch eldest = new AlphaBetaSearch(table);
+    int[] scores = new int[count];
+    long[] moveNodes = new long[count];
+    AtomicBoolean aborted = new AtomicBoolean();
+    scores[0] = eldest.scoreMove(position, hands[0], cells[0], depth, -AlphaBetaSearch.INFINITY,
+            deadline, share);
+    moveNodes[0] = eldest.getNodeCount();
+    nodes = 1 + moveNodes[0];
+    if (eldest.wasAborted()) {
+      return null;
+    }
+    AtomicInteger bestScore = new AtomicInteger(scores[0]);
+
+    RootMoveTask[] tasks = new RootMoveTask[count - 1];
+    for (int i = 1; i < count; i++) {
+      tasks[i - 1] = new RootMoveTask(position, hands[i], cells[i], depth, bestScore, scores,
+              moveNodes, i, deadline, share, aborted);
+    }
+    pool.invoke(new RecursiveAction() {
+      @Override
+      protected void compute() {
+        invokeAll(tasks);
+      }
+    });
+
+    int best = 0;
+    for (int i = 1; i < count; i++) {
+      nodes += moveNodes[i];
+      if (scores[i] > scores[best]) {
+        best = i;
+      }
+    }
+    if (aborted.get()) {
+      return null;
+    }
+    return new SearchResult(hands[best], cells[best], scores[best], depth, nodes);
+  }
+
+  /**
+   * Returns the number of positions visited by the last search, over all threads.
+   *
+   * @return the node count of the last search
+   */
+  public long getNodeCount() {
+    return nodes;
+  }
+
+  /**
+   * Task that scores one root move on its own copy of the position.
+   */
+  private final class RootMoveTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final SearchPosition root;
+    private final int handIndex;
+    private final int cell;
+    private final int depth;
+    private final AtomicInteger bestScore;
+    private final int[] scores;
+    private final long[] moveNodes;
+    private final int index;
+    private final long deadline;
+    private final long nodeLimit;
+    private final AtomicBoolean aborted;
+
+    RootMoveTask(SearchPosition root, int handIndex, int cell, int depth,
+                 AtomicInteger bestScore, int[] scores, long[] moveNodes, int index,
+                 long deadline, long nodeLimit, AtomicBoolean aborted) {
+      this.root = root;
+      this.handIndex = handIndex;
+      this.cell = cell;
+      this.depth = depth;
+      this.bestScore = bestScore;
+      this.scores = scores;
+      this.moveNodes = moveNodes;
+      this.index = index;
+      this.deadline = deadline;
+      this.nodeLimit = nodeLimit;
+      this.aborted = aborted;
+    }
+
+    @Override
+    protected void compute() {
+      if (aborted.get()) {
+        return;
+      }
+      // The root is only read while the tasks run, so copying it from many threads is safe
+      SearchPosition position = root.copy();
+      AlphaBetaSearch search = new AlphaBetaSearch(table);
+      // One below the best score, so a move that ties with it is still scored exactly and the
+      // tie can go to the move that comes first
+      int score = search.scoreMove(position, handIndex, cell, depth, bestScore.get() - 1,
+              deadline, nodeLimit);
+      moveNodes[index] = search.getNodeCount();
+      if (search.wasAborted()) {
+        aborted.set(true);
+        return;
+      }
+      bestScore.accumulateAndGet(score, Math::max);
+      scores[index] = score;
+    }
+  }
+}
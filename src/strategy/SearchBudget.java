@@ -0,0 +1,97 @@
+package strategy;
+
+/**
+ * Limit on how much work a strategy may spend on selecting one move, as wall-clock time, as
+ * searched positions, or both. Strategies that search deeper the longer they run stop once either
+ * limit is reached and play the best move found so far. Budgets are immutable and can be reused
+ * for every move.
+ */
+public final class SearchBudget {
+
+  private static final SearchBudget UNLIMITED = new SearchBudget(0, 0);
+
+  private final long millis;
+  private final long nodes;
+
+  private SearchBudget(long millis, long nodes) {
+    this.millis = millis;
+    this.nodes = nodes;
+  }
+
+  /**
+   * Returns the budget without any limit.
+   *
+   * @return the unlimited budget
+   */
+  public static SearchBudget unlimited() {
+    return UNLIMITED;
+  }
+
+  /**
+   * Creates a budget of wall-clock time per move.
+   *
+   * @param millis the time per move in milliseconds
+   * @return a budget with only a time limit
+   * @throws IllegalArgumentException if the time is not positive
+   */
+  public static SearchBudget ofMillis(long millis) {
+    return of(millis, 0);
+  }
+
+  /**
+   * Creates a budget of searched positions per move.
+   *
+   * @param nodes the number of positions per move
+   * @return a budget with only a node limit
+   * @throws IllegalArgumentException if the number of positions is not positive
+   */
+  public static SearchBudget ofNodes(long nodes) {
+    return of(0, nodes);
+  }
+
+  /**
+   * Creates a budget with a time limit and a node limit, 0 meaning no limit.
+   *
+   * @param millis the time per move in milliseconds, 0 for no time limit
+   * @param nodes  the number of positions per move, 0 for no node limit
+   * @return the budget
+   * @throws IllegalArgumentException if a limit is negative or both limits are 0
+   */
+  public static SearchBudget of(long millis, long nodes) {
+    if (millis < 0 || nodes < 0 || (millis == 0 && nodes == 0)) {
+      throw new IllegalArgumentException("Budget limits must be positive.");
+    }
+    return new SearchBudget(millis, nodes);
+  }
+
+  public long getMillis() {
+    return millis;
+  }
+
+  public long getNodes() {
+    return nodes;
+  }
+
+  public boolean isUnlimited() {
+    return millis == 0 && nodes == 0;
+  }
+
+  /**
+   * Returns the point in time this budget runs out, for a move started at the given time.
+   *
+   * @param startNanos the start of the move as given by {@link System#nanoTime()}
+   * @return the deadline as a {@link System#nanoTime()} value, or {@link Long#MAX_VALUE} if the
+   *         budget has no time limit
+   */
+  public long deadlineFrom(long startNanos) {
+    return millis == 0 ? Long.MAX_VALUE : startNanos + millis * 1_000_000L;
+  }
+
+  @Override
+  public String toString() {
+    if (isUnlimited()) {
+      return "SearchBudget{unlimited}";
+    }
+    return "SearchBudget{millis=" + millis + ", nodes=" + nodes + "}";
+  }
+}
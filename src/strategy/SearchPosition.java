@@ -0,0 +1,856 @@
+package strategy;
+
+import java.util.Arrays;
+import java.util.List;
+
+import extrafeatures.BattleRuleStrategy;
+import extrafeatures.BattleTable;
+import extrafeatures.NormalBattleRule;
+import model.BoardSymmetry;
+import model.BoardView;
+import model.Direction;
+import model.ICard;
+import model.PackedBoard;
+import model.PackedValues;
+import model.ReadOnlyThreeTriosModel;
+import model.Zobrist;
+import player.IPlayer;
+
+/**
+ * Lightweight, self-contained copy of a game that searches play moves on. The board, both hands
+ * and the battle rule are held in primitive arrays, so applying a move and undoing it again only
+ * touches the cells the move changed and never creates objects. Battles are resolved exactly the
+ * way the model resolves them, including combo cascades.
+ * Slot 0 is always the red player and slot 1 the blue player. Cells are flat row-major indices.
+ */
+public final class SearchPosition {
+
+  /**
+   * Owner value of a cell that is a hole.
+   */
+  public static final int HOLE = -2;
+
+  /**
+   * Owner value of a card cell that does not hold a card.
+   */
+  public static final int EMPTY = -1;
+
+  private static final int DIRECTIONS = Direction.values().length;
+
+  private final int rows;
+  private final int cols;
+  private final int[] neighbors;
+  private final int[] owners;
+  private final int[] values;
+  private final int[][] handValues;
+  private final ICard[][] handCards;
+  private final boolean[][] used;
+  // Hand cards with equal values share a group, counting the group's cards left in hand lets the
+  // hash treat hands as multisets
+  private final int[][] handGroups;
+  private final int[][] groupCounts;
+  // The next card of the same group in hand order, and the first card of every group that is
+  // still in hand, so each distinct card is searched once per cell
+  private final int[][] nextInGroup;
+  private final int[][] groupFirst;
+  private final int[] handCounts = new int[2];
+  private final int[] ownedCounts = new int[2];
+  private int emptyCount;
+  // Bitboard of the empty cells, one bit per cell in flat index order
+  private final long[] emptyBits;
+  private int toMove;
+  private long hash;
+  // Symmetries of the board that also map the cards of the starting position onto themselves,
+  // with the hash of the position as every one of them turns it
+  private final BoardSymmetry symmetry;
+  private final int[] symmetries;
+  private final long[] symmetricHashes;
+
+  private final BattleTable battleTable;
+  private final BattleRuleStrategy battleRule;
+  private final boolean packedBattles;
+  private final int[] neighborhood = new int[DIRECTIONS];
+  private final int[] cascade;
+
+  // Undo log: the cells flipped by every move, plus the placement of every move by ply
+  private int[] flips;
+  private int flipCount;
+  private final int[] moveCells;
+  private final int[] moveHands;
+  private final int[] moveFlipMarks;
+  private int ply;
+
+  private SearchPosition(int rows, int cols, int[] owners, int[] values, int[][] handValues,
+                         ICard[][] handCards, int toMove, BattleRuleStrategy battleRule,
+                         BoardSymmetry symmetry) {
+    this.rows = rows;
+    this.cols = cols;
+    this.owners = owners;
+    this.values = values;
+    this.handValues = handValues;
+    this.handCards = handCards;
+    this.used = new boolean[][] {new boolean[handValues[0].length],
+        new boolean[handValues[1].length]};
+    this.toMove = toMove;
+    this.battleRule = battleRule;
+    this.battleTable = BattleTable.compile(battleRule);
+    this.packedBattles = battleRule.supportsPackedBattles();
+    this.neighbors = PackedBoard.buildNeighbors(rows, cols);
+    this.cascade = new int[owners.length + 1];
+    this.flips = new int[owners.length];
+    this.moveCells = new int[owners.length + 1];
+    this.moveHands = new int[owners.length + 1];
+    this.moveFlipMarks = new int[owners.length + 1];
+    for (int cell = 0; cell < owners.length; cell++) {
+      if (owners[cell] >= 0) {
+        ownedCounts[owners[cell]]++;
+      } else if (owners[cell] == EMPTY) {
+        emptyCount++;
+      }
+    }
+    this.emptyBits = new long[(owners.length + 63) >>> 6];
+    for (int cell = 0; cell < owners.length; cell++) {
+      if (owners[cell] == EMPTY) {
+        emptyBits[cell >>> 6] |= 1L << cell;
+      }
+    }
+    handCounts[0] = handValues[0].length;
+    handCounts[1] = handValues[1].length;
+    this.handGroups = new int[2][];
+    this.groupCounts = new int[2][];
+    this.nextInGroup = new int[2][];
+    this.groupFirst = new int[2][];
+    for (int slot = 0; slot < 2; slot++) {
+      handGroups[slot] = new int[handValues[slot].length];
+      groupCounts[slot] = new int[handValues[slot].length];
+      nextInGroup[slot] = new int[handValues[slot].length];
+      groupFirst[slot] = new int[handValues[slot].length];
+      for (int i = 0; i < handValues[slot].length; i++) {
+        int group = i;
+        for (int j = 0; j < i; j++) {
+          if (handValues[slot][j] == handValues[slot][i]) {
+            group = handGroups[slot][j];
+            break;
+          }
+        }
+        nextInGroup[slot][i] = -1;
+        for (int j = i - 1; j >= group; j--) {
+          if (handGroups[slot][j] == group) {
+            nextInGroup[slot][j] = i;
+            break;
+          }
+        }
+        groupFirst[slot][group] = group;
+        handGroups[slot][i] = group;
+        hash ^= Zobrist.handKey(slot, handValues[slot][i], groupCounts[slot][group]++);
+      }
+    }
+    for (int cell = 0; cell < owners.length; cell++) {
+      if (owners[cell] >= 0) {
+        hash ^= Zobrist.cellKey(cell, values[cell], owners[cell]);
+      }
+    }
+    if (toMove == 1) {
+      hash ^= Zobrist.BLUE_TO_MOVE;
+    }
+    this.symmetry = symmetry;
+    this.symmetries = keptSymmetries();
+    this.symmetricHashes = new long[symmetries.length];
+    for (int i = 0; i < symmetries.length; i++) {
+      symmetricHashes[i] = turnedHash(symmetries[i]);
+    }
+  }
+
+  // The transforms other than the identity that map this position onto itself. Every position
+  // searched from here is mapped onto another position that can be searched from here.
+  private int[] keptSymmetries() {
+    int[] kept = new int[symmetry.size()];
+    int count = 0;
+    for (int transform = 1; transform < symmetry.size(); transform++) {
+      boolean same = true;
+      for (int cell = 0; cell < owners.length && same; cell++) {
+        int target = symmetry.mapCell(transform, cell);
+        same = owners[target] == owners[cell] && (owners[cell] < 0
+                || values[target] == symmetry.mapValues(transform, values[cell]));
+      }
+      for (int slot = 0; slot < 2 && same; slot++) {
+        int[] turned = new int[handValues[slot].length];
+        for (int i = 0; i < turned.length; i++) {
+          turned[i] = symmetry.mapValues(transform, handValues[slot][i]);
+        }
+        int[] original = handValues[slot].clone();
+        Arrays.sort(turned);
+        Arrays.sort(original);
+        same = Arrays.equals(turned, original);
+      }
+      if (same) {
+        kept[count++] = transform;
+      }
+    }
+    return Arrays.copyOf(kept, count);
+  }
+
+  /**
+   * Hashes the position as a transform of its board turns it, from scratch. Unlike the hashes
+   * behind {@link #getCanonicalHash()}, this works for every symmetry of the board, kept or not,
+   * so a position built later in the game can be hashed in the frame of an earlier one.
+   *
+   * @param transform the index of the transform in {@link #getSymmetry()}
+   * @return the hash of the turned position
+   */
+  public long turnedHash(int transform) {
+    long turned = toMove == 1 ? Zobrist.BLUE_TO_MOVE : 0;
+    for (int cell = 0; cell < owners.length; cell++) {
+      if (owners[cell] >= 0) {
+        turned ^= Zobrist.cellKey(symmetry.mapCell(transform, cell),
+                symmetry.mapValues(transform, values[cell]), owners[cell]);
+      }
+    }
+    for (int slot = 0; slot < 2; slot++) {
+      int[] copies = new int[handValues[slot].length];
+      for (int i = 0; i < handValues[slot].length; i++) {
+        if (!used[slot][i]) {
+          turned ^= Zobrist.handKey(slot, symmetry.mapValues(transform, handValues[slot][i]),
+                  copies[handGroups[slot][i]]++);
+        }
+      }
+    }
+    return turned;
+  }
+
+  // Deep copy of another position, including its undo log
+  private SearchPosition(SearchPosition other) {
+    this.rows = other.rows;
+    this.cols = other.cols;
+    this.neighbors = other.neighbors;
+    this.owners = other.owners.clone();
+    this.values = other.values.clone();
+    this.handValues = other.handValues;
+    this.handCards = other.handCards;
+    this.used = new boolean[][] {other.used[0].clone(), other.used[1].clone()};
+    this.handGroups = other.handGroups;
+    this.groupCounts = new int[][] {other.groupCounts[0].clone(), other.groupCounts[1].clone()};
+    this.nextInGroup = other.nextInGroup;
+    this.groupFirst = new int[][] {other.groupFirst[0].clone(), other.groupFirst[1].clone()};
+    this.handCounts[0] = other.handCounts[0];
+    this.handCounts[1] = other.handCounts[1];
+    this.ownedCounts[0] = other.ownedCounts[0];
+    this.ownedCounts[1] = other.ownedCounts[1];
+    this.emptyCount = other.emptyCount;
+    this.emptyBits = other.emptyBits.clone();
+    this.toMove = other.toMove;
+    this.hash = other.hash;
+    this.symmetry = other.symmetry;
+    this.symmetries = other.symmetries;
+    this.symmetricHashes = other.symmetricHashes.clone();
+    this.battleTable = other.battleTable;
+    this.battleRule = other.battleRule;
+    this.packedBattles = other.packedBattles;
+    this.cascade = new int[other.cascade.length];
+    this.flips = other.flips.clone();
+    this.flipCount = other.flipCount;
+    this.moveCells = other.moveCells.clone();
+    this.moveHands = other.moveHands.clone();
+    this.moveFlipMarks = other.moveFlipMarks.clone();
+    this.ply = other.ply;
+  }
+
+  /**
+   * Returns an independent copy of this position, so that several threads can search from the
+   * same position at once. Moves applied to the copy can be undone past the point it was copied.
+   *
+   * @return a copy of this position
+   */
+  public SearchPosition copy() {
+    return new SearchPosition(this);
+  }
+
+  /**
+   * Builds a search position from the current state of a game.
+   *
+   * @param model  the game to copy
+   * @param toMove the player whose turn it is in the position
+   * @return a search position with the board, the hands and the battle rule of the game, and
+   *         the symmetries its grid found when it was loaded
+   * @throws IllegalArgumentException if the model or the player is null
+   */
+  public static SearchPosition of(ReadOnlyThreeTriosModel model, IPlayer toMove) {
+    if (model == null || toMove == null) {
+      throw new IllegalArgumentException("Model and player cannot be null.");
+    }
+    IPlayer red = model.getRedPlayer();
+    IPlayer blue = model.getBluePlayer();
+    BoardView board = model.getBoardView();
+    int rows = board.getRows();
+    int cols = board.getColumns();
+    int[] owners = new int[rows * cols];
+    int[] values = new int[rows * cols];
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < cols; col++) {
+        int cell = row * cols + col;
+        ICard card = board.getCard(row, col);
+        if (board.isHole(row, col)) {
+          owners[cell] = HOLE;
+        } else if (card == null) {
+          owners[cell] = EMPTY;
+        } else {
+          owners[cell] = board.getOwner(row, col) == blue ? 1 : 0;
+          values[cell] = PackedValues.of(card);
+        }
+      }
+    }
+    ICard[][] handCards = {handOf(model, red), handOf(model, blue)};
+    int[][] handValues = new int[2][];
+    for (int slot = 0; slot < 2; slot++) {
+      handValues[slot] = new int[handCards[slot].length];
+      for (int i = 0; i < handCards[slot].length; i++) {
+        handValues[slot][i] = PackedValues.of(handCards[slot][i]);
+      }
+    }
+    BattleRuleStrategy rule = model.getBattleRuleStrategy();
+    return new SearchPosition(rows, cols, owners, values, handValues, handCards,
+            toMove == blue ? 1 : 0, rule == null ? new NormalBattleRule() : rule,
+            model.getGrid().getSymmetry());
+  }
+
+  private static ICard[] handOf(ReadOnlyThreeTriosModel model, IPlayer player) {
+    List<ICard> hand = player == null ? List.of() : model.getPlayerHand(player);
+    return hand.toArray(new ICard[0]);
+  }
+
+  public BattleRuleStrategy getBattleRule() {
+    return battleRule;
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  public int getColumns() {
+    return cols;
+  }
+
+  /**
+   * Returns the number of cells on the board, holes included.
+   *
+   * @return the number of cells
+   */
+  public int size() {
+    return owners.length;
+  }
+
+  /**
+   * Returns the slot of the player whose turn it is, 0 for red and 1 for blue.
+   *
+   * @return the slot of the player to move
+   */
+  public int getToMove() {
+    return toMove;
+  }
+
+  /**
+   * Returns the number of moves applied to this position that have not been undone.
+   *
+   * @return the current search ply
+   */
+  public int getPly() {
+    return ply;
+  }
+
+  public boolean isEmpty(int cell) {
+    return owners[cell] == EMPTY;
+  }
+
+  /**
+   * Returns the owner of a cell.
+   *
+   * @param cell the flat index of the cell
+   * @return the slot owning the cell, or {@link #EMPTY} or {@link #HOLE}
+   */
+  public int ownerAt(int cell) {
+    return owners[cell];
+  }
+
+  /**
+   * Returns the packed attack values of the card in a cell.
+   *
+   * @param cell the flat index of the cell
+   * @return the packed attack values, only meaningful if the cell holds a card
+   */
+  public int valuesAt(int cell) {
+    return values[cell];
+  }
+
+  /**
+   * Returns the number of cards a player was dealt into the position, played or not.
+   *
+   * @param slot the slot of the player
+   * @return the size of the player's hand in the original position
+   */
+  public int handSize(int slot) {
+    return handValues[slot].length;
+  }
+
+  /**
+   * Checks if a card of a player's hand can still be played.
+   *
+   * @param slot      the slot of the player
+   * @param handIndex the index of the card in the player's hand
+   * @return true if the card has not been played yet, false otherwise
+   */
+  public boolean isAvailable(int slot, int handIndex) {
+    return !used[slot][handIndex];
+  }
+
+  /**
+   * Checks if a card can be played and no card before it in the hand that can still be played has
+   * the same attack values. Cards with the same values only differ by name and always play the
+   * same way, so searching only distinct cards searches every different move once, and since
+   * the first of equal cards is the one kept, finds the same best move.
+   *
+   * @param slot      the slot of the player
+   * @param handIndex the index of the card in the player's hand
+   * @return true if the card is the first playable card with its values, false otherwise
+   */
+  public boolean isDistinctCard(int slot, int handIndex) {
+    return groupFirst[slot][handGroups[slot][handIndex]] == handIndex;
+  }
+
+  public int handValues(int slot, int handIndex) {
+    return handValues[slot][handIndex];
+  }
+
+  public ICard handCard(int slot, int handIndex) {
+    return handCards[slot][handIndex];
+  }
+
+  public int cardsInHand(int slot) {
+    return handCounts[slot];
+  }
+
+  public int emptyCount() {
+    return emptyCount;
+  }
+
+  /**
+   * Returns the first empty cell at or after a cell, found on the bitboard of empty cells, so
+   * walking all empty cells only costs one step per empty cell.
+   *
+   * @param from the flat index of the cell to start at
+   * @return the flat index of the next empty cell, or -1 if there is none
+   */
+  public int nextEmpty(int from) {
+    int word = from >>> 6;
+    if (word >= emptyBits.length) {
+      return -1;
+    }
+    long bits = emptyBits[word] & (-1L << from);
+    while (bits == 0) {
+      if (++word == emptyBits.length) {
+        return -1;
+      }
+      bits = emptyBits[word];
+    }
+    return (word << 6) + Long.numberOfTrailingZeros(bits);
+  }
+
+  /**
+   * Returns the Zobrist hash of this position, kept up to date by every apply and undo. It is the
+   * same hash the model reports for the same position, see {@link Zobrist}.
+   *
+   * @return the hash of the position
+   */
+  public long getHash() {
+    return hash;
+  }
+
+  /**
+   * Returns the symmetries of the board this position is played on.
+   *
+   * @return the rotations and reflections of the board
+   */
+  public BoardSymmetry getSymmetry() {
+    return symmetry;
+  }
+
+  /**
+   * Returns the same hash for every position that is a rotation or reflection of this one, as
+   * long as the cards of the position this one was built from are symmetric the same way. It is
+   * the smallest of the hashes of the turned positions, see {@link #getCanonicalSymmetry()}.
+   *
+   * @return the hash shared by all symmetric variants of the position
+   */
+  public long getCanonicalHash() {
+    long canonical = hash;
+    for (long turned : symmetricHashes) {
+      canonical = Math.min(canonical, turned);
+    }
+    return canonical;
+  }
+
+  /**
+   * Returns the symmetries the canonical hash is taken over: the transforms other than the
+   * identity that map the position this one was built from onto itself.
+   *
+   * @return the indices of the kept transforms in {@link #getSymmetry()}
+   */
+  public int[] getKeptSymmetries() {
+    return symmetries.clone();
+  }
+
+  /**
+   * Returns the transform that turns this position into the variant the canonical hash is the
+   * hash of. Moves stored under the canonical hash are turned by it, and turned back with its
+   * inverse when they are read.
+   *
+   * @return the index of the transform in {@link #getSymmetry()}, 0 for the identity
+   */
+  public int getCanonicalSymmetry() {
+    long canonical = hash;
+    int transform = 0;
+    for (int i = 0; i < symmetricHashes.length; i++) {
+      if (symmetricHashes[i] < canonical) {
+        canonical = symmetricHashes[i];
+        transform = symmetries[i];
+      }
+    }
+    return transform;
+  }
+
+  /**
+   * Checks if a move leads to a rotation or reflection of the position an earlier move leads to,
+   * earlier meaning on a lower cell, or on the same cell with a lower hand index. Only the
+   * symmetries this position has right now count, which on most decks is none at all. Searching
+   * only the moves that are not duplicates gives the same best score and, since the first of
+   * several equal moves is always kept, the same best move.
+   *
+   * @param handIndex the index of the card in the hand of the player to move
+   * @param cell      the flat index of an empty cell
+   * @return true if an earlier move is the same move turned, false otherwise
+   */
+  public boolean isSymmetricDuplicate(int handIndex, int cell) {
+    for (int i = 0; i < symmetries.length; i++) {
+      if (symmetricHashes[i] != hash) {
+        continue;
+      }
+      int transform = symmetries[i];
+      int target = symmetry.mapCell(transform, cell);
+      if (target > cell) {
+        continue;
+      }
+      int turned = symmetry.mapValues(transform, handValues[toMove][handIndex]);
+      for (int hand = 0; hand < handValues[toMove].length; hand++) {
+        if (!used[toMove][hand] && handValues[toMove][hand] == turned) {
+          if (target < cell || hand < handIndex) {
+            return true;
+          }
+          break;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Checks if the player to move has no move left, either because the board is full or because
+   * their hand is empty.
+   *
+   * @return true if the position is over, false otherwise
+   */
+  public boolean isTerminal() {
+    return emptyCount == 0 || handCounts[toMove] == 0;
+  }
+
+  /**
+   * Returns the score of a player, counted the way the model counts it: the cards they own on
+   * the board plus the cards left in their hand.
+   *
+   * @param slot the slot of the player
+   * @return the score of the player
+   */
+  public int scoreOf(int slot) {
+    return ownedCounts[slot] + handCounts[slot];
+  }
+
+  /**
+   * Evaluates the position as the score of the player to move minus the score of the opponent.
+   *
+   * @return the score differential from the point of view of the player to move
+   */
+  public int evaluate() {
+    return scoreOf(toMove) - scoreOf(1 - toMove);
+  }
+
+  /**
+   * Plays a card of the player to move on an empty cell, resolves the battle and hands the turn
+   * to the other player.
+   *
+   * @param handIndex the index of the card in the hand of the player to move
+   * @param cell      the flat index of an empty cell
+   * @return the number of cards flipped by the move and its combo cascade
+   * @throws IllegalArgumentException if the card was played already or the cell is not empty
+   */
+  public int apply(int handIndex, int cell) {
+    if (used[toMove][handIndex] || owners[cell] != EMPTY) {
+      throw new IllegalArgumentException("Card " + handIndex + " cannot be played on cell "
+              + cell + ".");
+    }
+    int played = handValues[toMove][handIndex];
+    used[toMove][handIndex] = true;
+    handCounts[toMove]--;
+    int group = handGroups[toMove][handIndex];
+    if (groupFirst[toMove][group] == handIndex) {
+      int next = nextInGroup[toMove][handIndex];
+      while (next >= 0 && used[toMove][next]) {
+        next = nextInGroup[toMove][next];
+      }
+      groupFirst[toMove][group] = next;
+    }
+    toggleHand(toMove, played, --groupCounts[toMove][handGroups[toMove][handIndex]]);
+    owners[cell] = toMove;
+    values[cell] = played;
+    toggleCell(cell, played, toMove);
+    ownedCounts[toMove]++;
+    emptyCount--;
+    emptyBits[cell >>> 6] &= ~(1L << cell);
+    moveCells[ply] = cell;
+    moveHands[ply] = handIndex;
+    moveFlipMarks[ply] = flipCount;
+    ply++;
+    int flipped = battle(cell);
+    toMove = 1 - toMove;
+    toggleToMove();
+    return flipped;
+  }
+
+  /**
+   * Takes back the most recent move that has not been undone yet.
+   *
+   * @throws IllegalStateException if no move has been applied
+   */
+  public void undo() {
+    if (ply == 0) {
+      throw new IllegalStateException("No move to undo.");
+    }
+    ply--;
+    toMove = 1 - toMove;
+    toggleToMove();
+    int mover = toMove;
+    while (flipCount > moveFlipMarks[ply]) {
+      int cell = flips[--flipCount];
+      owners[cell] = 1 - mover;
+      toggleCell(cell, values[cell], mover);
+      toggleCell(cell, values[cell], 1 - mover);
+      ownedCounts[mover]--;
+      ownedCounts[1 - mover]++;
+    }
+    int cell = moveCells[ply];
+    int handIndex = moveHands[ply];
+    owners[cell] = EMPTY;
+    toggleCell(cell, values[cell], mover);
+    ownedCounts[mover]--;
+    emptyCount++;
+    emptyBits[cell >>> 6] |= 1L << cell;
+    used[mover][handIndex] = false;
+    handCounts[mover]++;
+    int group = handGroups[mover][handIndex];
+    if (groupFirst[mover][group] < 0 || handIndex < groupFirst[mover][group]) {
+      groupFirst[mover][group] = handIndex;
+    }
+    toggleHand(mover, handValues[mover][handIndex],
+            groupCounts[mover][handGroups[mover][handIndex]]++);
+  }
+
+  private void toggleCell(int cell, int cardValues, int owner) {
+    hash ^= Zobrist.cellKey(cell, cardValues, owner);
+    for (int i = 0; i < symmetries.length; i++) {
+      symmetricHashes[i] ^= Zobrist.cellKey(symmetry.mapCell(symmetries[i], cell),
+              symmetry.mapValues(symmetries[i], cardValues), owner);
+    }
+  }
+
+  private void toggleHand(int slot, int cardValues, int copy) {
+    hash ^= Zobrist.handKey(slot, cardValues, copy);
+    for (int i = 0; i < symmetries.length; i++) {
+      symmetricHashes[i] ^= Zobrist.handKey(slot, symmetry.mapValues(symmetries[i], cardValues),
+              copy);
+    }
+  }
+
+  private void toggleToMove() {
+    hash ^= Zobrist.BLUE_TO_MOVE;
+    for (int i = 0; i < symmetries.length; i++) {
+      symmetricHashes[i] ^= Zobrist.BLUE_TO_MOVE;
+    }
+  }
+
+  /**
+   * Checks if a cell is next to a card of the opponent of the player to move, that is if a card
+   * played there could flip anything at all.
+   *
+   * @param cell the flat index of the cell
+   * @return true if an adjacent card is owned by the opponent, false otherwise
+   */
+  public boolean hasOpponentNeighbor(int cell) {
+    int opponent = 1 - toMove;
+    for (int direction = 0; direction < DIRECTIONS; direction++) {
+      int target = neighbors[cell * DIRECTIONS + direction];
+      if (target >= 0 && owners[target] == opponent) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Counts the cards a move would flip directly, without playing it and without following the
+   * combo cascade. Cheap enough to score every move before searching it.
+   *
+   * @param handIndex the index of the card in the hand of the player to move
+   * @param cell      the flat index of an empty cell
+   * @return the number of adjacent cards the card would flip when placed
+   */
+  public int countDirectFlips(int handIndex, int cell) {
+    return Integer.bitCount(directFlipMask(toMove, handIndex, cell));
+  }
+
+  /**
+   * Finds the cards a card of either player would flip directly if it was placed on a cell,
+   * without playing it and without following the combo cascade. Only cards of the other player
+   * can be flipped.
+   *
+   * @param slot      the slot of the player the card belongs to
+   * @param handIndex the index of the card in the player's hand
+   * @param cell      the flat index of an empty cell
+   * @return one bit per {@link Direction} ordinal, set if the neighbor that way would flip
+   */
+  public int directFlipMask(int slot, int handIndex, int cell) {
+    int attacker = handValues[slot][handIndex];
+    if (battleTable == null) {
+      loadNeighborhood(cell);
+    }
+    int mask = 0;
+    for (int direction = 0; direction < DIRECTIONS; direction++) {
+      int target = neighbors[cell * DIRECTIONS + direction];
+      if (target >= 0 && owners[target] >= 0 && owners[target] != slot
+              && flips(attacker, values[target], direction, cell)) {
+        mask |= 1 << direction;
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * Returns the neighbor of a cell.
+   *
+   * @param cell      the flat index of the cell
+   * @param direction the {@link Direction} ordinal to look in
+   * @return the flat index of the neighbor, or -1 past the edge of the board
+   */
+  public int neighbor(int cell, int direction) {
+    return neighbors[cell * DIRECTIONS + direction];
+  }
+
+  /**
+   * Returns the number of cards the most recent move that has not been undone flipped, its combo
+   * cascade included.
+   *
+   * @return the number of cards flipped by the last move, 0 if no move was applied
+   */
+  public int lastFlipCount() {
+    return ply == 0 ? 0 : flipCount - moveFlipMarks[ply - 1];
+  }
+
+  /**
+   * Returns a cell flipped by the most recent move that has not been undone, in the order the
+   * battle flipped them.
+   *
+   * @param index the index of the flip, below {@link #lastFlipCount()}
+   * @return the flat index of the flipped cell
+   */
+  public int lastFlip(int index) {
+    return flips[moveFlipMarks[ply - 1] + index];
+  }
+
+  /**
+   * Returns the cell the most recent move that has not been undone was played on.
+   *
+   * @return the flat index of the cell of the last move
+   * @throws IllegalStateException if no move has been applied
+   */
+  public int lastMoveCell() {
+    if (ply == 0) {
+      throw new IllegalStateException("No move has been applied.");
+    }
+    return moveCells[ply - 1];
+  }
+
+  // Resolves the battle started by the card just placed on a cell, cascading through every card
+  // that flips, in the same breadth-first order the model uses.
+  private int battle(int start) {
+    int mover = toMove;
+    int head = 0;
+    int tail = 0;
+    int flipped = 0;
+    cascade[tail++] = start;
+    while (head < tail) {
+      int cell = cascade[head++];
+      int attacker = values[cell];
+      if (battleTable == null && packedBattles) {
+        loadNeighborhood(cell);
+      }
+      for (int direction = 0; direction < DIRECTIONS; direction++) {
+        int target = neighbors[cell * DIRECTIONS + direction];
+        if (target < 0) {
+          continue;
+        }
+        int owner = owners[target];
+        if (owner >= 0 && owner != mover && flips(attacker, values[target], direction, cell)) {
+          owners[target] = mover;
+          toggleCell(target, values[target], owner);
+          toggleCell(target, values[target], mover);
+          ownedCounts[mover]++;
+          ownedCounts[owner]--;
+          if (flipCount == flips.length) {
+            flips = Arrays.copyOf(flips, flipCount * 2);
+          }
+          flips[flipCount++] = target;
+          cascade[tail++] = target;
+          flipped++;
+        }
+      }
+    }
+    return flipped;
+  }
+
+  private boolean flips(int attacker, int defender, int direction, int cell) {
+    if (battleTable != null) {
+      return battleTable.shouldFlip(PackedValues.valueOf(attacker, direction),
+              PackedValues.valueOf(defender, Direction.opposite(direction)));
+    }
+    if (!packedBattles) {
+      loadNeighborhood(cell);
+    }
+    return battleRule.shouldFlip(attacker, defender, direction, neighborhood);
+  }
+
+  private void loadNeighborhood(int cell) {
+    for (int direction = 0; direction < DIRECTIONS; direction++) {
+      int neighbor = neighbors[cell * DIRECTIONS + direction];
+      neighborhood[direction] = neighbor >= 0 && owners[neighbor] >= 0 ? values[neighbor] : -1;
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < cols; col++) {
+        int owner = owners[row * cols + col];
+        sb.append(owner == HOLE ? ' ' : owner == EMPTY ? '_' : owner == 0 ? 'R' : 'B');
+      }
+      sb.append('\n');
+    }
+    return sb.toString() + "Hands: " + Arrays.toString(handCounts) + ", to move: " + toMove;
+  }
+}
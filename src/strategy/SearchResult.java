@@ -0,0 +1,61 @@
+package strategy;
+
+/**
+ * Result of a search: the best move found, its score and how much work it took to find it.
+ * The move is given as a hand index and a flat cell index of the searched
+ * {@link SearchPosition}, a hand index of -1 means there was no move to search.
+ */
+public final class SearchResult {
+  private final int handIndex;
+  private final int cell;
+  private final int score;
+  private final int depth;
+  private final long nodes;
+
+  /**
+   * Creates a new search result.
+   *
+   * @param handIndex the hand index of the best move, -1 if there is none
+   * @param cell      the flat cell index of the best move, -1 if there is none
+   * @param score     the score of the best move for the player to move
+   * @param depth     the depth the move was searched to
+   * @param nodes     the number of positions visited by the search
+   */
+  public SearchResult(int handIndex, int cell, int score, int depth, long nodes) {
+    this.handIndex = handIndex;
+    this.cell = cell;
+    this.score = score;
+    this.depth = depth;
+    this.nodes = nodes;
+  }
+
+  public int getHandIndex() {
+    return handIndex;
+  }
+
+  public int getCell() {
+    return cell;
+  }
+
+  public int getScore() {
+    return score;
+  }
+
+  public int getDepth() {
+    return depth;
+  }
+
+  public long getNodes() {
+    return nodes;
+  }
+
+  public boolean hasMove() {
+    return handIndex >= 0;
+  }
+
+  @Override
+  public String toString() {
+    return "SearchResult{hand=" + handIndex + ", cell=" + cell + ", score=" + score
+            + ", depth=" + depth + ", nodes=" + nodes + "}";
+  }
+}
@@ -15,4 +15,17 @@ public interface Strategy {
    * @return A Move object representing the selected card and position.
    */
   Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model);
+
+  /**
+   * Selects the best move within a budget. Strategies that search keep a best move ready at all
+   * times and return it once the budget runs out, the others ignore the budget.
+   *
+   * @param player The player making the move.
+   * @param model  The current state of the game.
+   * @param budget The most time or work the strategy may spend on the move.
+   * @return A Move object representing the selected card and position.
+   */
+  default Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model, SearchBudget budget) {
+    return selectMove(player, model);
+  }
 }
@@ -0,0 +1,402 @@
+package strategy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Endgame tablebase: the exact final margin of every position of a small board with at most a
+ * given number of empty cells, as built by {@link TablebaseBuilder}. The margin is the final
+ * score of the player to move minus the score of their opponent with both players playing
+ * perfectly, so its sign is the {@link Outcome} of the position. Positions are keyed by their
+ * canonical hash, so all rotations and reflections of a position share one entry.
+ * The table is held in memory as an open addressing hash table, a lookup costs one hash of the
+ * position and, almost always, one probe. A tablebase only answers for the board and battle rule
+ * it was built for.
+ * On disk, a header with the magic number, the format version, the battle rule, the board, the
+ * largest number of empty cells and the symmetries the hashes are taken over is followed by the
+ * entries, deflated: in ascending order of hash, the difference to the previous hash as a
+ * variable length number, then the margin as one byte.
+ */
+public final class Tablebase {
+
+  static final int MAGIC = 0x54545442;
+  static final int VERSION = 1;
+
+  /**
+   * Value returned by the probes when the tablebase has no entry for a position.
+   */
+  public static final int MISS = Integer.MIN_VALUE;
+
+  private static final int MIN_CAPACITY = 16;
+  // The eight rotations and reflections of a board
+  private static final int MAX_TRANSFORMS = 8;
+  // Largest number of entries whose table still fits in an array
+  private static final int MAX_SIZE = 1 << 29;
+
+  private final int rows;
+  private final int cols;
+  private final long holes;
+  private final int rule;
+  private final int maxEmpty;
+  private final int[] transforms;
+  // Open addressing on the hash, a key of 0 marks a free slot so the position hashing to 0 is
+  // kept on the side
+  private long[] keys;
+  private byte[] margins;
+  private int mask;
+  private int size;
+  private boolean hasZero;
+  private byte zeroMargin;
+
+  Tablebase(int rows, int cols, long holes, int rule, int maxEmpty, int[] transforms,
+            int expectedSize) {
+    this.rows = rows;
+    this.cols = cols;
+    this.holes = holes;
+    this.rule = rule;
+    this.maxEmpty = maxEmpty;
+    this.transforms = transforms.clone();
+    int capacity = MIN_CAPACITY;
+    while (capacity < expectedSize * 2L) {
+      capacity <<= 1;
+    }
+    this.keys = new long[capacity];
+    this.margins = new byte[capacity];
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Reads a tablebase file into memory.
+   *
+   * @param path the tablebase file
+   * @return the tablebase
+   * @throws IOException if the file cannot be read or is not a tablebase
+   * @throws IllegalArgumentException if the path is null
+   */
+  public static Tablebase open(Path path) throws IOException {
+    if (path == null) {
+      throw new IllegalArgumentException("Tablebase path cannot be null.");
+    }
+    try (InputStream file = Files.newInputStream(path);
+         DataInputStream in = new DataInputStream(new BufferedInputStream(file))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Not a tablebase of version " + VERSION + ": " + path);
+      }
+      int rule = in.readInt();
+      int rows = in.readInt();
+      int cols = in.readInt();
+      long holes = in.readLong();
+      int maxEmpty = in.readInt();
+      int transformCount = in.readInt();
+      // Checked before anything is allocated from the header
+      if (rows < 1 || cols < 1 || (long) rows * cols > Long.SIZE
+              || transformCount < 0 || transformCount > MAX_TRANSFORMS) {
+        throw new IOException("Tablebase header is corrupt: " + path);
+      }
+      int[] transforms = new int[transformCount];
+      for (int i = 0; i < transforms.length; i++) {
+        transforms[i] = in.readInt();
+        if (transforms[i] < 0 || transforms[i] >= MAX_TRANSFORMS) {
+          throw new IOException("Tablebase header is corrupt: " + path);
+        }
+      }
+      int count = in.readInt();
+      if (count < 0 || count > MAX_SIZE) {
+        throw new IOException("Tablebase header is corrupt: " + path);
+      }
+      Tablebase tablebase = new Tablebase(rows, cols, holes, rule, maxEmpty, transforms, count);
+      InputStream entries = new BufferedInputStream(new InflaterInputStream(in));
+      long key = 0;
+      for (int i = 0; i < count; i++) {
+        key += readVarLong(entries);
+        int margin = entries.read();
+        if (margin < 0) {
+          throw new EOFException("Tablebase is truncated: " + path);
+        }
+        tablebase.put(key, (byte) margin);
+      }
+      return tablebase;
+    }
+  }
+
+  /**
+   * Writes the tablebase to a file, in the format {@link #open(Path)} reads.
+   *
+   * @param path the file to write to, replaced if it exists
+   * @throws IOException if the file cannot be written
+   * @throws IllegalArgumentException if the path is null
+   */
+  public void write(Path path) throws IOException {
+    if (path == null) {
+      throw new IllegalArgumentException("Tablebase path cannot be null.");
+    }
+    long[] sorted = new long[size];
+    int count = 0;
+    if (hasZero) {
+      sorted[count++] = 0L;
+    }
+    for (long key : keys) {
+      if (key != 0) {
+        sorted[count++] = key;
+      }
+    }
+    // Sorted as unsigned numbers, so every difference fits the variable length encoding
+    for (int i = 0; i < count; i++) {
+      sorted[i] ^= Long.MIN_VALUE;
+    }
+    Arrays.sort(sorted);
+    try (OutputStream file = Files.newOutputStream(path);
+         DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(rule);
+      out.writeInt(rows);
+      out.writeInt(cols);
+      out.writeLong(holes);
+      out.writeInt(maxEmpty);
+      out.writeInt(transforms.length);
+      for (int transform : transforms) {
+        out.writeInt(transform);
+      }
+      out.writeInt(size);
+      out.flush();
+      DeflaterOutputStream entries = new DeflaterOutputStream(out);
+      OutputStream buffered = new BufferedOutputStream(entries);
+      long previous = 0;
+      for (int i = 0; i < count; i++) {
+        long key = sorted[i] ^ Long.MIN_VALUE;
+        writeVarLong(buffered, key - previous);
+        buffered.write(probe(key));
+        previous = key;
+      }
+      buffered.flush();
+      entries.finish();
+    }
+  }
+
+  /**
+   * Checks if positions like the given one can be in the tablebase: the position is played on
+   * the board and under the battle rule the tablebase was built for, and has few enough empty
+   * cells.
+   *
+   * @param position the position to check
+   * @return true if the tablebase may hold the position, false if it cannot
+   */
+  public boolean covers(SearchPosition position) {
+    return position != null && position.getRows() == rows && position.getColumns() == cols
+            && position.emptyCount() <= maxEmpty && holesOf(position) == holes
+            && OpeningBook.ruleId(position.getBattleRule()) == rule;
+  }
+
+  /**
+   * Returns the hash the tablebase keys a position by: the smallest hash of the position as the
+   * symmetries of the tablebase turn it. Positions searched from the position the tablebase was
+   * built from hash the same way as their {@link SearchPosition#getCanonicalHash()}, positions
+   * built later in the game are turned into the same frame.
+   *
+   * @param position the position to hash
+   * @return the key of the position
+   */
+  public long canonicalHash(SearchPosition position) {
+    long canonical = position.getHash();
+    for (int transform : transforms) {
+      canonical = Math.min(canonical, position.turnedHash(transform));
+    }
+    return canonical;
+  }
+
+  /**
+   * Looks up the final margin of a position.
+   *
+   * @param position the position, with the player to move as it is
+   * @return the final margin for the player to move, or {@link #MISS}
+   */
+  public int probe(SearchPosition position) {
+    if (!covers(position)) {
+      return MISS;
+    }
+    return probe(canonicalHash(position));
+  }
+
+  /**
+   * Looks up the final margin of a position by its key.
+   *
+   * @param key the key of the position, see {@link #canonicalHash(SearchPosition)}
+   * @return the final margin for the player to move, or {@link #MISS}
+   */
+  public int probe(long key) {
+    if (key == 0) {
+      return hasZero ? zeroMargin : MISS;
+    }
+    for (int slot = mix(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+      if (keys[slot] == key) {
+        return margins[slot];
+      }
+    }
+    return MISS;
+  }
+
+  /**
+   * Returns the exact final margin of a move for the player who plays it, the ground truth to
+   * measure other strategies against.
+   *
+   * @param position  the position, left unchanged
+   * @param handIndex the index of the card in the hand of the player to move
+   * @param cell      the flat index of an empty cell
+   * @return the final margin for the player who plays the move, or {@link #MISS} if the position
+   *         it leads to is not in the tablebase
+   */
+  public int scoreMove(SearchPosition position, int handIndex, int cell) {
+    position.apply(handIndex, cell);
+    int margin = position.isTerminal() ? position.evaluate() : probe(position);
+    position.undo();
+    return margin == MISS ? MISS : -margin;
+  }
+
+  /**
+   * Finds the move with the best final margin from the tablebase alone. Among moves with the same
+   * margin, the first one in move order is returned, cells first and then hand order, the same as
+   * {@link EndgameSolver}.
+   *
+   * @param position the position, left unchanged
+   * @return the best move and its margin, a result without a move if the game is over, or null
+   *         if a position the moves lead to is not in the tablebase
+   */
+  public SearchResult bestMove(SearchPosition position) {
+    if (position.isTerminal()) {
+      return new SearchResult(-1, -1, position.evaluate(), 0, 1);
+    }
+    int side = position.getToMove();
+    int bestHand = -1;
+    int bestCell = -1;
+    int best = MISS;
+    long probes = 1;
+    for (int cell = position.nextEmpty(0); cell >= 0; cell = position.nextEmpty(cell + 1)) {
+      for (int hand = 0; hand < position.handSize(side); hand++) {
+        if (!position.isDistinctCard(side, hand)) {
+          continue;
+        }
+        int score = scoreMove(position, hand, cell);
+        probes++;
+        if (score == MISS) {
+          return null;
+        }
+        if (score > best) {
+          best = score;
+          bestHand = hand;
+          bestCell = cell;
+        }
+      }
+    }
+    return new SearchResult(bestHand, bestCell, best, position.emptyCount(), probes);
+  }
+
+  /**
+   * Returns the number of positions in the tablebase.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the largest number of empty cells of the positions in the tablebase.
+   *
+   * @return the number of empty cells the tablebase starts at
+   */
+  public int getMaxEmpty() {
+    return maxEmpty;
+  }
+
+  // Adds a position, only called while the tablebase is built or read and not yet shared
+  void put(long key, byte margin) {
+    if (key == 0) {
+      if (!hasZero) {
+        size++;
+      }
+      hasZero = true;
+      zeroMargin = margin;
+      return;
+    }
+    if ((size + 1) * 2L > keys.length) {
+      grow();
+    }
+    int slot = mix(key) & mask;
+    while (keys[slot] != 0 && keys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    if (keys[slot] == 0) {
+      size++;
+    }
+    keys[slot] = key;
+    margins[slot] = margin;
+  }
+
+  private void grow() {
+    long[] oldKeys = keys;
+    byte[] oldMargins = margins;
+    keys = new long[oldKeys.length * 2];
+    margins = new byte[oldKeys.length * 2];
+    mask = keys.length - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != 0) {
+        int slot = mix(oldKeys[i]) & mask;
+        while (keys[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        margins[slot] = oldMargins[i];
+      }
+    }
+  }
+
+  // Zobrist hashes are random in every bit, folding the halves is enough to spread them
+  private static int mix(long key) {
+    return (int) (key ^ (key >>> 32));
+  }
+
+  static long holesOf(SearchPosition position) {
+    long holes = 0;
+    for (int cell = 0; cell < position.size(); cell++) {
+      if (position.ownerAt(cell) == SearchPosition.HOLE) {
+        holes |= 1L << cell;
+      }
+    }
+    return holes;
+  }
+
+  private static void writeVarLong(OutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.write((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.write((int) value);
+  }
+
+  private static long readVarLong(InputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < Long.SIZE; shift += 7) {
+      int b = in.read();
+      if (b < 0) {
+        throw new EOFException("Tablebase is truncated.");
+      }
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Tablebase entry is corrupt.");
+  }
+}
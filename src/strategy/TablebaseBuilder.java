@@ -0,0 +1,294 @@
+package strategy;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import configuration.ConfigurationReader;
+import extrafeatures.BattleRuleStrategy;
+import extrafeatures.CombinedBattleRule;
+import extrafeatures.FallenAceBattleRule;
+import extrafeatures.NormalBattleRule;
+import extrafeatures.PlusBattleRule;
+import extrafeatures.ReverseBattleRule;
+import extrafeatures.SameBattleRule;
+import model.GameModel;
+import model.Grid;
+import model.ICard;
+import player.HumanPlayer;
+import player.IPlayer;
+
+/**
+ * Retrograde builder of {@link Tablebase} files. The positions reachable from a starting
+ * position are walked once, down to the first layer with few enough empty cells, and that
+ * frontier is solved backwards: a position is solved after every position below it, the ones
+ * with no empty cell left taking their score as margin and the others the best margin over their
+ * moves. Positions are keyed by canonical hash, so transpositions, rotations and reflections, and
+ * cards of equal values are walked and solved once.
+ * The first plies of the walk and the frontier are split over a {@link ForkJoinPool}, so both
+ * run on all cores.
+ * Building is meant to be run once per board, deck and battle rule, ahead of the games:
+ * <pre>
+ * java strategy.TablebaseBuilder board.config cards.config out.tb [empty cells] [+rule...]
+ * </pre>
+ */
+public final class TablebaseBuilder {
+
+  private static final int SPLIT_PLIES = 2;
+
+  private final ForkJoinPool pool;
+  private final int maxEmpty;
+  private long nodes;
+
+  /**
+   * Creates a builder that solves positions with up to the given number of empty cells.
+   *
+   * @param pool     the pool to walk and solve the positions on
+   * @param maxEmpty the largest number of empty cells of the positions to solve
+   * @throws IllegalArgumentException if the pool is null or the number of cells is negative
+   */
+  public TablebaseBuilder(ForkJoinPool pool, int maxEmpty) {
+    if (pool == null) {
+      throw new IllegalArgumentException("Pool cannot be null.");
+    }
+    if (maxEmpty < 0) {
+      throw new IllegalArgumentException("Number of empty cells cannot be negative.");
+    }
+    this.pool = pool;
+    this.maxEmpty = maxEmpty;
+  }
+
+  /**
+   * Solves every position reachable from a starting position that has at most the number of
+   * empty cells of this builder.
+   *
+   * @param start the position to start from, left unchanged
+   * @return the tablebase of the solved positions
+   * @throws IllegalArgumentException if the position is null or its board has more than 64 cells
+   */
+  public Tablebase build(SearchPosition start) {
+    if (start == null) {
+      throw new IllegalArgumentException("Position cannot be null.");
+    }
+    if (start.size() > Long.SIZE) {
+      throw new IllegalArgumentException("Tablebases are only built for boards of up to "
+              + Long.SIZE + " cells.");
+    }
+    int top = Math.min(maxEmpty, start.emptyCount());
+    Set<Long> visited = ConcurrentHashMap.newKeySet();
+    Map<Long, SearchPosition> frontier = new ConcurrentHashMap<>();
+    pool.invoke(new WalkTask(start.copy(), top, SPLIT_PLIES, visited, frontier));
+
+    Map<Long, Byte> solved = new ConcurrentHashMap<>();
+    pool.invoke(new SolveTask(new ArrayList<>(frontier.values()), solved));
+    nodes = visited.size() + solved.size();
+
+    Tablebase tablebase = new Tablebase(start.getRows(), start.getColumns(),
+            Tablebase.holesOf(start), OpeningBook.ruleId(start.getBattleRule()), top,
+            start.getKeptSymmetries(), solved.size());
+    for (Map.Entry<Long, Byte> entry : solved.entrySet()) {
+      tablebase.put(entry.getKey(), entry.getValue());
+    }
+    return tablebase;
+  }
+
+  /**
+   * Returns the number of positions walked and solved by the last build.
+   *
+   * @return the node count of the last build
+   */
+  public long getNodeCount() {
+    return nodes;
+  }
+
+  /**
+   * Task that walks the positions below one position down to the top layer of the tablebase, and
+   * keeps a copy of every position of the frontier it reaches.
+   */
+  private static final class WalkTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final SearchPosition position;
+    private final int top;
+    private final int splitPlies;
+    private final Set<Long> visited;
+    private final Map<Long, SearchPosition> frontier;
+
+    WalkTask(SearchPosition position, int top, int splitPlies, Set<Long> visited,
+             Map<Long, SearchPosition> frontier) {
+      this.position = position;
+      this.top = top;
+      this.splitPlies = splitPlies;
+      this.visited = visited;
+      this.frontier = frontier;
+    }
+
+    @Override
+    protected void compute() {
+      if (splitPlies == 0) {
+        walk(position);
+        return;
+      }
+      if (stop(position)) {
+        return;
+      }
+      int side = position.getToMove();
+      List<WalkTask> tasks = new ArrayList<>();
+      for (int cell = position.nextEmpty(0); cell >= 0; cell = position.nextEmpty(cell + 1)) {
+        for (int hand = 0; hand < position.handSize(side); hand++) {
+          if (position.isDistinctCard(side, hand)) {
+            // Every task plays on its own copy, the position itself is only read
+            SearchPosition child = position.copy();
+            child.apply(hand, cell);
+            tasks.add(new WalkTask(child, top, splitPlies - 1, visited, frontier));
+          }
+        }
+      }
+      invokeAll(tasks);
+    }
+
+    private void walk(SearchPosition position) {
+      if (stop(position)) {
+        return;
+      }
+      int side = position.getToMove();
+      for (int cell = position.nextEmpty(0); cell >= 0; cell = position.nextEmpty(cell + 1)) {
+        for (int hand = 0; hand < position.handSize(side); hand++) {
+          if (position.isDistinctCard(side, hand)) {
+            position.apply(hand, cell);
+            walk(position);
+            position.undo();
+          }
+        }
+      }
+    }
+
+    // Keeps the position if it is on the top layer, and tells if the walk ends at it
+    private boolean stop(SearchPosition position) {
+      if (position.emptyCount() <= top) {
+        frontier.computeIfAbsent(position.getCanonicalHash(), hash -> position.copy());
+        return true;
+      }
+      return !visited.add(position.getCanonicalHash()) || position.isTerminal();
+    }
+  }
+
+  /**
+   * Task that solves positions of the frontier, halving the list until one position is left.
+   */
+  private static final class SolveTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final List<SearchPosition> positions;
+    private final Map<Long, Byte> solved;
+
+    SolveTask(List<SearchPosition> positions, Map<Long, Byte> solved) {
+      this.positions = positions;
+      this.solved = solved;
+    }
+
+    @Override
+    protected void compute() {
+      if (positions.size() == 1) {
+        solve(positions.get(0));
+      } else if (positions.size() > 1) {
+        int half = positions.size() / 2;
+        invokeAll(new SolveTask(positions.subList(0, half), solved),
+                new SolveTask(positions.subList(half, positions.size()), solved));
+      }
+    }
+
+    // Margin of the position for the player to move, solving the positions below it first.
+    // Two threads may solve the same position at once, they store the same margin.
+    private int solve(SearchPosition position) {
+      long hash = position.getCanonicalHash();
+      Byte known = solved.get(hash);
+      if (known != null) {
+        return known;
+      }
+      int best;
+      if (position.isTerminal()) {
+        best = position.evaluate();
+      } else {
+        int side = position.getToMove();
+        best = -AlphaBetaSearch.INFINITY;
+        for (int cell = position.nextEmpty(0); cell >= 0; cell = position.nextEmpty(cell + 1)) {
+          for (int hand = 0; hand < position.handSize(side); hand++) {
+            if (position.isDistinctCard(side, hand)) {
+              position.apply(hand, cell);
+              int margin = solve(position);
+              position.undo();
+              best = Math.max(best, -margin);
+            }
+          }
+        }
+      }
+      solved.put(hash, (byte) best);
+      return best;
+    }
+  }
+
+  /**
+   * Builds a tablebase of the start of a game from configuration files.
+   * Arguments: the board configuration, the card configuration, the tablebase file to write,
+   * then optionally the largest number of empty cells to solve (default: the whole game) and
+   * battle rules as in the game: +reverse, +fallenace, +same, +plus.
+   *
+   * @param args the command line arguments
+   */
+  public static void main(String[] args) {
+    if (args.length < 3) {
+      System.err.println("Usage: java strategy.TablebaseBuilder <board> <cards> <tablebase> "
+              + "[empty cells] [+rule...]");
+      System.exit(1);
+    }
+    List<String> numbers = new ArrayList<>();
+    List<BattleRuleStrategy> rules = new ArrayList<>();
+    for (int i = 3; i < args.length; i++) {
+      switch (args[i].toLowerCase()) {
+        case "+reverse":
+          rules.add(new ReverseBattleRule());
+          break;
+        case "+fallenace":
+          rules.add(new FallenAceBattleRule());
+          break;
+        case "+same":
+          rules.add(new SameBattleRule());
+          break;
+        case "+plus":
+          rules.add(new PlusBattleRule());
+          break;
+        default:
+          numbers.add(args[i]);
+          break;
+      }
+    }
+    BattleRuleStrategy rule = rules.isEmpty() ? new NormalBattleRule()
+            : rules.size() == 1 ? rules.get(0) : new CombinedBattleRule(rules);
+    try {
+      int maxEmpty = numbers.size() > 0 ? Integer.parseInt(numbers.get(0)) : Long.SIZE;
+      Grid grid = ConfigurationReader.readGridConfig(args[0]);
+      List<ICard> cards = ConfigurationReader.readCardData(args[1]);
+      IPlayer red = new HumanPlayer("Red", new ArrayList<>());
+      IPlayer blue = new HumanPlayer("Blue", new ArrayList<>());
+      GameModel model = new GameModel(rule);
+      model.startGameWithConfig(grid, cards, false, red, blue);
+      long start = System.nanoTime();
+      TablebaseBuilder builder = new TablebaseBuilder(ForkJoinPool.commonPool(), maxEmpty);
+      Tablebase tablebase = builder.build(SearchPosition.of(model, red));
+      tablebase.write(Paths.get(args[2]));
+      System.out.println("Wrote " + tablebase.size() + " positions to " + args[2]
+              + " in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+    } catch (IOException e) {
+      System.err.println("Error building the tablebase: " + e.getMessage());
+    } catch (IllegalArgumentException e) {
+      System.err.println("Invalid configuration: " + e.getMessage());
+    }
+  }
+}
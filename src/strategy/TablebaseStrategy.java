@@ -0,0 +1,74 @@
+package strategy;
+
+import java.util.List;
+
+import model.ICard;
+import model.ReadOnlyThreeTriosModel;
+import player.IPlayer;
+
+/**
+ * Strategy that wraps another strategy and plays perfectly wherever a {@link Tablebase} knows
+ * the game. As soon as the position and every position its moves lead to are in the tablebase,
+ * the move with the best final margin is played without any search; before that, every move is
+ * left to the wrapped strategy.
+ */
+public class TablebaseStrategy implements Strategy {
+
+  private final Strategy strategy;
+  private final Tablebase tablebase;
+  private SearchResult lastSolution;
+
+  /**
+   * Creates a tablebase strategy.
+   *
+   * @param strategy  the strategy to use where the tablebase does not know the game
+   * @param tablebase the tablebase to look positions up in
+   * @throws IllegalArgumentException if the strategy or the tablebase is null
+   */
+  public TablebaseStrategy(Strategy strategy, Tablebase tablebase) {
+    if (strategy == null || tablebase == null) {
+      throw new IllegalArgumentException("Strategy and tablebase cannot be null.");
+    }
+    this.strategy = strategy;
+    this.tablebase = tablebase;
+  }
+
+  @Override
+  public Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model) {
+    return selectMove(player, model, SearchBudget.unlimited());
+  }
+
+  @Override
+  public Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model, SearchBudget budget) {
+    List<ICard> hand = model.getPlayerHand(player);
+    SearchPosition position = hand.isEmpty() ? null : SearchPosition.of(model, player);
+    lastSolution = position == null || !tablebase.covers(position)
+            ? null : tablebase.bestMove(position);
+    if (lastSolution == null || !lastSolution.hasMove()) {
+      lastSolution = null;
+      return strategy.selectMove(player, model, budget);
+    }
+    int cell = lastSolution.getCell();
+    return new Move(position.handCard(position.getToMove(), lastSolution.getHandIndex()),
+            cell / position.getColumns(), cell % position.getColumns());
+  }
+
+  /**
+   * Returns the tablebase answer behind the last selected move, its score being the final margin
+   * of the game for the player who moved.
+   *
+   * @return the last solution, or null if the last move was left to the wrapped strategy
+   */
+  public SearchResult getLastSolution() {
+    return lastSolution;
+  }
+
+  /**
+   * Returns the strategy that picks the moves the tablebase does not know.
+   *
+   * @return the wrapped strategy
+   */
+  public Strategy getStrategy() {
+    return strategy;
+  }
+}
@@ -0,0 +1,214 @@
+package strategy;
+
+import java.util.Arrays;
+
+import model.Direction;
+
+/**
+ * Map of the threats one player makes against the other on a {@link SearchPosition}: for every
+ * empty cell and every distinct card in the threatening player's hand, the cards of the other
+ * player that card would flip directly if it was placed there, as one bit per direction. After a
+ * move is applied to the position, {@link #update()} only looks again at the cells next to the
+ * cells the move changed, since a direct flip only depends on the neighbors of the cell it is
+ * played on, and drops the threats of a card the threatening player no longer holds. Every update
+ * can be taken back with {@link #undo()}, so the map can follow a search.
+ */
+public final class ThreatMap {
+
+  private static final int DIRECTIONS = Direction.values().length;
+
+  private final SearchPosition position;
+  private final int attacker;
+  private final int[] cards;
+  // Cards in hand with the values of every map card, a card only threatens while it is held
+  private final int[] copies;
+  private final byte[] masks;
+  private int total;
+  // Undo log: the entry and its old mask for every change, or the map card of every card the
+  // threatening player played as a negative entry, plus where every update starts
+  private int[] changes = new int[64];
+  private int changeCount;
+  private int[] updateMarks = new int[16];
+  private int updates;
+
+  private ThreatMap(SearchPosition position, int attacker, int[] cards) {
+    this.position = position;
+    this.attacker = attacker;
+    this.cards = cards;
+    this.copies = new int[cards.length];
+    for (int card = 0; card < cards.length; card++) {
+      for (int hand = 0; hand < position.handSize(attacker); hand++) {
+        if (position.isAvailable(attacker, hand) && position.handValues(attacker, hand)
+                == position.handValues(attacker, cards[card])) {
+          copies[card]++;
+        }
+      }
+    }
+    this.masks = new byte[position.size() * cards.length];
+    for (int cell = position.nextEmpty(0); cell >= 0; cell = position.nextEmpty(cell + 1)) {
+      for (int card = 0; card < cards.length; card++) {
+        int mask = position.directFlipMask(attacker, cards[card], cell);
+        masks[cell * cards.length + card] = (byte) mask;
+        total += Integer.bitCount(mask);
+      }
+    }
+  }
+
+  /**
+   * Builds the threat map of a player in a position, from scratch.
+   *
+   * @param position the position, followed by the map from now on
+   * @param attacker the slot of the threatening player
+   * @return the threat map
+   * @throws IllegalArgumentException if the position is null or the slot is not 0 or 1
+   */
+  public static ThreatMap of(SearchPosition position, int attacker) {
+    if (position == null) {
+      throw new IllegalArgumentException("Position cannot be null.");
+    }
+    if (attacker != 0 && attacker != 1) {
+      throw new IllegalArgumentException("Slot must be 0 or 1.");
+    }
+    int[] cards = new int[position.handSize(attacker)];
+    int count = 0;
+    for (int hand = 0; hand < cards.length; hand++) {
+      if (position.isDistinctCard(attacker, hand)) {
+        cards[count++] = hand;
+      }
+    }
+    return new ThreatMap(position, attacker, Arrays.copyOf(cards, count));
+  }
+
+  /**
+   * Brings the map up to date with the move just applied to the position, by either player: its
+   * cell is no longer empty, every empty cell next to it or to a card it flipped is looked at
+   * again, and if the threatening player played their last card with some values, the threats of
+   * that card are gone.
+   *
+   * @throws IllegalStateException if no move has been applied to the position
+   */
+  public void update() {
+    if (updates == updateMarks.length) {
+      updateMarks = Arrays.copyOf(updateMarks, updates * 2);
+    }
+    updateMarks[updates++] = changeCount;
+    int played = position.lastMoveCell();
+    for (int card = 0; card < cards.length; card++) {
+      set(played * cards.length + card, 0);
+    }
+    if (position.ownerAt(played) == attacker) {
+      playCopy(position.valuesAt(played));
+    }
+    refreshAround(played);
+    for (int i = 0; i < position.lastFlipCount(); i++) {
+      refreshAround(position.lastFlip(i));
+    }
+  }
+
+  /**
+   * Takes back the most recent update that has not been undone yet. The position can be undone
+   * before or after, the map does not read it.
+   *
+   * @throws IllegalStateException if there is no update to undo
+   */
+  public void undo() {
+    if (updates == 0) {
+      throw new IllegalStateException("No update to undo.");
+    }
+    int mark = updateMarks[--updates];
+    while (changeCount > mark) {
+      changeCount -= 2;
+      int entry = changes[changeCount];
+      if (entry < 0) {
+        copies[-1 - entry]++;
+        continue;
+      }
+      total += Integer.bitCount(changes[changeCount + 1]) - Integer.bitCount(masks[entry]);
+      masks[entry] = (byte) changes[changeCount + 1];
+    }
+  }
+
+  /**
+   * Returns the number of cards the threatening player could flip directly, summed over every
+   * empty cell and every distinct card in their hand.
+   *
+   * @return the total threat against the other player
+   */
+  public int totalThreat() {
+    return total;
+  }
+
+  /**
+   * Returns the cards a card of the threatening player would flip directly from a cell.
+   *
+   * @param cell      the flat index of the cell
+   * @param handIndex the index of the card in the threatening player's hand
+   * @return one bit per {@link Direction} ordinal, set if the neighbor that way would flip, 0 if
+   *         the cell is not empty or no card with the values of the card is held any more
+   */
+  public int threatAt(int cell, int handIndex) {
+    int values = position.handValues(attacker, handIndex);
+    for (int card = 0; card < cards.length; card++) {
+      if (position.handValues(attacker, cards[card]) == values) {
+        return masks[cell * cards.length + card];
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Returns the slot of the threatening player.
+   *
+   * @return 0 or 1
+   */
+  public int getAttacker() {
+    return attacker;
+  }
+
+  // Takes one card with the given values out of the threatening hand, and its threats with the
+  // last one
+  private void playCopy(int values) {
+    for (int card = 0; card < cards.length; card++) {
+      if (copies[card] > 0 && position.handValues(attacker, cards[card]) == values) {
+        log(-1 - card, 0);
+        if (--copies[card] == 0) {
+          for (int cell = 0; cell < position.size(); cell++) {
+            set(cell * cards.length + card, 0);
+          }
+        }
+        return;
+      }
+    }
+  }
+
+  private void refreshAround(int cell) {
+    for (int direction = 0; direction < DIRECTIONS; direction++) {
+      int neighbor = position.neighbor(cell, direction);
+      if (neighbor >= 0 && position.isEmpty(neighbor)) {
+        for (int card = 0; card < cards.length; card++) {
+          if (copies[card] > 0) {
+            set(neighbor * cards.length + card,
+                    position.directFlipMask(attacker, cards[card], neighbor));
+          }
+        }
+      }
+    }
+  }
+
+  private void set(int entry, int mask) {
+    if (masks[entry] == mask) {
+      return;
+    }
+    log(entry, masks[entry]);
+    total += Integer.bitCount(mask) - Integer.bitCount(masks[entry]);
+    masks[entry] = (byte) mask;
+  }
+
+  private void log(int entry, int oldMask) {
+    if (changeCount + 2 > changes.length) {
+      changes = Arrays.copyOf(changes, changes.length * 2);
+    }
+    changes[changeCount++] = entry;
+    changes[changeCount++] = oldMask;
+  }
+}
@@ -0,0 +1,174 @@
+package strategy;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size transposition table for game tree searches, keyed by the Zobrist hash of a position.
+ * Every entry is two longs, the key xored with the data and the data itself, so a reader can tell
+ * an entry that was torn by two threads writing at once from a real hit without any locking: the
+ * xor only gives back the key if both halves come from the same write. This lets any number of
+ * searches, on any number of threads, share one table.
+ * When two positions fall on the same slot, the entry searched deeper is kept, unless it was
+ * stored by an older search (see {@link #newSearch()}). Moves are stored as the cell and the
+ * packed attack values of the card, so they stay meaningful across positions with different
+ * hands.
+ */
+public final class TranspositionTable {
+
+  /**
+   * Value returned by {@link #probe(long)} when the table has no entry for a position.
+   */
+  public static final long MISS = 0L;
+
+  private static final int SCORE_BITS = 16;
+  private static final int DEPTH_SHIFT = 16;
+  private static final int BOUND_SHIFT = 24;
+  private static final int CELL_SHIFT = 26;
+  private static final int CELL_MASK = 0xFFF;
+  private static final int VALUES_SHIFT = 38;
+  private static final int GENERATION_SHIFT = 54;
+  private static final int SCORE_OFFSET = 1 << (SCORE_BITS - 1);
+  private static final Bound[] BOUNDS = Bound.values();
+
+  private final AtomicLongArray entries;
+  private final int mask;
+  private volatile int generation;
+
+  /**
+   * Creates a transposition table with room for at least the given number of entries. The size
+   * is rounded up to a power of two, every entry takes 16 bytes.
+   *
+   * @param minEntries the minimum number of entries
+   * @throws IllegalArgumentException if the number of entries is not positive or too large
+   */
+  public TranspositionTable(int minEntries) {
+    if (minEntries < 1 || minEntries > (1 << 29)) {
+      throw new IllegalArgumentException("Table size must be between 1 and 2^29 entries.");
+    }
+    int capacity = minEntries == 1 ? 1 : Integer.highestOneBit(minEntries - 1) << 1;
+    this.entries = new AtomicLongArray(capacity * 2);
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * Returns the number of entries the table can hold.
+   *
+   * @return the capacity of the table
+   */
+  public int capacity() {
+    return mask + 1;
+  }
+
+  /**
+   * Marks the start of a new search. Entries stored by earlier searches are kept and can still be
+   * hit, but they no longer block newer entries from taking their slot.
+   */
+  public void newSearch() {
+    generation = (generation + 1) & 0xFF;
+  }
+
+  /**
+   * Removes every entry from the table.
+   */
+  public void clear() {
+    for (int i = 0; i < entries.length(); i++) {
+      entries.set(i, 0L);
+    }
+  }
+
+  /**
+   * Looks up the entry for a position.
+   *
+   * @param key the Zobrist hash of the position
+   * @return the entry data to read with the static accessors, or {@link #MISS}
+   */
+  public long probe(long key) {
+    int slot = ((int) key & mask) << 1;
+    long data = entries.get(slot + 1);
+    long check = entries.get(slot);
+    return data != MISS && (check ^ data) == key ? data : MISS;
+  }
+
+  /**
+   * Stores the result of searching a position, unless the slot holds a deeper entry of another
+   * position from the current search.
+   *
+   * @param key          the Zobrist hash of the position
+   * @param depth        the depth the position was searched to, between 0 and 255
+   * @param score        the score of the position, between -32768 and 32767
+   * @param bound        what the score says about the true score
+   * @param cell         the cell of the best move, -1 if there is none. Moves on cells past the
+   *                     4094th are not stored
+   * @param packedValues the packed attack values of the card of the best move
+   */
+  public void store(long key, int depth, int score, Bound bound, int cell, int packedValues) {
+    int slot = ((int) key & mask) << 1;
+    long old = entries.get(slot + 1);
+    if (old != MISS && (entries.get(slot) ^ old) != key
+            && generationOf(old) == generation && depthOf(old) > depth) {
+      return;
+    }
+    long data = (long) ((score + SCORE_OFFSET) & 0xFFFF)
+            | (long) (depth & 0xFF) << DEPTH_SHIFT
+            | (long) (bound.ordinal() + 1) << BOUND_SHIFT
+            | (long) (cell + 1 <= CELL_MASK ? cell + 1 : 0) << CELL_SHIFT
+            | (long) (packedValues & 0xFFFF) << VALUES_SHIFT
+            | (long) generation << GENERATION_SHIFT;
+    entries.set(slot + 1, data);
+    entries.set(slot, key ^ data);
+  }
+
+  /**
+   * Returns the score stored in an entry.
+   *
+   * @param entry an entry returned by {@link #probe(long)}
+   * @return the stored score
+   */
+  public static int scoreOf(long entry) {
+    return (int) (entry & 0xFFFF) - SCORE_OFFSET;
+  }
+
+  /**
+   * Returns the depth stored in an entry.
+   *
+   * @param entry an entry returned by {@link #probe(long)}
+   * @return the depth the position was searched to
+   */
+  public static int depthOf(long entry) {
+    return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+  }
+
+  /**
+   * Returns the bound stored in an entry.
+   *
+   * @param entry an entry returned by {@link #probe(long)}
+   * @return what the stored score says about the true score
+   */
+  public static Bound boundOf(long entry) {
+    return BOUNDS[(int) (entry >>> BOUND_SHIFT & 0x3) - 1];
+  }
+
+  /**
+   * Returns the cell of the best move stored in an entry.
+   *
+   * @param entry an entry returned by {@link #probe(long)}
+   * @return the flat cell index of the best move, -1 if there is none
+   */
+  public static int cellOf(long entry) {
+    return (int) (entry >>> CELL_SHIFT & CELL_MASK) - 1;
+  }
+
+  /**
+   * Returns the packed attack values of the card of the best move stored in an entry.
+   *
+   * @param entry an entry returned by {@link #probe(long)}
+   * @return the packed attack values of the card
+   */
+  public static int valuesOf(long entry) {
+    return (int) (entry >>> VALUES_SHIFT & 0xFFFF);
+  }
+
+  private static int generationOf(long entry) {
+    return (int) (entry >>> GENERATION_SHIFT) & 0xFF;
+  }
+}
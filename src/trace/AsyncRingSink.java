@@ -0,0 +1,134 @@
+package trace;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sink that hands messages to a background thread through a fixed-size ring buffer, so tracing
+ * never blocks the thread that plays or searches the game on console I/O. Any number of threads
+ * can record at once. When the ring is full new messages are dropped and counted instead of
+ * waiting for room. Messages are passed on to the wrapped sink in the order their slots were
+ * claimed. Once the sink is closed, messages are no longer queued: they are written straight to
+ * the wrapped sink on the thread that records them.
+ */
+public class AsyncRingSink implements TraceSink, AutoCloseable {
+
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  // Set in the tail by close, after which no slot can be claimed any more
+  private static final long CLOSED = Long.MIN_VALUE;
+
+  private final TraceSink target;
+  private final int mask;
+  private final TraceLevel[] levels;
+  private final String[] sources;
+  private final String[] messages;
+  // Holds sequence + 1 for a slot once the message written for that sequence can be read
+  private final AtomicLongArray published;
+  private final AtomicLong tail = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private volatile long head;
+  private final Thread drainer;
+
+  /**
+   * Creates a sink that passes messages on to another sink from a background thread.
+   *
+   * @param target      the sink that receives the messages on the background thread
+   * @param minCapacity the minimum number of messages the ring can hold before dropping
+   * @throws IllegalArgumentException if the target is null or the capacity is not positive
+   */
+  public AsyncRingSink(TraceSink target, int minCapacity) {
+    if (target == null) {
+      throw new IllegalArgumentException("Target sink cannot be null.");
+    }
+    if (minCapacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive.");
+    }
+    int capacity = Integer.highestOneBit(Math.max(1, minCapacity - 1)) << 1;
+    this.target = target;
+    this.mask = capacity - 1;
+    this.levels = new TraceLevel[capacity];
+    this.sources = new String[capacity];
+    this.messages = new String[capacity];
+    this.published = new AtomicLongArray(capacity);
+    this.drainer = new Thread(this::drainLoop, "trace-drainer");
+    this.drainer.setDaemon(true);
+    this.drainer.start();
+  }
+
+  @Override
+  public void record(TraceLevel level, String source, String message) {
+    long sequence;
+    do {
+      sequence = tail.get();
+      if ((sequence & CLOSED) != 0) {
+        target.record(level, source, message);
+        return;
+      }
+      if (sequence - head > mask) {
+        dropped.incrementAndGet();
+        return;
+      }
+    } while (!tail.compareAndSet(sequence, sequence + 1));
+    int slot = (int) sequence & mask;
+    levels[slot] = level;
+    sources[slot] = source;
+    messages[slot] = message;
+    published.lazySet(slot, sequence + 1);
+  }
+
+  /**
+   * Returns the number of messages dropped so far because the ring was full.
+   *
+   * @return the number of dropped messages
+   */
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  // Passes on every published message, parking briefly whenever the ring is empty, until the
+  // sink is closed and every slot claimed before that has been passed on.
+  private void drainLoop() {
+    long end;
+    while (((end = tail.get()) & CLOSED) == 0 || head != (end & ~CLOSED)) {
+      if (!drainAvailable()) {
+        LockSupport.parkNanos(IDLE_PARK_NANOS);
+      }
+    }
+  }
+
+  // Passes on the messages that are ready in order and returns whether there were any.
+  private boolean drainAvailable() {
+    boolean drained = false;
+    long next = head;
+    int slot = (int) next & mask;
+    while (published.get(slot) == next + 1) {
+      TraceLevel level = levels[slot];
+      String source = sources[slot];
+      String message = messages[slot];
+      sources[slot] = null;
+      messages[slot] = null;
+      head = ++next;
+      target.record(level, source, message);
+      slot = (int) next & mask;
+      drained = true;
+    }
+    return drained;
+  }
+
+  /**
+   * Stops the background thread after it has passed on every message recorded so far. Messages
+   * recorded after this are written straight to the wrapped sink.
+   */
+  @Override
+  public void close() {
+    tail.getAndUpdate(sequence -> sequence | CLOSED);
+    LockSupport.unpark(drainer);
+    try {
+      drainer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package trace;
+
+import java.io.PrintStream;
+
+/**
+ * Sink that writes every trace message as a line to a print stream.
+ */
+public class PrintStreamSink implements TraceSink {
+
+  private final PrintStream out;
+
+  /**
+   * Creates a sink that writes to the given stream.
+   *
+   * @param out the stream to write messages to
+   * @throws IllegalArgumentException if the stream is null
+   */
+  public PrintStreamSink(PrintStream out) {
+    if (out == null) {
+      throw new IllegalArgumentException("Stream cannot be null.");
+    }
+    this.out = out;
+  }
+
+  @Override
+  public void record(TraceLevel level, String source, String message) {
+    out.println(format(level, source, message));
+  }
+
+  /**
+   * Formats a trace message the way the sinks print it.
+   *
+   * @param level   the level of the message
+   * @param source  the name of the part of the game that produced the message
+   * @param message the message itself
+   * @return the formatted line
+   */
+  static String format(TraceLevel level, String source, String message) {
+    return "[" + level + "] " + source + ": " + message;
+  }
+}
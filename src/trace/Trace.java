@@ -0,0 +1,98 @@
+package trace;
+
+/**
+ * Entry point for tracing in the game. Code that wants to trace checks {@link #isEnabled} first
+ * and only builds its message if the level is enabled, so with tracing off a trace point costs a
+ * single field read and no string is ever built. Messages that pass the threshold go to the
+ * installed {@link TraceSink}, which by default prints to standard out.
+ * The starting threshold is read from the "threetrios.trace" system property (one of the
+ * {@link TraceLevel} names) and is WARN if the property is not set.
+ */
+public final class Trace {
+
+  private static volatile int threshold = initialLevel().ordinal();
+  private static volatile TraceSink sink = (level, source, message) ->
+          System.out.println(PrintStreamSink.format(level, source, message));
+
+  private Trace() {
+  }
+
+  private static TraceLevel initialLevel() {
+    String property = System.getProperty("threetrios.trace");
+    if (property == null) {
+      return TraceLevel.WARN;
+    }
+    try {
+      return TraceLevel.valueOf(property.trim().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      return TraceLevel.WARN;
+    }
+  }
+
+  /**
+   * Checks if messages of a level are currently recorded.
+   *
+   * @param level the level to check
+   * @return true if messages of that level reach the sink, false otherwise
+   */
+  public static boolean isEnabled(TraceLevel level) {
+    return level.ordinal() <= threshold && level != TraceLevel.OFF;
+  }
+
+  /**
+   * Sends a message to the sink if its level is enabled.
+   *
+   * @param level   the level of the message
+   * @param source  the name of the part of the game that produced the message
+   * @param message the message itself
+   */
+  public static void log(TraceLevel level, String source, String message) {
+    if (isEnabled(level)) {
+      sink.record(level, source, message);
+    }
+  }
+
+  /**
+   * Sets the most detailed level that is still recorded. OFF turns tracing off entirely.
+   *
+   * @param level the new threshold
+   * @throws IllegalArgumentException if the level is null
+   */
+  public static void setLevel(TraceLevel level) {
+    if (level == null) {
+      throw new IllegalArgumentException("Level cannot be null.");
+    }
+    threshold = level.ordinal();
+  }
+
+  /**
+   * Returns the most detailed level that is currently recorded.
+   *
+   * @return the current threshold
+   */
+  public static TraceLevel getLevel() {
+    return TraceLevel.values()[threshold];
+  }
+
+  /**
+   * Installs the sink that receives all recorded messages.
+   *
+   * @param newSink the new sink
+   * @throws IllegalArgumentException if the sink is null
+   */
+  public static void setSink(TraceSink newSink) {
+    if (newSink == null) {
+      throw new IllegalArgumentException("Sink cannot be null.");
+    }
+    sink = newSink;
+  }
+
+  /**
+   * Returns the sink that currently receives all recorded messages.
+   *
+   * @return the current sink
+   */
+  public static TraceSink getSink() {
+    return sink;
+  }
+}
@@ -0,0 +1,9 @@
+package trace;
+
+/**
+ * Represents how detailed a trace message is, from the most important to the most detailed.
+ * A message is recorded if its level is at or above the threshold set on {@link Trace}.
+ */
+public enum TraceLevel {
+  OFF, WARN, INFO, DEBUG, TRACE
+}
@@ -0,0 +1,17 @@
+package trace;
+
+/**
+ * Receives the trace messages that pass the threshold of {@link Trace}. A sink may be called from
+ * any thread that plays or searches the game, so implementations must be thread safe.
+ */
+public interface TraceSink {
+
+  /**
+   * Records a single trace message.
+   *
+   * @param level   the level of the message
+   * @param source  the name of the part of the game that produced the message
+   * @param message the message itself
+   */
+  void record(TraceLevel level, String source, String message);
+}
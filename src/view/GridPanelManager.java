@@ -9,8 +9,10 @@ import javax.swing.BorderFactory;
 import javax.swing.JPanel;
 
 import controller.PlayerActionListener;
+import model.BoardView;
 import model.ICard;
 import model.ReadOnlyThreeTriosModel;
+import player.IPlayer;
 
 /**
  * Manages the creation and updating of the grid panel in the ThreeTrios game.
@@ -53,8 +55,9 @@ public class GridPanelManager {
    * @return the created grid panel
    */
   private JPanel createGridPanel() {
-    int rows = model.getGrid().getRows();
-    int cols = model.getGrid().getColumns();
+    BoardView board = model.getBoardView();
+    int rows = board.getRows();
+    int cols = board.getColumns();
     JPanel panel = new JPanel(new GridLayout(rows, cols));
 
     for (int row = 0; row < rows; row++) {
@@ -62,7 +65,7 @@ public class GridPanelManager {
         JPanel cellPanel = new JPanel();
         cellPanel.setBorder(BorderFactory.createLineBorder(Color.BLACK));
         cellPanel.setBackground(
-                model.getGrid().getCell(row, col).isHole() ? Color.GRAY : Color.YELLOW);
+                board.isHole(row, col) ? Color.GRAY : Color.YELLOW);
 
         int finalRow = row;
         int finalCol = col;
@@ -87,19 +90,19 @@ public class GridPanelManager {
    * Updates the grid panel based on the current game state.
    */
   public void updateGridPanel() {
-    for (int row = 0; row < model.getGrid().getRows(); row++) {
-      for (int col = 0; col < model.getGrid().getColumns(); col++) {
+    BoardView board = model.getBoardView();
+    for (int row = 0; row < board.getRows(); row++) {
+      for (int col = 0; col < board.getColumns(); col++) {
         JPanel cellPanel = (JPanel) gridPanel.getComponent(
-                row * model.getGrid().getColumns() + col);
+                row * board.getColumns() + col);
         cellPanel.removeAll();
         cellPanel.setLayout(new BorderLayout());
 
-        ICard card = model.getGrid().getCell(row, col).getCard();
+        ICard card = board.getCard(row, col);
         if (card != null) {
-          createCardPanel(row, col, cellPanel, card);
+          createCardPanel(board.getOwner(row, col), cellPanel, card);
         } else {
-          cellPanel.setBackground(model.getGrid().getCell(
-                  row, col).isHole() ? Color.GRAY : Color.YELLOW);
+          cellPanel.setBackground(board.isHole(row, col) ? Color.GRAY : Color.YELLOW);
           if (decorator != null) {
             decorator.decorate(cellPanel, row, col);
           }
@@ -111,18 +114,16 @@ public class GridPanelManager {
   }
 
   /**
-   * Creates a card panel for the specified position on the grid.
+   * Creates a card panel for a card on the grid.
    *
-   * @param row       the row position on the grid
-   * @param col       the column position on the grid
+   * @param owner     the owner of the card on the grid
    * @param cellPanel the cell panel to add the card panel to
    * @param card      the card to be displayed
    */
-  private void createCardPanel(int row, int col, JPanel cellPanel, ICard card) {
+  private void createCardPanel(IPlayer owner, JPanel cellPanel, ICard card) {
     CardPanel cardPanel = CardPanelFactory.createCardPanel(
             card,
-            model.getGrid().getCell(row, col).getOwner().equals(
-                    model.getRedPlayer()) ? Color.PINK : Color.CYAN
+            owner.equals(model.getRedPlayer()) ? Color.PINK : Color.CYAN
     );
     cellPanel.add(cardPanel, BorderLayout.CENTER);
   }
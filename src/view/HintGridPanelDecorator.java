@@ -1,10 +1,12 @@
 package view;
 
 import java.awt.BorderLayout;
+import java.util.List;
 
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 
+import model.BoardView;
 import model.ICard;
 import model.ReadOnlyThreeTriosModel;
 import player.IPlayer;
@@ -17,6 +19,13 @@ public class HintGridPanelDecorator implements GridPanelDecorator {
   private final ReadOnlyThreeTriosModel model;
   private final IPlayer currentPlayer;
   private final ICard selectedCard;
+  // Flip counts of the whole hand on every cell, filled in once per board, with the index of the
+  // selected card in the hand and the size of the board they were filled in for
+  private int[] flips;
+  private long flipsVersion;
+  private int handIndex;
+  private int cells;
+  private int cols;
 
   /**
    * Constructs a HintGridPanelDecorator.
@@ -33,12 +42,45 @@ public class HintGridPanelDecorator implements GridPanelDecorator {
 
   @Override
   public void decorate(JPanel cellPanel, int row, int col) {
-    if (selectedCard != null && !model.getGrid().getCell(row, col).isHole()) {
-      int numCardsAbleToFlip = model.getNumCardsAbleToFlip(currentPlayer, selectedCard, row, col);
-      JLabel hintLabel = new JLabel(String.valueOf(numCardsAbleToFlip));
-      hintLabel.setHorizontalAlignment(JLabel.RIGHT);
-      cellPanel.setLayout(new BorderLayout());
-      cellPanel.add(hintLabel, BorderLayout.SOUTH);
+    // Only cells the selected card can still be played on get a hint
+    if (selectedCard == null || !model.getBoardView().isEmpty(row, col)) {
+      return;
     }
+    int numCardsAbleToFlip = flipsAt(row, col);
+    if (numCardsAbleToFlip < 0) {
+      return;
+    }
+    JLabel hintLabel = new JLabel(String.valueOf(numCardsAbleToFlip));
+    hintLabel.setHorizontalAlignment(JLabel.RIGHT);
+    cellPanel.setLayout(new BorderLayout());
+    cellPanel.add(hintLabel, BorderLayout.SOUTH);
+  }
+
+  // Looks the count of the selected card up in the flip matrix of the hand, which is filled in
+  // with one call the first time a cell of a board is decorated
+  private int flipsAt(int row, int col) {
+    long version = model.getVersion();
+    if (flips == null || flipsVersion != version) {
+      fillFlips(version);
+    }
+    if (handIndex < 0) {
+      return model.getNumCardsAbleToFlip(currentPlayer, selectedCard, row, col);
+    }
+    return flips[handIndex * cells + row * cols + col];
+  }
+
+  private void fillFlips(long version) {
+    List<ICard> hand = model.getPlayerHand(currentPlayer);
+    BoardView board = model.getBoardView();
+    cols = board.getColumns();
+    cells = board.getRows() * cols;
+    handIndex = hand.indexOf(selectedCard);
+    if (flips == null || flips.length < hand.size() * cells) {
+      flips = new int[hand.size() * cells];
+    }
+    if (handIndex >= 0) {
+      model.getFlipMatrix(currentPlayer, flips);
+    }
+    flipsVersion = version;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+package extrafeatures;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import model.Card;
+import model.Direction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the BattleTable class in extrafeatures.
+ */
+public class BattleTableTest {
+
+  // Checks that the table agrees with the rule for every pair of values in every direction
+  private void assertMatchesRule(BattleRuleStrategy rule) {
+    BattleTable table = BattleTable.compile(rule);
+    assertNotNull(table);
+    for (int attack = 1; attack <= BattleTable.MAX_VALUE; attack++) {
+      for (int defense = 1; defense <= BattleTable.MAX_VALUE; defense++) {
+        Card attacker = new Card("Attacker", attack, attack, attack, attack);
+        Card defender = new Card("Defender", defense, defense, defense, defense);
+        for (Direction direction : Direction.values()) {
+          assertEquals(rule.shouldFlipCard(attacker, defender, direction),
+                  table.shouldFlip(attack, defense));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testValueOnlyRulesCompile() {
+    assertMatchesRule(new NormalBattleRule());
+    assertMatchesRule(new ReverseBattleRule());
+    assertMatchesRule(new FallenAceBattleRule());
+  }
+
+  @Test
+  public void testCombinedRuleCompilesToFusedTable() {
+    assertMatchesRule(new CombinedBattleRule(
+            List.of(new ReverseBattleRule(), new FallenAceBattleRule())));
+  }
+
+  @Test
+  public void testNeighborRulesDoNotCompile() {
+    assertNull(BattleTable.compile(new SameBattleRule()));
+    assertNull(BattleTable.compile(new PlusBattleRule()));
+    assertNull(BattleTable.compile(
+            new CombinedBattleRule(List.of(new NormalBattleRule(), new SameBattleRule()))));
+    assertNull(BattleTable.compile((cardA, cardB, direction) -> true));
+  }
+
+  @Test
+  public void testFlipMask() {
+    BattleTable table = BattleTable.compile(new NormalBattleRule());
+    assertEquals(0b11111, table.flipMask(5));
+    assertTrue(table.shouldFlip(10, 9));
+  }
+
+  @Test
+  public void testNullRuleThrows() {
+    assertThrows(IllegalArgumentException.class, () -> BattleTable.compile(null));
+  }
+}
@@ -0,0 +1,106 @@
+package extrafeatures;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.Card;
+import model.CardCell;
+import model.Direction;
+import model.GameModel;
+import model.Grid;
+import model.ICard;
+import model.PackedValues;
+import player.HumanPlayer;
+import player.IPlayer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for deciding battles from packed attack values and the attacker's neighborhood.
+ */
+public class PackedBattleTest {
+
+  private static final int NONE = -1;
+
+  @Test
+  public void testSameFlipsOnTwoMatchingSides() {
+    int attacker = PackedValues.pack(5, 1, 1, 5);
+    int defender = PackedValues.pack(1, 5, 1, 1);
+    int[] neighbors = {defender, NONE, NONE, PackedValues.pack(1, 1, 5, 1)};
+    assertTrue(new SameBattleRule().shouldFlip(attacker, defender,
+            Direction.NORTH.ordinal(), neighbors));
+
+    neighbors[Direction.WEST.ordinal()] = NONE;
+    assertFalse(new SameBattleRule().shouldFlip(attacker, defender,
+            Direction.NORTH.ordinal(), neighbors));
+  }
+
+  @Test
+  public void testPlusFlipsOnTwoMatchingSums() {
+    int attacker = PackedValues.pack(3, 1, 1, 4);
+    int defender = PackedValues.pack(1, 7, 1, 1);
+    int[] neighbors = {defender, NONE, NONE, PackedValues.pack(1, 1, 6, 1)};
+    assertTrue(new PlusBattleRule().shouldFlip(attacker, defender,
+            Direction.NORTH.ordinal(), neighbors));
+
+    neighbors[Direction.WEST.ordinal()] = PackedValues.pack(1, 1, 5, 1);
+    assertFalse(new PlusBattleRule().shouldFlip(attacker, defender,
+            Direction.NORTH.ordinal(), neighbors));
+  }
+
+  @Test
+  public void testPackedAndCardRulesAgreeForValueRules() {
+    Card attacker = new Card("PackedA", 7, 2, 10, 1);
+    Card defender = new Card("PackedB", 10, 7, 1, 10);
+    int[] neighbors = {NONE, NONE, NONE, NONE};
+    List<BattleRuleStrategy> rules = List.of(new NormalBattleRule(), new ReverseBattleRule(),
+            new FallenAceBattleRule());
+    for (BattleRuleStrategy rule : rules) {
+      for (Direction direction : Direction.values()) {
+        assertEquals(rule.shouldFlipCard(attacker, defender, direction),
+                rule.shouldFlip(attacker.getPackedValues(), defender.getPackedValues(),
+                        direction.ordinal(), neighbors));
+      }
+    }
+  }
+
+  @Test
+  public void testCombinedSupportsPackedOnlyIfAllRulesDo() {
+    assertTrue(new CombinedBattleRule(
+            List.of(new ReverseBattleRule(), new SameBattleRule())).supportsPackedBattles());
+    assertFalse(new CombinedBattleRule(List.of(new ReverseBattleRule(),
+            (cardA, cardB, direction) -> false)).supportsPackedBattles());
+  }
+
+  @Test
+  public void testDefaultPackedBattleSeesPassedNeighbors() {
+    BattleRuleStrategy westLooking = (cardA, cardB, direction) ->
+            cardA.getAdjacentCard(Direction.WEST) != null;
+    int card = PackedValues.pack(1, 1, 1, 1);
+    assertTrue(westLooking.shouldFlip(card, card, 0, new int[] {card, NONE, NONE, card}));
+    assertFalse(westLooking.shouldFlip(card, card, 0, new int[] {card, NONE, NONE, NONE}));
+  }
+
+  @Test
+  public void testSameRuleWorksInSimulationWithoutCardPositions() {
+    IPlayer red = new HumanPlayer("Red", new ArrayList<>());
+    IPlayer blue = new HumanPlayer("Blue", new ArrayList<>());
+    List<ICard> cards = new ArrayList<>();
+    cards.add(new Card("SameAttacker", 5, 1, 1, 5));
+    for (int i = 0; i < 9; i++) {
+      cards.add(new Card("SameFiller" + i, 1, 1, 1, 1));
+    }
+    GameModel model = new GameModel(new SameBattleRule());
+    Grid grid = new Grid(3, 3);
+    model.startGameWithConfig(grid, cards, false, red, blue);
+    grid.setCell(0, 1, new CardCell(new Card("SameNorth", 1, 5, 1, 1), blue));
+    grid.setCell(1, 0, new CardCell(new Card("SameWest", 1, 1, 5, 1), blue));
+
+    assertEquals(2, model.getNumCardsAbleToFlip(red, cards.get(0), 1, 1));
+    assertEquals(blue, model.getGrid().getCell(0, 1).getOwner());
+  }
+}
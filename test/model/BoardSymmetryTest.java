@@ -0,0 +1,110 @@
+package model;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import configuration.ConfigurationReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the BoardSymmetry class in model.
+ */
+public class BoardSymmetryTest {
+
+  private static final String CONFIG_DIR = "src" + File.separator + "configuration"
+          + File.separator + "configFiles" + File.separator;
+
+  private static BoardSymmetry load(String board) throws IOException {
+    return ConfigurationReader.readGridConfig(CONFIG_DIR + board).getSymmetry();
+  }
+
+  @Test
+  public void testGroupSizesOfTheConfiguredBoards() throws IOException {
+    assertEquals(8, load("board1WithNoHoles.config").size());
+    assertEquals(8, load("board4x4ForLevel2.config").size());
+    assertEquals(2, load("board2x2.config").size());
+    assertEquals(2, load("board2WithReachableCells.config").size());
+    assertTrue(load("board3WithSeparateGroupsOfCells.config").isTrivial());
+  }
+
+  @Test
+  public void testRectangularBoardsOnlyMirror() {
+    BoardSymmetry symmetry = BoardSymmetry.of(new Grid(3, 5));
+    assertEquals(4, symmetry.size());
+    assertFalse(symmetry.isTrivial());
+  }
+
+  @Test
+  public void testIdentityComesFirst() {
+    BoardSymmetry symmetry = BoardSymmetry.of(new Grid(3, 3));
+    for (int cell = 0; cell < 9; cell++) {
+      assertEquals(cell, symmetry.mapCell(0, cell));
+    }
+    assertEquals(PackedValues.pack(1, 2, 3, 4),
+            symmetry.mapValues(0, PackedValues.pack(1, 2, 3, 4)));
+  }
+
+  @Test
+  public void testCardsTurnWithTheBoard() {
+    BoardSymmetry symmetry = BoardSymmetry.of(new Grid(3, 3));
+    int values = PackedValues.pack(1, 2, 3, 4);
+    for (int t = 0; t < symmetry.size(); t++) {
+      for (int cell = 0; cell < 9; cell++) {
+        for (int direction = 0; direction < 4; direction++) {
+          Direction from = Direction.values()[direction];
+          int row = cell / 3 + from.getRowOffset();
+          int col = cell % 3 + from.getColOffset();
+          if (row < 0 || row > 2 || col < 0 || col > 2) {
+            continue;
+          }
+          // The neighbor in a direction is turned into the neighbor in the turned direction
+          Direction to = Direction.values()[symmetry.mapDirection(t, direction)];
+          int turned = symmetry.mapCell(t, cell);
+          assertEquals(symmetry.mapCell(t, row * 3 + col),
+                  (turned / 3 + to.getRowOffset()) * 3 + turned % 3 + to.getColOffset());
+        }
+        assertEquals(PackedValues.valueOf(values, 0), PackedValues.valueOf(
+                symmetry.mapValues(t, values), symmetry.mapDirection(t, 0)));
+      }
+    }
+  }
+
+  @Test
+  public void testInverseUndoesTransform() {
+    BoardSymmetry symmetry = BoardSymmetry.of(new Grid(3, 3));
+    int values = PackedValues.pack(1, 2, 3, 4);
+    for (int t = 0; t < symmetry.size(); t++) {
+      int back = symmetry.inverse(t);
+      assertEquals(values, symmetry.mapValues(back, symmetry.mapValues(t, values)));
+      for (int cell = 0; cell < 9; cell++) {
+        assertEquals(cell, symmetry.mapCell(back, symmetry.mapCell(t, cell)));
+      }
+    }
+  }
+
+  @Test
+  public void testChangingAHoleForgetsTheSymmetry() {
+    Grid grid = new Grid(3, 3);
+    BoardSymmetry full = grid.getSymmetry();
+    assertSame(full, grid.getSymmetry());
+    grid.setCell(0, 0, new CardCell());
+    assertSame(full, grid.getSymmetry());
+    assertSame(full, grid.copyOfGrid().getSymmetry());
+    grid.setCell(0, 1, new Hole());
+    assertEquals(2, grid.getSymmetry().size());
+  }
+
+  @Test
+  public void testMismatchedHolesAreRejected() {
+    assertThrows(IllegalArgumentException.class,
+        () -> BoardSymmetry.of(2, 2, new boolean[3]));
+    assertThrows(IllegalArgumentException.class, () -> BoardSymmetry.of(null));
+  }
+}
@@ -0,0 +1,141 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import player.HumanPlayer;
+import player.IPlayer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the BoardView class in model.
+ */
+public class BoardViewTest {
+
+  private PackedBoard board;
+  private IPlayer red;
+  private IPlayer blue;
+  private ICard card;
+
+  @Before
+  public void setUp() {
+    board = new PackedBoard(2, 2);
+    red = new HumanPlayer("Red", new ArrayList<>());
+    blue = new HumanPlayer("Blue", new ArrayList<>());
+    card = new Card("Card", 1, 2, 3, 4);
+    board.bindPlayers(red, blue);
+    board.set(3, PackedBoard.HOLE);
+  }
+
+  @Test
+  public void testViewShowsCells() {
+    board.place(0, board.cardIdFor(card), board.slotOf(blue));
+    BoardView view = board.view();
+    assertEquals(2, view.getRows());
+    assertEquals(2, view.getColumns());
+    assertSame(card, view.getCard(0, 0));
+    assertSame(blue, view.getOwner(0, 0));
+    assertTrue(view.isEmpty(0, 1));
+    assertNull(view.getOwner(0, 1));
+    assertTrue(view.isHole(1, 1));
+    assertFalse(view.isEmpty(1, 1));
+    assertEquals(1, view.countOwnedBy(blue));
+    assertEquals(2, view.countEmpty());
+  }
+
+  @Test
+  public void testViewDoesNotSeeLaterWrites() {
+    BoardView view = board.view();
+    board.place(0, board.cardIdFor(card), board.slotOf(red));
+    board.setOwner(0, board.slotOf(blue));
+    assertTrue(view.isEmpty(0, 0));
+    assertEquals(0, view.countOwnedBy(red));
+    assertEquals(3, view.countEmpty());
+    assertSame(blue, board.ownerPlayerAt(0));
+  }
+
+  @Test
+  public void testCopiesDoNotSeeEachOthersWrites() {
+    PackedBoard copy = board.copy();
+    copy.place(1, copy.cardIdFor(card), copy.slotOf(red));
+    assertTrue(board.isEmpty(1));
+    board.place(2, board.cardIdFor(card), board.slotOf(blue));
+    assertTrue(copy.isEmpty(2));
+    assertEquals(2, copy.countEmpty());
+  }
+
+  @Test
+  public void testFullView() {
+    for (int index = 0; index < 3; index++) {
+      board.place(index, board.cardIdFor(card), board.slotOf(red));
+    }
+    assertTrue(board.view().isFull());
+  }
+
+  @Test
+  public void testUnchangedBoardReturnsSameSnapshot() {
+    BoardView first = board.view();
+    assertSame(first, board.view());
+    board.place(0, board.cardIdFor(card), board.slotOf(red));
+    assertNotSame(first, board.view());
+  }
+
+  @Test
+  public void testSnapshotsShareUnchangedChunks() {
+    PackedBoard big = new PackedBoard(8, 8);
+    big.bindPlayers(red, blue);
+    BoardView first = big.view();
+    big.place(63, big.cardIdFor(card), big.slotOf(red));
+    BoardView second = big.view();
+    assertSame(first.chunk(0), second.chunk(0));
+    assertNotSame(first.chunk(3), second.chunk(3));
+    assertTrue(first.isEmpty(7, 7));
+    assertSame(red, second.getOwner(7, 7));
+  }
+
+  @Test
+  public void testSnapshotsDoNotGoOnFromASnapshotInsideAMove() {
+    PackedBoard big = new PackedBoard(8, 8);
+    big.bindPlayers(red, blue);
+    big.view();
+    big.place(63, big.cardIdFor(card), big.slotOf(red));
+    big.beginMove();
+    big.place(0, big.cardIdFor(card), big.slotOf(blue));
+    BoardView tentative = big.view();
+    assertSame(blue, tentative.getOwner(0, 0));
+    big.undoMove();
+    BoardView after = big.view();
+    assertTrue(after.isEmpty(0, 0));
+    assertSame(red, after.getOwner(7, 7));
+    assertNotSame(tentative.chunk(3), after.chunk(3));
+    assertSame(after, big.view());
+  }
+
+  @Test
+  public void testVersionOnlyGrowsAndIgnoresUndoneMoves() {
+    long start = board.getVersion();
+    board.beginMove();
+    board.place(0, board.cardIdFor(card), board.slotOf(red));
+    board.undoMove();
+    assertEquals(start, board.getVersion());
+    board.place(0, board.cardIdFor(card), board.slotOf(red));
+    assertTrue(board.getVersion() > start);
+    assertEquals(board.getVersion(), board.view().getVersion());
+  }
+
+  @Test
+  public void testOutOfBoundsThrows() {
+    BoardView view = board.view();
+    assertThrows(IllegalArgumentException.class, () -> view.getCard(2, 0));
+    assertThrows(IllegalArgumentException.class, () -> view.isHole(0, -1));
+  }
+}
@@ -1,14 +1,22 @@
 package model;
 
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.List;
+
+import com.sun.management.ThreadMXBean;
 import configuration.ConfigurationReader;
+import extrafeatures.BattleRuleStrategy;
 import extrafeatures.NormalBattleRule;
+import extrafeatures.PlusBattleRule;
+import extrafeatures.ReverseBattleRule;
+import extrafeatures.SameBattleRule;
 import player.HumanPlayer;
 import player.IPlayer;
 
@@ -16,6 +24,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test class which tests the protected/package-private methods in the GameModel class.
@@ -241,4 +250,168 @@ public class GameModelInnerTests {
     assertEquals(gameModel.getRedPlayer(), (grid.getCell(2, 0)).getOwner());
   }
 
-}
\ No newline at end of file
+
+  @Test
+  public void testApplyMoveAndUndoMoveRestoreBoard() {
+    ICard redCard = new Card("RedCard", 9, 9, 9, 9);
+    ICard blueCard = new Card("BlueCard", 1, 1, 1, 1);
+    grid.setCell(0, 1, new CardCell(blueCard, gameModel.getBluePlayer()));
+
+    assertEquals(1, gameModel.applyMove(gameModel.getRedPlayer(), redCard, 0, 0));
+    assertEquals(gameModel.getRedPlayer(), grid.getCell(0, 1).getOwner());
+    assertEquals(redCard, grid.getCell(0, 0).getCard());
+
+    gameModel.undoMove();
+    assertEquals(gameModel.getBluePlayer(), grid.getCell(0, 1).getOwner());
+    assertTrue(grid.getCell(0, 0).isEmpty());
+  }
+
+  @Test
+  public void testFlipCountsAreCachedUntilTheBoardChanges() {
+    ICard redCard = new Card("RedCard", 9, 9, 9, 9);
+    assertEquals(0, gameModel.getNumCardsAbleToFlip(gameModel.getRedPlayer(), redCard, 0, 0));
+    long[] before = gameModel.getFlipCacheStats();
+    assertEquals(0, gameModel.getNumCardsAbleToFlip(gameModel.getRedPlayer(), redCard, 0, 0));
+    assertEquals(before[0] + 1, gameModel.getFlipCacheStats()[0]);
+
+    grid.setCell(0, 1, new CardCell(new Card("BlueCard", 1, 1, 1, 1),
+            gameModel.getBluePlayer()));
+    assertEquals(1, gameModel.getNumCardsAbleToFlip(gameModel.getRedPlayer(), redCard, 0, 0));
+    assertEquals(before[1] + 1, gameModel.getFlipCacheStats()[1]);
+  }
+
+  @Test
+  public void testFlipCountsInsideSimulatedMovesAreNotCached() {
+    ICard redCard = new Card("RedCard", 9, 9, 9, 9);
+    assertEquals(0, gameModel.getNumCardsAbleToFlip(gameModel.getRedPlayer(), redCard, 0, 0));
+    gameModel.applyMove(gameModel.getBluePlayer(), new Card("BlueCard", 1, 1, 1, 1), 0, 1);
+    assertEquals(1, gameModel.getNumCardsAbleToFlip(gameModel.getRedPlayer(), redCard, 0, 0));
+    gameModel.undoMove();
+    assertEquals(0, gameModel.getNumCardsAbleToFlip(gameModel.getRedPlayer(), redCard, 0, 0));
+  }
+
+  @Test
+  public void testFlipMatrixMatchesPlayingEveryMove() {
+    for (BattleRuleStrategy rule : new BattleRuleStrategy[] {new NormalBattleRule(),
+        new SameBattleRule(), new PlusBattleRule(), new ReverseBattleRule()}) {
+      GameModel model = new GameModel(rule);
+      model.startGameWithConfig(grid.copyOfGrid(), deck, false, player1, player2);
+      PackedBoard board = model.getGrid().getBoard();
+      // Check the matrix of the player to move all through a game
+      while (!model.isGameOver()) {
+        IPlayer player = model.getCurrentPlayer();
+        List<ICard> hand = model.getPlayerHand(player);
+        int[] flips = new int[hand.size() * board.size()];
+        model.getFlipMatrix(player, flips);
+        int firstEmpty = -1;
+        for (int card = 0; card < hand.size(); card++) {
+          for (int index = 0; index < board.size(); index++) {
+            int row = board.rowOf(index);
+            int col = board.colOf(index);
+            int expected = -1;
+            if (model.getBoardView().isEmpty(row, col)) {
+              expected = model.applyMove(player, hand.get(card), row, col);
+              model.undoMove();
+              firstEmpty = firstEmpty < 0 ? index : firstEmpty;
+            }
+            assertEquals(expected, flips[card * board.size() + index]);
+          }
+        }
+        model.playCard(player, hand.get(0), board.rowOf(firstEmpty), board.colOf(firstEmpty));
+      }
+    }
+  }
+
+  @Test
+  public void testFlipMatrixFillsTheCache() {
+    ICard redCard = new Card("RedCard", 9, 9, 9, 9);
+    grid.setCell(0, 1, new CardCell(new Card("BlueCard", 1, 1, 1, 1),
+            gameModel.getBluePlayer()));
+    IPlayer red = gameModel.getRedPlayer();
+    red.setHand(new ArrayList<>(List.of(redCard)));
+    int[] flips = new int[grid.getRows() * grid.getColumns()];
+    gameModel.getFlipMatrix(red, flips);
+    assertEquals(1, flips[0]);
+    assertEquals(-1, flips[1]);
+    long[] before = gameModel.getFlipCacheStats();
+    assertEquals(1, gameModel.getNumCardsAbleToFlip(red, redCard, 0, 0));
+    assertEquals(before[0] + 1, gameModel.getFlipCacheStats()[0]);
+  }
+
+  @Test
+  public void testFlipMatrixRejectsInvalidArguments() {
+    IPlayer red = gameModel.getRedPlayer();
+    assertThrows(IllegalArgumentException.class, () -> gameModel.getFlipMatrix(null,
+            new int[100]));
+    assertThrows(IllegalArgumentException.class, () -> gameModel.getFlipMatrix(red, null));
+    assertThrows(IllegalArgumentException.class, () -> gameModel.getFlipMatrix(red,
+            new int[red.getHandSize() * grid.getRows() * grid.getColumns() - 1]));
+  }
+
+  // The hand part of the position hash is kept up to date by every move, so it should always
+  // match hashing both hands from scratch, also when a hand holds cards of equal values
+  @Test
+  public void testPositionHashMatchesHashingTheHandsAgain() {
+    List<ICard> twins = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      twins.add(new Card("Twin" + i, 1 + i % 2, 1, 1, 1));
+    }
+    gameModel.startGameWithConfig(grid, twins, false, player1, player2);
+    for (int cell = 0; cell < 9; cell++) {
+      IPlayer player = gameModel.getCurrentPlayer();
+      gameModel.playCard(player, player.getHand().get(cell % player.getHandSize()),
+              cell / 3, cell % 3);
+      assertEquals(Zobrist.positionHash(grid.getBoard().getHash(), player1.getHand(),
+              player2.getHand(), gameModel.getCurrentPlayer() == player2),
+              gameModel.getPositionHash());
+    }
+  }
+
+  // The battle phase should not allocate once it is warmed up. This measures the bytes the test
+  // thread allocates while resolving a four-card cascade many times over. Reading the counter
+  // costs a fixed amount, so anything under one byte per battle means no battle allocated.
+  @Test
+  public void testBattlePhaseDoesNotAllocate() {
+    GameModel model = new GameModel((attacker, defender, direction) ->
+            attacker.getCardValue(direction) > defender.getCardValue(direction.getOpposite()));
+    model.startGameWithConfig(grid, deck, false, player1, player2);
+    PackedBoard board = grid.getBoard();
+    int blue = board.slotOf(model.getBluePlayer());
+    int red = board.slotOf(model.getRedPlayer());
+    board.place(board.indexOf(0, 1), board.cardIdFor(new Card("B1", 4, 4, 4, 4)), blue);
+    board.place(board.indexOf(0, 2), board.cardIdFor(new Card("B2", 3, 3, 3, 3)), blue);
+    board.place(board.indexOf(1, 2), board.cardIdFor(new Card("B3", 2, 2, 2, 2)), blue);
+    board.place(board.indexOf(2, 2), board.cardIdFor(new Card("B4", 1, 1, 1, 1)), blue);
+    int attackerId = board.cardIdFor(new Card("R", 9, 9, 9, 9));
+    int start = board.indexOf(0, 0);
+
+    for (int warmup = 0; warmup < 20_000; warmup++) {
+      resolveAndUndo(model, board, attackerId, red, start);
+    }
+    // Only HotSpot-style JVMs count the bytes a thread allocates
+    Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean);
+    ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+    long threadId = Thread.currentThread().getId();
+    int runs = 100_000;
+    long before = threads.getThreadAllocatedBytes(threadId);
+    int flips = 0;
+    for (int run = 0; run < runs; run++) {
+      flips += resolveAndUndo(model, board, attackerId, red, start);
+    }
+    long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+    assertEquals(400_000, flips);
+    assertTrue("Battle phase allocated " + allocated + " bytes", allocated < runs);
+  }
+
+  private int resolveAndUndo(GameModel model, PackedBoard board, int cardId, int slot,
+                             int index) {
+    board.beginMove();
+    board.place(index, cardId, slot);
+    int flips = model.processBattlePhase(model.getRedPlayer(), 0, 0);
+    board.undoMove();
+    return flips;
+  }
+}
@@ -0,0 +1,211 @@
+package model;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import player.HumanPlayer;
+import player.IPlayer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the PackedBoard class in model.
+ */
+public class PackedBoardTest {
+
+  private PackedBoard board;
+  private IPlayer red;
+  private IPlayer blue;
+  private ICard card;
+
+  @Before
+  public void setUp() {
+    board = new PackedBoard(2, 3);
+    red = new HumanPlayer("Red", new ArrayList<>());
+    blue = new HumanPlayer("Blue", new ArrayList<>());
+    card = new Card("Card", 1, 2, 3, 4);
+    board.bindPlayers(red, blue);
+  }
+
+  @Test
+  public void testNewBoardIsAllEmptyCardCells() {
+    assertEquals(6, board.size());
+    assertEquals(6, board.countCardCells());
+    for (int index = 0; index < board.size(); index++) {
+      assertTrue(board.isEmpty(index));
+      assertNull(board.cardAt(index));
+      assertEquals(-1, board.ownerAt(index));
+    }
+  }
+
+  @Test
+  public void testIndexRoundTrip() {
+    int index = board.indexOf(1, 2);
+    assertEquals(5, index);
+    assertEquals(1, board.rowOf(index));
+    assertEquals(2, board.colOf(index));
+  }
+
+  @Test
+  public void testEncodeDecode() {
+    int packed = PackedBoard.encode(7, 1);
+    assertEquals(7, PackedBoard.cardIdOf(packed));
+    assertEquals(1, PackedBoard.ownerOf(packed));
+    assertEquals(-1, PackedBoard.cardIdOf(PackedBoard.EMPTY));
+    assertEquals(-1, PackedBoard.ownerOf(PackedBoard.HOLE));
+  }
+
+  @Test
+  public void testPlaceAndFlip() {
+    board.place(0, board.cardIdFor(card), board.slotOf(red));
+    assertTrue(board.isOccupied(0));
+    assertSame(card, board.cardAt(0));
+    assertSame(red, board.ownerPlayerAt(0));
+
+    board.setOwner(0, board.slotOf(blue));
+    assertSame(card, board.cardAt(0));
+    assertSame(blue, board.ownerPlayerAt(0));
+  }
+
+  @Test
+  public void testHolesAreNotCardCells() {
+    board.set(1, PackedBoard.HOLE);
+    assertTrue(board.isHole(1));
+    assertFalse(board.isEmpty(1));
+    assertFalse(board.isOccupied(1));
+    assertEquals(5, board.countCardCells());
+  }
+
+  @Test
+  public void testEqualCardsShareAnId() {
+    int id = board.cardIdFor(card);
+    assertEquals(id, board.cardIdFor(new Card("Card", 1, 2, 3, 4)));
+    assertEquals(id + 1, board.cardIdFor(new Card("Other", 1, 2, 3, 4)));
+  }
+
+  @Test
+  public void testCopyIsIndependent() {
+    board.place(0, board.cardIdFor(card), board.slotOf(red));
+    PackedBoard copy = board.copy();
+    copy.setOwner(0, board.slotOf(blue));
+    assertSame(red, board.ownerPlayerAt(0));
+    assertSame(blue, copy.ownerPlayerAt(0));
+
+    board.copyFrom(copy);
+    assertSame(blue, board.ownerPlayerAt(0));
+  }
+
+  @Test
+  public void testRebindingACopyLeavesTheOriginalBound() {
+    board.place(0, board.cardIdFor(card), board.slotOf(red));
+    PackedBoard copy = board.copy();
+    IPlayer other = new HumanPlayer("Other", new ArrayList<>());
+    copy.bindPlayers(other, blue);
+    assertSame(red, board.playerInSlot(0));
+    assertSame(red, board.ownerPlayerAt(0));
+    assertSame(other, copy.playerInSlot(0));
+    assertSame(other, copy.ownerPlayerAt(0));
+  }
+
+  @Test
+  public void testRebindingSwappedPlayersKeepsOwnership() {
+    PackedBoard unbound = new PackedBoard(1, 1);
+    unbound.place(0, unbound.cardIdFor(card), unbound.slotOf(blue));
+    unbound.bindPlayers(red, blue);
+    assertSame(blue, unbound.ownerPlayerAt(0));
+    assertEquals(1, unbound.ownerAt(0));
+  }
+
+  @Test
+  public void testThirdPlayerIsRejected() {
+    IPlayer third = new HumanPlayer("Third", new ArrayList<>());
+    assertThrows(IllegalArgumentException.class, () -> board.slotOf(third));
+  }
+
+  @Test
+  public void testUndoMoveRestoresWrittenCells() {
+    board.place(0, board.cardIdFor(card), board.slotOf(blue));
+    board.beginMove();
+    board.place(1, board.cardIdFor(card), board.slotOf(red));
+    board.setOwner(0, board.slotOf(red));
+    assertEquals(2, board.undoMove());
+    assertTrue(board.isEmpty(1));
+    assertSame(blue, board.ownerPlayerAt(0));
+  }
+
+  @Test
+  public void testNestedMovesUndoInReverseOrder() {
+    board.beginMove();
+    board.place(0, board.cardIdFor(card), board.slotOf(red));
+    board.beginMove();
+    board.place(1, board.cardIdFor(card), board.slotOf(blue));
+    assertEquals(1, board.undoMove());
+    assertTrue(board.isOccupied(0));
+    assertTrue(board.isEmpty(1));
+    assertEquals(1, board.undoMove());
+    assertTrue(board.isEmpty(0));
+  }
+
+  @Test
+  public void testOwnedCountsFollowPlacesFlipsAndUndo() {
+    board.place(0, board.cardIdFor(card), board.slotOf(red));
+    board.beginMove();
+    board.place(1, board.cardIdFor(card), board.slotOf(blue));
+    board.setOwner(0, board.slotOf(blue));
+    assertEquals(0, board.countOwnedBy(board.slotOf(red)));
+    assertEquals(2, board.countOwnedBy(board.slotOf(blue)));
+
+    board.undoMove();
+    assertEquals(1, board.countOwnedBy(board.slotOf(red)));
+    assertEquals(0, board.countOwnedBy(board.slotOf(blue)));
+
+    board.set(0, PackedBoard.EMPTY);
+    assertEquals(0, board.countOwnedBy(board.slotOf(red)));
+  }
+
+  @Test
+  public void testEmptyCountFollowsPlacesHolesAndUndo() {
+    assertEquals(6, board.countEmpty());
+    board.set(5, PackedBoard.HOLE);
+    assertEquals(5, board.countEmpty());
+
+    board.beginMove();
+    board.place(0, board.cardIdFor(card), board.slotOf(red));
+    board.setOwner(0, board.slotOf(blue));
+    assertEquals(4, board.countEmpty());
+    board.undoMove();
+    assertEquals(5, board.countEmpty());
+
+    PackedBoard copy = board.copy();
+    copy.place(1, copy.cardIdFor(card), copy.slotOf(red));
+    board.copyFrom(copy);
+    assertEquals(4, board.countEmpty());
+  }
+
+  @Test
+  public void testHashFollowsWritesAndUndo() {
+    assertEquals(0, board.getHash());
+    board.place(0, board.cardIdFor(card), board.slotOf(red));
+    long placed = board.getHash();
+    assertEquals(Zobrist.cellKey(0, 1 | 2 << 4 | 3 << 8 | 4 << 12, 0), placed);
+
+    board.beginMove();
+    board.place(1, board.cardIdFor(card), board.slotOf(blue));
+    board.setOwner(0, board.slotOf(blue));
+    board.undoMove();
+    assertEquals(placed, board.getHash());
+    assertEquals(placed, board.copy().getHash());
+  }
+
+  @Test
+  public void testUndoWithoutMoveThrows() {
+    assertThrows(IllegalStateException.class, () -> board.undoMove());
+  }
+}
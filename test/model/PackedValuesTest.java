@@ -0,0 +1,20 @@
+package model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for the PackedValues class in model.
+ */
+public class PackedValuesTest {
+
+  @Test
+  public void testPackAndUnpackValues() {
+    int packed = PackedValues.pack(1, 10, 0, 7);
+    assertEquals(1, PackedValues.valueOf(packed, Direction.NORTH.ordinal()));
+    assertEquals(10, PackedValues.valueOf(packed, Direction.SOUTH.ordinal()));
+    assertEquals(0, PackedValues.valueOf(packed, Direction.EAST.ordinal()));
+    assertEquals(7, PackedValues.valueOf(packed, Direction.WEST.ordinal()));
+  }
+}
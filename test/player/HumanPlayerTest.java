@@ -70,6 +70,13 @@ public class HumanPlayerTest {
     assertNotSame(initialHand, hand); // Ensure it's a copy
   }
 
+  @Test
+  public void testGetHandSize() {
+    assertEquals(2, player.getHandSize());
+    player.removeCard(initialHand.get(0));
+    assertEquals(1, player.getHandSize());
+  }
+
   @Test
   public void testIsComputer() {
     assertFalse(player.isComputer());
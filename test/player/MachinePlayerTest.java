@@ -3,19 +3,34 @@ package player;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
+import controller.PlayerActionListener;
+
 import model.Card;
+import model.GameModel;
+import model.Grid;
 import model.ICard;
+import model.ReadOnlyThreeTriosModel;
 import strategy.CornerStrategy;
 import strategy.FlipMaximizerStrategy;
+import strategy.Move;
+import strategy.OpeningBook;
+import strategy.OpeningBookBuilder;
+import strategy.SearchBudget;
 import strategy.Strategy;
+import extrafeatures.NormalBattleRule;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
@@ -67,6 +82,93 @@ public class MachinePlayerTest {
             "TestPlayer", initialHand, null));
   }
 
+  @Test
+  public void testConstructorWithNullBudget() {
+    assertThrows(IllegalArgumentException.class, () -> new MachinePlayer(
+            "TestPlayer", initialHand, mockStrategy, null));
+  }
+
+  @Test
+  public void testDefaultBudgetIsUnlimited() {
+    assertTrue(player.getBudget().isUnlimited());
+  }
+
+  @Test
+  public void testTakeTurnPassesBudgetToStrategy() {
+    SearchBudget budget = SearchBudget.ofMillis(50);
+    SearchBudget[] seen = new SearchBudget[1];
+    Strategy recording = new Strategy() {
+      @Override
+      public Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model) {
+        return null;
+      }
+
+      @Override
+      public Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model,
+                             SearchBudget given) {
+        seen[0] = given;
+        return null;
+      }
+    };
+    MachinePlayer timed = new MachinePlayer("TestPlayer", initialHand, recording, budget);
+    timed.takeTurn(new GameModel(new NormalBattleRule()));
+    assertSame(budget, seen[0]);
+  }
+
+  @Test
+  public void testBookMovesComeBeforeTheStrategy() throws IOException {
+    Strategy failing = new Strategy() {
+      @Override
+      public Move selectMove(IPlayer player, ReadOnlyThreeTriosModel model) {
+        throw new AssertionError("The book move should have been played.");
+      }
+    };
+    Grid grid = new Grid(3, 3);
+    List<ICard> deck = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      deck.add(new Card("Card" + i, 1 + i % 10, 1 + (i * 3) % 10, 1 + (i * 7) % 10, 2));
+    }
+    GameModel building = new GameModel(new NormalBattleRule());
+    building.startGameWithConfig(grid, deck, false, new HumanPlayer("Red", new ArrayList<>()),
+            new HumanPlayer("Blue", new ArrayList<>()));
+    Path file = Files.createTempFile("machine", ".book");
+    try {
+      new OpeningBookBuilder(0, 2).build(building, file);
+      MachinePlayer booked = new MachinePlayer("TestPlayer", new ArrayList<>(), failing,
+              SearchBudget.unlimited(), OpeningBook.open(file));
+      GameModel model = new GameModel(new NormalBattleRule());
+      model.startGameWithConfig(grid, deck, false, booked,
+              new HumanPlayer("Blue", new ArrayList<>()));
+      Move[] played = new Move[1];
+      booked.addPlayerActionListener(new PlayerActionListener() {
+        @Override
+        public void onCardSelected(IPlayer player, int cardIndex) {
+          // Machine players only report whole moves
+        }
+
+        @Override
+        public void onGridCellSelected(int row, int col) {
+          // Machine players only report whole moves
+        }
+
+        @Override
+        public void onMoveSelected(Move move) {
+          played[0] = move;
+        }
+
+        @Override
+        public void onPlayerTurn(IPlayer player) {
+          // Machine players only report whole moves
+        }
+      });
+      booked.takeTurn(model);
+      assertNotNull(played[0]);
+      assertNotNull(booked.getOpeningBook());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
   @Test
   public void testGetName() {
     assertEquals("TestPlayer", player.getName().substring(0, 10));
@@ -0,0 +1,173 @@
+package strategy;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import extrafeatures.NormalBattleRule;
+import model.Card;
+import model.GameModel;
+import model.Grid;
+import model.ICard;
+import player.HumanPlayer;
+import player.IPlayer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the AlphaBetaStrategy and AlphaBetaSearch classes.
+ */
+public class AlphaBetaStrategyTest {
+
+  private GameModel model;
+  private IPlayer red;
+  private IPlayer blue;
+
+  @Before
+  public void setUp() {
+    red = new HumanPlayer("Red", new ArrayList<>());
+    blue = new HumanPlayer("Blue", new ArrayList<>());
+    model = SearchGames.start(new NormalBattleRule(), 3, 3, red, blue);
+  }
+
+  // Plain minimax without pruning, used as the reference for the alpha-beta search
+  private static int minimax(SearchPosition position, int depth) {
+    if (depth == 0 || position.isTerminal()) {
+      return position.evaluate();
+    }
+    int side = position.getToMove();
+    int best = Integer.MIN_VALUE;
+    for (int cell = 0; cell < position.size(); cell++) {
+      for (int hand = 0; hand < position.handSize(side); hand++) {
+        if (position.isEmpty(cell) && position.isAvailable(side, hand)) {
+          position.apply(hand, cell);
+          best = Math.max(best, -minimax(position, depth - 1));
+          position.undo();
+        }
+      }
+    }
+    return best;
+  }
+
+  @Test
+  public void testSearchScoreMatchesPlainMinimax() {
+    model.playCard(red, model.getPlayerHand(red).get(0), 1, 1);
+    model.playCard(blue, model.getPlayerHand(blue).get(0), 0, 1);
+    SearchPosition position = SearchPosition.of(model, model.getCurrentPlayer());
+    String before = position.toString();
+    for (int depth = 1; depth <= 4; depth++) {
+      SearchResult result = new AlphaBetaSearch().search(position, depth);
+      assertEquals(minimax(position, depth), result.getScore());
+      assertEquals(before, position.toString());
+    }
+  }
+
+  @Test
+  public void testTranspositionTableKeepsResultAndSavesNodes() {
+    SearchPosition position = SearchPosition.of(model, red);
+    AlphaBetaSearch plain = new AlphaBetaSearch();
+    AlphaBetaSearch cached = new AlphaBetaSearch(new TranspositionTable(1 << 16));
+    SearchResult expected = plain.search(position, 5);
+    SearchResult result = cached.search(position, 5);
+    assertEquals(expected.getScore(), result.getScore());
+    assertTrue(result.getNodes() < expected.getNodes());
+    assertTrue(cached.getTableHits() > 0);
+  }
+
+  @Test
+  public void testTableEntriesWithoutMoveAreSearchedNormally() {
+    SearchPosition position = SearchPosition.of(model, red);
+    TranspositionTable table = new TranspositionTable(1 << 12);
+    // Shallow entries without a move, as stored for nodes with no best move or a far cell
+    table.store(position.getCanonicalHash(), 0, 0, Bound.EXACT, -1, 0);
+    for (int cell = 0; cell < position.size(); cell++) {
+      position.apply(0, cell);
+      table.store(position.getCanonicalHash(), 0, 0, Bound.EXACT, -1, 0);
+      position.undo();
+    }
+    SearchResult result = new AlphaBetaSearch(table).search(position, 3);
+    assertEquals(new AlphaBetaSearch().search(position, 3).getScore(), result.getScore());
+  }
+
+  @Test
+  public void testDeepeningWithoutLimitMatchesFixedDepth() {
+    SearchPosition position = SearchPosition.of(model, red);
+    SearchResult fixed = new AlphaBetaSearch().search(position, 4);
+    SearchResult deepened = new AlphaBetaSearch(new TranspositionTable(1 << 16))
+            .search(position, 4, SearchBudget.ofMillis(60_000));
+    assertEquals(4, deepened.getDepth());
+    assertEquals(fixed.getScore(), deepened.getScore());
+    assertEquals(fixed.getCell(), deepened.getCell());
+    assertEquals(fixed.getHandIndex(), deepened.getHandIndex());
+  }
+
+  @Test
+  public void testNodeBudgetStopsDeepening() {
+    SearchPosition position = SearchPosition.of(model, red);
+    String before = position.toString();
+    SearchResult result = new AlphaBetaSearch().search(position, 9, SearchBudget.ofNodes(2000));
+    assertTrue(result.hasMove());
+    assertTrue(result.getDepth() >= 1 && result.getDepth() < 9);
+    assertTrue(result.getNodes() <= 2000 + 1000);
+    assertEquals(before, position.toString());
+    assertEquals(0, position.getPly());
+  }
+
+  @Test
+  public void testTimeBudgetAlwaysHasAMove() {
+    AlphaBetaStrategy strategy = new AlphaBetaStrategy();
+    long start = System.nanoTime();
+    Move move = strategy.selectMove(red, model, SearchBudget.ofMillis(1));
+    assertNotNull(move);
+    assertTrue(System.nanoTime() - start < 1_000_000_000L);
+    assertTrue(strategy.getLastResult().getDepth() >= 1);
+    assertThrows(IllegalArgumentException.class, () -> SearchBudget.ofMillis(0));
+  }
+
+  @Test
+  public void testSolvesGameToTheEnd() {
+    SearchPosition position = SearchPosition.of(model, red);
+    AlphaBetaSearch search = new AlphaBetaSearch();
+    SearchResult result = search.search(position, 9);
+    assertTrue(result.hasMove());
+    assertTrue(result.getNodes() > 0);
+    assertEquals(result.getNodes(), search.getNodeCount());
+    assertTrue(result.getScore() >= -9 && result.getScore() <= 9);
+  }
+
+  @Test
+  public void testTakesObviousCapture() {
+    Grid grid = new Grid(1, 3);
+    List<ICard> deck = new ArrayList<>();
+    deck.add(new Card("RedWeak", 1, 1, 1, 1));
+    deck.add(new Card("RedStrong", 9, 9, 9, 9));
+    deck.add(new Card("BlueA", 5, 5, 5, 5));
+    deck.add(new Card("BlueB", 5, 5, 5, 5));
+    GameModel small = new GameModel(new NormalBattleRule());
+    small.startGameWithConfig(grid, deck, false, red, blue);
+    small.playCard(red, small.getPlayerHand(red).get(0), 0, 2);
+    small.playCard(blue, small.getPlayerHand(blue).get(0), 0, 1);
+
+    AlphaBetaStrategy strategy = new AlphaBetaStrategy(2);
+    Move move = strategy.selectMove(red, small);
+    assertNotNull(move);
+    assertEquals(new Card("RedStrong", 9, 9, 9, 9), move.getCard());
+    assertEquals(0, move.getCol());
+    assertTrue(strategy.getLastNodeCount() > 0);
+    // Taking the blue card back also wins the weak red card back through the combo
+    assertEquals(2, small.getNumCardsAbleToFlip(red, move.getCard(), 0, 0));
+  }
+
+  @Test
+  public void testNonPositiveDepthThrows() {
+    assertThrows(IllegalArgumentException.class, () -> new AlphaBetaStrategy(0));
+    SearchPosition position = SearchPosition.of(model, red);
+    assertThrows(IllegalArgumentException.class,
+        () -> new AlphaBetaSearch().search(position, 0));
+  }
+}
@@ -0,0 +1,136 @@
+package strategy;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import extrafeatures.NormalBattleRule;
+import extrafeatures.ReverseBattleRule;
+import model.GameModel;
+import player.HumanPlayer;
+import player.IPlayer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the EndgameSolver and EndgameSolverStrategy classes.
+ */
+public class EndgameSolverTest {
+
+  private GameModel model;
+  private IPlayer red;
+  private IPlayer blue;
+
+  @Before
+  public void setUp() {
+    red = new HumanPlayer("Red", new ArrayList<>());
+    blue = new HumanPlayer("Blue", new ArrayList<>());
+    model = SearchGames.start(new NormalBattleRule(), 3, 3, red, blue);
+  }
+
+  @Test
+  public void testNextEmptyWalksEmptyCells() {
+    model.playCard(red, model.getPlayerHand(red).get(0), 0, 1);
+    SearchPosition position = SearchPosition.of(model, blue);
+    assertEquals(0, position.nextEmpty(0));
+    assertEquals(2, position.nextEmpty(1));
+    position.apply(0, 8);
+    assertEquals(-1, position.nextEmpty(8));
+    position.undo();
+    assertEquals(8, position.nextEmpty(8));
+    assertEquals(-1, position.nextEmpty(9));
+  }
+
+  @Test
+  public void testSolverMatchesFullDepthSearch() {
+    model.playCard(red, model.getPlayerHand(red).get(0), 1, 1);
+    model.playCard(blue, model.getPlayerHand(blue).get(0), 0, 0);
+    model.playCard(red, model.getPlayerHand(red).get(1), 2, 2);
+    SearchPosition position = SearchPosition.of(model, blue);
+    SearchResult exact = new AlphaBetaSearch().search(position, position.emptyCount());
+    EndgameSolver solver = new EndgameSolver();
+    SearchResult solved = solver.solve(position);
+    assertEquals(exact.getScore(), solved.getScore());
+    assertEquals(exact.getCell(), solved.getCell());
+    assertEquals(exact.getHandIndex(), solved.getHandIndex());
+    assertTrue(solved.getNodes() < exact.getNodes());
+  }
+
+  // Both games hash the same, only the rule tells them apart
+  @Test
+  public void testReusedSolverForgetsPositionsOfAnotherRule() {
+    IPlayer reverseRed = new HumanPlayer("Red", new ArrayList<>());
+    IPlayer reverseBlue = new HumanPlayer("Blue", new ArrayList<>());
+    GameModel reverse = SearchGames.start(new ReverseBattleRule(), 3, 3, reverseRed, reverseBlue);
+    for (GameModel game : new GameModel[] {model, reverse}) {
+      IPlayer first = game.getRedPlayer();
+      IPlayer second = game.getBluePlayer();
+      game.playCard(first, game.getPlayerHand(first).get(0), 1, 1);
+      game.playCard(second, game.getPlayerHand(second).get(0), 0, 0);
+      game.playCard(first, game.getPlayerHand(first).get(1), 2, 2);
+    }
+    SearchPosition normalPosition = SearchPosition.of(model, blue);
+    SearchPosition reversePosition = SearchPosition.of(reverse, reverseBlue);
+    assertEquals(normalPosition.getCanonicalHash(), reversePosition.getCanonicalHash());
+
+    EndgameSolver reused = new EndgameSolver();
+    reused.solve(normalPosition);
+    SearchResult fresh = new EndgameSolver().solve(reversePosition);
+    SearchResult solved = reused.solve(reversePosition);
+    assertEquals(fresh.getScore(), solved.getScore());
+    assertEquals(fresh.getCell(), solved.getCell());
+    assertEquals(fresh.getNodes(), solved.getNodes());
+  }
+
+  @Test
+  public void testMarginIsFinalScoreDifference() {
+    while (model.getBoardView().countEmpty() > 1) {
+      IPlayer player = model.getCurrentPlayer();
+      Move move = new AlphaBetaStrategy(1).selectMove(player, model);
+      model.playCard(player, move.getCard(), move.getRow(), move.getCol());
+    }
+    IPlayer player = model.getCurrentPlayer();
+    SearchPosition position = SearchPosition.of(model, player);
+    SearchResult solved = new EndgameSolver().solve(position);
+    int cell = solved.getCell();
+    model.playCard(player, position.handCard(position.getToMove(), solved.getHandIndex()),
+            cell / 3, cell % 3);
+    assertTrue(model.isGameOver());
+    assertEquals(model.getPlayerScore(player) - model.getPlayerScore(model.getOpponent(player)),
+            solved.getScore());
+  }
+
+  @Test
+  public void testWrapperSolvesOnlyBelowThreshold() {
+    Strategy greedy = new FlipMaximizerStrategy();
+    EndgameSolverStrategy strategy = new EndgameSolverStrategy(greedy, 12);
+    assertSame(greedy, strategy.getStrategy());
+    assertNotNull(strategy.selectMove(red, model));
+    assertNull(strategy.getLastSolution());
+
+    model.playCard(red, model.getPlayerHand(red).get(0), 0, 0);
+    model.playCard(blue, model.getPlayerHand(blue).get(0), 0, 1);
+    model.playCard(red, model.getPlayerHand(red).get(0), 0, 2);
+    model.playCard(blue, model.getPlayerHand(blue).get(0), 1, 0);
+    model.playCard(red, model.getPlayerHand(red).get(0), 1, 1);
+    model.playCard(blue, model.getPlayerHand(blue).get(0), 1, 2);
+    // 3 empty cells and 2 cards in hand
+    Move move = strategy.selectMove(red, model);
+    assertNotNull(strategy.getLastSolution());
+    assertEquals(2, move.getRow());
+  }
+
+  @Test
+  public void testInvalidArgumentsThrow() {
+    assertThrows(IllegalArgumentException.class, () -> new EndgameSolverStrategy(null));
+    assertThrows(IllegalArgumentException.class,
+        () -> new EndgameSolverStrategy(new CornerStrategy(), -1));
+    assertThrows(IllegalArgumentException.class, () -> new EndgameSolver().solve(null));
+  }
+}
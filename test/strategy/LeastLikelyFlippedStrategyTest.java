@@ -36,148 +36,138 @@ public class LeastLikelyFlippedStrategyTest {
   @Test
   public void testLeastLikelyFlippedStrategyProgression() {
     // Round 1: Red player's turn
-    // Expected: The strategy should choose a corner, preferably (0,0), as it's least likely to be
-    // flipped.
-    // The weakest card (1,1,1,1) should be played to minimize potential loss.
+    // Expected: Every card is as safe as the others in a corner, but (6,6,6,6) leaves only the
+    // strongest blue cards able to flip it, so it is played to the upper left corner (0,0).
     assertEquals(redPlayer, mockModel.getCurrentPlayer());
-    Move redMove = leastLikelyFlippedStrategy.selectMove(redPlayer, mockModel);
-    assertNotNull(redMove);
-    ICard cardToPlay = redMove.getCard();
-    assertEquals(redPlayer.getHand().get(0), cardToPlay);
-    assertEquals(new Card("RedCard1", 1, 1, 1, 1), cardToPlay);
-    assertTrue(mockModel.getPlayerHand(redPlayer).contains(cardToPlay));
-    mockModel.playCard(redPlayer, cardToPlay, redMove.getRow(), redMove.getCol());
-    assertFalse(mockModel.getPlayerHand(redPlayer).contains(cardToPlay));
-    assertEquals(cardToPlay, mockModel.getGrid().getCell(0, 0).getCard());
+    Move move1 = leastLikelyFlippedStrategy.selectMove(redPlayer, mockModel);
+    assertNotNull(move1);
+    ICard cardToPlay1 = move1.getCard();
+    assertTrue(mockModel.getPlayerHand(redPlayer).contains(cardToPlay1));
+    assertEquals(new Card("RedCard4", 6, 6, 6, 6), cardToPlay1);
+    mockModel.playCard(redPlayer, cardToPlay1, move1.getRow(), move1.getCol());
+    assertFalse(mockModel.getPlayerHand(redPlayer).contains(cardToPlay1));
+    assertEquals(cardToPlay1, mockModel.getGrid().getCell(0, 0).getCard());
     System.out.println("Round 1:\n" + mockModel.getGrid());
     assertFalse(mockModel.isGameOver());
 
     // Round 2: Blue player's turn
-    // Expected: The strategy should choose another corner, likely (2,2), to minimize flip risk.
-    // The card (2,2,2,2) should be played as it's the weakest in Blue's hand.
+    // Expected: The card (5,5,5,5) is played next to the red card, at (0,1).
     assertEquals(bluePlayer, mockModel.getCurrentPlayer());
-    Move blueMove = leastLikelyFlippedStrategy.selectMove(bluePlayer, mockModel);
-    assertNotNull(blueMove);
-    ICard cardToPlay2 = blueMove.getCard();
-    assertEquals(bluePlayer.getHand().get(0), cardToPlay2);
-    assertEquals(new Card("BlueCard1", 2, 2, 2, 2), cardToPlay2);
+    Move move2 = leastLikelyFlippedStrategy.selectMove(bluePlayer, mockModel);
+    assertNotNull(move2);
+    ICard cardToPlay2 = move2.getCard();
     assertTrue(mockModel.getPlayerHand(bluePlayer).contains(cardToPlay2));
-    mockModel.playCard(bluePlayer, cardToPlay2, blueMove.getRow(), blueMove.getCol());
+    assertEquals(new Card("BlueCard2", 5, 5, 5, 5), cardToPlay2);
+    mockModel.playCard(bluePlayer, cardToPlay2, move2.getRow(), move2.getCol());
     assertFalse(mockModel.getPlayerHand(bluePlayer).contains(cardToPlay2));
     assertEquals(cardToPlay2, mockModel.getGrid().getCell(0, 1).getCard());
     System.out.println("Round 2:\n" + mockModel.getGrid());
     assertFalse(mockModel.isGameOver());
 
     // Round 3: Red player's turn
-    // Expected: The strategy should choose another corner, likely (0,2) or (2,0).
-    // The card (3,3,3,3) should be played as it's the next weakest in Red's hand.
+    // Expected: The card (A,A,1,1) is played to the corner (0,2), where its weak west side faces
+    // a card that is already down and its unbeatable south side faces the only open cell.
     assertEquals(redPlayer, mockModel.getCurrentPlayer());
-    Move redMove2 = leastLikelyFlippedStrategy.selectMove(redPlayer, mockModel);
-    assertNotNull(redMove2);
-    ICard cardToPlay3 = redMove2.getCard();
-    assertEquals(redPlayer.getHand().get(0), cardToPlay3);
-    assertEquals(new Card("RedCard2", 3, 3, 3, 3), cardToPlay3);
+    Move move3 = leastLikelyFlippedStrategy.selectMove(redPlayer, mockModel);
+    assertNotNull(move3);
+    ICard cardToPlay3 = move3.getCard();
     assertTrue(mockModel.getPlayerHand(redPlayer).contains(cardToPlay3));
-    mockModel.playCard(redPlayer, cardToPlay3, redMove2.getRow(), redMove2.getCol());
+    assertEquals(new Card("RedCard5", CardValues.A.getValue(),
+            CardValues.A.getValue(), 1, 1), cardToPlay3);
+    mockModel.playCard(redPlayer, cardToPlay3, move3.getRow(), move3.getCol());
     assertFalse(mockModel.getPlayerHand(redPlayer).contains(cardToPlay3));
     assertEquals(cardToPlay3, mockModel.getGrid().getCell(0, 2).getCard());
     System.out.println("Round 3:\n" + mockModel.getGrid());
     assertFalse(mockModel.isGameOver());
 
     // Round 4: Blue player's turn
-    // Expected: The strategy should choose the last corner, (0,2).
-    // The card (5,5,5,5) should be played as it's the next weakest in Blue's hand.
+    // Expected: The card (7,7,7,7) is played to (1,0), below the red card in the corner.
     assertEquals(bluePlayer, mockModel.getCurrentPlayer());
-    Move blueMove2 = leastLikelyFlippedStrategy.selectMove(bluePlayer, mockModel);
-    assertNotNull(blueMove2);
-    ICard cardToPlay4 = blueMove2.getCard();
-    assertEquals(bluePlayer.getHand().get(0), cardToPlay4);
-    assertEquals(new Card("BlueCard2", 5, 5, 5, 5), cardToPlay4);
-    mockModel.playCard(bluePlayer, cardToPlay4, blueMove2.getRow(), blueMove2.getCol());
+    Move move4 = leastLikelyFlippedStrategy.selectMove(bluePlayer, mockModel);
+    assertNotNull(move4);
+    ICard cardToPlay4 = move4.getCard();
+    assertTrue(mockModel.getPlayerHand(bluePlayer).contains(cardToPlay4));
+    assertEquals(new Card("BlueCard3", 7, 7, 7, 7), cardToPlay4);
+    mockModel.playCard(bluePlayer, cardToPlay4, move4.getRow(), move4.getCol());
     assertFalse(mockModel.getPlayerHand(bluePlayer).contains(cardToPlay4));
     assertEquals(cardToPlay4, mockModel.getGrid().getCell(1, 0).getCard());
     System.out.println("Round 4:\n" + mockModel.getGrid());
     assertFalse(mockModel.isGameOver());
 
     // Round 5: Red player's turn
-    // Expected: The strategy should choose a side cell, likely (0,1) or (1,0).
-    // The card (4,4,4,4) should be played as it's the next weakest in Red's hand.
+    // Expected: The card (3,3,3,3) is played to the corner (2,0).
     assertEquals(redPlayer, mockModel.getCurrentPlayer());
-    Move redMove3 = leastLikelyFlippedStrategy.selectMove(redPlayer, mockModel);
-    assertNotNull(redMove3);
-    ICard cardToPlay5 = redMove3.getCard();
-    assertTrue(redPlayer.getHand().contains(cardToPlay5));
-    assertEquals(new Card("RedCard3", 4, 4, 4, 4), cardToPlay5);
-    mockModel.playCard(redPlayer, cardToPlay5, redMove3.getRow(), redMove3.getCol());
+    Move move5 = leastLikelyFlippedStrategy.selectMove(redPlayer, mockModel);
+    assertNotNull(move5);
+    ICard cardToPlay5 = move5.getCard();
+    assertTrue(mockModel.getPlayerHand(redPlayer).contains(cardToPlay5));
+    assertEquals(new Card("RedCard2", 3, 3, 3, 3), cardToPlay5);
+    mockModel.playCard(redPlayer, cardToPlay5, move5.getRow(), move5.getCol());
     assertFalse(mockModel.getPlayerHand(redPlayer).contains(cardToPlay5));
-    assertEquals(cardToPlay5, mockModel.getGrid().getCell(1, 2).getCard());
+    assertEquals(cardToPlay5, mockModel.getGrid().getCell(2, 0).getCard());
     System.out.println("Round 5:\n" + mockModel.getGrid());
     assertFalse(mockModel.isGameOver());
 
     // Round 6: Blue player's turn
-    // Expected: The strategy should choose another side cell, likely (1,0) or (1,2).
-    // The card (7,7,7,7) should be played as it's the next weakest in Blue's hand.
+    // Expected: The card (9,9,9,9) is played to the center (1,1), where nothing can flip it.
     assertEquals(bluePlayer, mockModel.getCurrentPlayer());
-    Move blueMove3 = leastLikelyFlippedStrategy.selectMove(bluePlayer, mockModel);
-    assertNotNull(blueMove3);
-    ICard cardToPlay6 = blueMove3.getCard();
-    assertTrue(bluePlayer.getHand().contains(cardToPlay6));
-    assertEquals(new Card("BlueCard3", 7, 7, 7, 7), cardToPlay6);
-    mockModel.playCard(bluePlayer, cardToPlay6, blueMove3.getRow(), blueMove3.getCol());
+    Move move6 = leastLikelyFlippedStrategy.selectMove(bluePlayer, mockModel);
+    assertNotNull(move6);
+    ICard cardToPlay6 = move6.getCard();
+    assertTrue(mockModel.getPlayerHand(bluePlayer).contains(cardToPlay6));
+    assertEquals(new Card("BlueCard4", 9, 9, 9, 9), cardToPlay6);
+    mockModel.playCard(bluePlayer, cardToPlay6, move6.getRow(), move6.getCol());
     assertFalse(mockModel.getPlayerHand(bluePlayer).contains(cardToPlay6));
-    assertEquals(cardToPlay6, mockModel.getGrid().getCell(2, 0).getCard());
+    assertEquals(cardToPlay6, mockModel.getGrid().getCell(1, 1).getCard());
     System.out.println("Round 6:\n" + mockModel.getGrid());
     assertFalse(mockModel.isGameOver());
 
     // Round 7: Red player's turn
-    // Expected: The strategy should choose another side cell, likely (1,2).
-    // The card (6,6,6,6) should be played as it's the next weakest in Red's hand.
+    // Expected: The card (4,4,4,4) is played to (1,2).
     assertEquals(redPlayer, mockModel.getCurrentPlayer());
-    Move redMove4 = leastLikelyFlippedStrategy.selectMove(redPlayer, mockModel);
-    assertNotNull(redMove4);
-    ICard cardToPlay7 = redMove4.getCard();
-    assertTrue(redPlayer.getHand().contains(cardToPlay7));
-    assertEquals(new Card("RedCard4", 6, 6, 6, 6), cardToPlay7);
-    mockModel.playCard(redPlayer, cardToPlay7, redMove4.getRow(), redMove4.getCol());
+    Move move7 = leastLikelyFlippedStrategy.selectMove(redPlayer, mockModel);
+    assertNotNull(move7);
+    ICard cardToPlay7 = move7.getCard();
+    assertTrue(mockModel.getPlayerHand(redPlayer).contains(cardToPlay7));
+    assertEquals(new Card("RedCard3", 4, 4, 4, 4), cardToPlay7);
+    mockModel.playCard(redPlayer, cardToPlay7, move7.getRow(), move7.getCol());
     assertFalse(mockModel.getPlayerHand(redPlayer).contains(cardToPlay7));
-    assertEquals(cardToPlay7, mockModel.getGrid().getCell(1, 1).getCard());
+    assertEquals(cardToPlay7, mockModel.getGrid().getCell(1, 2).getCard());
     System.out.println("Round 7:\n" + mockModel.getGrid());
     assertFalse(mockModel.isGameOver());
 
     // Round 8: Blue player's turn
-    // Expected: The strategy should choose one of the two remaining cells, (1,1) or (2,1).
-    // The card (9,9,9,9) should be played as it's the strongest in Blue's hand.
+    // Expected: The last blue card (2,2,2,2) is played to (2,1).
     assertEquals(bluePlayer, mockModel.getCurrentPlayer());
-    Move blueMove4 = leastLikelyFlippedStrategy.selectMove(bluePlayer, mockModel);
-    assertNotNull(blueMove4);
-    ICard cardToPlay8 = blueMove4.getCard();
-    assertTrue(bluePlayer.getHand().contains(cardToPlay8));
-    assertEquals(new Card("BlueCard4", 9, 9, 9, 9), cardToPlay8);
-    mockModel.playCard(bluePlayer, cardToPlay8, blueMove4.getRow(), blueMove4.getCol());
+    Move move8 = leastLikelyFlippedStrategy.selectMove(bluePlayer, mockModel);
+    assertNotNull(move8);
+    ICard cardToPlay8 = move8.getCard();
+    assertTrue(mockModel.getPlayerHand(bluePlayer).contains(cardToPlay8));
+    assertEquals(new Card("BlueCard1", 2, 2, 2, 2), cardToPlay8);
+    mockModel.playCard(bluePlayer, cardToPlay8, move8.getRow(), move8.getCol());
     assertFalse(mockModel.getPlayerHand(bluePlayer).contains(cardToPlay8));
     assertEquals(cardToPlay8, mockModel.getGrid().getCell(2, 1).getCard());
     System.out.println("Round 8:\n" + mockModel.getGrid());
     assertFalse(mockModel.isGameOver());
 
     // Round 9: Red player's turn
-    // Expected: The strategy should choose the last remaining cell, (1,1).
-    // The card (A,A,1,1) should be played as it's the last card in Red's hand.
+    // Expected: The last red card (1,1,1,1) is played to the last cell, (2,2).
     assertEquals(redPlayer, mockModel.getCurrentPlayer());
-    Move redMove5 = leastLikelyFlippedStrategy.selectMove(redPlayer, mockModel);
-    assertNotNull(redMove5);
-    ICard cardToPlay9 = redMove5.getCard();
-    assertTrue(redPlayer.getHand().contains(cardToPlay9));
-    assertEquals(new Card("RedCard5", CardValues.A.getValue(),
-            CardValues.A.getValue(), 1, 1), cardToPlay9);
-    mockModel.playCard(redPlayer, cardToPlay9, redMove5.getRow(), redMove5.getCol());
+    Move move9 = leastLikelyFlippedStrategy.selectMove(redPlayer, mockModel);
+    assertNotNull(move9);
+    ICard cardToPlay9 = move9.getCard();
+    assertTrue(mockModel.getPlayerHand(redPlayer).contains(cardToPlay9));
+    assertEquals(new Card("RedCard1", 1, 1, 1, 1), cardToPlay9);
+    mockModel.playCard(redPlayer, cardToPlay9, move9.getRow(), move9.getCol());
     assertFalse(mockModel.getPlayerHand(redPlayer).contains(cardToPlay9));
     assertEquals(cardToPlay9, mockModel.getGrid().getCell(2, 2).getCard());
     System.out.println("Round 9:\n" + mockModel.getGrid());
 
     // Confirm game state and winner
-    // Expected: The game should be over, and Red should win due to having more powerful cards.
+    // Expected: The game should be over, and Blue should win: its strong cards took the center
+    // and the cells around it, where red had nothing left to flip them with.
     assertTrue(mockModel.isGameOver());
-    assertEquals(redPlayer, mockModel.getWinner());
+    assertEquals(bluePlayer, mockModel.getWinner());
   }
 
   @Test
@@ -0,0 +1,118 @@
+package strategy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import configuration.ConfigurationReader;
+import extrafeatures.NormalBattleRule;
+import model.Card;
+import model.GameModel;
+import model.Grid;
+import model.ICard;
+import player.HumanPlayer;
+import player.IPlayer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the MctsStrategy class in strategy.
+ */
+public class MctsStrategyTest {
+
+  private ForkJoinPool pool;
+  private IPlayer red;
+  private IPlayer blue;
+  private GameModel model;
+
+  @Before
+  public void setUp() {
+    pool = new ForkJoinPool(4);
+    red = new HumanPlayer("Red", new ArrayList<>());
+    blue = new HumanPlayer("Blue", new ArrayList<>());
+    model = SearchGames.start(new NormalBattleRule(), 3, 3, red, blue);
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void testSelectsLegalMoveAndRunsAllPlayouts() {
+    MctsStrategy strategy = new MctsStrategy(2000, 4, pool, 7);
+    Move move = strategy.selectMove(red, model);
+    assertNotNull(move);
+    assertTrue(model.getPlayerHand(red).contains(move.getCard()));
+    assertTrue(model.getBoardView().isEmpty(move.getRow(), move.getCol()));
+    assertEquals(2000, strategy.getLastPlayoutCount());
+  }
+
+  @Test
+  public void testSameSeedSelectsSameMove() {
+    Move first = new MctsStrategy(1000, 3, pool, 42).selectMove(red, model);
+    Move second = new MctsStrategy(1000, 3, pool, 42).selectMove(red, model);
+    assertEquals(first.getCard(), second.getCard());
+    assertEquals(first.getRow(), second.getRow());
+    assertEquals(first.getCol(), second.getCol());
+  }
+
+  @Test
+  public void testTreesAreReusedOnTheNextTurn() {
+    MctsStrategy strategy = new MctsStrategy(4000, 2, pool, 1);
+    Move move = strategy.selectMove(red, model);
+    assertEquals(0, strategy.getReusedTreeCount());
+    model.playCard(red, move.getCard(), move.getRow(), move.getCol());
+    Move reply = new AlphaBetaStrategy(1).selectMove(blue, model);
+    model.playCard(blue, reply.getCard(), reply.getRow(), reply.getCol());
+    assertNotNull(strategy.selectMove(red, model));
+    assertEquals(2, strategy.getReusedTreeCount());
+  }
+
+  @Test
+  public void testFindsWinningCapture() {
+    Grid grid = new Grid(1, 3);
+    List<ICard> deck = new ArrayList<>();
+    deck.add(new Card("RedWeak", 1, 1, 1, 1));
+    deck.add(new Card("RedStrong", 9, 9, 9, 9));
+    deck.add(new Card("BlueA", 5, 5, 5, 5));
+    deck.add(new Card("BlueB", 5, 5, 5, 5));
+    GameModel small = new GameModel(new NormalBattleRule());
+    small.startGameWithConfig(grid, deck, false, red, blue);
+    small.playCard(red, small.getPlayerHand(red).get(0), 0, 2);
+    small.playCard(blue, small.getPlayerHand(blue).get(0), 0, 1);
+    Move move = new MctsStrategy(200, 2, pool, 3).selectMove(red, small);
+    assertEquals(new Card("RedStrong", 9, 9, 9, 9), move.getCard());
+  }
+
+  @Test
+  public void testTimeBudgetOnLargeBoard() throws IOException {
+    String dir = "src" + File.separator + "configuration" + File.separator + "configFiles"
+            + File.separator;
+    GameModel large = new GameModel(new NormalBattleRule());
+    large.startGameWithConfig(ConfigurationReader.readGridConfig(dir + "board.config"),
+            ConfigurationReader.readCardData(dir + "cardsEnoughForAllBoards.config"), false,
+            red, blue);
+    MctsStrategy strategy = new MctsStrategy(1, 2, pool, 5);
+    long start = System.nanoTime();
+    assertNotNull(strategy.selectMove(red, large, SearchBudget.ofMillis(100)));
+    assertTrue(System.nanoTime() - start < 2_000_000_000L);
+    assertTrue(strategy.getLastPlayoutCount() >= 2);
+  }
+
+  @Test
+  public void testInvalidArgumentsThrow() {
+    assertThrows(IllegalArgumentException.class, () -> new MctsStrategy(0, 1, pool, 0));
+    assertThrows(IllegalArgumentException.class, () -> new MctsStrategy(1, 0, pool, 0));
+    assertThrows(IllegalArgumentException.class, () -> new MctsStrategy(1, 1, null, 0));
+  }
+}
@@ -0,0 +1,132 @@
+package strategy;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+import configuration.ConfigurationReader;
+import extrafeatures.NormalBattleRule;
+import model.GameModel;
+import model.Grid;
+import player.HumanPlayer;
+import player.IPlayer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the MoveOrdering class in strategy.
+ */
+public class MoveOrderingTest {
+
+  private static final String CONFIG_DIR = "src" + File.separator + "configuration"
+          + File.separator + "configFiles" + File.separator;
+
+  private SearchPosition position;
+  private MoveOrdering ordering;
+
+  @Before
+  public void setUp() throws IOException {
+    IPlayer red = new HumanPlayer("Red", new ArrayList<>());
+    IPlayer blue = new HumanPlayer("Blue", new ArrayList<>());
+    Grid grid = ConfigurationReader.readGridConfig(CONFIG_DIR + "board2WithReachableCells.config");
+    GameModel model = new GameModel(new NormalBattleRule());
+    model.startGameWithConfig(grid,
+            ConfigurationReader.readCardData(CONFIG_DIR + "cardsEnoughForAllBoards.config"),
+            false, red, blue);
+    position = SearchPosition.of(model, red);
+    position.apply(0, 0);
+    position.apply(0, 1);
+    position.apply(1, 6);
+    ordering = new MoveOrdering();
+    ordering.reset(position);
+  }
+
+  private Set<Integer> legalMoves() {
+    Set<Integer> moves = new HashSet<>();
+    int side = position.getToMove();
+    for (int cell = position.nextEmpty(0); cell >= 0; cell = position.nextEmpty(cell + 1)) {
+      for (int hand = 0; hand < position.handSize(side); hand++) {
+        if (position.isAvailable(side, hand)) {
+          moves.add(hand << 16 | cell);
+        }
+      }
+    }
+    return moves;
+  }
+
+  private void assertEveryMoveOnce(int depth, int tableCell, int tableHand) {
+    Set<Integer> seen = new HashSet<>();
+    ordering.start(position, 0, depth, tableCell, tableHand);
+    for (int move = ordering.next(position, 0); move >= 0; move = ordering.next(position, 0)) {
+      assertTrue(seen.add(move));
+    }
+    assertEquals(legalMoves(), seen);
+  }
+
+  @Test
+  public void testEveryMoveIsHandedOutOnce() {
+    assertEveryMoveOnce(1, -1, -1);
+    assertEveryMoveOnce(4, -1, -1);
+    assertEveryMoveOnce(4, 2, 1);
+  }
+
+  @Test
+  public void testTableMoveComesFirst() {
+    ordering.start(position, 0, 4, 7, 2);
+    assertEquals(2 << 16 | 7, ordering.next(position, 0));
+  }
+
+  @Test
+  public void testCapturesComeBeforeQuietMoves() {
+    ordering.start(position, 0, 4, -1, -1);
+    boolean quietSeen = false;
+    for (int move = ordering.next(position, 0); move >= 0; move = ordering.next(position, 0)) {
+      int cell = move & 0xFFFF;
+      boolean capture = position.hasOpponentNeighbor(cell)
+              && position.countDirectFlips(move >>> 16, cell) > 0;
+      assertFalse(capture && quietSeen);
+      quietSeen |= !capture;
+    }
+  }
+
+  @Test
+  public void testKillerIsTriedRightAfterCaptures() {
+    ordering.recordCutoff(position, 0, 3, 10, 2, 5);
+    ordering.start(position, 0, 2, -1, -1);
+    int move = ordering.next(position, 0);
+    int side = position.getToMove();
+    while (position.hasOpponentNeighbor(move & 0xFFFF)
+            && position.countDirectFlips(move >>> 16, move & 0xFFFF) > 0) {
+      move = ordering.next(position, 0);
+    }
+    assertEquals(10, move & 0xFFFF);
+    assertEquals(position.handValues(side, 3), position.handValues(side, move >>> 16));
+  }
+
+  @Test
+  public void testSearchCountsFirstMoveCutoffs() {
+    AlphaBetaSearch search = new AlphaBetaSearch();
+    search.search(position, 4);
+    MoveOrdering stats = search.getOrdering();
+    assertTrue(stats.getCutoffCount() > 0);
+    assertTrue(stats.getFirstMoveCutoffCount() <= stats.getCutoffCount());
+    double rate = stats.getFirstMoveCutoffRate();
+    assertTrue(rate > 0 && rate <= 1);
+  }
+
+  @Test
+  public void testResetClearsStatistics() {
+    ordering.recordCutoff(position, 0, 3, 10, 2, 0);
+    assertEquals(1.0, ordering.getFirstMoveCutoffRate(), 0);
+    ordering.reset(position);
+    assertEquals(0, ordering.getCutoffCount());
+    assertEquals(0.0, ordering.getFirstMoveCutoffRate(), 0);
+  }
+}
@@ -0,0 +1,33 @@
+package strategy;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import model.Card;
+import model.ICard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test class for the Move class in strategy.
+ */
+public class MoveTest {
+
+  @Test
+  public void testDistinctCardsKeepsFirstOfEqualCards() {
+    ICard first = new Card("First", 1, 2, 3, 4);
+    ICard other = new Card("Other", 4, 3, 2, 1);
+    ICard copy = new Card("Copy", 1, 2, 3, 4);
+    List<ICard> distinct = Move.distinctCards(List.of(first, other, copy));
+    assertEquals(2, distinct.size());
+    assertSame(first, distinct.get(0));
+    assertSame(other, distinct.get(1));
+  }
+
+  @Test
+  public void testDistinctCardsOfEmptyHand() {
+    assertEquals(0, Move.distinctCards(List.of()).size());
+  }
+}
@@ -0,0 +1,147 @@
+package strategy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import configuration.ConfigurationReader;
+import extrafeatures.BattleRuleStrategy;
+import extrafeatures.CombinedBattleRule;
+import extrafeatures.FallenAceBattleRule;
+import extrafeatures.NormalBattleRule;
+import extrafeatures.ReverseBattleRule;
+import extrafeatures.SameBattleRule;
+import model.GameModel;
+import model.Grid;
+import model.PackedValues;
+import player.HumanPlayer;
+import player.IPlayer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the OpeningBook and OpeningBookBuilder classes in strategy.
+ */
+public class OpeningBookTest {
+
+  private static final String CONFIG_DIR = "src" + File.separator + "configuration"
+          + File.separator + "configFiles" + File.separator;
+
+  private IPlayer red;
+  private IPlayer blue;
+  private Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    red = new HumanPlayer("Red", new ArrayList<>());
+    blue = new HumanPlayer("Blue", new ArrayList<>());
+    file = Files.createTempFile("opening", ".book");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  private GameModel startGame(BattleRuleStrategy rule) throws IOException {
+    Grid grid = ConfigurationReader.readGridConfig(CONFIG_DIR + "board1WithNoHoles.config");
+    GameModel model = new GameModel(rule);
+    model.startGameWithConfig(grid,
+            ConfigurationReader.readCardData(CONFIG_DIR + "cardsEnoughForAllBoards.config"),
+            false, red, blue);
+    return model;
+  }
+
+  @Test
+  public void testBookHoldsTheSearchedMoveOfTheStart() throws IOException {
+    GameModel model = startGame(new NormalBattleRule());
+    int entries = new OpeningBookBuilder(0, 3).build(model, file);
+    OpeningBook book = OpeningBook.open(file);
+    assertEquals(1, entries);
+    assertEquals(1, book.size());
+    assertEquals(3, book.getDepth());
+
+    SearchPosition position = SearchPosition.of(model, red);
+    SearchResult searched = new AlphaBetaSearch().search(position, 3);
+    long entry = book.probe(model.getPositionHash());
+    assertEquals(searched.getCell(), OpeningBook.cellOf(entry));
+    assertEquals(position.handValues(0, searched.getHandIndex()), OpeningBook.valuesOf(entry));
+    assertEquals(searched.getScore(), OpeningBook.scoreOf(entry));
+    assertEquals(3, OpeningBook.depthOf(entry));
+    assertEquals(OpeningBook.MISS, book.probe(model.getPositionHash() + 1));
+  }
+
+  @Test
+  public void testLookupFollowsTheGameIntoTheBook() throws IOException {
+    GameModel model = startGame(new NormalBattleRule());
+    int entries = new OpeningBookBuilder(1, 2).build(model, file);
+    OpeningBook book = OpeningBook.open(file);
+    assertEquals(entries, book.size());
+
+    Move first = book.lookup(red, model);
+    assertNotNull(first);
+    assertNull(book.lookup(blue, model));
+    model.playCard(red, first.getCard(), first.getRow(), first.getCol());
+    Move reply = book.lookup(blue, model);
+    assertNotNull(reply);
+    long entry = book.probe(model.getPositionHash());
+    assertEquals(OpeningBook.valuesOf(entry), PackedValues.of(reply.getCard()));
+    assertEquals(OpeningBook.cellOf(entry), reply.getRow() * 3 + reply.getCol());
+  }
+
+  @Test
+  public void testBookOfAnotherRuleNeverAnswers() throws IOException {
+    new OpeningBookBuilder(0, 2).build(startGame(new NormalBattleRule()), file);
+    OpeningBook book = OpeningBook.open(file);
+    assertNull(book.lookup(red, startGame(new SameBattleRule())));
+  }
+
+  @Test
+  public void testBookOfAnotherRuleMixNeverAnswers() throws IOException {
+    new OpeningBookBuilder(0, 2).build(startGame(new CombinedBattleRule(
+            List.of(new ReverseBattleRule(), new SameBattleRule()))), file);
+    OpeningBook book = OpeningBook.open(file);
+    assertNull(book.lookup(red, startGame(new CombinedBattleRule(
+            List.of(new FallenAceBattleRule(), new SameBattleRule())))));
+    assertNotNull(book.lookup(red, startGame(new CombinedBattleRule(
+            List.of(new ReverseBattleRule(), new SameBattleRule())))));
+  }
+
+  @Test
+  public void testBookOfAnotherBoardNeverAnswers() throws IOException {
+    GameModel model = startGame(new NormalBattleRule());
+    new OpeningBookBuilder(0, 2).build(model, file);
+    OpeningBook book = OpeningBook.open(file);
+    assertTrue(book.covers(model));
+
+    // Same number of card cells and the same hands, so the position hashes are the same
+    GameModel row = new GameModel(new NormalBattleRule());
+    row.startGameWithConfig(new Grid(1, 9),
+            ConfigurationReader.readCardData(CONFIG_DIR + "cardsEnoughForAllBoards.config"),
+            false, red, blue);
+    assertEquals(model.getPositionHash(), row.getPositionHash());
+    assertFalse(book.covers(row));
+    assertNull(book.lookup(red, row));
+  }
+
+  @Test
+  public void testOpeningOtherFilesFails() throws IOException {
+    Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18,
+        19, 20, 21});
+    assertThrows(IOException.class, () -> OpeningBook.open(file));
+    assertThrows(IllegalArgumentException.class, () -> OpeningBook.open(null));
+    assertThrows(IllegalArgumentException.class, () -> new OpeningBookBuilder(-1, 2));
+  }
+}
@@ -0,0 +1,130 @@
+package strategy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+import extrafeatures.NormalBattleRule;
+import extrafeatures.SameBattleRule;
+import model.GameModel;
+import player.HumanPlayer;
+import player.IPlayer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the ParallelSearch and ParallelAlphaBetaStrategy classes.
+ */
+public class ParallelSearchTest {
+
+  private ForkJoinPool pool;
+  private IPlayer red;
+  private IPlayer blue;
+
+  @Before
+  public void setUp() {
+    pool = new ForkJoinPool(4);
+    red = new HumanPlayer("Red", new ArrayList<>());
+    blue = new HumanPlayer("Blue", new ArrayList<>());
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdownNow();
+  }
+
+  // Both searches start from a fresh table, which is when the results are the same
+  private void assertSameAsSerial(SearchPosition position, int depth) {
+    SearchResult serial = new AlphaBetaSearch(new TranspositionTable(1 << 16))
+            .search(position, depth);
+    SearchResult parallel = new ParallelSearch(pool, new TranspositionTable(1 << 16))
+            .search(position, depth);
+    assertEquals(serial.getScore(), parallel.getScore());
+    assertEquals(serial.getHandIndex(), parallel.getHandIndex());
+    assertEquals(serial.getCell(), parallel.getCell());
+    assertTrue(parallel.getNodes() > 0);
+  }
+
+  @Test
+  public void testSameResultAsSerialSearch() {
+    GameModel model = SearchGames.start(new NormalBattleRule(), 3, 3, red, blue);
+    SearchPosition position = SearchPosition.of(model, red);
+    for (int depth = 1; depth <= 5; depth++) {
+      assertSameAsSerial(position, depth);
+    }
+    String before = position.toString();
+    model.playCard(red, model.getPlayerHand(red).get(2), 1, 1);
+    assertSameAsSerial(SearchPosition.of(model, blue), 6);
+    assertEquals(before, position.toString());
+  }
+
+  @Test
+  public void testSameResultAsSerialSearchWithSameRule() {
+    GameModel model = SearchGames.start(new SameBattleRule(), 3, 3, red, blue);
+    model.playCard(red, model.getPlayerHand(red).get(0), 0, 1);
+    model.playCard(blue, model.getPlayerHand(blue).get(0), 1, 0);
+    assertSameAsSerial(SearchPosition.of(model, red), 4);
+  }
+
+  @Test
+  public void testStrategyPlaysLikeSerialStrategy() {
+    GameModel model = SearchGames.start(new NormalBattleRule(), 3, 3, red, blue);
+    Move serial = new AlphaBetaStrategy(3).selectMove(red, model);
+    Move parallel = new ParallelAlphaBetaStrategy(3, pool, new TranspositionTable(1 << 12))
+            .selectMove(red, model);
+    assertNotNull(parallel);
+    assertEquals(serial.getCard(), parallel.getCard());
+    assertEquals(serial.getRow(), parallel.getRow());
+    assertEquals(serial.getCol(), parallel.getCol());
+  }
+
+  @Test
+  public void testNodeBudgetStopsDeepening() {
+    GameModel model = SearchGames.start(new NormalBattleRule(), 3, 3, red, blue);
+    SearchPosition position = SearchPosition.of(model, red);
+    String before = position.toString();
+    SearchResult result = new ParallelSearch(pool, new TranspositionTable(1 << 12))
+            .search(position, 9, SearchBudget.ofNodes(2000));
+    assertTrue(result.hasMove());
+    assertTrue(result.getDepth() >= 1 && result.getDepth() < 9);
+    assertTrue(result.getNodes() <= 2000 + 1000);
+    assertEquals(before, position.toString());
+  }
+
+  @Test
+  public void testDeepeningWithoutLimitMatchesFixedDepth() {
+    GameModel model = SearchGames.start(new NormalBattleRule(), 3, 3, red, blue);
+    SearchPosition position = SearchPosition.of(model, red);
+    SearchResult fixed = new ParallelSearch(pool, new TranspositionTable(1 << 16))
+            .search(position, 4);
+    SearchResult deepened = new ParallelSearch(pool, new TranspositionTable(1 << 16))
+            .search(position, 4, SearchBudget.ofMillis(60_000));
+    assertEquals(4, deepened.getDepth());
+    assertEquals(fixed.getScore(), deepened.getScore());
+  }
+
+  @Test
+  public void testStrategyKeepsToTheTimeBudget() {
+    GameModel model = SearchGames.start(new NormalBattleRule(), 3, 3, red, blue);
+    ParallelAlphaBetaStrategy strategy =
+            new ParallelAlphaBetaStrategy(3, pool, new TranspositionTable(1 << 12));
+    long start = System.nanoTime();
+    assertNotNull(strategy.selectMove(red, model, SearchBudget.ofMillis(1)));
+    assertTrue(System.nanoTime() - start < 1_000_000_000L);
+    assertTrue(strategy.getLastResult().getDepth() >= 1);
+  }
+
+  @Test
+  public void testInvalidArgumentsThrow() {
+    assertThrows(IllegalArgumentException.class, () -> new ParallelSearch(null, null));
+    assertThrows(IllegalArgumentException.class, () -> new ParallelAlphaBetaStrategy(0));
+    assertThrows(IllegalArgumentException.class,
+        () -> new ParallelSearch(pool, null).search(null, 3, SearchBudget.ofNodes(10)));
+  }
+}
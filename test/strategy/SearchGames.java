@@ -0,0 +1,52 @@
+package strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import extrafeatures.BattleRuleStrategy;
+import model.Card;
+import model.GameModel;
+import model.Grid;
+import model.ICard;
+import player.IPlayer;
+
+/**
+ * Games shared by the search tests: an empty board without holes, dealt from a generated deck
+ * whose attack values spread over the whole range, so positions have captures in every direction.
+ */
+final class SearchGames {
+
+  private SearchGames() {
+  }
+
+  /**
+   * Generates the deck the search tests are dealt from.
+   *
+   * @param size the number of cards
+   * @return the generated cards, in the same order every time
+   */
+  static List<ICard> deck(int size) {
+    List<ICard> deck = new ArrayList<>();
+    for (int i = 0; i < size; i++) {
+      deck.add(new Card("Card" + i, 1 + (i * 7) % 10, 1 + (i * 3) % 10, 1 + (i * 5) % 10,
+              1 + (i * 9) % 10));
+    }
+    return deck;
+  }
+
+  /**
+   * Starts a game on an empty board, dealt from the generated deck.
+   *
+   * @param rule the battle rule of the game
+   * @param rows the number of rows of the board
+   * @param cols the number of columns of the board
+   * @param red  the player who moves first
+   * @param blue the other player
+   * @return the started game
+   */
+  static GameModel start(BattleRuleStrategy rule, int rows, int cols, IPlayer red, IPlayer blue) {
+    GameModel model = new GameModel(rule);
+    model.startGameWithConfig(new Grid(rows, cols), deck(rows * cols + 1), false, red, blue);
+    return model;
+  }
+}
@@ -0,0 +1,351 @@
+package strategy;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import configuration.ConfigurationReader;
+import extrafeatures.BattleRuleStrategy;
+import extrafeatures.NormalBattleRule;
+import extrafeatures.SameBattleRule;
+import model.Card;
+import model.GameModel;
+import model.Grid;
+import model.ICard;
+import player.HumanPlayer;
+import player.IPlayer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the SearchPosition class in strategy.
+ */
+public class SearchPositionTest {
+
+  private static final String CONFIG_DIR = "src" + File.separator + "configuration"
+          + File.separator + "configFiles" + File.separator;
+
+  private IPlayer red;
+  private IPlayer blue;
+  private List<ICard> deck;
+
+  @Before
+  public void setUp() throws IOException {
+    red = new HumanPlayer("Red", new ArrayList<>());
+    blue = new HumanPlayer("Blue", new ArrayList<>());
+    deck = ConfigurationReader.readCardData(CONFIG_DIR + "cardsEnoughForAllBoards.config");
+  }
+
+  private GameModel startGame(String board, BattleRuleStrategy rule) throws IOException {
+    Grid grid = ConfigurationReader.readGridConfig(CONFIG_DIR + board);
+    GameModel model = new GameModel(rule);
+    model.startGameWithConfig(grid, deck, false, red, blue);
+    return model;
+  }
+
+  @Test
+  public void testFreshPositionMatchesModel() throws IOException {
+    GameModel model = startGame("board2WithReachableCells.config", new NormalBattleRule());
+    SearchPosition position = SearchPosition.of(model, model.getCurrentPlayer());
+    assertEquals(3, position.getRows());
+    assertEquals(4, position.getColumns());
+    assertEquals(SearchPosition.HOLE, position.ownerAt(5));
+    assertEquals(11, position.emptyCount());
+    assertEquals(0, position.getToMove());
+    assertEquals(model.getPlayerScore(red), position.scoreOf(0));
+    assertEquals(model.getPlayerScore(blue), position.scoreOf(1));
+  }
+
+  // Plays a whole game on the model and the position side by side and checks they never disagree
+  private void assertLockstep(GameModel model) {
+    SearchPosition position = SearchPosition.of(model, model.getCurrentPlayer());
+    int turn = 0;
+    while (!model.isGameOver()) {
+      IPlayer player = model.getCurrentPlayer();
+      int slot = player == red ? 0 : 1;
+      List<ICard> hand = model.getPlayerHand(player);
+      int cell = 0;
+      while (!position.isEmpty(cell)) {
+        cell++;
+      }
+      int choice = (turn * 3) % hand.size();
+      int handIndex = 0;
+      for (int left = choice; !position.isAvailable(slot, handIndex) || left > 0; handIndex++) {
+        if (position.isAvailable(slot, handIndex)) {
+          left--;
+        }
+      }
+      ICard card = position.handCard(slot, handIndex);
+      assertEquals(hand.get(choice), card);
+      int row = cell / position.getColumns();
+      int col = cell % position.getColumns();
+
+      int expected = model.getNumCardsAbleToFlip(player, card, row, col);
+      assertEquals(expected, position.apply(handIndex, cell));
+      model.playCard(player, card, row, col);
+      for (int i = 0; i < position.size(); i++) {
+        IPlayer owner = model.getBoardView().getOwner(i / position.getColumns(),
+                i % position.getColumns());
+        int ownerSlot = owner == null ? -1 : owner == red ? 0 : 1;
+        assertEquals(Math.max(ownerSlot, SearchPosition.EMPTY),
+                Math.max(position.ownerAt(i), SearchPosition.EMPTY));
+      }
+      assertEquals(model.getPlayerScore(red), position.scoreOf(0));
+      assertEquals(model.getPlayerScore(blue), position.scoreOf(1));
+      assertEquals(model.getPositionHash(), position.getHash());
+      turn++;
+    }
+    assertTrue(position.emptyCount() == 0);
+  }
+
+  @Test
+  public void testApplyMatchesModelWithHoles() throws IOException {
+    assertLockstep(startGame("board2WithReachableCells.config", new NormalBattleRule()));
+  }
+
+  @Test
+  public void testApplyMatchesModelWithSameRule() throws IOException {
+    assertLockstep(startGame("board1WithNoHoles.config", new SameBattleRule()));
+  }
+
+  @Test
+  public void testUndoRestoresPosition() throws IOException {
+    GameModel model = startGame("board1WithNoHoles.config", new NormalBattleRule());
+    SearchPosition position = SearchPosition.of(model, model.getCurrentPlayer());
+    String before = position.toString();
+    long hash = position.getHash();
+    position.apply(0, 0);
+    position.apply(0, 1);
+    position.apply(1, 3);
+    assertEquals(3, position.getPly());
+    position.undo();
+    position.undo();
+    position.undo();
+    assertEquals(before, position.toString());
+    assertEquals(hash, position.getHash());
+    assertEquals(0, position.getToMove());
+    assertEquals(model.getPlayerScore(red), position.scoreOf(0));
+    assertEquals(model.getPlayerScore(blue), position.scoreOf(1));
+    assertTrue(position.isAvailable(0, 0));
+  }
+
+  @Test
+  public void testTranspositionsShareAHash() throws IOException {
+    GameModel model = startGame("board1WithNoHoles.config", new NormalBattleRule());
+    SearchPosition position = SearchPosition.of(model, model.getCurrentPlayer());
+    assertEquals(model.getPositionHash(), position.getHash());
+    position.apply(0, 0);
+    position.apply(0, 8);
+    position.apply(1, 2);
+    long hash = position.getHash();
+    position.undo();
+    position.undo();
+    position.undo();
+    position.apply(1, 2);
+    position.apply(0, 8);
+    position.apply(0, 0);
+    assertEquals(hash, position.getHash());
+    position.undo();
+    position.apply(2, 0);
+    assertTrue(hash != position.getHash());
+  }
+
+  @Test
+  public void testInvalidMovesThrow() throws IOException {
+    GameModel model = startGame("board2WithReachableCells.config", new NormalBattleRule());
+    SearchPosition position = SearchPosition.of(model, model.getCurrentPlayer());
+    assertThrows(IllegalArgumentException.class, () -> position.apply(0, 5));
+    position.apply(0, 0);
+    assertThrows(IllegalArgumentException.class, () -> position.apply(0, 0));
+    assertThrows(IllegalStateException.class, () -> {
+      position.undo();
+      position.undo();
+    });
+  }
+
+  // A deck whose cards show the same value on every side, so they look the same however turned
+  private GameModel startSymmetricGame() {
+    List<ICard> symmetricDeck = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      int value = 1 + (i * 7) % 10;
+      symmetricDeck.add(new Card("Sym" + i, value, value, value, value));
+    }
+    GameModel model = new GameModel(new NormalBattleRule());
+    model.startGameWithConfig(new Grid(3, 3), symmetricDeck, false, red, blue);
+    return model;
+  }
+
+  @Test
+  public void testMirroredPositionsShareACanonicalHash() {
+    SearchPosition position = SearchPosition.of(startSymmetricGame(), red);
+    position.apply(0, 0);
+    position.apply(1, 4);
+    long hash = position.getHash();
+    long canonical = position.getCanonicalHash();
+    position.undo();
+    position.undo();
+    position.apply(0, 8);
+    position.apply(1, 4);
+    assertTrue(hash != position.getHash());
+    assertEquals(canonical, position.getCanonicalHash());
+    position.undo();
+    position.undo();
+    position.apply(0, 1);
+    position.apply(1, 4);
+    assertTrue(canonical != position.getCanonicalHash());
+  }
+
+  @Test
+  public void testPositionsShareTheSymmetryOfTheGrid() throws IOException {
+    GameModel model = startGame("board2WithReachableCells.config", new NormalBattleRule());
+    SearchPosition first = SearchPosition.of(model, red);
+    model.playCard(red, model.getPlayerHand(red).get(0), 0, 0);
+    SearchPosition second = SearchPosition.of(model, blue);
+    assertSame(model.getGrid().getSymmetry(), first.getSymmetry());
+    assertSame(first.getSymmetry(), second.getSymmetry());
+    assertSame(first.getSymmetry(), second.copy().getSymmetry());
+  }
+
+  @Test
+  public void testRootDuplicatesOnSymmetricBoard() {
+    SearchPosition position = SearchPosition.of(startSymmetricGame(), red);
+    int kept = 0;
+    for (int cell = 0; cell < position.size(); cell++) {
+      if (!position.isSymmetricDuplicate(0, cell)) {
+        kept++;
+        assertTrue(cell == 0 || cell == 1 || cell == 4);
+      }
+    }
+    assertEquals(3, kept);
+  }
+
+  @Test
+  public void testAsymmetricCardsKeepEveryMove() throws IOException {
+    GameModel model = startGame("board1WithNoHoles.config", new NormalBattleRule());
+    SearchPosition position = SearchPosition.of(model, red);
+    assertEquals(8, position.getSymmetry().size());
+    assertEquals(position.getHash(), position.getCanonicalHash());
+    assertEquals(0, position.getCanonicalSymmetry());
+    for (int cell = 0; cell < position.size(); cell++) {
+      assertFalse(position.isSymmetricDuplicate(0, cell));
+    }
+  }
+
+  @Test
+  public void testSymmetricSearchFindsTheFirstBestMove() {
+    SearchPosition position = SearchPosition.of(startSymmetricGame(), red);
+    SearchResult pruned = new AlphaBetaSearch(new TranspositionTable(1 << 12))
+            .search(position, 4);
+    int side = position.getToMove();
+    int best = -AlphaBetaSearch.INFINITY;
+    int bestCell = -1;
+    int bestHand = -1;
+    for (int cell = 0; cell < position.size(); cell++) {
+      for (int hand = 0; hand < position.handSize(side); hand++) {
+        position.apply(hand, cell);
+        int score = -fullWidth(position, 3);
+        position.undo();
+        if (score > best) {
+          best = score;
+          bestCell = cell;
+          bestHand = hand;
+        }
+      }
+    }
+    assertEquals(best, pruned.getScore());
+    assertEquals(bestCell, pruned.getCell());
+    assertEquals(bestHand, pruned.getHandIndex());
+  }
+
+  // Plain minimax over every move, the reference the pruned searches must agree with
+  private static int fullWidth(SearchPosition position, int depth) {
+    if (depth == 0 || position.isTerminal()) {
+      return position.evaluate();
+    }
+    int side = position.getToMove();
+    int best = -AlphaBetaSearch.INFINITY;
+    for (int cell = position.nextEmpty(0); cell >= 0; cell = position.nextEmpty(cell + 1)) {
+      for (int hand = 0; hand < position.handSize(side); hand++) {
+        if (position.isAvailable(side, hand)) {
+          position.apply(hand, cell);
+          best = Math.max(best, -fullWidth(position, depth - 1));
+          position.undo();
+        }
+      }
+    }
+    return best;
+  }
+
+  // Three cards of red share values, as do two of blue's
+  private GameModel startGameWithEqualCards() {
+    List<ICard> equalDeck = new ArrayList<>();
+    int[] values = {3, 7, 3, 5, 3, 5, 9, 2, 4, 8};
+    for (int i = 0; i < values.length; i++) {
+      equalDeck.add(new Card("Eq" + i, values[i], 2, values[i], 6));
+    }
+    GameModel model = new GameModel(new NormalBattleRule());
+    model.startGameWithConfig(new Grid(3, 3), equalDeck, false, red, blue);
+    return model;
+  }
+
+  @Test
+  public void testDistinctCardsFollowPlaysAndUndo() {
+    SearchPosition position = SearchPosition.of(startGameWithEqualCards(), red);
+    int[] redValues = new int[position.handSize(0)];
+    for (int hand = 0; hand < redValues.length; hand++) {
+      redValues[hand] = position.handValues(0, hand);
+    }
+    int first = -1;
+    int second = -1;
+    for (int hand = 0; hand < redValues.length; hand++) {
+      for (int other = 0; other < hand; other++) {
+        if (redValues[other] == redValues[hand] && first < 0) {
+          first = other;
+          second = hand;
+        }
+      }
+    }
+    assertTrue(first >= 0);
+    assertTrue(position.isDistinctCard(0, first));
+    assertFalse(position.isDistinctCard(0, second));
+    position.apply(first, 0);
+    position.apply(0, 1);
+    assertTrue(position.isDistinctCard(0, second));
+    position.undo();
+    position.undo();
+    assertTrue(position.isDistinctCard(0, first));
+    assertFalse(position.isDistinctCard(0, second));
+  }
+
+  @Test
+  public void testSearchWithEqualCardsFindsTheFirstBestMove() {
+    SearchPosition position = SearchPosition.of(startGameWithEqualCards(), red);
+    SearchResult pruned = new AlphaBetaSearch().search(position, 3);
+    int best = -AlphaBetaSearch.INFINITY;
+    int bestCell = -1;
+    int bestHand = -1;
+    for (int cell = 0; cell < position.size(); cell++) {
+      for (int hand = 0; hand < position.handSize(0); hand++) {
+        position.apply(hand, cell);
+        int score = -fullWidth(position, 2);
+        position.undo();
+        if (score > best) {
+          best = score;
+          bestCell = cell;
+          bestHand = hand;
+        }
+      }
+    }
+    assertEquals(best, pruned.getScore());
+    assertEquals(bestCell, pruned.getCell());
+    assertEquals(bestHand, pruned.getHandIndex());
+  }
+}
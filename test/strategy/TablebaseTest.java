@@ -0,0 +1,212 @@
+package strategy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import configuration.ConfigurationReader;
+import extrafeatures.BattleRuleStrategy;
+import extrafeatures.CombinedBattleRule;
+import extrafeatures.FallenAceBattleRule;
+import extrafeatures.NormalBattleRule;
+import extrafeatures.ReverseBattleRule;
+import extrafeatures.SameBattleRule;
+import model.GameModel;
+import model.Grid;
+import player.HumanPlayer;
+import player.IPlayer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the Tablebase, TablebaseBuilder and TablebaseStrategy classes in strategy.
+ */
+public class TablebaseTest {
+
+  private static final String CONFIG_DIR = "src" + File.separator + "configuration"
+          + File.separator + "configFiles" + File.separator;
+
+  private IPlayer red;
+  private IPlayer blue;
+  private Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    red = new HumanPlayer("Red", new ArrayList<>());
+    blue = new HumanPlayer("Blue", new ArrayList<>());
+    file = Files.createTempFile("endgame", ".tb");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  private GameModel startGame(String board, BattleRuleStrategy rule) throws IOException {
+    Grid grid = ConfigurationReader.readGridConfig(CONFIG_DIR + board);
+    GameModel model = new GameModel(rule);
+    model.startGameWithConfig(grid,
+            ConfigurationReader.readCardData(CONFIG_DIR + "cardsForLevel2.config"),
+            false, red, blue);
+    return model;
+  }
+
+  private Tablebase build(GameModel model, int maxEmpty) {
+    return new TablebaseBuilder(ForkJoinPool.commonPool(), maxEmpty)
+            .build(SearchPosition.of(model, model.getCurrentPlayer()));
+  }
+
+  // Plays greedy moves until the board has the given number of empty cells
+  private void playDownTo(GameModel model, int empty) {
+    Strategy greedy = new FlipMaximizerStrategy();
+    while (model.getBoardView().countEmpty() > empty) {
+      IPlayer player = model.getCurrentPlayer();
+      Move move = greedy.selectMove(player, model);
+      model.playCard(player, move.getCard(), move.getRow(), move.getCol());
+    }
+  }
+
+  @Test
+  public void testSmallBoardIsSolvedFromTheStart() throws IOException {
+    GameModel model = startGame("board2x2.config", new NormalBattleRule());
+    Tablebase tablebase = build(model, 3);
+    SearchPosition position = SearchPosition.of(model, red);
+    assertEquals(3, tablebase.getMaxEmpty());
+    assertTrue(tablebase.covers(position));
+    assertEquals(new EndgameSolver().solve(position).getScore(), tablebase.probe(position));
+  }
+
+  @Test
+  public void testMarginsMatchTheEndgameSolver() throws IOException {
+    GameModel model = startGame("board1WithNoHoles.config", new NormalBattleRule());
+    playDownTo(model, 5);
+    Tablebase tablebase = build(model, 3);
+    // Play into the tablebase, checking every position on the way against the solver
+    while (!model.isGameOver()) {
+      IPlayer player = model.getCurrentPlayer();
+      SearchPosition position = SearchPosition.of(model, player);
+      if (position.emptyCount() <= 3) {
+        SearchResult solved = new EndgameSolver().solve(position);
+        SearchResult looked = tablebase.bestMove(position);
+        assertEquals(solved.getScore(), tablebase.probe(position));
+        assertEquals(solved.getScore(), looked.getScore());
+        assertEquals(solved.getCell(), looked.getCell());
+        assertEquals(Outcome.of(solved.getScore()),
+                Outcome.of(tablebase.scoreMove(position, looked.getHandIndex(),
+                        looked.getCell())));
+      } else {
+        assertFalse(tablebase.covers(position));
+        assertEquals(Tablebase.MISS, tablebase.probe(position));
+      }
+      Move move = new FlipMaximizerStrategy().selectMove(player, model);
+      model.playCard(player, move.getCard(), move.getRow(), move.getCol());
+    }
+  }
+
+  @Test
+  public void testWrittenTablebaseReadsBackTheSame() throws IOException {
+    GameModel model = startGame("board2x2.config", new NormalBattleRule());
+    Tablebase built = build(model, 3);
+    built.write(file);
+    Tablebase read = Tablebase.open(file);
+    assertEquals(built.size(), read.size());
+    assertEquals(built.getMaxEmpty(), read.getMaxEmpty());
+    SearchPosition position = SearchPosition.of(model, red);
+    assertEquals(built.probe(position), read.probe(position));
+    position.apply(0, 0);
+    assertEquals(built.probe(position), read.probe(position));
+    assertEquals(built.canonicalHash(position), position.getCanonicalHash());
+  }
+
+  @Test
+  public void testCorruptHeaderIsAnIoException() throws IOException {
+    build(startGame("board2x2.config", new NormalBattleRule()), 3).write(file);
+    byte[] bytes = Files.readAllBytes(file);
+    // The transform count follows the magic, version, rule, rows, columns, holes and empty cells
+    for (int transforms : new int[] {-1, Integer.MAX_VALUE, 9}) {
+      ByteBuffer.wrap(bytes).putInt(32, transforms);
+      Files.write(file, bytes);
+      assertThrows(IOException.class, () -> Tablebase.open(file));
+    }
+    ByteBuffer.wrap(bytes).putInt(12, -3);
+    Files.write(file, bytes);
+    assertThrows(IOException.class, () -> Tablebase.open(file));
+  }
+
+  @Test
+  public void testStrategyPlaysTheTablebaseMoveOrFallsBack() throws IOException {
+    GameModel model = startGame("board1WithNoHoles.config", new NormalBattleRule());
+    playDownTo(model, 5);
+    Strategy greedy = new FlipMaximizerStrategy();
+    TablebaseStrategy strategy = new TablebaseStrategy(greedy, build(model, 3));
+    assertSame(greedy, strategy.getStrategy());
+    assertNotNull(strategy.selectMove(model.getCurrentPlayer(), model));
+    assertNull(strategy.getLastSolution());
+
+    playDownTo(model, 3);
+    IPlayer player = model.getCurrentPlayer();
+    Move move = strategy.selectMove(player, model);
+    assertNotNull(strategy.getLastSolution());
+    SearchResult solved = new EndgameSolver().solve(SearchPosition.of(model, player));
+    assertEquals(solved.getScore(), strategy.getLastSolution().getScore());
+    assertEquals(solved.getCell(), move.getRow() * 3 + move.getCol());
+  }
+
+  @Test
+  public void testTablebaseOfAnotherRuleDoesNotCover() throws IOException {
+    Tablebase tablebase = build(startGame("board2x2.config", new NormalBattleRule()), 3);
+    GameModel model = startGame("board2x2.config", new SameBattleRule());
+    assertFalse(tablebase.covers(SearchPosition.of(model, red)));
+    assertEquals(Tablebase.MISS, tablebase.probe(SearchPosition.of(model, red)));
+  }
+
+  @Test
+  public void testTablebaseOfAnotherRuleMixDoesNotCover() throws IOException {
+    Tablebase tablebase = build(startGame("board2x2.config", new CombinedBattleRule(
+            List.of(new ReverseBattleRule(), new SameBattleRule()))), 3);
+    GameModel same = startGame("board2x2.config", new CombinedBattleRule(
+            List.of(new ReverseBattleRule(), new SameBattleRule())));
+    GameModel other = startGame("board2x2.config", new CombinedBattleRule(
+            List.of(new FallenAceBattleRule(), new SameBattleRule())));
+    assertTrue(tablebase.covers(SearchPosition.of(same, red)));
+    assertFalse(tablebase.covers(SearchPosition.of(other, red)));
+    assertEquals(Tablebase.MISS, tablebase.probe(SearchPosition.of(other, red)));
+  }
+
+  @Test
+  public void testOutcomeFollowsTheSignOfTheMargin() {
+    assertEquals(Outcome.WIN, Outcome.of(3));
+    assertEquals(Outcome.DRAW, Outcome.of(0));
+    assertEquals(Outcome.LOSS, Outcome.of(-1));
+  }
+
+  @Test
+  public void testInvalidArgumentsThrow() throws IOException {
+    Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+    assertThrows(IOException.class, () -> Tablebase.open(file));
+    assertThrows(IllegalArgumentException.class, () -> Tablebase.open(null));
+    assertThrows(IllegalArgumentException.class,
+        () -> new TablebaseBuilder(null, 3));
+    assertThrows(IllegalArgumentException.class,
+        () -> new TablebaseBuilder(ForkJoinPool.commonPool(), -1));
+    assertThrows(IllegalArgumentException.class,
+        () -> new TablebaseBuilder(ForkJoinPool.commonPool(), 3).build(null));
+    assertThrows(IllegalArgumentException.class,
+        () -> new TablebaseStrategy(new CornerStrategy(), null));
+  }
+}
@@ -0,0 +1,99 @@
+package strategy;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import extrafeatures.NormalBattleRule;
+import extrafeatures.SameBattleRule;
+import model.GameModel;
+import player.HumanPlayer;
+import player.IPlayer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Test class for the ThreatMap class.
+ */
+public class ThreatMapTest {
+
+  private IPlayer red;
+  private IPlayer blue;
+
+  @Before
+  public void setUp() {
+    red = new HumanPlayer("Red", new ArrayList<>());
+    blue = new HumanPlayer("Blue", new ArrayList<>());
+  }
+
+  private static void assertSameThreats(ThreatMap expected, ThreatMap actual,
+                                        SearchPosition position) {
+    assertEquals(expected.totalThreat(), actual.totalThreat());
+    int attacker = expected.getAttacker();
+    for (int cell = 0; cell < position.size(); cell++) {
+      for (int hand = 0; hand < position.handSize(attacker); hand++) {
+        assertEquals(expected.threatAt(cell, hand), actual.threatAt(cell, hand));
+      }
+    }
+  }
+
+  @Test
+  public void testUpdatesMatchAMapBuiltFromScratch() {
+    GameModel model = SearchGames.start(new NormalBattleRule(), 5, 5, red, blue);
+    model.playCard(red, model.getPlayerHand(red).get(0), 2, 2);
+    SearchPosition position = SearchPosition.of(model, blue);
+    ThreatMap threats = ThreatMap.of(position, 0);
+    int total = threats.totalThreat();
+    for (int cell = position.nextEmpty(0); cell >= 0; cell = position.nextEmpty(cell + 1)) {
+      for (int hand = 0; hand < position.handSize(1); hand++) {
+        position.apply(hand, cell);
+        threats.update();
+        assertSameThreats(ThreatMap.of(position, 0), threats, position);
+        threats.undo();
+        position.undo();
+        assertEquals(total, threats.totalThreat());
+      }
+    }
+  }
+
+  @Test
+  public void testUpdatesFollowBothPlayersUnderSame() {
+    GameModel model = SearchGames.start(new SameBattleRule(), 5, 5, red, blue);
+    AlphaBetaStrategy strategy = new AlphaBetaStrategy(1);
+    for (int i = 0; i < 8; i++) {
+      IPlayer player = model.getCurrentPlayer();
+      Move move = strategy.selectMove(player, model);
+      model.playCard(player, move.getCard(), move.getRow(), move.getCol());
+    }
+    SearchPosition position = SearchPosition.of(model, red);
+    ThreatMap threats = ThreatMap.of(position, 1);
+    int total = threats.totalThreat();
+    for (int ply = 0; ply < 6; ply++) {
+      int side = position.getToMove();
+      int hand = 0;
+      while (!position.isAvailable(side, hand)) {
+        hand++;
+      }
+      position.apply(hand, position.nextEmpty(0));
+      threats.update();
+      assertSameThreats(ThreatMap.of(position, 1), threats, position);
+    }
+    for (int ply = 0; ply < 6; ply++) {
+      threats.undo();
+      position.undo();
+    }
+    assertEquals(total, threats.totalThreat());
+  }
+
+  @Test
+  public void testInvalidArgumentsThrow() {
+    GameModel model = SearchGames.start(new NormalBattleRule(), 3, 3, red, blue);
+    SearchPosition position = SearchPosition.of(model, red);
+    assertThrows(IllegalArgumentException.class, () -> ThreatMap.of(null, 0));
+    assertThrows(IllegalArgumentException.class, () -> ThreatMap.of(position, 2));
+    assertThrows(IllegalStateException.class, () -> ThreatMap.of(position, 1).update());
+    assertThrows(IllegalStateException.class, () -> ThreatMap.of(position, 1).undo());
+  }
+}
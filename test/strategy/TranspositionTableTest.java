@@ -0,0 +1,101 @@
+package strategy;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * Test class for the TranspositionTable class in strategy.
+ */
+public class TranspositionTableTest {
+
+  private TranspositionTable table;
+
+  @Before
+  public void setUp() {
+    table = new TranspositionTable(16);
+  }
+
+  @Test
+  public void testCapacityIsRoundedUpToPowerOfTwo() {
+    assertEquals(16, table.capacity());
+    assertEquals(32, new TranspositionTable(17).capacity());
+    assertEquals(1, new TranspositionTable(1).capacity());
+    assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+  }
+
+  @Test
+  public void testStoreAndProbeRoundTrip() {
+    table.store(0x1234L, 7, -12, Bound.LOWER, 34, 0xABCD);
+    long entry = table.probe(0x1234L);
+    assertEquals(7, TranspositionTable.depthOf(entry));
+    assertEquals(-12, TranspositionTable.scoreOf(entry));
+    assertEquals(Bound.LOWER, TranspositionTable.boundOf(entry));
+    assertEquals(34, TranspositionTable.cellOf(entry));
+    assertEquals(0xABCD, TranspositionTable.valuesOf(entry));
+  }
+
+  @Test
+  public void testUnknownPositionMisses() {
+    table.store(0x1234L, 3, 1, Bound.EXACT, -1, 0);
+    assertEquals(TranspositionTable.MISS, table.probe(0x5678L));
+    // Same slot, different key
+    assertEquals(TranspositionTable.MISS, table.probe(0x1234L + 16));
+    assertEquals(-1, TranspositionTable.cellOf(table.probe(0x1234L)));
+  }
+
+  @Test
+  public void testDeeperEntryIsKept() {
+    long deep = 5L;
+    long shallow = 5L + 16;
+    table.store(deep, 6, 2, Bound.EXACT, 0, 0);
+    table.store(shallow, 2, 4, Bound.EXACT, 0, 0);
+    assertEquals(6, TranspositionTable.depthOf(table.probe(deep)));
+    assertEquals(TranspositionTable.MISS, table.probe(shallow));
+
+    // The same position is always replaced, and a new search lets old entries go
+    table.store(deep, 1, 3, Bound.UPPER, 0, 0);
+    assertEquals(Bound.UPPER, TranspositionTable.boundOf(table.probe(deep)));
+    table.store(deep, 6, 2, Bound.EXACT, 0, 0);
+    table.newSearch();
+    table.store(shallow, 2, 4, Bound.EXACT, 0, 0);
+    assertEquals(4, TranspositionTable.scoreOf(table.probe(shallow)));
+    assertEquals(TranspositionTable.MISS, table.probe(deep));
+  }
+
+  @Test
+  public void testClearRemovesEntries() {
+    table.store(9L, 1, 1, Bound.EXACT, 0, 0);
+    table.clear();
+    assertEquals(TranspositionTable.MISS, table.probe(9L));
+  }
+
+  @Test
+  public void testConcurrentWritersNeverProduceWrongHits() throws InterruptedException {
+    TranspositionTable shared = new TranspositionTable(1);
+    Thread[] writers = new Thread[4];
+    for (int t = 0; t < writers.length; t++) {
+      final int writer = t;
+      writers[t] = new Thread(() -> {
+        for (int i = 0; i < 100_000; i++) {
+          shared.store(writer + 1, writer, writer, Bound.EXACT, writer, writer);
+        }
+      });
+      writers[t].start();
+    }
+    for (int i = 0; i < 100_000; i++) {
+      for (int key = 1; key <= writers.length; key++) {
+        long entry = shared.probe(key);
+        if (entry != TranspositionTable.MISS) {
+          assertEquals(key - 1, TranspositionTable.scoreOf(entry));
+          assertEquals(key - 1, TranspositionTable.cellOf(entry));
+        }
+      }
+    }
+    for (Thread writer : writers) {
+      writer.join();
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package trace;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the Trace class and its sinks.
+ */
+public class TraceTest {
+
+  private TraceLevel originalLevel;
+  private TraceSink originalSink;
+  private List<String> recorded;
+
+  @Before
+  public void setUp() {
+    originalLevel = Trace.getLevel();
+    originalSink = Trace.getSink();
+    recorded = new ArrayList<>();
+    Trace.setSink((level, source, message) -> {
+      synchronized (recorded) {
+        recorded.add(PrintStreamSink.format(level, source, message));
+      }
+    });
+  }
+
+  @After
+  public void tearDown() {
+    Trace.setLevel(originalLevel);
+    Trace.setSink(originalSink);
+  }
+
+  @Test
+  public void testMessagesAboveThresholdAreDropped() {
+    Trace.setLevel(TraceLevel.INFO);
+    assertTrue(Trace.isEnabled(TraceLevel.WARN));
+    assertTrue(Trace.isEnabled(TraceLevel.INFO));
+    assertFalse(Trace.isEnabled(TraceLevel.TRACE));
+    Trace.log(TraceLevel.INFO, "Test", "kept");
+    Trace.log(TraceLevel.TRACE, "Test", "dropped");
+    assertEquals(List.of("[INFO] Test: kept"), recorded);
+  }
+
+  @Test
+  public void testOffRecordsNothing() {
+    Trace.setLevel(TraceLevel.OFF);
+    Trace.log(TraceLevel.WARN, "Test", "dropped");
+    Trace.log(TraceLevel.OFF, "Test", "dropped");
+    assertTrue(recorded.isEmpty());
+  }
+
+  @Test
+  public void testAsyncSinkPassesOnEveryMessageInOrder() {
+    Trace.setLevel(TraceLevel.TRACE);
+    try (AsyncRingSink async = new AsyncRingSink(Trace.getSink(), 4096)) {
+      Trace.setSink(async);
+      for (int i = 0; i < 1000; i++) {
+        Trace.log(TraceLevel.DEBUG, "Test", String.valueOf(i));
+      }
+    }
+    assertEquals(1000, recorded.size());
+    assertEquals("[DEBUG] Test: 0", recorded.get(0));
+    assertEquals("[DEBUG] Test: 999", recorded.get(999));
+  }
+
+  @Test
+  public void testAsyncSinkDropsWhenFull() throws InterruptedException {
+    Object gate = new Object();
+    List<String> slow = new ArrayList<>();
+    TraceSink blocked = (level, source, message) -> {
+      synchronized (gate) {
+        slow.add(message);
+      }
+    };
+    AsyncRingSink async = new AsyncRingSink(blocked, 2);
+    synchronized (gate) {
+      for (int i = 0; i < 100; i++) {
+        async.record(TraceLevel.INFO, "Test", String.valueOf(i));
+      }
+      assertTrue(async.getDroppedCount() > 0);
+    }
+    async.close();
+    assertEquals(100, slow.size() + async.getDroppedCount());
+  }
+
+  @Test
+  public void testAsyncSinkWritesStraightThroughOnceClosed() {
+    AsyncRingSink async = new AsyncRingSink(Trace.getSink(), 4);
+    async.record(TraceLevel.INFO, "Test", "queued");
+    async.close();
+    async.record(TraceLevel.INFO, "Test", "after");
+    async.close();
+    assertEquals(List.of("[INFO] Test: queued", "[INFO] Test: after"), recorded);
+    assertEquals(0, async.getDroppedCount());
+  }
+
+  @Test
+  public void testNullArgumentsThrow() {
+    assertThrows(IllegalArgumentException.class, () -> Trace.setLevel(null));
+    assertThrows(IllegalArgumentException.class, () -> Trace.setSink(null));
+    assertThrows(IllegalArgumentException.class, () -> new AsyncRingSink(null, 4));
+    assertThrows(IllegalArgumentException.class, () -> new PrintStreamSink(null));
+  }
+}
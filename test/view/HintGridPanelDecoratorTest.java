@@ -0,0 +1,90 @@
+package view;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+
+import configuration.ConfigurationReader;
+import extrafeatures.NormalBattleRule;
+import model.GameModel;
+import model.Grid;
+import model.ICard;
+import player.HumanPlayer;
+import player.IPlayer;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for the HintGridPanelDecorator class in view.
+ */
+public class HintGridPanelDecoratorTest {
+
+  private static final String CONFIG_DIR = "src" + File.separator + "configuration"
+          + File.separator + "configFiles" + File.separator;
+
+  private GameModel model;
+  private IPlayer red;
+  private IPlayer blue;
+
+  @Before
+  public void setUp() throws IOException {
+    red = new HumanPlayer("Red", new ArrayList<>());
+    blue = new HumanPlayer("Blue", new ArrayList<>());
+    Grid grid = ConfigurationReader.readGridConfig(CONFIG_DIR + "board2WithReachableCells.config");
+    model = new GameModel(new NormalBattleRule());
+    model.startGameWithConfig(grid,
+            ConfigurationReader.readCardData(CONFIG_DIR + "cardsEnoughForAllBoards.config"),
+            false, red, blue);
+  }
+
+  private JPanel decorated(HintGridPanelDecorator decorator, int row, int col) {
+    JPanel panel = new JPanel();
+    decorator.decorate(panel, row, col);
+    return panel;
+  }
+
+  @Test
+  public void testEmptyCellsShowTheFlipCount() {
+    model.playCard(red, model.getPlayerHand(red).get(0), 0, 0);
+    ICard selected = model.getPlayerHand(blue).get(0);
+    HintGridPanelDecorator decorator = new HintGridPanelDecorator(model, blue, selected);
+    JPanel panel = decorated(decorator, 0, 1);
+    assertEquals(1, panel.getComponentCount());
+    assertEquals(String.valueOf(model.getNumCardsAbleToFlip(blue, selected, 0, 1)),
+            ((JLabel) panel.getComponent(0)).getText());
+  }
+
+  @Test
+  public void testOccupiedCellsAndHolesShowNoHint() {
+    model.playCard(red, model.getPlayerHand(red).get(0), 0, 0);
+    HintGridPanelDecorator decorator =
+            new HintGridPanelDecorator(model, blue, model.getPlayerHand(blue).get(0));
+    assertEquals(0, decorated(decorator, 0, 0).getComponentCount());
+    assertEquals(0, decorated(decorator, 1, 1).getComponentCount());
+  }
+
+  @Test
+  public void testHintsFollowTheBoardAfterAMove() {
+    ICard selected = model.getPlayerHand(red).get(1);
+    HintGridPanelDecorator decorator = new HintGridPanelDecorator(model, red, selected);
+    assertEquals(1, decorated(decorator, 0, 1).getComponentCount());
+    model.playCard(red, model.getPlayerHand(red).get(0), 0, 0);
+    model.playCard(blue, model.getPlayerHand(blue).get(0), 0, 1);
+    assertEquals(0, decorated(decorator, 0, 1).getComponentCount());
+    JPanel panel = decorated(decorator, 0, 2);
+    assertEquals(String.valueOf(model.getNumCardsAbleToFlip(red, selected, 0, 2)),
+            ((JLabel) panel.getComponent(0)).getText());
+  }
+
+  @Test
+  public void testNoSelectedCardShowsNoHint() {
+    HintGridPanelDecorator decorator = new HintGridPanelDecorator(model, red, null);
+    assertEquals(0, decorated(decorator, 0, 1).getComponentCount());
+  }
+}